@@ -8,10 +8,13 @@ import android.net.Uri;
 import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import androidx.media3.common.C;
+import androidx.media3.common.Format;
+import androidx.media3.common.audio.AudioProcessor;
+import androidx.media3.common.audio.SonicAudioProcessor;
 import androidx.media3.exoplayer.DefaultLivePlaybackSpeedControl;
 import androidx.media3.exoplayer.DefaultLoadControl;
-import androidx.media3.exoplayer.DefaultRenderersFactory;
 import androidx.media3.exoplayer.ExoPlaybackException;
 import androidx.media3.exoplayer.LivePlaybackSpeedControl;
 import androidx.media3.exoplayer.LoadControl;
@@ -29,12 +32,17 @@ import androidx.media3.common.AudioAttributes;
 import androidx.media3.exoplayer.NoSampleRenderer;
 import androidx.media3.exoplayer.Renderer;
 import androidx.media3.exoplayer.RenderersFactory;
+import androidx.media3.exoplayer.SeekParameters;
+import androidx.media3.exoplayer.analytics.AnalyticsListener;
 import androidx.media3.extractor.DefaultExtractorsFactory;
+import androidx.media3.extractor.ExtractorsFactory;
 import androidx.media3.common.Metadata;
 import androidx.media3.exoplayer.metadata.MetadataOutput;
 import androidx.media3.extractor.metadata.icy.IcyHeaders;
 import androidx.media3.extractor.metadata.icy.IcyInfo;
 import androidx.media3.exoplayer.source.ClippingMediaSource; // Deprecated
+import androidx.media3.exoplayer.source.LoadEventInfo;
+import androidx.media3.exoplayer.source.MediaLoadData;
 // For some reason, this import triggers the [deprecation] warning, despite the
 // warnings being suppressed at each use.
 // import androidx.media3.exoplayer.source.ConcatenatingMediaSource; // Deprecated
@@ -49,7 +57,8 @@ import androidx.media3.exoplayer.hls.HlsMediaSource; // Deprecated
 import androidx.media3.exoplayer.trackselection.TrackSelectionArray;
 import androidx.media3.datasource.DataSource;
 import androidx.media3.datasource.DefaultDataSource;
-import androidx.media3.datasource.DefaultHttpDataSource;
+import androidx.media3.datasource.HttpDataSource;
+import androidx.media3.datasource.cache.CacheDataSource;
 import androidx.media3.common.MimeTypes;
 import androidx.media3.common.util.Util;
 import io.flutter.Log;
@@ -61,55 +70,195 @@ import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
 import io.flutter.plugin.common.MethodChannel.Result;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class AudioPlayer implements MethodCallHandler, Player.Listener, MetadataOutput {
     public static final int ERROR_ABORT = 10000000;
+    private static final int DEFAULT_PREFETCH_COUNT = 1;
+    private static final long DEFAULT_PREFETCH_BYTES = 512 * 1024;
+    private static final int DEFAULT_PREFETCH_BITRATE = 320000;
+    private static final long DEFAULT_BUFFER_WATCHER_FALLBACK_INTERVAL_MS = 500;
+    private static final int DEFAULT_INCREMENTAL_LOAD_BATCH_SIZE = 200;
+    private static final int MAX_INTERNED_FACTORIES = 64;
+    private static final long DEFAULT_SEEK_INDEX_INTERVAL_US = 1000000;
+    private static final int DEFAULT_ASYNC_LOAD_PARALLELISM = 2;
+    private static final long DEFAULT_PRELOAD_LOOKAHEAD_MS = 10000;
+    private static final int DEFAULT_MAX_DETACHED_MEDIA_SOURCES = 32;
 
     static final String TAG = "AudioPlayer";
 
     private static Random random = new Random();
+    // Shared by all players for async loads.
+    private static final ExecutorService DECODE_EXECUTOR = Executors.newFixedThreadPool(
+        Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())));
 
     private final Context context;
     private final MethodChannel methodChannel;
+    private final StreamSourceBridge streamSourceBridge;
     private final BetterEventChannel eventChannel;
+    private final PlaybackEventPipeline playbackEventPipeline;
     private final BetterEventChannel dataEventChannel;
+    private PlaybackMetrics playbackMetrics;
+    private AudioVisualizer audioVisualizer;
+    private LoadTrace.Factory loadTraceFactory;
+    private VisualizerTapProcessor visualizerTapProcessor;
 
     private ProcessingState processingState;
     private long updatePosition;
     private long updateTime;
     private long bufferedPosition;
     private Long seekPos;
+    private long seekStartTime;
+    private SeekParameters seekParameters = SeekParameters.DEFAULT;
     private Result prepareResult;
+    private LoadTrace prepareTrace;
     private Result playResult;
     private Result seekResult;
-    private Map<String, MediaSource> mediaSources = new HashMap<String, MediaSource>();
+    // The maps touched while decoding audio sources are synchronized since
+    // an async load decodes them on background threads.
+    private final Map<String, MediaSource> mediaSources = Collections.synchronizedMap(new HashMap<String, MediaSource>());
+    // Mirrors the shape of the playlist tree by id so that sources which are
+    // no longer reachable from it can be dropped from mediaSources.
+    private final List<String> rootChildIds = new ArrayList<String>();
+    private final Map<String, List<String>> childIds = Collections.synchronizedMap(new HashMap<String, List<String>>());
+    // Unreachable sources kept for reuse, least recently detached first.
+    private final Map<String, Boolean> detachedIds = Collections.synchronizedMap(new LinkedHashMap<String, Boolean>());
+    private int maxDetachedMediaSources = DEFAULT_MAX_DETACHED_MEDIA_SOURCES;
     private IcyInfo icyInfo;
     private IcyHeaders icyHeaders;
+    private Map<String, Object> icyMetadata;
     private AudioAttributes pendingAudioAttributes;
+    private Map<?, ?> loadControlMap;
     private LoadControl loadControl;
     private boolean offloadSchedulingEnabled;
     private boolean useLazyPreparation;
     private LivePlaybackSpeedControl livePlaybackSpeedControl;
+    private MediaCache mediaCache;
+    private HttpStack httpStack = new HttpStack(null);
+    private Map<?, ?> mappedFilesOptions;
+    private ClipCache clipCache;
+    private SeekIndexStore seekIndexStore;
+    private long seekIndexIntervalUs = DEFAULT_SEEK_INDEX_INTERVAL_US;
+    private long bufferGranularityMs = 0;
+    private long bufferWatcherFallbackIntervalMs = DEFAULT_BUFFER_WATCHER_FALLBACK_INTERVAL_MS;
+    private final Prefetcher prefetcher = new Prefetcher();
+    // The data source factory of each progressive, dash and hls source by id.
+    private final Map<String, DataSource.Factory> sourceDataSourceFactories = Collections.synchronizedMap(new HashMap<String, DataSource.Factory>());
+    // The media source factory of each of those sources by id, so that the
+    // crossfader's tail player can build an identical media source.
+    private final Map<String, MediaSource.Factory> sourceMediaSourceFactories = Collections.synchronizedMap(new HashMap<String, MediaSource.Factory>());
+    // The {start, end} in microseconds of each clipped source by the id of
+    // its child, so that the tail player can clip it the same way.
+    private final Map<String, long[]> clippingBounds = Collections.synchronizedMap(new HashMap<String, long[]>());
+    // Factories are interned by the options they were built from, so that
+    // the children of a large playlist share a handful of instances.
+    private final Map<Object, DataSource.Factory> dataSourceFactories = Collections.synchronizedMap(AudioPlayer.<Object, DataSource.Factory>newLruMap(MAX_INTERNED_FACTORIES));
+    private final Map<Object, ExtractorsFactory> extractorsFactories = Collections.synchronizedMap(AudioPlayer.<Object, ExtractorsFactory>newLruMap(MAX_INTERNED_FACTORIES));
+    private final Map<Object, MediaSource.Factory> mediaSourceFactories = Collections.synchronizedMap(AudioPlayer.<Object, MediaSource.Factory>newLruMap(MAX_INTERNED_FACTORIES));
+    private volatile String defaultUserAgent;
+    private int asyncLoadParallelism = 0;
+    private boolean preloadEnabled;
+    private long preloadLookaheadMs = DEFAULT_PRELOAD_LOOKAHEAD_MS;
+    private int outputSampleRate = 0;
+    // The item whose successor has been preloaded.
+    private int preloadedIndex = C.INDEX_UNSET;
+    private Crossfader crossfader;
+    private SoftwareEffectsProcessor tailEffectsProcessor;
+    // Set while the crossfader moves the main player to the next item, so
+    // that the resulting seek is reported as an automatic transition.
+    private boolean crossfadeTransition;
+    private final Runnable crossfadeStarter = new Runnable() {
+        @Override
+        public void run() {
+            maybeStartCrossfade();
+        }
+    };
+    private final Runnable preloader = new Runnable() {
+        @Override
+        public void run() {
+            maybePreloadNextItem();
+        }
+    };
+    // The load whose audio sources are being decoded in the background, and
+    // the method calls that arrived meanwhile.
+    private MethodCall decodingCall;
+    private MethodCall decodedCall;
+    private int decodeGeneration = 0;
+    private final ArrayDeque<DeferredCall> deferredCalls = new ArrayDeque<DeferredCall>();
     private List<Object> rawAudioEffects;
     private List<AudioEffect> audioEffects = new ArrayList<AudioEffect>();
     private Map<String, AudioEffect> audioEffectsMap = new HashMap<String, AudioEffect>();
+    private final Map<String, SoftwareAudioEffect> softwareAudioEffectsMap = new HashMap<String, SoftwareAudioEffect>();
+    private SoftwareEffectsProcessor softwareEffectsProcessor;
+    private LoudnessNormalizer loudnessNormalizer;
+    private final Runnable loudnessMeasured = new Runnable() {
+        @Override
+        public void run() {
+            if (player != null) {
+                updateLoudnessNormalization(player.getCurrentTracks());
+            }
+        }
+    };
     private int lastPlaylistLength = 0;
+    private int incrementalLoadWindowSize = 0;
+    private int incrementalLoadBatchSize = DEFAULT_INCREMENTAL_LOAD_BATCH_SIZE;
+    // The top-level children of an incremental load that have not yet been
+    // added to the player: [0, pendingPrefixEnd) and [pendingSuffixStart, size).
+    private List<?> pendingChildren;
+    private int pendingPrefixEnd;
+    private int pendingSuffixStart;
+    private ShuffleOrder pendingShuffleOrder;
+    private final Runnable incrementalLoader = new Runnable() {
+        @Override
+        public void run() {
+            if (pendingChildren == null || player == null) return;
+            if (pendingSuffixStart < pendingChildren.size()) {
+                int end = Math.min(pendingChildren.size(), pendingSuffixStart + incrementalLoadBatchSize);
+                player.addMediaSources(getAudioSources(pendingChildren.subList(pendingSuffixStart, end)));
+                pendingSuffixStart = end;
+            } else if (pendingPrefixEnd > 0) {
+                int start = Math.max(0, pendingPrefixEnd - incrementalLoadBatchSize);
+                player.addMediaSources(0, getAudioSources(pendingChildren.subList(start, pendingPrefixEnd)));
+                pendingPrefixEnd = start;
+            }
+            if (pendingSuffixStart < pendingChildren.size() || pendingPrefixEnd > 0) {
+                handler.post(this);
+            } else {
+                completeIncrementalLoad();
+            }
+        }
+    };
     private Map<String, Object> pendingPlaybackEvent;
 
     private ExoPlayer player;
+    private ObserverRenderer observerRenderer;
+    private Object playerPoolKey;
     private Integer audioSessionId;
     private Integer errorCode;
     private String errorMessage;
     private Integer currentIndex;
-    private final Handler handler = new Handler(Looper.getMainLooper());
+    // Runs on the main looper unless the player opted into its own playback
+    // thread, in which case playbackLooper is that thread's looper.
+    private final Looper playbackLooper;
+    private final Handler handler;
+    // Buffered position updates are mainly driven by ExoPlayer's load
+    // events. This fallback poll only runs while ExoPlayer is loading, since
+    // the buffered position cannot otherwise advance.
     private final Runnable bufferWatcher = new Runnable() {
         @Override
         public void run() {
@@ -117,25 +266,21 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
                 return;
             }
 
-            long newBufferedPosition = player.getBufferedPosition();
-            if (newBufferedPosition != bufferedPosition) {
-                // This method updates bufferedPosition.
-                broadcastImmediatePlaybackEvent();
-            }
-            switch (player.getPlaybackState()) {
-            case Player.STATE_BUFFERING:
-                handler.postDelayed(this, 200);
-                break;
-            case Player.STATE_READY:
-                if (player.getPlayWhenReady()) {
-                    handler.postDelayed(this, 500);
+            checkBufferedPosition();
+            if (player.isLoading()) {
+                if (player.getPlaybackState() == Player.STATE_BUFFERING) {
+                    handler.postDelayed(this, 200);
                 } else {
-                    handler.postDelayed(this, 1000);
+                    handler.postDelayed(this, bufferWatcherFallbackIntervalMs);
                 }
-                break;
-            default:
-                // Stop watching buffer
             }
+            // Otherwise stop watching buffer until loading resumes.
+        }
+    };
+    private final AnalyticsListener loadEventListener = new AnalyticsListener() {
+        @Override
+        public void onLoadCompleted(AnalyticsListener.EventTime eventTime, LoadEventInfo loadEventInfo, MediaLoadData mediaLoadData) {
+            checkBufferedPosition();
         }
     };
 
@@ -150,29 +295,29 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
     ) {
         this.context = applicationContext;
         this.rawAudioEffects = rawAudioEffects;
+        for (Object rawAudioEffect : rawAudioEffects) {
+            SoftwareAudioEffect softwareAudioEffect = SoftwareAudioEffect.decode((Map<?, ?>)rawAudioEffect);
+            if (softwareAudioEffect != null) {
+                softwareAudioEffectsMap.put((String)((Map<?, ?>)rawAudioEffect).get("type"), softwareAudioEffect);
+            }
+        }
         this.offloadSchedulingEnabled = offloadSchedulingEnabled != null ? offloadSchedulingEnabled : false;
         this.useLazyPreparation = useLazyPreparation;
+        playbackLooper = PlaybackThreads.acquire(
+            audioLoadConfiguration != null ? (String)audioLoadConfiguration.get("androidPlaybackThread") : null, id);
+        handler = new Handler(playbackLooper != null ? playbackLooper : Looper.getMainLooper());
         methodChannel = new MethodChannel(messenger, "com.ryanheise.just_audio.methods." + id);
         methodChannel.setMethodCallHandler(this);
+        streamSourceBridge = new StreamSourceBridge(methodChannel);
         eventChannel = new BetterEventChannel(messenger, "com.ryanheise.just_audio.events." + id);
         dataEventChannel = new BetterEventChannel(messenger, "com.ryanheise.just_audio.data." + id);
         processingState = ProcessingState.idle;
+        playbackEventPipeline = new PlaybackEventPipeline(eventChannel, handler,
+            audioLoadConfiguration != null ? (Map<?, ?>)audioLoadConfiguration.get("androidPlaybackEventPipeline") : null);
         if (audioLoadConfiguration != null) {
-            Map<?, ?> loadControlMap = (Map<?, ?>)audioLoadConfiguration.get("androidLoadControl");
+            loadControlMap = (Map<?, ?>)audioLoadConfiguration.get("androidLoadControl");
             if (loadControlMap != null) {
-                DefaultLoadControl.Builder builder = new DefaultLoadControl.Builder()
-                    .setBufferDurationsMs(
-                        (int)((getLong(loadControlMap.get("minBufferDuration")))/1000),
-                        (int)((getLong(loadControlMap.get("maxBufferDuration")))/1000),
-                        (int)((getLong(loadControlMap.get("bufferForPlaybackDuration")))/1000),
-                        (int)((getLong(loadControlMap.get("bufferForPlaybackAfterRebufferDuration")))/1000)
-                    )
-                    .setPrioritizeTimeOverSizeThresholds((Boolean)loadControlMap.get("prioritizeTimeOverSizeThresholds"))
-                    .setBackBuffer((int)((getLong(loadControlMap.get("backBufferDuration")))/1000), false);
-                if (loadControlMap.get("targetBufferBytes") != null) {
-                    builder.setTargetBufferBytes((Integer)loadControlMap.get("targetBufferBytes"));
-                }
-                loadControl = builder.build();
+                loadControl = buildLoadControl(loadControlMap, 0);
             }
             Map<?, ?> livePlaybackSpeedControlMap = (Map<?, ?>)audioLoadConfiguration.get("androidLivePlaybackSpeedControl");
             if (livePlaybackSpeedControlMap != null) {
@@ -186,7 +331,241 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
                     .setMinPossibleLiveOffsetSmoothingFactor((float)((double)((Double)livePlaybackSpeedControlMap.get("minPossibleLiveOffsetSmoothingFactor"))));
                 livePlaybackSpeedControl = builder.build();
             }
+            Map<?, ?> bufferWatcherMap = (Map<?, ?>)audioLoadConfiguration.get("androidBufferWatcher");
+            if (bufferWatcherMap != null) {
+                if (bufferWatcherMap.get("granularity") != null) {
+                    bufferGranularityMs = getLong(bufferWatcherMap.get("granularity")) / 1000;
+                }
+                if (bufferWatcherMap.get("fallbackInterval") != null) {
+                    bufferWatcherFallbackIntervalMs = getLong(bufferWatcherMap.get("fallbackInterval")) / 1000;
+                }
+            }
+            Map<?, ?> incrementalLoadMap = (Map<?, ?>)audioLoadConfiguration.get("androidIncrementalLoad");
+            if (incrementalLoadMap != null) {
+                incrementalLoadWindowSize = (Integer)incrementalLoadMap.get("windowSize");
+                if (incrementalLoadMap.get("batchSize") != null) {
+                    incrementalLoadBatchSize = (Integer)incrementalLoadMap.get("batchSize");
+                }
+            }
+            Map<?, ?> preloadMap = (Map<?, ?>)audioLoadConfiguration.get("androidPreload");
+            if (preloadMap != null) {
+                preloadEnabled = true;
+                if (preloadMap.get("lookahead") != null) {
+                    preloadLookaheadMs = getLong(preloadMap.get("lookahead")) / 1000;
+                }
+                if (preloadMap.get("outputSampleRate") != null) {
+                    outputSampleRate = (Integer)preloadMap.get("outputSampleRate");
+                }
+                loadControl = buildLoadControl(loadControlMap, preloadLookaheadMs);
+            }
+            Map<?, ?> crossfadeMap = (Map<?, ?>)audioLoadConfiguration.get("androidCrossfade");
+            if (crossfadeMap != null) {
+                crossfader = new Crossfader(handler, crossfadeMap, this::buildTailPlayer);
+            }
+            Map<?, ?> mediaSourceCacheMap = (Map<?, ?>)audioLoadConfiguration.get("androidMediaSourceCache");
+            if (mediaSourceCacheMap != null && mediaSourceCacheMap.get("maxDetachedSize") != null) {
+                maxDetachedMediaSources = (Integer)mediaSourceCacheMap.get("maxDetachedSize");
+            }
+            Map<?, ?> loudnessNormalizationMap = (Map<?, ?>)audioLoadConfiguration.get("androidLoudnessNormalization");
+            if (loudnessNormalizationMap != null) {
+                loudnessNormalizer = new LoudnessNormalizer(applicationContext, handler, loudnessNormalizationMap);
+            }
+            Map<?, ?> playerPoolMap = (Map<?, ?>)audioLoadConfiguration.get("androidPlayerPool");
+            if (playerPoolMap != null && playbackLooper == null) {
+                // Players can only be shared between identical configurations.
+                playerPoolKey = Arrays.asList(
+                    audioLoadConfiguration.get("androidLoadControl"),
+                    audioLoadConfiguration.get("androidLivePlaybackSpeedControl"),
+                    audioLoadConfiguration.get("androidPreload"),
+                    !softwareAudioEffectsMap.isEmpty() || loudnessNormalizer != null || crossfader != null,
+                    audioLoadConfiguration.get("androidVisualizer") != null,
+                    this.offloadSchedulingEnabled,
+                    this.useLazyPreparation);
+            }
+            mediaCache = MediaCache.fromConfiguration(applicationContext, (Map<?, ?>)audioLoadConfiguration.get("androidCache"));
+            httpStack = new HttpStack((Map<?, ?>)audioLoadConfiguration.get("androidHttp"));
+            mappedFilesOptions = (Map<?, ?>)audioLoadConfiguration.get("androidMappedFiles");
+            clipCache = ClipCache.fromConfiguration((Map<?, ?>)audioLoadConfiguration.get("androidClipCache"));
+            if (audioLoadConfiguration.get("androidSeekParameters") != null) {
+                seekParameters = decodeSeekParameters((Map<?, ?>)audioLoadConfiguration.get("androidSeekParameters"));
+            }
+            Map<?, ?> asyncLoadMap = (Map<?, ?>)audioLoadConfiguration.get("androidAsyncLoad");
+            if (asyncLoadMap != null) {
+                asyncLoadParallelism = asyncLoadMap.get("parallelism") != null
+                    ? Math.max(1, (Integer)asyncLoadMap.get("parallelism"))
+                    : DEFAULT_ASYNC_LOAD_PARALLELISM;
+            }
+            Map<?, ?> seekIndexMap = (Map<?, ?>)audioLoadConfiguration.get("androidSeekIndex");
+            if (seekIndexMap != null) {
+                seekIndexStore = SeekIndexStore.getInstance(applicationContext);
+                if (seekIndexMap.get("interval") != null) {
+                    seekIndexIntervalUs = getLong(seekIndexMap.get("interval"));
+                }
+            }
+            Map<?, ?> metricsMap = (Map<?, ?>)audioLoadConfiguration.get("androidMetrics");
+            if (metricsMap != null) {
+                playbackMetrics = new PlaybackMetrics(dataEventChannel, handler, metricsMap);
+            }
+            Map<?, ?> loadTraceMap = (Map<?, ?>)audioLoadConfiguration.get("androidLoadTrace");
+            if (loadTraceMap != null) {
+                loadTraceFactory = new LoadTrace.Factory(loadTraceMap);
+            }
+            Map<?, ?> visualizerMap = (Map<?, ?>)audioLoadConfiguration.get("androidVisualizer");
+            if (visualizerMap != null) {
+                audioVisualizer = new AudioVisualizer(dataEventChannel, visualizerMap);
+            }
+        }
+    }
+
+    // Schedules the next item to be preloaded once the current item is within
+    // preloadLookaheadMs of its end.
+    private void schedulePreload() {
+        if (!preloadEnabled || player == null) return;
+        handler.removeCallbacks(preloader);
+        long duration = player.getDuration();
+        if (duration == C.TIME_UNSET) return;
+        long remaining = duration - player.getCurrentPosition();
+        float speed = player.getPlaybackParameters().speed;
+        handler.postDelayed(preloader, Math.max(0, (long)((remaining - preloadLookaheadMs) / speed)));
+    }
+
+    // Warms up the item that will play after the current one, taking the
+    // shuffle order and loop mode into account. The load control keeps at
+    // least preloadLookaheadMs buffered, so ExoPlayer is already preparing
+    // and buffering the next item by now. With a disk cache, this also
+    // prefetches the head of the next item so that a later replay or skip
+    // back to it starts from disk.
+    private void maybePreloadNextItem() {
+        if (player == null) return;
+        int index = player.getCurrentMediaItemIndex();
+        if (index == preloadedIndex) return;
+        long duration = player.getDuration();
+        if (duration == C.TIME_UNSET || duration - player.getCurrentPosition() > preloadLookaheadMs) {
+            schedulePreload();
+            return;
+        }
+        preloadedIndex = index;
+        if (mediaCache != null) {
+            prefetch(DEFAULT_PREFETCH_COUNT, DEFAULT_PREFETCH_BYTES);
+        }
+    }
+
+    // Schedules a crossfade into the next item crossfader.getDurationMs()
+    // before the end of the current item.
+    private void scheduleCrossfade() {
+        if (crossfader == null || player == null) return;
+        handler.removeCallbacks(crossfadeStarter);
+        long duration = player.getDuration();
+        if (duration == C.TIME_UNSET || !player.isPlaying()) return;
+        long remaining = duration - player.getCurrentPosition();
+        float speed = player.getPlaybackParameters().speed;
+        handler.postDelayed(crossfadeStarter, Math.max(0, (long)((remaining - crossfader.getDurationMs()) / speed)));
+    }
+
+    // Hands the rest of the current item to the crossfader's tail player and
+    // moves the main player on to the next item.
+    private void maybeStartCrossfade() {
+        if (player == null || !player.isPlaying() || crossfader.isActive()) return;
+        // Looping a single item is left to ExoPlayer.
+        if (player.getRepeatMode() == Player.REPEAT_MODE_ONE) return;
+        int nextIndex = player.getNextMediaItemIndex();
+        long duration = player.getDuration();
+        long position = player.getCurrentPosition();
+        if (nextIndex == C.INDEX_UNSET || duration == C.TIME_UNSET) return;
+        long remaining = duration - position;
+        if (remaining > crossfader.getDurationMs() + 50) {
+            scheduleCrossfade();
+            return;
+        }
+        // Too close to the end to be worth fading.
+        if (remaining < crossfader.getDurationMs() / 2) return;
+        Timeline.Window window = player.getCurrentTimeline().getWindow(player.getCurrentMediaItemIndex(), new Timeline.Window());
+        MediaItem.LocalConfiguration localConfiguration = window.mediaItem.localConfiguration;
+        if (localConfiguration == null || !(localConfiguration.tag instanceof String)) return;
+        String id = (String)localConfiguration.tag;
+        MediaSource.Factory mediaSourceFactory = sourceMediaSourceFactories.get(id);
+        if (mediaSourceFactory == null) return;
+        MediaSource tailSource = mediaSourceFactory.createMediaSource(window.mediaItem);
+        long[] clip = clippingBounds.get(id);
+        if (clip != null) {
+            // Clip the tail like the original so that it stops at the clip's
+            // end, and so that positions are relative to the clip's start.
+            tailSource = new ClippingMediaSource(tailSource, clip[0], clip[1]);
+        }
+        long tailPosition = clip != null ? position : window.positionInFirstPeriodUs / 1000 + position;
+        if (tailEffectsProcessor != null) {
+            tailEffectsProcessor.setEffects(copySoftwareAudioEffects());
+        }
+        crossfader.start(player, tailSource, tailPosition);
+        crossfadeTransition = true;
+        if (playbackMetrics != null) {
+            playbackMetrics.setSeeksAreTransitions(true);
+        }
+        try {
+            player.seekTo(nextIndex, 0);
+        } finally {
+            crossfadeTransition = false;
+            if (playbackMetrics != null) {
+                playbackMetrics.setSeeksAreTransitions(false);
+            }
+        }
+    }
+
+    // Audio processors for the audio sink. Resampling everything to a fixed
+    // output rate lets the sink keep the same AudioTrack across items with
+    // different sample rates instead of draining and recreating it, which
+    // is the main source of gaps between heterogeneous items.
+    private AudioProcessor[] buildAudioProcessors() {
+        List<AudioProcessor> audioProcessors = new ArrayList<AudioProcessor>();
+        if (outputSampleRate > 0) {
+            SonicAudioProcessor resampler = new SonicAudioProcessor();
+            resampler.setOutputSampleRateHz(outputSampleRate);
+            audioProcessors.add(resampler);
+        }
+        if (!softwareAudioEffectsMap.isEmpty() || loudnessNormalizer != null || crossfader != null) {
+            softwareEffectsProcessor = new SoftwareEffectsProcessor(getSoftwareAudioEffects());
+            audioProcessors.add(softwareEffectsProcessor);
+        }
+        // Last, so that the visualizer sees the processed audio.
+        if (audioVisualizer != null) {
+            visualizerTapProcessor = new VisualizerTapProcessor();
+            audioProcessors.add(visualizerTapProcessor);
+        }
+        return audioProcessors.toArray(new AudioProcessor[0]);
+    }
+
+    // Software effects in the order they appear in androidAudioEffects,
+    // after loudness normalization and followed by the crossfade gain.
+    private SoftwareAudioEffect[] getSoftwareAudioEffects() {
+        List<SoftwareAudioEffect> effects = getAppSoftwareAudioEffects();
+        if (crossfader != null) {
+            effects.add(crossfader.getMainGain());
+        }
+        return effects.toArray(new SoftwareAudioEffect[0]);
+    }
+
+    // Copies of the software effects for the crossfader's tail player, which
+    // processes audio on its own playback thread, followed by the tail's own
+    // crossfade gain.
+    private SoftwareAudioEffect[] copySoftwareAudioEffects() {
+        List<SoftwareAudioEffect> effects = new ArrayList<SoftwareAudioEffect>();
+        for (SoftwareAudioEffect effect : getAppSoftwareAudioEffects()) {
+            effects.add(effect.copy());
         }
+        effects.add(crossfader.getTailGain());
+        return effects.toArray(new SoftwareAudioEffect[0]);
+    }
+
+    private List<SoftwareAudioEffect> getAppSoftwareAudioEffects() {
+        List<SoftwareAudioEffect> effects = new ArrayList<SoftwareAudioEffect>();
+        if (loudnessNormalizer != null) {
+            effects.add(loudnessNormalizer.getEffect());
+        }
+        for (Object rawAudioEffect : rawAudioEffects) {
+            SoftwareAudioEffect effect = softwareAudioEffectsMap.get(((Map<?, ?>)rawAudioEffect).get("type"));
+            if (effect != null) effects.add(effect);
+        }
+        return effects;
     }
 
     private void startWatchingBuffer() {
@@ -194,6 +573,28 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         handler.post(bufferWatcher);
     }
 
+    // Broadcasts the buffered position once it has advanced by at least
+    // bufferGranularityMs, or whenever it changes once loading has stopped.
+    private void checkBufferedPosition() {
+        if (player == null) return;
+        long newBufferedPosition = player.getBufferedPosition();
+        if (newBufferedPosition == bufferedPosition) return;
+        if (Math.abs(newBufferedPosition - bufferedPosition) >= bufferGranularityMs || !player.isLoading()) {
+            // This method updates bufferedPosition.
+            broadcastImmediatePlaybackEvent();
+        }
+    }
+
+    @Override
+    public void onIsLoadingChanged(boolean isLoading) {
+        if (isLoading) {
+            startWatchingBuffer();
+        } else {
+            handler.removeCallbacks(bufferWatcher);
+            checkBufferedPosition();
+        }
+    }
+
     private void setAudioSessionId(int audioSessionId) {
         if (audioSessionId == C.AUDIO_SESSION_ID_UNSET) {
             this.audioSessionId = null;
@@ -204,6 +605,8 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         if (this.audioSessionId != null) {
             for (Object rawAudioEffect : rawAudioEffects) {
                 Map<?, ?> json = (Map<?, ?>)rawAudioEffect;
+                // Software effects live in the audio sink instead.
+                if (softwareAudioEffectsMap.containsKey(json.get("type"))) continue;
                 AudioEffect audioEffect = decodeAudioEffect(rawAudioEffect, this.audioSessionId);
                 if ((Boolean)json.get("enabled")) {
                     audioEffect.setEnabled(true);
@@ -227,6 +630,7 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
             final Metadata.Entry entry = metadata.get(i);
             if (entry instanceof IcyInfo) {
                 icyInfo = (IcyInfo) entry;
+                icyMetadata = null;
                 broadcastImmediatePlaybackEvent();
             }
         }
@@ -234,6 +638,8 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
 
     @Override
     public void onTracksChanged(Tracks tracks) {
+        updateLoudnessNormalization(tracks);
+        IcyHeaders newIcyHeaders = icyHeaders;
         for (int i = 0; i < tracks.getGroups().size(); i++) {
             TrackGroup trackGroup = tracks.getGroups().get(i).getMediaTrackGroup();
 
@@ -244,13 +650,33 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
                     for (int k = 0; k < metadata.length(); k++) {
                         final Metadata.Entry entry = metadata.get(k);
                         if (entry instanceof IcyHeaders) {
-                            icyHeaders = (IcyHeaders) entry;
-                            broadcastImmediatePlaybackEvent();
+                            newIcyHeaders = (IcyHeaders) entry;
                         }
                     }
                 }
             }
         }
+        if (newIcyHeaders != null && !newIcyHeaders.equals(icyHeaders)) {
+            icyHeaders = newIcyHeaders;
+            icyMetadata = null;
+            broadcastImmediatePlaybackEvent();
+        }
+    }
+
+    private void updateLoudnessNormalization(Tracks tracks) {
+        if (loudnessNormalizer == null || player == null) return;
+        MediaItem mediaItem = player.getCurrentMediaItem();
+        MediaItem.LocalConfiguration localConfiguration = mediaItem != null ? mediaItem.localConfiguration : null;
+        if (localConfiguration == null) {
+            loudnessNormalizer.onTrackChanged(tracks, null, null, null, loudnessMeasured);
+            return;
+        }
+        String key = localConfiguration.customCacheKey != null ? localConfiguration.customCacheKey : localConfiguration.uri.toString();
+        // Only progressive sources (which have no MIME type set) can be measured.
+        DataSource.Factory dataSourceFactory = localConfiguration.tag instanceof String && localConfiguration.mimeType == null
+            ? sourceDataSourceFactories.get((String)localConfiguration.tag)
+            : null;
+        loudnessNormalizer.onTrackChanged(tracks, key, localConfiguration.uri, dataSourceFactory, loudnessMeasured);
     }
 
     private boolean updatePositionIfChanged() {
@@ -270,6 +696,9 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
 
     @Override
     public void onPositionDiscontinuity(PositionInfo oldPosition, PositionInfo newPosition, int reason) {
+        if (crossfadeTransition && reason == Player.DISCONTINUITY_REASON_SEEK) {
+            reason = Player.DISCONTINUITY_REASON_AUTO_TRANSITION;
+        }
         updatePosition();
         switch (reason) {
         case Player.DISCONTINUITY_REASON_AUTO_TRANSITION:
@@ -278,6 +707,8 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
             break;
         }
         broadcastImmediatePlaybackEvent();
+        schedulePreload();
+        scheduleCrossfade();
     }
 
     @Override
@@ -285,6 +716,8 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         if (updateCurrentIndex()) {
             broadcastImmediatePlaybackEvent();
         }
+        schedulePreload();
+        scheduleCrossfade();
         if (player.getPlaybackState() == Player.STATE_ENDED) {
             try {
                 if (player.getPlayWhenReady()) {
@@ -306,7 +739,9 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
     }
 
     private boolean updateCurrentIndex() {
-        Integer newIndex = player.getCurrentMediaItemIndex();
+        // Children still waiting to be prepended by an incremental load are
+        // not yet counted by the player.
+        Integer newIndex = player.getCurrentMediaItemIndex() + (pendingChildren != null ? pendingPrefixEnd : 0);
         // newIndex is never null.
         // currentIndex is sometimes null.
         if (!newIndex.equals(currentIndex)) {
@@ -322,6 +757,8 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         case Player.STATE_READY:
             if (player.getPlayWhenReady())
                 updatePosition();
+            schedulePreload();
+            scheduleCrossfade();
             processingState = ProcessingState.ready;
             errorCode = null;
             errorMessage = null;
@@ -329,6 +766,7 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
             if (prepareResult != null) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("duration", getDuration() == C.TIME_UNSET ? null : (1000 * getDuration()));
+                response.put("loadPhases", finishLoadTrace());
                 prepareResult.success(response);
                 prepareResult = null;
                 if (pendingAudioAttributes != null) {
@@ -361,6 +799,7 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
             if (prepareResult != null) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("duration", getDuration() == C.TIME_UNSET ? null : (1000 * getDuration()));
+                response.put("loadPhases", finishLoadTrace());
                 prepareResult.success(response);
                 prepareResult = null;
                 if (pendingAudioAttributes != null) {
@@ -404,27 +843,109 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         }
     }
 
+    private Map<String, Long> finishLoadTrace() {
+        if (prepareTrace == null) return null;
+        player.removeAnalyticsListener(prepareTrace);
+        Map<String, Long> loadPhases = prepareTrace.finish();
+        prepareTrace = null;
+        if (playbackMetrics != null) {
+            playbackMetrics.onLoadTraced(loadPhases);
+        }
+        return loadPhases;
+    }
+
+    private void cancelLoadTrace() {
+        if (prepareTrace == null) return;
+        player.removeAnalyticsListener(prepareTrace);
+        prepareTrace.cancel();
+        prepareTrace = null;
+    }
+
+    private LoadTrace beginLoadTrace() {
+        return loadTraceFactory != null ? loadTraceFactory.begin() : null;
+    }
+
     private void completeSeek() {
         seekPos = null;
-        seekResult.success(new HashMap<String, Object>());
+        seekResult.success(mapOf("seekLatency", 1000 * (SystemClock.elapsedRealtime() - seekStartTime)));
         seekResult = null;
     }
 
     @Override
     public void onMethodCall(final MethodCall call, final Result result) {
+        if (playbackLooper == null) {
+            handleMethodCall(call, result);
+        } else if (!handler.post(() -> handleMethodCall(call, new MainThreadResult(result)))) {
+            result.error("Player has been disposed", null, null);
+        }
+    }
+
+    private void handleMethodCall(final MethodCall call, final Result result) {
+        handleMethodCall(call, result, null);
+    }
+
+    // decodedTrace is the trace of a load replayed after async decoding.
+    private void handleMethodCall(final MethodCall call, final Result result, LoadTrace decodedTrace) {
+        if (decodingCall != null) {
+            // Preserve ordering relative to the load being decoded.
+            deferredCalls.add(new DeferredCall(call, result));
+            return;
+        }
         ensurePlayerInitialized();
 
         try {
             switch (call.method) {
             case "load":
+                if (asyncLoadParallelism > 0 && call != decodedCall) {
+                    decodeAsync(call, result, beginLoadTrace());
+                    break;
+                }
+                decodedCall = null;
+                LoadTrace trace = decodedTrace != null ? decodedTrace : beginLoadTrace();
                 Long initialPosition = getLong(call.argument("initialPosition"));
                 Integer initialIndex = call.argument("initialIndex");
                 Map<?, ?> audioSourceMap = call.argument("audioSource");
-                MediaSource[] children = getAudioSourcesArray(audioSourceMap.get("children"));
+                List<?> childrenJson = mapGet(audioSourceMap, "children");
                 ShuffleOrder shuffleOrder = decodeShuffleOrder(mapGet(audioSourceMap, "shuffleOrder"));
-                load(Arrays.asList(children), shuffleOrder,
+                cancelIncrementalLoad();
+                List<MediaSource> children;
+                if (trace != null) {
+                    trace.beginSection("decoded");
+                }
+                try {
+                    if (incrementalLoadWindowSize > 0 && childrenJson.size() > incrementalLoadWindowSize) {
+                        // Start with a window around the initial index and add
+                        // the remaining children in batches afterwards.
+                        int start = incrementalLoadStart(childrenJson.size(), initialIndex);
+                        int end = start + incrementalLoadWindowSize;
+                        children = getAudioSources(childrenJson.subList(start, end));
+                        pendingChildren = childrenJson;
+                        pendingPrefixEnd = start;
+                        pendingSuffixStart = end;
+                        pendingShuffleOrder = shuffleOrder;
+                        shuffleOrder = new DefaultShuffleOrder(children.size(), random.nextLong());
+                    } else {
+                        children = getAudioSources(childrenJson);
+                    }
+                } catch (RuntimeException e) {
+                    if (trace != null) {
+                        trace.cancel();
+                    }
+                    throw e;
+                } finally {
+                    if (trace != null) {
+                        trace.endSection("decoded");
+                    }
+                }
+                rootChildIds.clear();
+                rootChildIds.addAll(idsOf(childrenJson));
+                sweepMediaSources();
+                load(children, shuffleOrder,
                         initialPosition == null ? C.TIME_UNSET : initialPosition / 1000,
-                        initialIndex, result);
+                        initialIndex, result, trace);
+                if (pendingChildren != null) {
+                    handler.post(incrementalLoader);
+                }
                 break;
             case "play":
                 play(result);
@@ -471,45 +992,32 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
                 result.success(new HashMap<String, Object>());
                 break;
             case "seek":
+                if (call.argument("index") != null) {
+                    flushIncrementalLoad();
+                }
                 Long position = getLong(call.argument("position"));
                 Integer index = call.argument("index");
-                seek(position == null ? C.TIME_UNSET : position / 1000, index, result);
+                Map<?, ?> seekParametersMap = call.argument("androidSeekParameters");
+                seek(position == null ? C.TIME_UNSET : position / 1000, index,
+                        seekParametersMap != null ? decodeSeekParameters(seekParametersMap) : null, result);
+                break;
+            case "prefetch":
+                Integer count = call.argument("count");
+                Long maxBytes = getLong(call.argument("maxBytes"));
+                Long prefetchDuration = getLong(call.argument("duration"));
+                result.success(mapOf("ids", prefetch(count != null ? count : DEFAULT_PREFETCH_COUNT, getPrefetchBytes(prefetchDuration, maxBytes))));
                 break;
             case "concatenatingInsertAll":
-                if (((String)call.argument("id")).length() == 0) {
-                    player.addMediaSources(call.argument("index"), getAudioSources(call.argument("children"))); 
-                    player.setShuffleOrder(decodeShuffleOrder(call.argument("shuffleOrder")));
-                    result.success(new HashMap<String, Object>());
-                } else {
-                    concatenating(call.argument("id"))
-                        .addMediaSources(call.argument("index"), getAudioSources(call.argument("children")), handler, () -> result.success(new HashMap<String, Object>()));
-                    concatenating(call.argument("id"))
-                        .setShuffleOrder(decodeShuffleOrder(call.argument("shuffleOrder")));
-                }
+                concatenatingInsertAll(call.arguments(), () -> result.success(new HashMap<String, Object>()));
                 break;
             case "concatenatingRemoveRange":
-                if (((String)call.argument("id")).length() == 0) {
-                    player.removeMediaItems(call.argument("startIndex"), call.argument("endIndex"));
-                    player.setShuffleOrder(decodeShuffleOrder(call.argument("shuffleOrder")));
-                    result.success(new HashMap<String, Object>());
-                } else {
-                    concatenating(call.argument("id"))
-                        .removeMediaSourceRange(call.argument("startIndex"), call.argument("endIndex"), handler, () -> result.success(new HashMap<String, Object>()));
-                    concatenating(call.argument("id"))
-                        .setShuffleOrder(decodeShuffleOrder(call.argument("shuffleOrder")));
-                }
+                concatenatingRemoveRange(call.arguments(), () -> result.success(new HashMap<String, Object>()));
                 break;
             case "concatenatingMove":
-                if (((String)call.argument("id")).length() == 0) {
-                    player.moveMediaItem(call.argument("currentIndex"), call.argument("newIndex"));
-                    player.setShuffleOrder(decodeShuffleOrder(call.argument("shuffleOrder")));
-                    result.success(new HashMap<String, Object>());
-                } else {
-                    concatenating(call.argument("id"))
-                        .moveMediaSource(call.argument("currentIndex"), call.argument("newIndex"), handler, () -> result.success(new HashMap<String, Object>()));
-                    concatenating(call.argument("id"))
-                        .setShuffleOrder(decodeShuffleOrder(call.argument("shuffleOrder")));
-                }
+                concatenatingMove(call.arguments(), () -> result.success(new HashMap<String, Object>()));
+                break;
+            case "concatenatingApplyOps":
+                concatenatingApplyOps(call.argument("ops"), () -> result.success(new HashMap<String, Object>()));
                 break;
             case "setAndroidAudioAttributes":
                 setAudioAttributes(call.argument("contentType"), call.argument("flags"), call.argument("usage"));
@@ -526,10 +1034,17 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
             case "androidEqualizerGetParameters":
                 result.success(equalizerAudioEffectGetParameters());
                 break;
+            case "androidMediaSourceCacheGetSize":
+                result.success(mapOf("size", mediaSources.size(), "detachedSize", detachedIds.size()));
+                break;
             case "androidEqualizerBandSetGain":
                 equalizerBandSetGain(call.argument("bandIndex"), call.argument("gain"));
                 result.success(new HashMap<String, Object>());
                 break;
+            case "androidAudioEffectSetParameters":
+                audioEffectSetParameters(call.argument("type"), call.argument("parameters"));
+                result.success(new HashMap<String, Object>());
+                break;
             default:
                 result.notImplemented();
                 break;
@@ -545,6 +1060,283 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         }
     }
 
+    // Decodes the audio sources of a load on the shared decode executor,
+    // split into up to asyncLoadParallelism chunks, and then replays the load
+    // on the player thread where it finds every source already decoded.
+    private void decodeAsync(final MethodCall call, final Result result, final LoadTrace trace) {
+        Map<?, ?> audioSourceMap = call.argument("audioSource");
+        List<?> childrenJson = mapGet(audioSourceMap, "children");
+        List<?> window = childrenJson;
+        if (incrementalLoadWindowSize > 0 && childrenJson.size() > incrementalLoadWindowSize) {
+            int start = incrementalLoadStart(childrenJson.size(), call.argument("initialIndex"));
+            window = childrenJson.subList(start, start + incrementalLoadWindowSize);
+        }
+        // The incremental loader of the previous load would otherwise decode
+        // concurrently. It resumes if this load fails.
+        handler.removeCallbacks(incrementalLoader);
+        decodingCall = call;
+        final int generation = decodeGeneration;
+        final int chunkCount = Math.max(1, Math.min(asyncLoadParallelism, window.size()));
+        final AtomicInteger remaining = new AtomicInteger(chunkCount);
+        final AtomicReference<RuntimeException> error = new AtomicReference<RuntimeException>();
+        for (int i = 0; i < chunkCount; i++) {
+            final List<?> chunk = window.subList(i * window.size() / chunkCount, (i + 1) * window.size() / chunkCount);
+            DECODE_EXECUTOR.execute(() -> {
+                try {
+                    getAudioSources(chunk);
+                } catch (RuntimeException e) {
+                    error.compareAndSet(null, e);
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    if (!handler.post(() -> completeDecode(call, result, trace, generation, error.get()))) {
+                        if (trace != null) {
+                            trace.cancel();
+                        }
+                        result.error("Player has been disposed", null, null);
+                    }
+                }
+            });
+        }
+    }
+
+    private void completeDecode(MethodCall call, Result result, LoadTrace trace, int generation, RuntimeException error) {
+        if (trace != null && (generation != decodeGeneration || error != null)) {
+            trace.cancel();
+        }
+        if (generation != decodeGeneration) {
+            // Released while decoding.
+            result.error(String.valueOf(ERROR_ABORT), "Connection aborted", null);
+            return;
+        }
+        decodingCall = null;
+        if (error != null) {
+            error.printStackTrace();
+            result.error("Error: " + error, error.toString(), null);
+            if (pendingChildren != null) {
+                handler.post(incrementalLoader);
+            }
+        } else {
+            decodedCall = call;
+            handleMethodCall(call, result, trace);
+        }
+        while (decodingCall == null && !deferredCalls.isEmpty()) {
+            DeferredCall deferredCall = deferredCalls.poll();
+            handleMethodCall(deferredCall.call, deferredCall.result);
+        }
+    }
+
+    private int incrementalLoadStart(int childCount, Integer initialIndex) {
+        int index0 = initialIndex != null ? initialIndex : 0;
+        return Math.max(0, Math.min(index0 - incrementalLoadWindowSize / 2, childCount - incrementalLoadWindowSize));
+    }
+
+    // The concatenating operations below complete synchronously for the
+    // top-level playlist (id "") and asynchronously via onComplete for a
+    // nested ConcatenatingMediaSource.
+
+    private void concatenatingInsertAll(Map<?, ?> args, Runnable onComplete) {
+        prefetcher.cancelAll();
+        flushIncrementalLoad();
+        String id = (String)args.get("id");
+        List<MediaSource> children = getAudioSources(args.get("children"));
+        ShuffleOrder shuffleOrder = decodeShuffleOrder(mapGet(args, "shuffleOrder"));
+        List<String> ids = childIdsOf(id);
+        if (ids != null) ids.addAll((Integer)args.get("index"), idsOf(args.get("children")));
+        if (id.length() == 0) {
+            player.addMediaSources((Integer)args.get("index"), children);
+            player.setShuffleOrder(shuffleOrder);
+            onComplete.run();
+        } else {
+            concatenating(id).addMediaSources((Integer)args.get("index"), children, handler, onComplete);
+            concatenating(id).setShuffleOrder(shuffleOrder);
+        }
+    }
+
+    private void concatenatingRemoveRange(Map<?, ?> args, Runnable onComplete) {
+        prefetcher.cancelAll();
+        flushIncrementalLoad();
+        String id = (String)args.get("id");
+        ShuffleOrder shuffleOrder = decodeShuffleOrder(mapGet(args, "shuffleOrder"));
+        List<String> ids = childIdsOf(id);
+        if (ids != null) {
+            List<String> removedIds = ids.subList((Integer)args.get("startIndex"), (Integer)args.get("endIndex"));
+            detachMediaSources(removedIds);
+            removedIds.clear();
+        }
+        if (id.length() == 0) {
+            player.removeMediaItems((Integer)args.get("startIndex"), (Integer)args.get("endIndex"));
+            player.setShuffleOrder(shuffleOrder);
+            onComplete.run();
+        } else {
+            concatenating(id).removeMediaSourceRange((Integer)args.get("startIndex"), (Integer)args.get("endIndex"), handler, onComplete);
+            concatenating(id).setShuffleOrder(shuffleOrder);
+        }
+    }
+
+    private void concatenatingMove(Map<?, ?> args, Runnable onComplete) {
+        prefetcher.cancelAll();
+        flushIncrementalLoad();
+        String id = (String)args.get("id");
+        ShuffleOrder shuffleOrder = decodeShuffleOrder(mapGet(args, "shuffleOrder"));
+        List<String> ids = childIdsOf(id);
+        if (ids != null) ids.add((Integer)args.get("newIndex"), ids.remove((int)(Integer)args.get("currentIndex")));
+        if (id.length() == 0) {
+            player.moveMediaItem((Integer)args.get("currentIndex"), (Integer)args.get("newIndex"));
+            player.setShuffleOrder(shuffleOrder);
+            onComplete.run();
+        } else {
+            concatenating(id).moveMediaSource((Integer)args.get("currentIndex"), (Integer)args.get("newIndex"), handler, onComplete);
+            concatenating(id).setShuffleOrder(shuffleOrder);
+        }
+    }
+
+    // Applies a batch of concatenating operations, each given as the
+    // arguments of the equivalent method call plus a "method" key, and
+    // calls onComplete once all of them have completed.
+    private void concatenatingApplyOps(List<?> ops, final Runnable onComplete) {
+        validateConcatenatingOps(ops);
+        // One extra count is held until every op has been issued, so that
+        // onComplete can't run if a later op throws.
+        final int[] pendingCount = {ops.size() + 1};
+        final Runnable onOpComplete = () -> {
+            if (--pendingCount[0] == 0) onComplete.run();
+        };
+        for (Object op : ops) {
+            Map<?, ?> args = (Map<?, ?>)op;
+            switch ((String)args.get("method")) {
+            case "concatenatingInsertAll":
+                concatenatingInsertAll(args, onOpComplete);
+                break;
+            case "concatenatingRemoveRange":
+                concatenatingRemoveRange(args, onOpComplete);
+                break;
+            case "concatenatingMove":
+                concatenatingMove(args, onOpComplete);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown concatenating op: " + args.get("method"));
+            }
+        }
+        onOpComplete.run();
+    }
+
+    // Checks that every op names a known method and an existing
+    // concatenating source, and that its indices are in range once the ops
+    // before it have been applied, so that a bad op fails the batch before
+    // any op is applied. The ops are replayed against copies of the child id
+    // lists so that an op may target a concatenating source inserted earlier
+    // in the same batch.
+    private void validateConcatenatingOps(List<?> ops) {
+        Map<String, List<String>> simulatedIds = new HashMap<String, List<String>>();
+        for (Object op : ops) {
+            Map<?, ?> args = (Map<?, ?>)op;
+            String id = (String)args.get("id");
+            List<String> ids = id != null ? simulatedIds.get(id) : null;
+            if (ids == null && id != null) {
+                List<String> currentIds = childIdsOf(id);
+                if (currentIds != null && (id.length() == 0 || mediaSources.get(id) instanceof androidx.media3.exoplayer.source.ConcatenatingMediaSource)) {
+                    ids = new ArrayList<String>(currentIds);
+                    simulatedIds.put(id, ids);
+                }
+            }
+            if (ids == null) {
+                throw new IllegalArgumentException("Unknown concatenating source: " + id);
+            }
+            String method = (String)args.get("method");
+            if ("concatenatingInsertAll".equals(method)) {
+                int index = checkOpIndex(args, "index", 0, ids.size());
+                List<?> children = (List<?>)args.get("children");
+                ids.addAll(index, idsOf(children));
+                simulateInsert(children, simulatedIds);
+            } else if ("concatenatingRemoveRange".equals(method)) {
+                int startIndex = checkOpIndex(args, "startIndex", 0, ids.size());
+                ids.subList(startIndex, checkOpIndex(args, "endIndex", startIndex, ids.size())).clear();
+            } else if ("concatenatingMove".equals(method)) {
+                int currentIndex = checkOpIndex(args, "currentIndex", 0, ids.size() - 1);
+                ids.add(checkOpIndex(args, "newIndex", 0, ids.size() - 1), ids.remove(currentIndex));
+            } else {
+                throw new IllegalArgumentException("Unknown concatenating op: " + method);
+            }
+        }
+    }
+
+    // Records the child ids of the new concatenating sources within json, as
+    // getAudioSource will once the insert is applied. Sources that already
+    // exist keep their current children.
+    private void simulateInsert(List<?> json, Map<String, List<String>> simulatedIds) {
+        for (Object audioSource : json) {
+            Map<?, ?> map = (Map<?, ?>)audioSource;
+            String id = (String)map.get("id");
+            if (mediaSources.containsKey(id) || simulatedIds.containsKey(id)) continue;
+            if ("concatenating".equals(map.get("type"))) {
+                simulatedIds.put(id, idsOf(map.get("children")));
+            }
+            if (map.get("children") != null) {
+                simulateInsert((List<?>)map.get("children"), simulatedIds);
+            } else if (map.get("child") != null) {
+                simulateInsert(Collections.singletonList(map.get("child")), simulatedIds);
+            }
+        }
+    }
+
+    private static int checkOpIndex(Map<?, ?> args, String key, int min, int max) {
+        Integer index = (Integer)args.get(key);
+        if (index == null || index < min || index > max) {
+            throw new IllegalArgumentException(args.get("method") + " " + key + " out of range: " + index);
+        }
+        return index;
+    }
+
+    // Adds the remaining children of an incremental load right away, since
+    // the app's indices refer to the complete playlist.
+    private void flushIncrementalLoad() {
+        if (pendingChildren == null) return;
+        handler.removeCallbacks(incrementalLoader);
+        if (pendingSuffixStart < pendingChildren.size()) {
+            player.addMediaSources(getAudioSources(pendingChildren.subList(pendingSuffixStart, pendingChildren.size())));
+        }
+        if (pendingPrefixEnd > 0) {
+            player.addMediaSources(0, getAudioSources(pendingChildren.subList(0, pendingPrefixEnd)));
+        }
+        completeIncrementalLoad();
+    }
+
+    private void completeIncrementalLoad() {
+        player.setShuffleOrder(pendingShuffleOrder);
+        cancelIncrementalLoad();
+    }
+
+    private void cancelIncrementalLoad() {
+        handler.removeCallbacks(incrementalLoader);
+        pendingChildren = null;
+        pendingPrefixEnd = 0;
+        pendingSuffixStart = 0;
+        pendingShuffleOrder = null;
+    }
+
+    // Decodes {mode, toleranceBefore, toleranceAfter} where mode is the index
+    // of exact, closestSync, previousSync, nextSync or tolerance.
+    private static SeekParameters decodeSeekParameters(Map<?, ?> map) {
+        switch ((Integer)map.get("mode")) {
+        case 0:
+            return SeekParameters.EXACT;
+        case 1:
+            return SeekParameters.CLOSEST_SYNC;
+        case 2:
+            return SeekParameters.PREVIOUS_SYNC;
+        case 3:
+            return SeekParameters.NEXT_SYNC;
+        case 4:
+            Long toleranceBefore = getLong(map.get("toleranceBefore"));
+            Long toleranceAfter = getLong(map.get("toleranceAfter"));
+            return new SeekParameters(
+                toleranceBefore != null ? toleranceBefore : 0L,
+                toleranceAfter != null ? toleranceAfter : 0L);
+        default:
+            throw new IllegalArgumentException("Unknown seek mode: " + map.get("mode"));
+        }
+    }
+
     private ShuffleOrder decodeShuffleOrder(List<Integer> indexList) {
         int[] shuffleIndices = new int[indexList.size()];
         for (int i = 0; i < shuffleIndices.length; i++) {
@@ -586,53 +1378,220 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         if (mediaSource == null) {
             mediaSource = decodeAudioSource(map);
             mediaSources.put(id, mediaSource);
+            if (map.get("children") != null) {
+                childIds.put(id, idsOf(map.get("children")));
+            } else if (map.get("child") != null) {
+                childIds.put(id, idsOf(Collections.singletonList(map.get("child"))));
+            }
+        } else if (detachedIds.containsKey(id)) {
+            reattachMediaSources(id);
         }
         return mediaSource;
     }
 
-    private DefaultExtractorsFactory buildExtractorsFactory(Map<?, ?> options) {
-        DefaultExtractorsFactory extractorsFactory = new DefaultExtractorsFactory();
+    private static List<String> idsOf(final Object json) {
+        List<?> audioSources = (List<?>)json;
+        List<String> ids = new ArrayList<String>(audioSources.size());
+        for (Object audioSource : audioSources) {
+            ids.add((String)mapGet(audioSource, "id"));
+        }
+        return ids;
+    }
+
+    // The child ids of the concatenating source id, or of the top-level
+    // playlist if id is empty.
+    private List<String> childIdsOf(String id) {
+        return id.length() == 0 ? rootChildIds : childIds.get(id);
+    }
+
+    // Moves sources that are no longer reachable from the playlist into the
+    // detached set, and evicts the least recently detached sources
+    // beyond maxDetachedMediaSources. This walks the whole tree, so it is
+    // only used when a new playlist is loaded.
+    private void sweepMediaSources() {
+        Set<String> reachable = new HashSet<String>();
+        List<String> stack = new ArrayList<String>(rootChildIds);
+        while (!stack.isEmpty()) {
+            String id = stack.remove(stack.size() - 1);
+            if (!reachable.add(id)) continue;
+            List<String> ids = childIds.get(id);
+            if (ids != null) stack.addAll(ids);
+        }
+        // Iterating over a synchronized map's views requires holding its lock.
+        synchronized (mediaSources) {
+            for (String id : mediaSources.keySet()) {
+                if (reachable.contains(id)) {
+                    detachedIds.remove(id);
+                } else if (!detachedIds.containsKey(id)) {
+                    detachedIds.put(id, Boolean.TRUE);
+                }
+            }
+        }
+        evictDetachedMediaSources();
+    }
+
+    // Moves the sources in the subtrees rooted at ids, which are being
+    // removed from the playlist, into the detached set without walking the
+    // rest of the tree.
+    private void detachMediaSources(List<String> ids) {
+        List<String> stack = new ArrayList<String>(ids);
+        while (!stack.isEmpty()) {
+            String id = stack.remove(stack.size() - 1);
+            if (detachedIds.containsKey(id) || !mediaSources.containsKey(id)) continue;
+            detachedIds.put(id, Boolean.TRUE);
+            List<String> subtreeIds = childIds.get(id);
+            if (subtreeIds != null) stack.addAll(subtreeIds);
+        }
+        evictDetachedMediaSources();
+    }
+
+    // Takes the sources in the subtree rooted at id, which is being added
+    // back to the playlist, out of the detached set.
+    private void reattachMediaSources(String id) {
+        List<String> stack = new ArrayList<String>(Collections.singletonList(id));
+        while (!stack.isEmpty()) {
+            String subtreeId = stack.remove(stack.size() - 1);
+            detachedIds.remove(subtreeId);
+            List<String> subtreeIds = childIds.get(subtreeId);
+            if (subtreeIds != null) stack.addAll(subtreeIds);
+        }
+    }
+
+    // Evicts the least recently detached sources beyond
+    // maxDetachedMediaSources.
+    private void evictDetachedMediaSources() {
+        synchronized (detachedIds) {
+            for (Iterator<String> it = detachedIds.keySet().iterator(); it.hasNext() && detachedIds.size() > maxDetachedMediaSources;) {
+                String id = it.next();
+                it.remove();
+                mediaSources.remove(id);
+                childIds.remove(id);
+                sourceDataSourceFactories.remove(id);
+                sourceMediaSourceFactories.remove(id);
+                clippingBounds.remove(id);
+            }
+        }
+    }
+
+    ExtractorsFactory buildExtractorsFactory(Map<?, ?> options) {
+        ExtractorsFactory extractorsFactory = extractorsFactories.get(options);
+        if (extractorsFactory != null) return extractorsFactory;
+        DefaultExtractorsFactory defaultExtractorsFactory = new DefaultExtractorsFactory();
         boolean constantBitrateSeekingEnabled = true;
         boolean constantBitrateSeekingAlwaysEnabled = false;
         int mp3Flags = 0;
+        String container = null;
         if (options != null) {
             Map<?, ?> androidExtractorOptions = (Map<?, ?>)options.get("androidExtractorOptions");
             if (androidExtractorOptions != null) {
                 constantBitrateSeekingEnabled = (Boolean)androidExtractorOptions.get("constantBitrateSeekingEnabled");
                 constantBitrateSeekingAlwaysEnabled = (Boolean)androidExtractorOptions.get("constantBitrateSeekingAlwaysEnabled");
                 mp3Flags = (Integer)androidExtractorOptions.get("mp3Flags");
+                container = (String)androidExtractorOptions.get("container");
             }
         }
-        extractorsFactory.setConstantBitrateSeekingEnabled(constantBitrateSeekingEnabled);
-        extractorsFactory.setConstantBitrateSeekingAlwaysEnabled(constantBitrateSeekingAlwaysEnabled);
-        extractorsFactory.setMp3ExtractorFlags(mp3Flags);
+        defaultExtractorsFactory.setConstantBitrateSeekingEnabled(constantBitrateSeekingEnabled);
+        defaultExtractorsFactory.setConstantBitrateSeekingAlwaysEnabled(constantBitrateSeekingAlwaysEnabled);
+        defaultExtractorsFactory.setMp3ExtractorFlags(mp3Flags);
+        extractorsFactory = container != null
+            ? new ContainerExtractorsFactory(container, defaultExtractorsFactory, constantBitrateSeekingEnabled, constantBitrateSeekingAlwaysEnabled, mp3Flags)
+            : defaultExtractorsFactory;
+        extractorsFactories.put(options, extractorsFactory);
         return extractorsFactory;
     }
 
+    @SuppressWarnings("deprecation")
+    MediaSource.Factory getMediaSourceFactory(String type, Map<?, ?> headers, Uri uri, Map<?, ?> options, String cacheKey) {
+        DataSource.Factory dataSourceFactory = buildDataSourceFactory(headers, uri);
+        // dataSourceFactory is itself interned, so its identity stands in for
+        // the headers. Seek indices are keyed by the cache key, so it only
+        // splits factories when they are enabled.
+        List<Object> key = Arrays.asList(type, dataSourceFactory, options, seekIndexStore != null ? cacheKey : null);
+        MediaSource.Factory mediaSourceFactory = mediaSourceFactories.get(key);
+        if (mediaSourceFactory != null) return mediaSourceFactory;
+        switch (type) {
+        case "progressive":
+            ExtractorsFactory extractorsFactory = buildExtractorsFactory(options);
+            if (seekIndexStore != null) {
+                // Index builds read through the disk cache if there is one,
+                // but not through the clip cache, which would hold the
+                // whole file in memory.
+                DataSource.Factory indexDataSourceFactory = dataSourceFactory instanceof ClipCache.Factory
+                    ? ((ClipCache.Factory)dataSourceFactory).getUpstreamFactory()
+                    : dataSourceFactory;
+                extractorsFactory = new SeekIndexExtractorsFactory(extractorsFactory, seekIndexStore, indexDataSourceFactory, cacheKey, seekIndexIntervalUs);
+            }
+            mediaSourceFactory = new ProgressiveMediaSource.Factory(dataSourceFactory, extractorsFactory);
+            break;
+        case "dash":
+            mediaSourceFactory = new DashMediaSource.Factory(dataSourceFactory);
+            break;
+        case "hls":
+            mediaSourceFactory = new HlsMediaSource.Factory(dataSourceFactory);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown AudioSource type: " + type);
+        }
+        mediaSourceFactories.put(key, mediaSourceFactory);
+        return mediaSourceFactory;
+    }
+
     @SuppressWarnings("deprecation")
     private MediaSource decodeAudioSource(final Object json) {
         Map<?, ?> map = (Map<?, ?>)json;
         String id = (String)map.get("id");
         switch ((String)map.get("type")) {
-        case "progressive":
-            return new ProgressiveMediaSource.Factory(buildDataSourceFactory(mapGet(map, "headers")), buildExtractorsFactory(mapGet(map, "options")))
+        case "progressive": {
+            Uri uri = Uri.parse((String)map.get("uri"));
+            sourceDataSourceFactories.put(id, buildDataSourceFactory(mapGet(map, "headers"), uri));
+            MediaSource.Factory mediaSourceFactory = getMediaSourceFactory("progressive", mapGet(map, "headers"), uri, mapGet(map, "options"), (String)map.get("cacheKey"));
+            sourceMediaSourceFactories.put(id, mediaSourceFactory);
+            return mediaSourceFactory
                     .createMediaSource(new MediaItem.Builder()
-                            .setUri(Uri.parse((String)map.get("uri")))
+                            .setUri(uri)
+                            .setCustomCacheKey((String)map.get("cacheKey"))
                             .setTag(id)
                             .build());
-        case "dash":
-            return new DashMediaSource.Factory(buildDataSourceFactory(mapGet(map, "headers")))
+        }
+        case "dash": {
+            Uri uri = Uri.parse((String)map.get("uri"));
+            sourceDataSourceFactories.put(id, buildDataSourceFactory(mapGet(map, "headers"), uri));
+            MediaSource.Factory mediaSourceFactory = getMediaSourceFactory("dash", mapGet(map, "headers"), uri, null, null);
+            sourceMediaSourceFactories.put(id, mediaSourceFactory);
+            return mediaSourceFactory
                     .createMediaSource(new MediaItem.Builder()
-                            .setUri(Uri.parse((String)map.get("uri")))
+                            .setUri(uri)
                             .setMimeType(MimeTypes.APPLICATION_MPD)
+                            .setCustomCacheKey((String)map.get("cacheKey"))
                             .setTag(id)
                             .build());
-        case "hls":
-            return new HlsMediaSource.Factory(buildDataSourceFactory(mapGet(map, "headers")))
+        }
+        case "hls": {
+            Uri uri = Uri.parse((String)map.get("uri"));
+            sourceDataSourceFactories.put(id, buildDataSourceFactory(mapGet(map, "headers"), uri));
+            MediaSource.Factory mediaSourceFactory = getMediaSourceFactory("hls", mapGet(map, "headers"), uri, null, null);
+            sourceMediaSourceFactories.put(id, mediaSourceFactory);
+            return mediaSourceFactory
                     .createMediaSource(new MediaItem.Builder()
-                            .setUri(Uri.parse((String)map.get("uri")))
+                            .setUri(uri)
                             .setMimeType(MimeTypes.APPLICATION_M3U8)
+                            .setCustomCacheKey((String)map.get("cacheKey"))
+                            .setTag(id)
+                            .build());
+        }
+        case "stream": {
+            // Bytes are pulled from the Dart StreamAudioSource directly
+            // rather than through its localhost proxy.
+            DataSource.Factory dataSourceFactory = new StreamDataSource.Factory(streamSourceBridge, id);
+            sourceDataSourceFactories.put(id, dataSourceFactory);
+            MediaSource.Factory mediaSourceFactory = new ProgressiveMediaSource.Factory(dataSourceFactory, buildExtractorsFactory(mapGet(map, "options")));
+            sourceMediaSourceFactories.put(id, mediaSourceFactory);
+            return mediaSourceFactory
+                    .createMediaSource(new MediaItem.Builder()
+                            .setUri(Uri.parse("just-audio-stream:" + id))
+                            .setTag(id)
                             .build());
+        }
         case "silence":
             return new SilenceMediaSource.Factory()
                     .setDurationUs(getLong(map.get("duration")))
@@ -647,9 +1606,9 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         case "clipping":
             Long start = getLong(map.get("start"));
             Long end = getLong(map.get("end"));
-            return new ClippingMediaSource(getAudioSource(map.get("child")),
-                    start != null ? start : 0,
-                    end != null ? end : C.TIME_END_OF_SOURCE);
+            long[] clip = {start != null ? start : 0, end != null ? end : C.TIME_END_OF_SOURCE};
+            clippingBounds.put((String)mapGet(map.get("child"), "id"), clip);
+            return new ClippingMediaSource(getAudioSource(map.get("child")), clip[0], clip[1]);
         case "looping":
             Integer count = (Integer)map.get("count");
             MediaSource looperChild = getAudioSource(map.get("child"));
@@ -708,7 +1667,25 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         audioEffectsMap.clear();
     }
 
-    private DataSource.Factory buildDataSourceFactory(Map<?, ?> headers) {
+    DataSource.Factory buildDataSourceFactory(Map<?, ?> headers, Uri uri) {
+        // Local files and assets are already on disk, so only remote sources
+        // go through the cache.
+        final boolean cached = mediaCache != null && isRemote(uri);
+        final List<Object> key = Arrays.asList(headers, cached);
+        DataSource.Factory dataSourceFactory = dataSourceFactories.get(key);
+        if (dataSourceFactory == null) {
+            dataSourceFactory = createDataSourceFactory(headers, cached);
+            dataSourceFactories.put(key, dataSourceFactory);
+        }
+        return dataSourceFactory;
+    }
+
+    private DataSource.Factory createDataSourceFactory(Map<?, ?> headers, boolean cached) {
+        DataSource.Factory dataSourceFactory = createUpstreamDataSourceFactory(headers, cached);
+        return clipCache != null ? clipCache.buildDataSourceFactory(dataSourceFactory, headers) : dataSourceFactory;
+    }
+
+    private DataSource.Factory createUpstreamDataSourceFactory(Map<?, ?> headers, boolean cached) {
         final Map<String, String> stringHeaders = castToStringMap(headers);
         String userAgent = null;
         if (stringHeaders != null) {
@@ -718,19 +1695,82 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
             }
         }
         if (userAgent == null) {
-            userAgent = Util.getUserAgent(context, "just_audio");
+            if (defaultUserAgent == null) {
+                defaultUserAgent = Util.getUserAgent(context, "just_audio");
+            }
+            userAgent = defaultUserAgent;
+        }
+        HttpDataSource.Factory httpDataSourceFactory = httpStack.createFactory(
+            userAgent,
+            stringHeaders,
+            cached ? mediaCache.getUpstreamTransferListener() : null);
+        if (cached) {
+            return mediaCache.buildDataSourceFactory(new DefaultDataSource.Factory(context, httpDataSourceFactory));
         }
-        DefaultHttpDataSource.Factory httpDataSourceFactory = new DefaultHttpDataSource.Factory()
-            .setUserAgent(userAgent)
-            .setAllowCrossProtocolRedirects(true);
-        if (stringHeaders != null && stringHeaders.size() > 0) {
-            httpDataSourceFactory.setDefaultRequestProperties(stringHeaders);
+        if (mappedFilesOptions != null) {
+            return new MappedFileDataSource.Factory(context, new DefaultDataSource.Factory(context, httpDataSourceFactory), mappedFilesOptions);
         }
         return new DefaultDataSource.Factory(context, httpDataSourceFactory);
     }
 
-    private void load(final List<MediaSource> mediaSources, ShuffleOrder shuffleOrder, final long initialPosition, final Integer initialIndex, final Result result) {
+    private static boolean isRemote(Uri uri) {
+        String scheme = uri.getScheme();
+        return "http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme);
+    }
+
+    // Converts a prefetch duration in microseconds to bytes at the bitrate of
+    // the current audio, or at a typical high bitrate if that is unknown,
+    // capped by maxBytes if both are given.
+    private long getPrefetchBytes(Long durationUs, Long maxBytes) {
+        if (durationUs == null) {
+            return maxBytes != null ? maxBytes : DEFAULT_PREFETCH_BYTES;
+        }
+        Format format = player.getAudioFormat();
+        int bitrate = format != null && format.bitrate != Format.NO_VALUE ? format.bitrate : DEFAULT_PREFETCH_BITRATE;
+        long bytes = durationUs * bitrate / 8 / 1000000;
+        return maxBytes != null ? Math.min(bytes, maxBytes) : bytes;
+    }
+
+    // Schedules the heads of the next count items, in playback order, to be
+    // written to the cache. Only progressive sources can be prefetched this
+    // way. Returns the ids of the sources that were scheduled.
+    private List<String> prefetch(int count, long maxBytes) {
+        if (mediaCache == null) {
+            throw new IllegalStateException("prefetch requires androidCache to be configured");
+        }
+        List<String> ids = new ArrayList<String>();
+        Timeline timeline = player.getCurrentTimeline();
+        if (timeline.isEmpty()) return ids;
+        Timeline.Window window = new Timeline.Window();
+        int repeatMode = player.getRepeatMode() == Player.REPEAT_MODE_ONE ? Player.REPEAT_MODE_OFF : player.getRepeatMode();
+        boolean shuffleModeEnabled = player.getShuffleModeEnabled();
+        int startIndex = player.getCurrentMediaItemIndex();
+        int index = startIndex;
+        for (int i = 0; i < count; i++) {
+            index = timeline.getNextWindowIndex(index, repeatMode, shuffleModeEnabled);
+            if (index == C.INDEX_UNSET || index == startIndex) break;
+            MediaItem.LocalConfiguration localConfiguration = timeline.getWindow(index, window).mediaItem.localConfiguration;
+            if (localConfiguration == null || !(localConfiguration.tag instanceof String)) continue;
+            String id = (String)localConfiguration.tag;
+            DataSource.Factory factory = sourceDataSourceFactories.get(id);
+            // Prefetching writes straight to the media cache, beneath any
+            // clip cache.
+            if (factory instanceof ClipCache.Factory) {
+                factory = ((ClipCache.Factory)factory).getUpstreamFactory();
+            }
+            if (!(factory instanceof CacheDataSource.Factory)) continue;
+            prefetcher.prefetch((CacheDataSource.Factory)factory, localConfiguration.uri, localConfiguration.customCacheKey, maxBytes);
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private void load(final List<MediaSource> mediaSources, ShuffleOrder shuffleOrder, final long initialPosition, final Integer initialIndex, final Result result, final LoadTrace trace) {
         currentIndex = initialIndex != null ? initialIndex : 0;
+        prefetcher.cancelAll();
+        if (crossfader != null) {
+            crossfader.finish();
+        }
         switch (processingState) {
         case idle:
             break;
@@ -743,35 +1783,50 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
             break;
         }
         prepareResult = result;
+        cancelLoadTrace();
+        prepareTrace = trace;
+        if (trace != null) {
+            player.addAnalyticsListener(trace);
+        }
+        preloadedIndex = C.INDEX_UNSET;
+        if (playbackMetrics != null) {
+            playbackMetrics.onLoad();
+        }
         updatePosition();
         processingState = ProcessingState.loading;
         errorCode = null;
         errorMessage = null;
         enqueuePlaybackEvent();
-        int windowIndex = initialIndex != null ? initialIndex : 0;
-        player.setMediaSources(mediaSources, windowIndex, initialPosition);
-        player.setShuffleOrder(shuffleOrder);
-        player.prepare();
+        int windowIndex = (initialIndex != null ? initialIndex : 0) - (pendingChildren != null ? pendingPrefixEnd : 0);
+        if (trace != null) {
+            trace.beginSection("mediaSourcesSet");
+        }
+        try {
+            player.setMediaSources(mediaSources, windowIndex, initialPosition);
+            player.setShuffleOrder(shuffleOrder);
+            player.prepare();
+        } finally {
+            if (trace != null) {
+                trace.endSection("mediaSourcesSet");
+            }
+        }
     }
 
     private void ensurePlayerInitialized() {
         if (player == null) {
-            RenderersFactory renderersFactory = (eventHandler, videoListener, audioListener, textOutput, metadataOutput) -> {
-                Renderer[] defaultRenderers = new DefaultRenderersFactory(context)
-                    .createRenderers(eventHandler, videoListener, audioListener, textOutput, metadataOutput);
-                Renderer[] allRenderers = Arrays.copyOf(defaultRenderers, defaultRenderers.length + 1);
-                allRenderers[defaultRenderers.length] = new ObserverRenderer();
-                return allRenderers;
-            };
-            ExoPlayer.Builder builder = new ExoPlayer.Builder(context, renderersFactory);
-            builder.setUseLazyPreparation(useLazyPreparation);
-            if (loadControl != null) {
-                builder.setLoadControl(loadControl);
-            }
-            if (livePlaybackSpeedControl != null) {
-                builder.setLivePlaybackSpeedControl(livePlaybackSpeedControl);
+            PlayerPool.Entry pooled = playerPoolKey != null ? PlayerPool.getInstance().acquire(playerPoolKey) : null;
+            if (pooled != null) {
+                player = pooled.player;
+                observerRenderer = pooled.observerRenderer;
+                softwareEffectsProcessor = pooled.softwareEffectsProcessor;
+                if (softwareEffectsProcessor != null) {
+                    softwareEffectsProcessor.setEffects(getSoftwareAudioEffects());
+                }
+                visualizerTapProcessor = pooled.visualizerTapProcessor;
+            } else {
+                player = buildPlayer();
             }
-            player = builder.build();
+            observerRenderer.setOwner(this);
             // The latest ExoPlayer enables offload scheduling by default but
             // it doesn't support gapless playback below SDK level 33 or speec
             // changing. To maintain backwards compatibility within just_audio,
@@ -795,9 +1850,93 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
                     )
                     .build()
             );
+            player.setSeekParameters(seekParameters);
             setAudioSessionId(player.getAudioSessionId());
             player.addListener(this);
+            player.addAnalyticsListener(loadEventListener);
+            if (playbackMetrics != null) {
+                playbackMetrics.attach(player);
+            }
+            if (audioVisualizer != null) {
+                audioVisualizer.attach(visualizerTapProcessor);
+            }
+        }
+    }
+
+    private ExoPlayer buildPlayer() {
+        final ObserverRenderer newObserverRenderer = new ObserverRenderer();
+        final AudioProcessor[] audioProcessors = buildAudioProcessors();
+        RenderersFactory renderersFactory = (eventHandler, videoListener, audioListener, textOutput, metadataOutput) -> {
+            Renderer[] defaultRenderers = new AudioProcessorRenderersFactory(context, audioProcessors)
+                .createRenderers(eventHandler, videoListener, audioListener, textOutput, metadataOutput);
+            Renderer[] allRenderers = Arrays.copyOf(defaultRenderers, defaultRenderers.length + 1);
+            allRenderers[defaultRenderers.length] = newObserverRenderer;
+            return allRenderers;
+        };
+        ExoPlayer.Builder builder = new ExoPlayer.Builder(context, renderersFactory);
+        if (playbackLooper != null) {
+            builder.setLooper(playbackLooper);
+        }
+        builder.setUseLazyPreparation(useLazyPreparation);
+        if (loadControl != null) {
+            builder.setLoadControl(loadControl);
         }
+        if (livePlaybackSpeedControl != null) {
+            builder.setLivePlaybackSpeedControl(livePlaybackSpeedControl);
+        }
+        observerRenderer = newObserverRenderer;
+        return builder.build();
+    }
+
+    // Builds the crossfader's tail player like buildPlayer(), but with its own
+    // audio processors and load control, which can't be shared between
+    // players.
+    private ExoPlayer buildTailPlayer() {
+        List<AudioProcessor> audioProcessors = new ArrayList<AudioProcessor>();
+        if (outputSampleRate > 0) {
+            SonicAudioProcessor resampler = new SonicAudioProcessor();
+            resampler.setOutputSampleRateHz(outputSampleRate);
+            audioProcessors.add(resampler);
+        }
+        tailEffectsProcessor = new SoftwareEffectsProcessor(copySoftwareAudioEffects());
+        audioProcessors.add(tailEffectsProcessor);
+        ExoPlayer.Builder builder = new ExoPlayer.Builder(context, new AudioProcessorRenderersFactory(context, audioProcessors.toArray(new AudioProcessor[0])));
+        builder.setLooper(handler.getLooper());
+        builder.setUseLazyPreparation(useLazyPreparation);
+        if (loadControlMap != null) {
+            builder.setLoadControl(buildLoadControl(loadControlMap, 0));
+        }
+        ExoPlayer tailPlayer = builder.build();
+        tailPlayer.setSeekParameters(seekParameters);
+        return tailPlayer;
+    }
+
+    // Builds the load control described by loadControlMap, or ExoPlayer's
+    // default one if it is null, buffering at least minBufferFloorMs ahead.
+    // Since buffering runs across item boundaries, this makes ExoPlayer start
+    // loading the next item that long before the current one ends.
+    private static LoadControl buildLoadControl(Map<?, ?> loadControlMap, long minBufferFloorMs) {
+        int minBufferMs = DefaultLoadControl.DEFAULT_MIN_BUFFER_MS;
+        int maxBufferMs = DefaultLoadControl.DEFAULT_MAX_BUFFER_MS;
+        int bufferForPlaybackMs = DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_MS;
+        int bufferForPlaybackAfterRebufferMs = DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS;
+        DefaultLoadControl.Builder builder = new DefaultLoadControl.Builder();
+        if (loadControlMap != null) {
+            minBufferMs = (int)((getLong(loadControlMap.get("minBufferDuration")))/1000);
+            maxBufferMs = (int)((getLong(loadControlMap.get("maxBufferDuration")))/1000);
+            bufferForPlaybackMs = (int)((getLong(loadControlMap.get("bufferForPlaybackDuration")))/1000);
+            bufferForPlaybackAfterRebufferMs = (int)((getLong(loadControlMap.get("bufferForPlaybackAfterRebufferDuration")))/1000);
+            builder
+                .setPrioritizeTimeOverSizeThresholds((Boolean)loadControlMap.get("prioritizeTimeOverSizeThresholds"))
+                .setBackBuffer((int)((getLong(loadControlMap.get("backBufferDuration")))/1000), false);
+            if (loadControlMap.get("targetBufferBytes") != null) {
+                builder.setTargetBufferBytes((Integer)loadControlMap.get("targetBufferBytes"));
+            }
+        }
+        minBufferMs = Math.max(minBufferMs, (int)minBufferFloorMs);
+        maxBufferMs = Math.max(maxBufferMs, minBufferMs);
+        builder.setBufferDurationsMs(minBufferMs, maxBufferMs, bufferForPlaybackMs, bufferForPlaybackAfterRebufferMs);
+        return builder.build();
     }
 
     private void setAudioAttributes(int contentType, int flags, int usage) {
@@ -817,9 +1956,22 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
     }
 
     private void audioEffectSetEnabled(String type, boolean enabled) {
+        SoftwareAudioEffect softwareAudioEffect = softwareAudioEffectsMap.get(type);
+        if (softwareAudioEffect != null) {
+            softwareAudioEffect.setEnabled(enabled);
+            return;
+        }
         audioEffectsMap.get(type).setEnabled(enabled);
     }
 
+    private void audioEffectSetParameters(String type, Map<?, ?> parameters) {
+        SoftwareAudioEffect softwareAudioEffect = softwareAudioEffectsMap.get(type);
+        if (softwareAudioEffect == null) {
+            throw new IllegalArgumentException("Not a software audio effect: " + type);
+        }
+        softwareAudioEffect.setParameters(parameters);
+    }
+
     private void loudnessEnhancerSetTargetGain(double targetGain) {
         int targetGainMillibels = (int)Math.round(targetGain * 100.0); // target gain needs to be provided in milliBel, the user provides the value in deciBel
         ((LoudnessEnhancer)audioEffectsMap.get("AndroidLoudnessEnhancer")).setTargetGain(targetGainMillibels);
@@ -871,7 +2023,7 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
     // Broadcast the pending playback event if it was set.
     private void broadcastPendingPlaybackEvent() {
         if (pendingPlaybackEvent != null) {
-            eventChannel.success(pendingPlaybackEvent);
+            playbackEventPipeline.send(pendingPlaybackEvent, true);
             pendingPlaybackEvent = null;
         }
     }
@@ -890,13 +2042,19 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         pendingPlaybackEvent = createPlaybackEvent();
     }
 
-    // Broadcasts a new event immediately.
+    // Broadcasts a new event without waiting for a method call to return.
+    // Events that don't change the processing state, index, duration or
+    // error may be coalesced with later events by the pipeline.
     private void broadcastImmediatePlaybackEvent() {
         enqueuePlaybackEvent();
-        broadcastPendingPlaybackEvent();
+        playbackEventPipeline.send(pendingPlaybackEvent, false);
+        pendingPlaybackEvent = null;
     }
 
+    // The icy metadata map is immutable once built and is cached until the
+    // icy info or headers change.
     private Map<String, Object> collectIcyMetadata() {
+        if (icyMetadata != null) return icyMetadata;
         final Map<String, Object> icyData = new HashMap<>();
         if (icyInfo != null) {
             final Map<String, String> info = new HashMap<>();
@@ -914,6 +2072,7 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
             headers.put("isPublic", icyHeaders.isPublic);
             icyData.put("headers", headers);
         }
+        icyMetadata = icyData;
         return icyData;
     }
 
@@ -950,18 +2109,20 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         }
         broadcastImmediatePlaybackEvent();
         if (prepareResult != null) {
+            cancelLoadTrace();
             prepareResult.error(String.valueOf(errorCode), errorMsg, details);
             prepareResult = null;
         }
     }
 
-    private String getLowerCaseExtension(Uri uri) {
+    static String getLowerCaseExtension(Uri uri) {
         // Until ExoPlayer provides automatic detection of media source types, we
         // rely on the file extension. When this is absent, as a temporary
         // workaround we allow the app to supply a fake extension in the URL
         // fragment. e.g.  https://somewhere.com/somestream?x=etc#.m3u8
         String fragment = uri.getFragment();
         String filename = fragment != null && fragment.contains(".") ? fragment : uri.getPath();
+        if (filename == null) return "";
         return filename.replaceAll("^.*\\.", "").toLowerCase();
     }
 
@@ -976,6 +2137,7 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         playResult = result;
         player.setPlayWhenReady(true);
         updatePosition();
+        scheduleCrossfade();
         if (processingState == ProcessingState.completed && playResult != null) {
             playResult.success(new HashMap<String, Object>());
             playResult = null;
@@ -984,6 +2146,9 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
 
     public void pause() {
         if (!player.getPlayWhenReady()) return;
+        if (crossfader != null) {
+            crossfader.finish();
+        }
         player.setPlayWhenReady(false);
         updatePosition();
         enqueuePlaybackEvent();
@@ -995,14 +2160,22 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
 
     public void setVolume(final float volume) {
         player.setVolume(volume);
+        if (crossfader != null) {
+            crossfader.setVolume(volume);
+        }
     }
 
     public void setSpeed(final float speed) {
         PlaybackParameters params = player.getPlaybackParameters();
         if (params.speed == speed) return;
         player.setPlaybackParameters(new PlaybackParameters(speed, params.pitch));
+        if (crossfader != null) {
+            crossfader.setPlaybackParameters(player.getPlaybackParameters());
+        }
         if (player.getPlayWhenReady())
             updatePosition();
+        // The crossfade start time depends on the speed.
+        scheduleCrossfade();
         enqueuePlaybackEvent();
     }
 
@@ -1010,6 +2183,9 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         PlaybackParameters params = player.getPlaybackParameters();
         if (params.pitch == pitch) return;
         player.setPlaybackParameters(new PlaybackParameters(params.speed, pitch));
+        if (crossfader != null) {
+            crossfader.setPlaybackParameters(player.getPlaybackParameters());
+        }
         enqueuePlaybackEvent();
     }
 
@@ -1025,17 +2201,29 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         player.setShuffleModeEnabled(enabled);
     }
 
-    public void seek(final long position, final Integer index, final Result result) {
+    public void seek(final long position, final Integer index, final SeekParameters seekParameters, final Result result) {
         if (processingState == ProcessingState.idle || processingState == ProcessingState.loading) {
             result.success(new HashMap<String, Object>());
             return;
         }
         abortSeek();
+        if (crossfader != null) {
+            crossfader.finish();
+        }
         seekPos = position;
         seekResult = result;
+        seekStartTime = SystemClock.elapsedRealtime();
         try {
             int windowIndex = index != null ? index : player.getCurrentMediaItemIndex();
-            player.seekTo(windowIndex, position);
+            if (seekParameters != null) {
+                // The player applies these messages in order, so the
+                // override only affects this seek.
+                player.setSeekParameters(seekParameters);
+                player.seekTo(windowIndex, position);
+                player.setSeekParameters(this.seekParameters);
+            } else {
+                player.seekTo(windowIndex, position);
+            }
         } catch (RuntimeException e) {
             seekResult = null;
             seekPos = null;
@@ -1044,6 +2232,17 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
     }
 
     public void dispose() {
+        if (playbackLooper == null) {
+            release();
+        } else {
+            handler.post(() -> {
+                release();
+                PlaybackThreads.release(playbackLooper);
+            });
+        }
+    }
+
+    private void release() {
         if (processingState == ProcessingState.loading) {
             abortExistingConnection(true);
         }
@@ -1051,14 +2250,55 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
             playResult.success(new HashMap<String, Object>());
             playResult = null;
         }
+        prefetcher.cancelAll();
+        cancelIncrementalLoad();
+        handler.removeCallbacks(preloader);
+        handler.removeCallbacks(crossfadeStarter);
+        handler.removeCallbacks(loudnessMeasured);
+        if (crossfader != null) {
+            crossfader.release();
+        }
+        decodeGeneration++;
+        decodingCall = null;
+        for (DeferredCall deferredCall : deferredCalls) {
+            deferredCall.result.error("Player has been disposed", null, null);
+        }
+        deferredCalls.clear();
         mediaSources.clear();
+        rootChildIds.clear();
+        childIds.clear();
+        detachedIds.clear();
+        sourceDataSourceFactories.clear();
+        sourceMediaSourceFactories.clear();
+        clippingBounds.clear();
+        dataSourceFactories.clear();
+        extractorsFactories.clear();
+        mediaSourceFactories.clear();
         clearAudioEffects();
         if (player != null) {
-            player.release();
+            player.removeListener(this);
+            player.removeAnalyticsListener(loadEventListener);
+            cancelLoadTrace();
+            if (playbackMetrics != null) {
+                playbackMetrics.detach();
+            }
+            if (audioVisualizer != null) {
+                audioVisualizer.detach();
+            }
+            observerRenderer.setOwner(null);
+            if (playerPoolKey != null) {
+                PlayerPool.getInstance().recycle(playerPoolKey, new PlayerPool.Entry(player, observerRenderer, softwareEffectsProcessor, visualizerTapProcessor));
+            } else {
+                player.release();
+            }
             player = null;
+            observerRenderer = null;
+            softwareEffectsProcessor = null;
+            visualizerTapProcessor = null;
             processingState = ProcessingState.idle;
             broadcastImmediatePlaybackEvent();
         }
+        playbackEventPipeline.flush();
         eventChannel.endOfStream();
         dataEventChannel.endOfStream();
     }
@@ -1104,6 +2344,17 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         return map;
     }
 
+    // A map that holds at most maxSize entries, evicting the least recently
+    // used.
+    static <K, V> Map<K, V> newLruMap(final int maxSize) {
+        return new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
     static Map<String, String> castToStringMap(Map<?, ?> map) {
         if (map == null) return null;
         Map<String, String> map2 = new HashMap<>();
@@ -1113,6 +2364,16 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         return map2;
     }
 
+    private static class DeferredCall {
+        final MethodCall call;
+        final Result result;
+
+        DeferredCall(MethodCall call, Result result) {
+            this.call = call;
+            this.result = result;
+        }
+    }
+
     enum ProcessingState {
         idle,
         loading,
@@ -1121,19 +2382,27 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         completed
     }
 
-    public class ObserverRenderer extends NoSampleRenderer {
+    // Observes the playback position on the playback thread. It outlives its
+    // owner when the ExoPlayer is returned to the PlayerPool.
+    public static class ObserverRenderer extends NoSampleRenderer {
+        private volatile AudioPlayer owner;
         private long lastPosUs = 0L;
         private int consecutivePosCount = 0;
 
+        void setOwner(AudioPlayer owner) {
+            this.owner = owner;
+        }
+
         @Override
         public void render(long positionUs, long elapsedRealtimeUs) {
             if (positionUs == lastPosUs) {
                 consecutivePosCount++;
             } else {
-                if (consecutivePosCount >= 3) {
-                    handler.post(() -> {
-                        if (updatePositionIfChanged()) {
-                            broadcastImmediatePlaybackEvent();
+                final AudioPlayer owner = this.owner;
+                if (consecutivePosCount >= 3 && owner != null) {
+                    owner.handler.post(() -> {
+                        if (owner.updatePositionIfChanged()) {
+                            owner.broadcastImmediatePlaybackEvent();
                         }
                     });
                 }
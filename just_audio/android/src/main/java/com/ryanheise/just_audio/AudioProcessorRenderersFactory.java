@@ -0,0 +1,33 @@
+package com.ryanheise.just_audio;
+
+import android.content.Context;
+import androidx.media3.common.audio.AudioProcessor;
+import androidx.media3.exoplayer.DefaultRenderersFactory;
+import androidx.media3.exoplayer.audio.AudioSink;
+import androidx.media3.exoplayer.audio.DefaultAudioSink;
+
+/**
+ * A DefaultRenderersFactory whose audio sink runs the given audio processors
+ * after ExoPlayer's own (trimming, channel mapping) and before its speed and
+ * pitch stage.
+ */
+public class AudioProcessorRenderersFactory extends DefaultRenderersFactory {
+    private final AudioProcessor[] audioProcessors;
+
+    public AudioProcessorRenderersFactory(Context context, AudioProcessor[] audioProcessors) {
+        super(context);
+        this.audioProcessors = audioProcessors;
+    }
+
+    @Override
+    protected AudioSink buildAudioSink(Context context, boolean enableFloatOutput, boolean enableAudioTrackPlaybackParams) {
+        if (audioProcessors.length == 0) {
+            return super.buildAudioSink(context, enableFloatOutput, enableAudioTrackPlaybackParams);
+        }
+        return new DefaultAudioSink.Builder(context)
+            .setEnableFloatOutput(enableFloatOutput)
+            .setEnableAudioTrackPlaybackParams(enableAudioTrackPlaybackParams)
+            .setAudioProcessors(audioProcessors)
+            .build();
+    }
+}
@@ -0,0 +1,199 @@
+package com.ryanheise.just_audio;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import java.util.Map;
+
+/**
+ * Streams waveform and spectrum data captured by a VisualizerTapProcessor
+ * over a player's data event channel under the "androidVisualizer" key, as
+ * configured by the "androidVisualizer" entry of an audioLoadConfiguration:
+ *
+ * - captureRate: captures per second (default 30, at most 60)
+ * - fftSize: the window size in samples, a power of 2 (default 1024)
+ * - bandCount: the number of logarithmically spaced bands (default 32)
+ * - waveform: whether to send the mono waveform (default true)
+ * - spectrum: whether to send the band levels (default true)
+ *
+ * The waveform is sent as a Float32List of fftSize samples and the spectrum
+ * as a Float32List of band peak levels in dBFS. The FFT runs on a
+ * background thread using preallocated arrays, and nothing is sent while
+ * no new audio has been captured.
+ */
+public class AudioVisualizer {
+    private static final int DEFAULT_CAPTURE_RATE = 30;
+    private static final int MAX_CAPTURE_RATE = 60;
+    private static final int DEFAULT_FFT_SIZE = 1024;
+    private static final int DEFAULT_BAND_COUNT = 32;
+    private static final double MIN_FREQUENCY = 20.0;
+    private static final float FLOOR_DB = -120.0f;
+
+    private final BetterEventChannel dataEventChannel;
+    private final long intervalMs;
+    private final int fftSize;
+    private final int bandCount;
+    private final boolean sendWaveform;
+    private final boolean sendSpectrum;
+    private final float[] window;
+    private final float[] hann;
+    private final float[] real;
+    private final float[] imaginary;
+    private final float[] cos;
+    private final float[] sin;
+    private final int[] bitReversed;
+    private final int[] bandEnds;
+    private int bandSampleRate;
+    private HandlerThread thread;
+    private volatile Handler handler;
+    private volatile VisualizerTapProcessor tap;
+    private long lastFramesWritten;
+
+    private final Runnable capturer = new Runnable() {
+        @Override
+        public void run() {
+            VisualizerTapProcessor tap = AudioVisualizer.this.tap;
+            Handler handler = AudioVisualizer.this.handler;
+            if (tap == null || handler == null) return;
+            capture(tap);
+            handler.postDelayed(this, intervalMs);
+        }
+    };
+
+    public AudioVisualizer(BetterEventChannel dataEventChannel, Map<?, ?> options) {
+        this.dataEventChannel = dataEventChannel;
+        Integer captureRate = (Integer)options.get("captureRate");
+        intervalMs = 1000 / Math.max(1, Math.min(MAX_CAPTURE_RATE, captureRate != null ? captureRate : DEFAULT_CAPTURE_RATE));
+        Integer size = (Integer)options.get("fftSize");
+        fftSize = size != null ? size : DEFAULT_FFT_SIZE;
+        if (fftSize < 64 || fftSize > 16384 || Integer.bitCount(fftSize) != 1) {
+            throw new IllegalArgumentException("fftSize must be a power of 2 between 64 and 16384");
+        }
+        Integer bands = (Integer)options.get("bandCount");
+        bandCount = Math.max(1, Math.min(fftSize / 2, bands != null ? bands : DEFAULT_BAND_COUNT));
+        sendWaveform = !Boolean.FALSE.equals(options.get("waveform"));
+        sendSpectrum = !Boolean.FALSE.equals(options.get("spectrum"));
+        window = new float[fftSize];
+        hann = new float[fftSize];
+        real = new float[fftSize];
+        imaginary = new float[fftSize];
+        cos = new float[fftSize / 2];
+        sin = new float[fftSize / 2];
+        bitReversed = new int[fftSize];
+        bandEnds = new int[bandCount];
+        for (int i = 0; i < fftSize; i++) {
+            hann[i] = (float)(0.5 - 0.5 * Math.cos(2 * Math.PI * i / (fftSize - 1)));
+        }
+        for (int i = 0; i < fftSize / 2; i++) {
+            cos[i] = (float)Math.cos(2 * Math.PI * i / fftSize);
+            sin[i] = (float)-Math.sin(2 * Math.PI * i / fftSize);
+        }
+        int bits = Integer.numberOfTrailingZeros(fftSize);
+        for (int i = 0; i < fftSize; i++) {
+            bitReversed[i] = Integer.reverse(i) >>> (32 - bits);
+        }
+    }
+
+    /** Starts capturing from tap. */
+    public void attach(VisualizerTapProcessor tap) {
+        this.tap = tap;
+        tap.setCapturing(fftSize);
+        lastFramesWritten = 0;
+        thread = new HandlerThread("just_audio visualizer", Process.THREAD_PRIORITY_DISPLAY);
+        thread.start();
+        handler = new Handler(thread.getLooper());
+        handler.postDelayed(capturer, intervalMs);
+    }
+
+    /** Stops capturing. */
+    public void detach() {
+        if (tap == null) return;
+        tap.setCapturing(0);
+        tap = null;
+        handler.removeCallbacks(capturer);
+        handler = null;
+        thread.quit();
+        thread = null;
+    }
+
+    private void capture(VisualizerTapProcessor tap) {
+        long framesWritten = tap.read(window);
+        if (framesWritten == lastFramesWritten) return;
+        lastFramesWritten = framesWritten;
+        int sampleRate = tap.getSampleRate();
+        if (sampleRate <= 0) return;
+        // New arrays are needed per event since the channel encodes them
+        // later on the main thread.
+        float[] waveform = sendWaveform ? window.clone() : null;
+        float[] spectrum = sendSpectrum ? computeSpectrum(sampleRate) : null;
+        dataEventChannel.success(AudioPlayer.mapOf("androidVisualizer", AudioPlayer.mapOf(
+            "sampleRate", sampleRate,
+            "waveform", waveform,
+            "spectrum", spectrum
+        )));
+    }
+
+    private float[] computeSpectrum(int sampleRate) {
+        if (sampleRate != bandSampleRate) {
+            updateBands(sampleRate);
+        }
+        for (int i = 0; i < fftSize; i++) {
+            real[bitReversed[i]] = window[i] * hann[i];
+            imaginary[i] = 0;
+        }
+        fft();
+        float[] levels = new float[bandCount];
+        // Scales a full scale sine to 0 dBFS, allowing for the Hann window's
+        // coherent gain of 0.5.
+        float scale = 4.0f / fftSize;
+        int bin = 1;
+        for (int band = 0; band < bandCount; band++) {
+            float peak = 0;
+            for (; bin < bandEnds[band]; bin++) {
+                float magnitude = real[bin] * real[bin] + imaginary[bin] * imaginary[bin];
+                if (magnitude > peak) peak = magnitude;
+            }
+            levels[band] = peak > 0 ? Math.max(FLOOR_DB, (float)(20 * Math.log10(Math.sqrt(peak) * scale))) : FLOOR_DB;
+        }
+        return levels;
+    }
+
+    // An in place iterative radix-2 FFT over input already in bit reversed
+    // order.
+    private void fft() {
+        for (int size = 2; size <= fftSize; size <<= 1) {
+            int half = size >> 1;
+            int step = fftSize / size;
+            for (int start = 0; start < fftSize; start += size) {
+                for (int k = 0; k < half; k++) {
+                    float wr = cos[k * step];
+                    float wi = sin[k * step];
+                    int even = start + k;
+                    int odd = even + half;
+                    float tr = wr * real[odd] - wi * imaginary[odd];
+                    float ti = wr * imaginary[odd] + wi * real[odd];
+                    real[odd] = real[even] - tr;
+                    imaginary[odd] = imaginary[even] - ti;
+                    real[even] += tr;
+                    imaginary[even] += ti;
+                }
+            }
+        }
+    }
+
+    // Spaces band edges logarithmically from MIN_FREQUENCY to Nyquist, giving
+    // each band at least one bin.
+    private void updateBands(int sampleRate) {
+        bandSampleRate = sampleRate;
+        double binWidth = (double)sampleRate / fftSize;
+        double ratio = Math.pow((sampleRate / 2.0) / MIN_FREQUENCY, 1.0 / bandCount);
+        int previous = 1;
+        for (int band = 0; band < bandCount; band++) {
+            double upperFrequency = MIN_FREQUENCY * Math.pow(ratio, band + 1);
+            int end = (int)Math.round(upperFrequency / binWidth);
+            end = Math.max(previous + 1, Math.min(fftSize / 2 + 1, end));
+            bandEnds[band] = end;
+            previous = end;
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package com.ryanheise.just_audio;
 
+import android.os.Handler;
+import android.os.Looper;
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.EventChannel.EventSink;
 
+/**
+ * An event sink that drops events while nobody is listening. Events sent
+ * from a background thread are delivered on the platform (main) thread.
+ */
 public class BetterEventChannel implements EventSink {
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
     private EventSink eventSink;
+    private Runnable onListen;
 
 	public BetterEventChannel(final BinaryMessenger messenger, final String id) {
         EventChannel eventChannel = new EventChannel(messenger, id);
@@ -13,6 +21,7 @@ public class BetterEventChannel implements EventSink {
             @Override
             public void onListen(final Object arguments, final EventSink eventSink) {
                 BetterEventChannel.this.eventSink = eventSink;
+                if (onListen != null) onListen.run();
             }
 
             @Override
@@ -22,18 +31,38 @@ public class BetterEventChannel implements EventSink {
         });
 	}
 
+    public void setOnListen(Runnable onListen) {
+        this.onListen = onListen;
+    }
+
     @Override
-    public void success(Object event) {
+    public void success(final Object event) {
+        if (!isMainThread()) {
+            mainHandler.post(() -> success(event));
+            return;
+        }
         if (eventSink != null) eventSink.success(event);
     }
 
     @Override
-    public void error(String errorCode, String errorMessage, Object errorDetails) {
+    public void error(final String errorCode, final String errorMessage, final Object errorDetails) {
+        if (!isMainThread()) {
+            mainHandler.post(() -> error(errorCode, errorMessage, errorDetails));
+            return;
+        }
         if (eventSink != null) eventSink.error(errorCode, errorMessage, errorDetails);
     }
 
     @Override
     public void endOfStream() {
+        if (!isMainThread()) {
+            mainHandler.post(this::endOfStream);
+            return;
+        }
         if (eventSink != null) eventSink.endOfStream();
     }
+
+    private static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
 }
@@ -0,0 +1,227 @@
+package com.ryanheise.just_audio;
+
+import android.net.Uri;
+import androidx.media3.common.C;
+import androidx.media3.datasource.ByteArrayDataSource;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.TransferListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A byte-budgeted in-memory LRU cache of small encoded sources shared by all
+ * players in the process, as configured by the "androidClipCache" entry of
+ * an audioLoadConfiguration:
+ *
+ * - maxSize: the total size of cached clips in bytes (default 16MB)
+ * - maxClipSize: the largest clip to cache in bytes (default 1MB)
+ *
+ * A clip is cached once it has been read in full from its start, keyed by
+ * its URI (or custom cache key) and request headers. Only clips whose length
+ * is known when opened are cached, so that a truncated read is never
+ * mistaken for the whole clip. Later reads of it are served by a
+ * ByteArrayDataSource without touching the upstream source.
+ */
+public class ClipCache {
+    private static final long DEFAULT_MAX_SIZE = 16L * 1024 * 1024;
+    private static final long DEFAULT_MAX_CLIP_SIZE = 1024L * 1024;
+    private static final ClipCache instance = new ClipCache();
+
+    private final LinkedHashMap<Object, byte[]> clips = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxSize = DEFAULT_MAX_SIZE;
+    private long maxClipSize = DEFAULT_MAX_CLIP_SIZE;
+    private long residentBytes;
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * Returns the shared cache sized by the "androidClipCache" entry of an
+     * audioLoadConfiguration, or null if clip caching was not requested.
+     */
+    public static ClipCache fromConfiguration(Map<?, ?> clipCacheMap) {
+        if (clipCacheMap == null) return null;
+        Long maxSize = AudioPlayer.getLong(clipCacheMap.get("maxSize"));
+        Long maxClipSize = AudioPlayer.getLong(clipCacheMap.get("maxClipSize"));
+        instance.setLimits(
+            maxSize != null ? maxSize : DEFAULT_MAX_SIZE,
+            maxClipSize != null ? maxClipSize : DEFAULT_MAX_CLIP_SIZE);
+        return instance;
+    }
+
+    public static ClipCache getInstance() {
+        return instance;
+    }
+
+    public synchronized void setLimits(long maxSize, long maxClipSize) {
+        this.maxSize = maxSize;
+        this.maxClipSize = Math.min(maxClipSize, maxSize);
+        trimTo(maxSize);
+    }
+
+    /** Wraps upstreamFactory so that small clips are served from memory. */
+    public Factory buildDataSourceFactory(DataSource.Factory upstreamFactory, Map<?, ?> headers) {
+        return new Factory(upstreamFactory, headers);
+    }
+
+    /**
+     * Creates data sources that serve small clips from memory. The upstream
+     * factory stays reachable, e.g. so that prefetching can write to the
+     * CacheDataSource.Factory beneath it.
+     */
+    public class Factory implements DataSource.Factory {
+        private final DataSource.Factory upstreamFactory;
+        private final Map<?, ?> headers;
+
+        Factory(DataSource.Factory upstreamFactory, Map<?, ?> headers) {
+            this.upstreamFactory = upstreamFactory;
+            this.headers = headers;
+        }
+
+        public DataSource.Factory getUpstreamFactory() {
+            return upstreamFactory;
+        }
+
+        @Override
+        public DataSource createDataSource() {
+            return new ClipCacheDataSource(upstreamFactory.createDataSource(), headers);
+        }
+    }
+
+    public synchronized void clear() {
+        clips.clear();
+        residentBytes = 0;
+    }
+
+    public synchronized Map<String, Object> getStatistics() {
+        long requests = hitCount + missCount;
+        return AudioPlayer.mapOf(
+            "clipCount", clips.size(),
+            "residentBytes", residentBytes,
+            "maxSize", maxSize,
+            "hitCount", hitCount,
+            "missCount", missCount,
+            "hitRate", requests > 0 ? (double)hitCount / requests : 0.0
+        );
+    }
+
+    private synchronized byte[] get(Object key) {
+        byte[] data = clips.get(key);
+        if (data != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return data;
+    }
+
+    private synchronized long getMaxClipSize() {
+        return maxClipSize;
+    }
+
+    private synchronized void put(Object key, byte[] data) {
+        if (data.length > maxClipSize) return;
+        byte[] previous = clips.remove(key);
+        if (previous != null) residentBytes -= previous.length;
+        trimTo(maxSize - data.length);
+        clips.put(key, data);
+        residentBytes += data.length;
+    }
+
+    // Evicts the least recently used clips until at most size bytes remain.
+    private void trimTo(long size) {
+        for (Iterator<byte[]> it = clips.values().iterator(); it.hasNext() && residentBytes > size;) {
+            residentBytes -= it.next().length;
+            it.remove();
+        }
+    }
+
+    private class ClipCacheDataSource implements DataSource {
+        private final DataSource upstream;
+        private final Map<?, ?> headers;
+        private final List<TransferListener> transferListeners = new ArrayList<>();
+        private DataSource opened;
+        private Object recordingKey;
+        private long recordingLength;
+        private ByteArrayOutputStream recording;
+
+        ClipCacheDataSource(DataSource upstream, Map<?, ?> headers) {
+            this.upstream = upstream;
+            this.headers = headers;
+        }
+
+        @Override
+        public void addTransferListener(TransferListener transferListener) {
+            transferListeners.add(transferListener);
+            upstream.addTransferListener(transferListener);
+        }
+
+        @Override
+        public long open(DataSpec dataSpec) throws IOException {
+            Object key = Arrays.asList(dataSpec.key != null ? dataSpec.key : dataSpec.uri.toString(), headers);
+            byte[] data = get(key);
+            if (data != null) {
+                ByteArrayDataSource dataSource = new ByteArrayDataSource(data);
+                for (TransferListener transferListener : transferListeners) {
+                    dataSource.addTransferListener(transferListener);
+                }
+                opened = dataSource;
+                return dataSource.open(dataSpec);
+            }
+            opened = upstream;
+            long length = upstream.open(dataSpec);
+            // Only a read of the whole clip from its start can be cached.
+            if (dataSpec.position == 0 && dataSpec.length == C.LENGTH_UNSET && length != C.LENGTH_UNSET && length <= getMaxClipSize()) {
+                recordingKey = key;
+                recordingLength = length;
+                recording = new ByteArrayOutputStream((int)length);
+            }
+            return length;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = opened.read(buffer, offset, length);
+            if (recording != null) {
+                if (read == C.RESULT_END_OF_INPUT) {
+                    if (recording.size() == recordingLength) {
+                        put(recordingKey, recording.toByteArray());
+                    }
+                    recording = null;
+                } else if (recording.size() + read > recordingLength) {
+                    recording = null;
+                } else {
+                    recording.write(buffer, offset, read);
+                }
+            }
+            return read;
+        }
+
+        @Override
+        public Uri getUri() {
+            return opened != null ? opened.getUri() : null;
+        }
+
+        @Override
+        public Map<String, List<String>> getResponseHeaders() {
+            return opened != null ? opened.getResponseHeaders() : upstream.getResponseHeaders();
+        }
+
+        @Override
+        public void close() throws IOException {
+            recording = null;
+            recordingKey = null;
+            if (opened != null) {
+                DataSource opened = this.opened;
+                this.opened = null;
+                opened.close();
+            }
+        }
+    }
+}
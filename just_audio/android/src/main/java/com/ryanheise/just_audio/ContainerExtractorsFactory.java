@@ -0,0 +1,154 @@
+package com.ryanheise.just_audio;
+
+import android.net.Uri;
+import androidx.media3.extractor.Extractor;
+import androidx.media3.extractor.ExtractorsFactory;
+import androidx.media3.extractor.flac.FlacExtractor;
+import androidx.media3.extractor.mp3.Mp3Extractor;
+import androidx.media3.extractor.mp4.Mp4Extractor;
+import androidx.media3.extractor.ogg.OggExtractor;
+import androidx.media3.extractor.ts.AdtsExtractor;
+import androidx.media3.extractor.wav.WavExtractor;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates only the extractor for a declared container, as selected by the
+ * "container" entry of androidExtractorOptions, so that a progressive source
+ * is not sniffed by every extractor in turn:
+ *
+ * - mp3, m4a, ogg, flac, wav or adts: always use that extractor
+ * - auto: infer the container from the Content-Type response header, then
+ *   from the URI's extension, and try its extractor first, followed by
+ *   every extractor in turn so that a mislabelled source still loads
+ *
+ * A source whose declared container is wrong fails to load rather than
+ * being sniffed.
+ */
+@SuppressWarnings("deprecation")
+public class ContainerExtractorsFactory implements ExtractorsFactory {
+    public static final String AUTO = "auto";
+
+    private final String container;
+    private final ExtractorsFactory sniffingFactory;
+    private final boolean constantBitrateSeekingEnabled;
+    private final boolean constantBitrateSeekingAlwaysEnabled;
+    private final int mp3Flags;
+
+    public ContainerExtractorsFactory(String container, ExtractorsFactory sniffingFactory, boolean constantBitrateSeekingEnabled, boolean constantBitrateSeekingAlwaysEnabled, int mp3Flags) {
+        if (!AUTO.equals(container) && createExtractor(container, constantBitrateSeekingEnabled, constantBitrateSeekingAlwaysEnabled, mp3Flags) == null) {
+            throw new IllegalArgumentException("Unknown container: " + container);
+        }
+        this.container = container;
+        this.sniffingFactory = sniffingFactory;
+        this.constantBitrateSeekingEnabled = constantBitrateSeekingEnabled;
+        this.constantBitrateSeekingAlwaysEnabled = constantBitrateSeekingAlwaysEnabled;
+        this.mp3Flags = mp3Flags;
+    }
+
+    @Override
+    public Extractor[] createExtractors() {
+        return createExtractors(AUTO.equals(container) ? null : container);
+    }
+
+    @Override
+    public Extractor[] createExtractors(Uri uri, Map<String, List<String>> responseHeaders) {
+        if (!AUTO.equals(container)) return createExtractors(container);
+        String inferred = containerForMimeType(SeekIndexStore.getHeader(responseHeaders, "Content-Type"));
+        if (inferred == null) {
+            inferred = containerForExtension(AudioPlayer.getLowerCaseExtension(uri));
+        }
+        Extractor[] sniffingExtractors = sniffingFactory.createExtractors(uri, responseHeaders);
+        if (inferred == null) return sniffingExtractors;
+        // ExoPlayer sniffs in order, so the inferred extractor usually wins
+        // without the others reading the source.
+        Extractor[] extractors = new Extractor[sniffingExtractors.length + 1];
+        extractors[0] = createExtractor(inferred, constantBitrateSeekingEnabled, constantBitrateSeekingAlwaysEnabled, mp3Flags);
+        System.arraycopy(sniffingExtractors, 0, extractors, 1, sniffingExtractors.length);
+        return extractors;
+    }
+
+    private Extractor[] createExtractors(String container) {
+        if (container == null) return sniffingFactory.createExtractors();
+        return new Extractor[] { createExtractor(container, constantBitrateSeekingEnabled, constantBitrateSeekingAlwaysEnabled, mp3Flags) };
+    }
+
+    private static Extractor createExtractor(String container, boolean constantBitrateSeekingEnabled, boolean constantBitrateSeekingAlwaysEnabled, int mp3Flags) {
+        switch (container) {
+        case "mp3":
+            return new Mp3Extractor(mp3Flags
+                | (constantBitrateSeekingEnabled ? Mp3Extractor.FLAG_ENABLE_CONSTANT_BITRATE_SEEKING : 0)
+                | (constantBitrateSeekingAlwaysEnabled ? Mp3Extractor.FLAG_ENABLE_CONSTANT_BITRATE_SEEKING_ALWAYS : 0));
+        case "m4a":
+            return new Mp4Extractor();
+        case "ogg":
+            return new OggExtractor();
+        case "flac":
+            return new FlacExtractor();
+        case "wav":
+            return new WavExtractor();
+        case "adts":
+            return new AdtsExtractor(
+                (constantBitrateSeekingEnabled ? AdtsExtractor.FLAG_ENABLE_CONSTANT_BITRATE_SEEKING : 0)
+                | (constantBitrateSeekingAlwaysEnabled ? AdtsExtractor.FLAG_ENABLE_CONSTANT_BITRATE_SEEKING_ALWAYS : 0));
+        default:
+            return null;
+        }
+    }
+
+    private static String containerForMimeType(String mimeType) {
+        if (mimeType == null) return null;
+        int parametersStart = mimeType.indexOf(';');
+        switch ((parametersStart >= 0 ? mimeType.substring(0, parametersStart) : mimeType).trim().toLowerCase()) {
+        case "audio/mpeg":
+        case "audio/mp3":
+            return "mp3";
+        case "audio/mp4":
+        case "audio/m4a":
+        case "audio/x-m4a":
+            return "m4a";
+        case "audio/ogg":
+        case "audio/opus":
+        case "application/ogg":
+            return "ogg";
+        case "audio/flac":
+        case "audio/x-flac":
+            return "flac";
+        case "audio/wav":
+        case "audio/wave":
+        case "audio/x-wav":
+        case "audio/vnd.wave":
+            return "wav";
+        case "audio/aac":
+        case "audio/aacp":
+        case "audio/x-aac":
+            return "adts";
+        default:
+            return null;
+        }
+    }
+
+    private static String containerForExtension(String extension) {
+        switch (extension) {
+        case "mp3":
+            return "mp3";
+        case "m4a":
+        case "m4b":
+        case "mp4":
+            return "m4a";
+        case "ogg":
+        case "oga":
+        case "opus":
+            return "ogg";
+        case "flac":
+            return "flac";
+        case "wav":
+        case "wave":
+            return "wav";
+        case "aac":
+            return "adts";
+        default:
+            return null;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.ryanheise.just_audio;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import androidx.media3.common.C;
+import androidx.media3.common.PlaybackParameters;
+import androidx.media3.exoplayer.ExoPlayer;
+import androidx.media3.exoplayer.source.MediaSource;
+import java.util.Map;
+
+/**
+ * Crossfades between playlist items, as configured by the "androidCrossfade"
+ * entry of an audioLoadConfiguration:
+ *
+ * - duration: the length of the overlap in microseconds (default 3s)
+ * - curve: "linear" or "equalPower" (default)
+ *
+ * The main player always moves on to the next item as soon as the
+ * crossfade starts, so its index and position stay authoritative, while a
+ * secondary "tail" player finishes the outgoing item. The two players are
+ * mixed by the platform. Each fades through a GainEffect at the end of its
+ * software effects chain, which ramps per sample between the gains set
+ * here, so that the fade has no audible steps. The gains are only enabled
+ * during a crossfade.
+ *
+ * The tail player is built by the owner, like the main player, so that both
+ * use the same renderers and audio processors. It also joins the main
+ * player's audio session, so that session effects apply to both.
+ */
+public class Crossfader {
+    private static final long RAMP_INTERVAL_MS = 20;
+    private static final long DEFAULT_DURATION_MS = 3000;
+
+    /** Builds the tail player. */
+    public interface PlayerBuilder {
+        ExoPlayer build();
+    }
+
+    private final Handler handler;
+    private final PlayerBuilder tailPlayerBuilder;
+    private final long durationMs;
+    private final boolean equalPower;
+    private final GainEffect mainGain = new GainEffect();
+    private final GainEffect tailGain = new GainEffect();
+    private ExoPlayer tailPlayer;
+    private long startTime;
+    private boolean active;
+    private final Runnable ramp = new Runnable() {
+        @Override
+        public void run() {
+            float t = Math.min(1.0f, (SystemClock.elapsedRealtime() - startTime) / (float)durationMs);
+            if (t >= 1.0f) {
+                finish();
+                return;
+            }
+            tailGain.setLinearGain(gain(1.0f - t));
+            mainGain.setLinearGain(gain(t));
+            handler.postDelayed(this, RAMP_INTERVAL_MS);
+        }
+    };
+
+    public Crossfader(Handler handler, Map<?, ?> options, PlayerBuilder tailPlayerBuilder) {
+        this.handler = handler;
+        this.tailPlayerBuilder = tailPlayerBuilder;
+        Long durationUs = AudioPlayer.getLong(options.get("duration"));
+        this.durationMs = durationUs != null ? durationUs / 1000 : DEFAULT_DURATION_MS;
+        this.equalPower = !"linear".equals(options.get("curve"));
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /** The fade gain to put at the end of the main player's effects. */
+    public GainEffect getMainGain() {
+        return mainGain;
+    }
+
+    /** The fade gain to put at the end of the tail player's effects. */
+    public GainEffect getTailGain() {
+        return tailGain;
+    }
+
+    /**
+     * Starts playing tailSource from tailPositionMs, fading it out while
+     * mainPlayer, which the caller then moves to the next item, fades in.
+     */
+    public void start(ExoPlayer mainPlayer, MediaSource tailSource, long tailPositionMs) {
+        finish();
+        if (tailPlayer == null) {
+            tailPlayer = tailPlayerBuilder.build();
+        }
+        tailPlayer.setAudioAttributes(mainPlayer.getAudioAttributes(), false);
+        if (mainPlayer.getAudioSessionId() != C.AUDIO_SESSION_ID_UNSET) {
+            tailPlayer.setAudioSessionId(mainPlayer.getAudioSessionId());
+        }
+        tailPlayer.setSkipSilenceEnabled(mainPlayer.getSkipSilenceEnabled());
+        tailPlayer.setPlaybackParameters(mainPlayer.getPlaybackParameters());
+        tailPlayer.setVolume(mainPlayer.getVolume());
+        // Both players flush their audio processors next, which snaps each
+        // gain straight to its starting value.
+        tailGain.setLinearGain(1.0f);
+        tailGain.setEnabled(true);
+        mainGain.setLinearGain(0.0f);
+        mainGain.setEnabled(true);
+        tailPlayer.setMediaSource(tailSource, tailPositionMs);
+        tailPlayer.prepare();
+        tailPlayer.setPlayWhenReady(true);
+        active = true;
+        startTime = SystemClock.elapsedRealtime();
+        handler.postDelayed(ramp, RAMP_INTERVAL_MS);
+    }
+
+    /** Applies a volume change to a crossfade in progress. */
+    public void setVolume(float volume) {
+        if (active) {
+            tailPlayer.setVolume(volume);
+        }
+    }
+
+    /** Applies a speed or pitch change to a crossfade in progress. */
+    public void setPlaybackParameters(PlaybackParameters playbackParameters) {
+        if (active) {
+            tailPlayer.setPlaybackParameters(playbackParameters);
+        }
+    }
+
+    /** Completes any crossfade in progress immediately. */
+    public void finish() {
+        if (!active) return;
+        active = false;
+        handler.removeCallbacks(ramp);
+        tailPlayer.stop();
+        tailPlayer.clearMediaItems();
+        tailGain.setEnabled(false);
+        mainGain.setLinearGain(1.0f);
+        mainGain.setEnabled(false);
+    }
+
+    public void release() {
+        finish();
+        if (tailPlayer != null) {
+            tailPlayer.release();
+            tailPlayer = null;
+        }
+    }
+
+    private float gain(float t) {
+        return equalPower ? (float)Math.sin(t * Math.PI / 2) : t;
+    }
+}
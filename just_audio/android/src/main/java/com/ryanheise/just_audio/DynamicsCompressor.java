@@ -0,0 +1,139 @@
+package com.ryanheise.just_audio;
+
+import java.util.Map;
+
+/**
+ * A feed-forward compressor with a stereo-linked peak detector, configured
+ * as:
+ *
+ * - threshold: the level in dBFS above which gain is reduced
+ * - ratio: the compression ratio (ignored by a limiter, which uses infinity)
+ * - knee: the width of the soft knee in decibels (default 0)
+ * - attack: the attack time in microseconds
+ * - release: the release time in microseconds
+ * - makeupGain: the gain applied after compression in decibels
+ *
+ * As a limiter it has no lookahead, so transients shorter than the attack
+ * time can still overshoot the threshold.
+ */
+public class DynamicsCompressor extends SoftwareAudioEffect {
+    private final boolean limiter;
+    private volatile double thresholdDb;
+    private volatile double ratio = 4.0;
+    private volatile double kneeDb;
+    private volatile long attackUs;
+    private volatile long releaseUs;
+    private volatile double makeupGainDb;
+    private volatile boolean parametersChanged = true;
+
+    private int sampleRate;
+    private int channelCount;
+    private float threshold;
+    private float kneeStartLinear;
+    private float slope;
+    private float halfKnee;
+    private float attackCoefficient;
+    private float releaseCoefficient;
+    private float makeupGain;
+    private float envelope;
+
+    public DynamicsCompressor(boolean limiter) {
+        this.limiter = limiter;
+        thresholdDb = limiter ? -1.0 : -18.0;
+        attackUs = limiter ? 1000 : 10000;
+        releaseUs = limiter ? 50000 : 100000;
+    }
+
+    @Override
+    public void setParameters(Map<?, ?> parameters) {
+        Double value;
+        if ((value = getDouble(parameters, "threshold")) != null) thresholdDb = value;
+        if ((value = getDouble(parameters, "ratio")) != null) {
+            if (value < 1.0) throw new IllegalArgumentException("Compressor ratio must be at least 1");
+            ratio = value;
+        }
+        if ((value = getDouble(parameters, "knee")) != null) kneeDb = Math.max(0.0, value);
+        if ((value = getDouble(parameters, "attack")) != null) attackUs = Math.max(0, value.longValue());
+        if ((value = getDouble(parameters, "release")) != null) releaseUs = Math.max(0, value.longValue());
+        if ((value = getDouble(parameters, "makeupGain")) != null) makeupGainDb = value;
+        parametersChanged = true;
+    }
+
+    @Override
+    public void configure(int sampleRate, int channelCount) {
+        this.sampleRate = sampleRate;
+        this.channelCount = channelCount;
+        parametersChanged = true;
+    }
+
+    @Override
+    public void process(float[] samples, int frameCount) {
+        if (parametersChanged) {
+            parametersChanged = false;
+            updateParameters();
+        }
+        int i = 0;
+        for (int frame = 0; frame < frameCount; frame++) {
+            float peak = 0;
+            for (int channel = 0; channel < channelCount; channel++) {
+                float sample = Math.abs(samples[i + channel]);
+                if (sample > peak) peak = sample;
+            }
+            float coefficient = peak > envelope ? attackCoefficient : releaseCoefficient;
+            envelope = coefficient * envelope + (1 - coefficient) * peak;
+            float gain = makeupGain;
+            if (envelope > kneeStartLinear) {
+                float overDb = (float)(20 * Math.log10(envelope)) - threshold;
+                float reductionDb;
+                if (halfKnee <= 0) {
+                    // A hard knee. Rounding can put overDb just below zero
+                    // even though the envelope is above kneeStartLinear.
+                    reductionDb = slope * Math.max(0, overDb);
+                } else if (overDb >= halfKnee) {
+                    reductionDb = slope * overDb;
+                } else {
+                    // Quadratic interpolation across the soft knee.
+                    float x = overDb + halfKnee;
+                    reductionDb = slope * x * x / (4 * halfKnee);
+                }
+                gain *= (float)Math.pow(10.0, -reductionDb / 20.0);
+            }
+            for (int channel = 0; channel < channelCount; channel++) {
+                samples[i++] *= gain;
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        envelope = 0;
+    }
+
+    @Override
+    public SoftwareAudioEffect copy() {
+        DynamicsCompressor copy = new DynamicsCompressor(limiter);
+        copy.thresholdDb = thresholdDb;
+        copy.ratio = ratio;
+        copy.kneeDb = kneeDb;
+        copy.attackUs = attackUs;
+        copy.releaseUs = releaseUs;
+        copy.makeupGainDb = makeupGainDb;
+        copy.setEnabled(isEnabled());
+        return copy;
+    }
+
+    private void updateParameters() {
+        slope = limiter ? 1.0f : (float)(1.0 - 1.0 / ratio);
+        threshold = (float)thresholdDb;
+        halfKnee = (float)(kneeDb / 2);
+        kneeStartLinear = dbToLinear(thresholdDb - halfKnee);
+        attackCoefficient = timeCoefficient(attackUs);
+        releaseCoefficient = timeCoefficient(releaseUs);
+        makeupGain = dbToLinear(makeupGainDb);
+    }
+
+    private float timeCoefficient(long timeUs) {
+        if (timeUs <= 0 || sampleRate <= 0) return 0;
+        return (float)Math.exp(-1_000_000.0 / (timeUs * (double)sampleRate));
+    }
+}
@@ -0,0 +1,75 @@
+package com.ryanheise.just_audio;
+
+import java.util.Map;
+
+/**
+ * Applies a fixed gain, configured as:
+ *
+ * - gain: the gain in decibels
+ *
+ * Gain changes are ramped over one buffer to avoid clicks.
+ */
+public class GainEffect extends SoftwareAudioEffect {
+    private volatile float targetGain = 1.0f;
+    private float gain = 1.0f;
+    private int channelCount;
+
+    @Override
+    public void setParameters(Map<?, ?> parameters) {
+        Double gainDb = getDouble(parameters, "gain");
+        if (gainDb != null) {
+            targetGain = dbToLinear(gainDb);
+        }
+    }
+
+    /** Sets the gain in decibels. */
+    public void setGain(double gainDb) {
+        targetGain = dbToLinear(gainDb);
+    }
+
+    /** Sets the gain as a linear factor, which may be 0 to mute. */
+    public void setLinearGain(float gain) {
+        targetGain = gain;
+    }
+
+    @Override
+    public void configure(int sampleRate, int channelCount) {
+        this.channelCount = channelCount;
+    }
+
+    @Override
+    public void process(float[] samples, int frameCount) {
+        float target = targetGain;
+        if (gain == target) {
+            if (gain == 1.0f) return;
+            int sampleCount = frameCount * channelCount;
+            for (int i = 0; i < sampleCount; i++) {
+                samples[i] *= gain;
+            }
+            return;
+        }
+        float step = (target - gain) / frameCount;
+        int i = 0;
+        for (int frame = 0; frame < frameCount; frame++) {
+            gain += step;
+            for (int channel = 0; channel < channelCount; channel++) {
+                samples[i++] *= gain;
+            }
+        }
+        gain = target;
+    }
+
+    @Override
+    public void reset() {
+        gain = targetGain;
+    }
+
+    @Override
+    public SoftwareAudioEffect copy() {
+        GainEffect copy = new GainEffect();
+        copy.targetGain = targetGain;
+        copy.gain = targetGain;
+        copy.setEnabled(isEnabled());
+        return copy;
+    }
+}
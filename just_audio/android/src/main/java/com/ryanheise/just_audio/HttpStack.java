@@ -0,0 +1,70 @@
+package com.ryanheise.just_audio;
+
+import androidx.media3.datasource.DefaultHttpDataSource;
+import androidx.media3.datasource.HttpDataSource;
+import androidx.media3.datasource.TransferListener;
+import io.flutter.Log;
+import java.util.Map;
+
+/**
+ * Builds the HTTP data source factories used by a player, as configured by
+ * the "androidHttp" entry of an audioLoadConfiguration:
+ *
+ * - backend: "default" (HttpURLConnection) or "okhttp"
+ * - connectTimeout, readTimeout: in microseconds
+ * - maxIdleConnections, keepAliveDuration (microseconds), http2 and
+ *   dnsCacheDuration (microseconds): okhttp only
+ *
+ * The okhttp backend requires the app to depend on
+ * androidx.media3:media3-datasource-okhttp and to run on API 21 or later.
+ * Otherwise the default backend is used.
+ */
+public class HttpStack {
+    static final String TAG = "HttpStack";
+
+    private final Integer connectTimeoutMs;
+    private final Integer readTimeoutMs;
+    private final OkHttpBackend okHttpBackend;
+
+    public HttpStack(Map<?, ?> options) {
+        String backend = null;
+        Long connectTimeout = null;
+        Long readTimeout = null;
+        if (options != null) {
+            backend = (String)options.get("backend");
+            connectTimeout = AudioPlayer.getLong(options.get("connectTimeout"));
+            readTimeout = AudioPlayer.getLong(options.get("readTimeout"));
+        }
+        connectTimeoutMs = connectTimeout != null ? (int)(connectTimeout / 1000) : null;
+        readTimeoutMs = readTimeout != null ? (int)(readTimeout / 1000) : null;
+        if ("okhttp".equals(backend) && OkHttpBackend.isAvailable()) {
+            okHttpBackend = new OkHttpBackend(options);
+        } else {
+            if ("okhttp".equals(backend)) {
+                Log.w(TAG, "The okhttp backend needs API 21 and media3-datasource-okhttp, using default");
+            } else if (backend != null && !backend.equals("default")) {
+                Log.w(TAG, "Unknown HTTP backend " + backend + ", using default");
+            }
+            okHttpBackend = null;
+        }
+    }
+
+    public HttpDataSource.Factory createFactory(String userAgent, Map<String, String> headers, TransferListener transferListener) {
+        HttpDataSource.Factory factory;
+        if (okHttpBackend != null) {
+            factory = okHttpBackend.createFactory(userAgent, transferListener);
+        } else {
+            DefaultHttpDataSource.Factory defaultFactory = new DefaultHttpDataSource.Factory()
+                .setUserAgent(userAgent)
+                .setAllowCrossProtocolRedirects(true)
+                .setTransferListener(transferListener);
+            if (connectTimeoutMs != null) defaultFactory.setConnectTimeoutMs(connectTimeoutMs);
+            if (readTimeoutMs != null) defaultFactory.setReadTimeoutMs(readTimeoutMs);
+            factory = defaultFactory;
+        }
+        if (headers != null && headers.size() > 0) {
+            factory.setDefaultRequestProperties(headers);
+        }
+        return factory;
+    }
+}
@@ -44,6 +44,7 @@ public class JustAudioPlugin implements FlutterPlugin {
     public void onDetachedFromEngine(@NonNull FlutterPluginBinding binding) {
         methodCallHandler.dispose();
         methodCallHandler = null;
+        PlayerPool.getInstance().clear();
 
         channel.setMethodCallHandler(null);
     }
@@ -0,0 +1,115 @@
+package com.ryanheise.just_audio;
+
+import android.os.Build;
+import android.os.Trace;
+import androidx.media3.exoplayer.analytics.AnalyticsListener;
+import androidx.media3.exoplayer.source.LoadEventInfo;
+import androidx.media3.exoplayer.source.MediaLoadData;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timestamps the phases of a single load. Traces are created by a
+ * LoadTrace.Factory, as configured by the "androidLoadTrace" entry of an
+ * audioLoadConfiguration:
+ *
+ * - systemTrace: whether to also emit android.os.Trace sections so that
+ *   loads show up in Perfetto and systrace (default false)
+ *
+ * Each phase is reported as the time in microseconds from the load starting
+ * on the player thread:
+ *
+ * - decoded: the audio sources have been decoded
+ * - mediaSourcesSet: the player has been given the media sources
+ * - firstLoadStarted: the first network or disk load has started
+ * - firstLoadCompleted: the first load has completed
+ * - ready: the player has reached STATE_READY (or STATE_ENDED)
+ *
+ * The breakdown of a completed load is returned in the load response under
+ * "loadPhases", and is included in "androidMetrics" reports if those are
+ * enabled. A trace listens to the player only while its load is pending.
+ * Methods may be called from any thread.
+ */
+public class LoadTrace implements AnalyticsListener {
+    private static final String SECTION_NAME = "just_audio load";
+    private static final AtomicInteger nextCookie = new AtomicInteger();
+
+    private final boolean systemTrace;
+    private final long startTimeNs;
+    private final int cookie;
+    private final Map<String, Long> phases = new HashMap<>();
+    private boolean ended;
+
+    private LoadTrace(boolean systemTrace) {
+        this.systemTrace = systemTrace;
+        startTimeNs = System.nanoTime();
+        cookie = nextCookie.incrementAndGet();
+        if (systemTrace) {
+            Trace.beginAsyncSection(SECTION_NAME, cookie);
+        }
+    }
+
+    /** Records phase if the load has not passed it yet. */
+    public synchronized void mark(String phase) {
+        if (ended || phases.containsKey(phase)) return;
+        phases.put(phase, (System.nanoTime() - startTimeNs) / 1000);
+    }
+
+    /**
+     * Records the ready phase and returns the completed breakdown, or null
+     * if the trace has already ended.
+     */
+    public synchronized Map<String, Long> finish() {
+        if (ended) return null;
+        mark("ready");
+        Map<String, Long> breakdown = new HashMap<>(phases);
+        end();
+        return breakdown;
+    }
+
+    /** Abandons the load. */
+    public synchronized void cancel() {
+        if (!ended) end();
+    }
+
+    /** Wraps the synchronous phase that ends at phase in a trace section. */
+    public void beginSection(String phase) {
+        if (systemTrace) Trace.beginSection("just_audio " + phase);
+    }
+
+    public void endSection(String phase) {
+        if (systemTrace) Trace.endSection();
+        mark(phase);
+    }
+
+    @Override
+    public void onLoadStarted(EventTime eventTime, LoadEventInfo loadEventInfo, MediaLoadData mediaLoadData) {
+        mark("firstLoadStarted");
+    }
+
+    @Override
+    public void onLoadCompleted(EventTime eventTime, LoadEventInfo loadEventInfo, MediaLoadData mediaLoadData) {
+        mark("firstLoadCompleted");
+    }
+
+    private void end() {
+        ended = true;
+        if (systemTrace) {
+            Trace.endAsyncSection(SECTION_NAME, cookie);
+        }
+    }
+
+    public static class Factory {
+        private final boolean systemTrace;
+
+        public Factory(Map<?, ?> options) {
+            systemTrace = Boolean.TRUE.equals(options.get("systemTrace")) && Build.VERSION.SDK_INT >= 29;
+        }
+
+        /** Starts tracing a load. */
+        public LoadTrace begin() {
+            return new LoadTrace(systemTrace);
+        }
+    }
+}
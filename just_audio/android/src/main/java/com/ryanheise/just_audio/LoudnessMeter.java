@@ -0,0 +1,131 @@
+package com.ryanheise.just_audio;
+
+/**
+ * Measures integrated loudness as specified by ITU-R BS.1770-4: K-weighted
+ * mean square over 400 ms blocks with 75% overlap, gated at -70 LUFS and
+ * then at 10 LU below the ungated loudness.
+ *
+ * Block loudnesses are accumulated into a histogram of 0.1 LU bins, as in
+ * libebur128, so memory use is constant regardless of duration.
+ */
+public class LoudnessMeter {
+    private static final double ABSOLUTE_GATE = -70.0;
+    private static final double RELATIVE_GATE = -10.0;
+    private static final double HISTOGRAM_MAX = 5.0;
+    private static final double BIN_WIDTH = 0.1;
+    private static final int BIN_COUNT = (int)Math.round((HISTOGRAM_MAX - ABSOLUTE_GATE) / BIN_WIDTH);
+
+    private final int channelCount;
+    private final double[] channelWeights;
+    // Pre-filter (high shelf) and RLB (high pass) biquad coefficients.
+    private final double pb0, pb1, pb2, pa1, pa2;
+    private final double rb0, rb1, rb2, ra1, ra2;
+    // Per channel filter state: pre-filter z1, z2, RLB z1, z2.
+    private final double[] state;
+    private final int subBlockFrames;
+    private int subBlockPosition;
+    private double subBlockEnergy;
+    // Energies of the last four 100 ms sub-blocks.
+    private final double[] subBlocks = new double[4];
+    private int subBlockCount;
+    private final long[] binCounts = new long[BIN_COUNT];
+    private final double[] binEnergies = new double[BIN_COUNT];
+
+    public LoudnessMeter(int sampleRate, int channelCount) {
+        this.channelCount = channelCount;
+        channelWeights = new double[channelCount];
+        for (int i = 0; i < channelCount; i++) {
+            // Surround channels of 5.1 are weighted up and the LFE ignored.
+            channelWeights[i] = channelCount == 6 ? (i == 3 ? 0.0 : i >= 4 ? 1.41 : 1.0) : 1.0;
+        }
+        double f0 = 1681.974450955533;
+        double gain = 3.999843853973347;
+        double q = 0.7071752369554196;
+        double k = Math.tan(Math.PI * f0 / sampleRate);
+        double vh = Math.pow(10.0, gain / 20.0);
+        double vb = Math.pow(vh, 0.4996667741545416);
+        double a0 = 1.0 + k / q + k * k;
+        pb0 = (vh + vb * k / q + k * k) / a0;
+        pb1 = 2.0 * (k * k - vh) / a0;
+        pb2 = (vh - vb * k / q + k * k) / a0;
+        pa1 = 2.0 * (k * k - 1.0) / a0;
+        pa2 = (1.0 - k / q + k * k) / a0;
+        f0 = 38.13547087602444;
+        q = 0.5003270373238773;
+        k = Math.tan(Math.PI * f0 / sampleRate);
+        a0 = 1.0 + k / q + k * k;
+        rb0 = 1.0;
+        rb1 = -2.0;
+        rb2 = 1.0;
+        ra1 = 2.0 * (k * k - 1.0) / a0;
+        ra2 = (1.0 - k / q + k * k) / a0;
+        state = new double[4 * channelCount];
+        subBlockFrames = Math.max(1, sampleRate / 10);
+    }
+
+    /** Adds frameCount frames of interleaved samples in the range [-1, 1]. */
+    public void addFrames(float[] samples, int frameCount) {
+        int i = 0;
+        for (int frame = 0; frame < frameCount; frame++) {
+            for (int channel = 0; channel < channelCount; channel++) {
+                subBlockEnergy += channelWeights[channel] * square(filter(channel, samples[i++]));
+            }
+            if (++subBlockPosition == subBlockFrames) {
+                endSubBlock();
+            }
+        }
+    }
+
+    /** Returns the integrated loudness in LUFS, or null if all blocks were gated. */
+    public Double getIntegratedLoudness() {
+        double energy = 0;
+        long count = 0;
+        for (int i = 0; i < BIN_COUNT; i++) {
+            energy += binEnergies[i];
+            count += binCounts[i];
+        }
+        if (count == 0) return null;
+        double relativeGate = loudnessOf(energy / count) + RELATIVE_GATE;
+        int firstBin = Math.max(0, (int)Math.floor((relativeGate - ABSOLUTE_GATE) / BIN_WIDTH));
+        energy = 0;
+        count = 0;
+        for (int i = firstBin; i < BIN_COUNT; i++) {
+            energy += binEnergies[i];
+            count += binCounts[i];
+        }
+        return count > 0 ? loudnessOf(energy / count) : null;
+    }
+
+    private double filter(int channel, double x) {
+        int s = 4 * channel;
+        double y = pb0 * x + state[s];
+        state[s] = pb1 * x - pa1 * y + state[s + 1];
+        state[s + 1] = pb2 * x - pa2 * y;
+        double z = rb0 * y + state[s + 2];
+        state[s + 2] = rb1 * y - ra1 * z + state[s + 3];
+        state[s + 3] = rb2 * y - ra2 * z;
+        return z;
+    }
+
+    private void endSubBlock() {
+        subBlocks[subBlockCount % 4] = subBlockEnergy / subBlockFrames;
+        subBlockCount++;
+        subBlockEnergy = 0;
+        subBlockPosition = 0;
+        if (subBlockCount < 4) return;
+        double blockEnergy = (subBlocks[0] + subBlocks[1] + subBlocks[2] + subBlocks[3]) / 4;
+        double loudness = loudnessOf(blockEnergy);
+        if (loudness < ABSOLUTE_GATE) return;
+        int bin = Math.min(BIN_COUNT - 1, (int)((loudness - ABSOLUTE_GATE) / BIN_WIDTH));
+        binCounts[bin]++;
+        binEnergies[bin] += blockEnergy;
+    }
+
+    private static double loudnessOf(double energy) {
+        return -0.691 + 10.0 * Math.log10(energy);
+    }
+
+    private static double square(double x) {
+        return x * x;
+    }
+}
@@ -0,0 +1,95 @@
+package com.ryanheise.just_audio;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import androidx.media3.common.C;
+import androidx.media3.common.Format;
+import androidx.media3.common.Metadata;
+import androidx.media3.common.Tracks;
+import androidx.media3.datasource.DataSource;
+import java.util.Map;
+
+/**
+ * Normalizes each track to a target loudness, as configured by the
+ * "androidLoudnessNormalization" entry of an audioLoadConfiguration:
+ *
+ * - targetLoudness: the target loudness in LUFS (default -18)
+ * - album: whether to prefer album gain over track gain (default false)
+ * - analyze: whether to measure untagged tracks in the background (default true)
+ * - maxGain: the largest gain to apply in decibels (default 12)
+ * - preventClipping: whether to limit the gain by the tagged peak (default true)
+ *
+ * The loudness of a track comes from its ReplayGain or R128 tags if any,
+ * otherwise from a previous measurement. Untagged tracks play at unity
+ * gain until measured. The gain is applied by a GainEffect at the head of
+ * the player's SoftwareEffectsProcessor chain.
+ */
+public class LoudnessNormalizer {
+    private static final double DEFAULT_TARGET_LOUDNESS = -18.0;
+    private static final double DEFAULT_MAX_GAIN = 12.0;
+
+    private final LoudnessStore store;
+    private final Handler handler;
+    private final double targetLoudness;
+    private final boolean album;
+    private final boolean analyze;
+    private final double maxGain;
+    private final boolean preventClipping;
+    private final GainEffect gainEffect = new GainEffect();
+    private double gain;
+
+    public LoudnessNormalizer(Context context, Handler handler, Map<?, ?> options) {
+        this.store = LoudnessStore.getInstance(context);
+        this.handler = handler;
+        Double value = SoftwareAudioEffect.getDouble(options, "targetLoudness");
+        targetLoudness = value != null ? value : DEFAULT_TARGET_LOUDNESS;
+        album = Boolean.TRUE.equals(options.get("album"));
+        analyze = !Boolean.FALSE.equals(options.get("analyze"));
+        value = SoftwareAudioEffect.getDouble(options, "maxGain");
+        maxGain = value != null ? value : DEFAULT_MAX_GAIN;
+        preventClipping = !Boolean.FALSE.equals(options.get("preventClipping"));
+        gainEffect.setEnabled(true);
+    }
+
+    public SoftwareAudioEffect getEffect() {
+        return gainEffect;
+    }
+
+    /** The gain currently applied in decibels. */
+    public double getGain() {
+        return gain;
+    }
+
+    /**
+     * Sets the gain for a newly playing track. If the track is untagged and
+     * unmeasured, it is measured from uri and onMeasured is posted to the
+     * handler once its loudness is known.
+     */
+    public void onTrackChanged(Tracks tracks, String key, Uri uri, DataSource.Factory dataSourceFactory, final Runnable onMeasured) {
+        LoudnessTags tags = null;
+        for (Tracks.Group group : tracks.getGroups()) {
+            if (group.getType() != C.TRACK_TYPE_AUDIO || !group.isSelected()) continue;
+            for (int i = 0; i < group.length && tags == null; i++) {
+                Format format = group.getTrackFormat(i);
+                Metadata metadata = format.metadata;
+                if (group.isTrackSelected(i) && metadata != null) {
+                    tags = LoudnessTags.fromMetadata(metadata, album);
+                }
+            }
+        }
+        Double loudness = tags != null ? tags.loudness : null;
+        if (loudness == null && key != null) {
+            loudness = store.get(key);
+            if (loudness == null && analyze && uri != null && dataSourceFactory != null) {
+                store.scheduleAnalysis(dataSourceFactory, uri, key, () -> handler.post(onMeasured));
+            }
+        }
+        double newGain = loudness != null ? Math.min(targetLoudness - loudness, maxGain) : 0.0;
+        if (preventClipping && tags != null && tags.peak != null && tags.peak > 0) {
+            newGain = Math.min(newGain, -20 * Math.log10(tags.peak));
+        }
+        gain = newGain;
+        gainEffect.setGain(newGain);
+    }
+}
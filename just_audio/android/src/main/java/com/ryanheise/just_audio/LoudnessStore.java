@@ -0,0 +1,258 @@
+package com.ryanheise.just_audio;
+
+import android.content.Context;
+import android.media.MediaCodec;
+import android.media.MediaDataSource;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.net.Uri;
+import android.os.Build;
+import androidx.media3.common.C;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSourceUtil;
+import androidx.media3.datasource.DataSpec;
+import io.flutter.Log;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Caches the measured integrated loudness of tracks without loudness tags,
+ * keyed by URI, and measures missing ones in the background by decoding
+ * them with MediaCodec.
+ *
+ * Measuring requires API level 23, which added MediaDataSource, so that
+ * the track is read through the player's own data source (including its
+ * headers and cache).
+ */
+public class LoudnessStore {
+    static final String TAG = "LoudnessStore";
+    private static final String FILE_NAME = "just_audio_loudness";
+    private static final int VERSION = 1;
+    private static final int MAX_ENTRIES = 2048;
+    private static final long TIMEOUT_US = 10000;
+
+    private static LoudnessStore instance;
+
+    private final File file;
+    private Map<String, Double> loudnesses;
+    private final Set<String> analyzing = new HashSet<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "just_audio loudness");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    public static synchronized LoudnessStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new LoudnessStore(new File(context.getCacheDir(), FILE_NAME));
+        }
+        return instance;
+    }
+
+    private LoudnessStore(File file) {
+        this.file = file;
+    }
+
+    /** Returns the measured loudness of key in LUFS, or null if unknown. */
+    public synchronized Double get(String key) {
+        return getLoudnesses().get(key);
+    }
+
+    /**
+     * Measures the loudness of uri in the background unless already
+     * underway, and calls onComplete on the executor thread when done.
+     */
+    public synchronized void scheduleAnalysis(final DataSource.Factory dataSourceFactory, final Uri uri, final String key, final Runnable onComplete) {
+        if (Build.VERSION.SDK_INT < 23) return;
+        if (getLoudnesses().containsKey(key) || !analyzing.add(key)) return;
+        executor.execute(() -> {
+            try {
+                Double loudness = analyze(dataSourceFactory, uri);
+                if (loudness != null) {
+                    put(key, loudness);
+                    onComplete.run();
+                }
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Failed to measure loudness of " + uri + ": " + e.getMessage());
+            } finally {
+                synchronized (LoudnessStore.this) {
+                    analyzing.remove(key);
+                }
+            }
+        });
+    }
+
+    private synchronized void put(String key, double loudness) {
+        getLoudnesses().put(key, loudness);
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeInt(VERSION);
+            out.writeInt(loudnesses.size());
+            for (Map.Entry<String, Double> entry : loudnesses.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeDouble(entry.getValue());
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write loudness cache: " + e.getMessage());
+            tempFile.delete();
+            return;
+        }
+        tempFile.renameTo(file);
+    }
+
+    private Map<String, Double> getLoudnesses() {
+        if (loudnesses != null) return loudnesses;
+        loudnesses = AudioPlayer.newLruMap(MAX_ENTRIES);
+        if (!file.exists()) return loudnesses;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() == VERSION) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    String key = in.readUTF();
+                    loudnesses.put(key, in.readDouble());
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read loudness cache: " + e.getMessage());
+        }
+        return loudnesses;
+    }
+
+    private static Double analyze(DataSource.Factory dataSourceFactory, Uri uri) throws IOException {
+        MediaExtractor extractor = new MediaExtractor();
+        MediaCodec codec = null;
+        try {
+            extractor.setDataSource(new DataSourceMediaDataSource(dataSourceFactory, uri));
+            MediaFormat format = null;
+            for (int i = 0; i < extractor.getTrackCount(); i++) {
+                String mime = extractor.getTrackFormat(i).getString(MediaFormat.KEY_MIME);
+                if (mime != null && mime.startsWith("audio/")) {
+                    format = extractor.getTrackFormat(i);
+                    extractor.selectTrack(i);
+                    break;
+                }
+            }
+            if (format == null) return null;
+            codec = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+            codec.configure(format, null, null, 0);
+            codec.start();
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            LoudnessMeter meter = null;
+            boolean pcmFloat = false;
+            int channelCount = 0;
+            float[] samples = new float[0];
+            boolean inputDone = false;
+            while (true) {
+                if (!inputDone) {
+                    int inputIndex = codec.dequeueInputBuffer(TIMEOUT_US);
+                    if (inputIndex >= 0) {
+                        int size = extractor.readSampleData(codec.getInputBuffer(inputIndex), 0);
+                        if (size < 0) {
+                            codec.queueInputBuffer(inputIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            inputDone = true;
+                        } else {
+                            codec.queueInputBuffer(inputIndex, 0, size, extractor.getSampleTime(), 0);
+                            extractor.advance();
+                        }
+                    }
+                }
+                int outputIndex = codec.dequeueOutputBuffer(info, TIMEOUT_US);
+                if (outputIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED || (outputIndex >= 0 && meter == null)) {
+                    MediaFormat outputFormat = codec.getOutputFormat();
+                    channelCount = outputFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+                    pcmFloat = Build.VERSION.SDK_INT >= 24
+                        && outputFormat.containsKey(MediaFormat.KEY_PCM_ENCODING)
+                        && outputFormat.getInteger(MediaFormat.KEY_PCM_ENCODING) == android.media.AudioFormat.ENCODING_PCM_FLOAT;
+                    meter = new LoudnessMeter(outputFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE), channelCount);
+                }
+                if (outputIndex < 0) continue;
+                ByteBuffer output = codec.getOutputBuffer(outputIndex).order(ByteOrder.nativeOrder());
+                int sampleCount = info.size / (pcmFloat ? 4 : 2);
+                if (samples.length < sampleCount) {
+                    samples = new float[sampleCount];
+                }
+                for (int i = 0; i < sampleCount; i++) {
+                    samples[i] = pcmFloat
+                        ? output.getFloat(info.offset + 4 * i)
+                        : output.getShort(info.offset + 2 * i) * (1.0f / 32768);
+                }
+                meter.addFrames(samples, sampleCount / channelCount);
+                codec.releaseOutputBuffer(outputIndex, false);
+                if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) break;
+            }
+            return meter != null ? meter.getIntegratedLoudness() : null;
+        } finally {
+            if (codec != null) {
+                codec.release();
+            }
+            extractor.release();
+        }
+    }
+
+    // Serves MediaExtractor's random reads from a DataSource, reopening it
+    // only when a read is not contiguous with the previous one.
+    private static class DataSourceMediaDataSource extends MediaDataSource {
+        private final DataSource.Factory dataSourceFactory;
+        private final Uri uri;
+        private DataSource dataSource;
+        private long position = C.INDEX_UNSET;
+        private long size = C.LENGTH_UNSET;
+
+        DataSourceMediaDataSource(DataSource.Factory dataSourceFactory, Uri uri) {
+            this.dataSourceFactory = dataSourceFactory;
+            this.uri = uri;
+        }
+
+        @Override
+        public int readAt(long position, byte[] buffer, int offset, int size) throws IOException {
+            if (size == 0) return 0;
+            if (this.size != C.LENGTH_UNSET && position >= this.size) return -1;
+            if (dataSource == null || position != this.position) {
+                open(position);
+            }
+            int read = dataSource.read(buffer, offset, size);
+            if (read == C.RESULT_END_OF_INPUT) return -1;
+            this.position += read;
+            return read;
+        }
+
+        @Override
+        public long getSize() throws IOException {
+            if (dataSource == null) {
+                open(0);
+            }
+            return size;
+        }
+
+        @Override
+        public void close() {
+            if (dataSource != null) {
+                DataSourceUtil.closeQuietly(dataSource);
+                dataSource = null;
+            }
+        }
+
+        private void open(long position) throws IOException {
+            close();
+            dataSource = dataSourceFactory.createDataSource();
+            long length = dataSource.open(new DataSpec.Builder().setUri(uri).setPosition(position).build());
+            if (size == C.LENGTH_UNSET && length != C.LENGTH_UNSET) {
+                size = position + length;
+            }
+            this.position = position;
+        }
+    }
+}
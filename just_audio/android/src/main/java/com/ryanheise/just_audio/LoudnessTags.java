@@ -0,0 +1,94 @@
+package com.ryanheise.just_audio;
+
+import androidx.media3.common.Metadata;
+import androidx.media3.extractor.metadata.id3.InternalFrame;
+import androidx.media3.extractor.metadata.id3.TextInformationFrame;
+import androidx.media3.extractor.metadata.vorbis.VorbisComment;
+
+/**
+ * Reads a track's loudness from its ReplayGain or EBU R128 tags, as found
+ * in ID3 TXXX frames, iTunes freeform atoms and Vorbis comments.
+ *
+ * Both tag formats store a gain relative to a reference level, which is
+ * converted back into the track's loudness in LUFS so that it can be
+ * compared with a measured loudness and any target level.
+ */
+public class LoudnessTags {
+    // ReplayGain 2.0 normalizes to -18 LUFS and R128 tags to -23 LUFS.
+    private static final double REPLAY_GAIN_REFERENCE = -18.0;
+    private static final double R128_REFERENCE = -23.0;
+
+    /** The loudness in LUFS, or null if untagged. */
+    public final Double loudness;
+    /** The sample peak relative to full scale, or null if untagged. */
+    public final Double peak;
+
+    private LoudnessTags(Double loudness, Double peak) {
+        this.loudness = loudness;
+        this.peak = peak;
+    }
+
+    /** Returns the tags in metadata, preferring album gain if album is true. */
+    public static LoudnessTags fromMetadata(Metadata metadata, boolean album) {
+        Double trackGain = null, albumGain = null, trackPeak = null, albumPeak = null;
+        Double r128TrackGain = null, r128AlbumGain = null;
+        for (int i = 0; i < metadata.length(); i++) {
+            Metadata.Entry entry = metadata.get(i);
+            String key;
+            String value;
+            if (entry instanceof TextInformationFrame && "TXXX".equals(((TextInformationFrame)entry).id)) {
+                TextInformationFrame frame = (TextInformationFrame)entry;
+                key = frame.description;
+                value = frame.values.isEmpty() ? null : frame.values.get(0);
+            } else if (entry instanceof InternalFrame) {
+                key = ((InternalFrame)entry).description;
+                value = ((InternalFrame)entry).text;
+            } else if (entry instanceof VorbisComment) {
+                key = ((VorbisComment)entry).key;
+                value = ((VorbisComment)entry).value;
+            } else {
+                continue;
+            }
+            if (key == null || value == null) continue;
+            switch (key.toUpperCase()) {
+            case "REPLAYGAIN_TRACK_GAIN": trackGain = parseNumber(value); break;
+            case "REPLAYGAIN_ALBUM_GAIN": albumGain = parseNumber(value); break;
+            case "REPLAYGAIN_TRACK_PEAK": trackPeak = parseNumber(value); break;
+            case "REPLAYGAIN_ALBUM_PEAK": albumPeak = parseNumber(value); break;
+            case "R128_TRACK_GAIN": r128TrackGain = parseQ78(value); break;
+            case "R128_ALBUM_GAIN": r128AlbumGain = parseQ78(value); break;
+            }
+        }
+        Double gain = album && albumGain != null ? albumGain : trackGain;
+        Double peak = album && albumPeak != null ? albumPeak : trackPeak;
+        if (gain != null) {
+            return new LoudnessTags(REPLAY_GAIN_REFERENCE - gain, peak);
+        }
+        Double r128Gain = album && r128AlbumGain != null ? r128AlbumGain : r128TrackGain;
+        if (r128Gain != null) {
+            return new LoudnessTags(R128_REFERENCE - r128Gain, null);
+        }
+        return null;
+    }
+
+    // Parses values such as "-6.48 dB" or "0.988553".
+    private static Double parseNumber(String value) {
+        String number = value.trim();
+        int space = number.indexOf(' ');
+        if (space >= 0) number = number.substring(0, space);
+        try {
+            return Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // R128 gains are signed Q7.8 fixed point decibels.
+    private static Double parseQ78(String value) {
+        try {
+            return Integer.parseInt(value.trim()) / 256.0;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -17,6 +17,7 @@ public class MainMethodCallHandler implements MethodCallHandler {
     private final BinaryMessenger messenger;
 
     private final Map<String, AudioPlayer> players = new HashMap<>();
+    private final Map<String, SoundEffectPlayer> soundEffectPlayers = new HashMap<>();
 
     public MainMethodCallHandler(Context applicationContext,
             BinaryMessenger messenger) {
@@ -29,10 +30,17 @@ public class MainMethodCallHandler implements MethodCallHandler {
         switch (call.method) {
         case "init": {
             String id = call.argument("id");
-            if (players.containsKey(id)) {
+            if (players.containsKey(id) || soundEffectPlayers.containsKey(id)) {
                 result.error("Platform player " + id + " already exists", null, null);
                 break;
             }
+            Map<?, ?> audioLoadConfiguration = call.argument("audioLoadConfiguration");
+            Map<?, ?> soundPoolOptions = audioLoadConfiguration != null ? (Map<?, ?>)audioLoadConfiguration.get("androidSoundPool") : null;
+            if (soundPoolOptions != null) {
+                soundEffectPlayers.put(id, new SoundEffectPlayer(applicationContext, messenger, id, soundPoolOptions));
+                result.success(null);
+                break;
+            }
             List<Object> rawAudioEffects = call.argument("androidAudioEffects");
             players.put(
                 id,
@@ -40,7 +48,7 @@ public class MainMethodCallHandler implements MethodCallHandler {
                     applicationContext,
                     messenger,
                     id,
-                    call.argument("audioLoadConfiguration"),
+                    audioLoadConfiguration,
                     rawAudioEffects,
                     call.argument("androidOffloadSchedulingEnabled"),
 		    call.argument("useLazyPreparation")
@@ -56,6 +64,10 @@ public class MainMethodCallHandler implements MethodCallHandler {
                 player.dispose();
                 players.remove(id);
             }
+            SoundEffectPlayer soundEffectPlayer = soundEffectPlayers.remove(id);
+            if (soundEffectPlayer != null) {
+                soundEffectPlayer.dispose();
+            }
             result.success(new HashMap<String, Object>());
             break;
         }
@@ -64,6 +76,30 @@ public class MainMethodCallHandler implements MethodCallHandler {
             result.success(new HashMap<String, Object>());
             break;
         }
+        case "androidCacheGetStatistics": {
+            MediaCache mediaCache = MediaCache.getInstance();
+            result.success(mediaCache != null ? mediaCache.getStatistics() : new HashMap<String, Object>());
+            break;
+        }
+        case "androidPlayerPoolGetStatistics": {
+            result.success(PlayerPool.getInstance().getStatistics());
+            break;
+        }
+        case "androidPlayerPoolSetMaxSize": {
+            Integer maxSize = call.argument("maxSize");
+            PlayerPool.getInstance().setMaxSize(maxSize);
+            result.success(new HashMap<String, Object>());
+            break;
+        }
+        case "androidClipCacheGetStatistics": {
+            result.success(ClipCache.getInstance().getStatistics());
+            break;
+        }
+        case "androidClipCacheClear": {
+            ClipCache.getInstance().clear();
+            result.success(new HashMap<String, Object>());
+            break;
+        }
         default:
             result.notImplemented();
             break;
@@ -75,5 +111,9 @@ public class MainMethodCallHandler implements MethodCallHandler {
             player.dispose();
         }
         players.clear();
+        for (SoundEffectPlayer player : soundEffectPlayers.values()) {
+            player.dispose();
+        }
+        soundEffectPlayers.clear();
     }
 }
@@ -0,0 +1,46 @@
+package com.ryanheise.just_audio;
+
+import android.os.Handler;
+import android.os.Looper;
+import io.flutter.plugin.common.MethodChannel.Result;
+
+/**
+ * A Result that may be completed from any thread and is always delivered on
+ * the platform (main) thread.
+ */
+public class MainThreadResult implements Result {
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final Result result;
+
+    public MainThreadResult(Result result) {
+        this.result = result;
+    }
+
+    @Override
+    public void success(final Object value) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            result.success(value);
+        } else {
+            mainHandler.post(() -> result.success(value));
+        }
+    }
+
+    @Override
+    public void error(final String errorCode, final String errorMessage, final Object errorDetails) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            result.error(errorCode, errorMessage, errorDetails);
+        } else {
+            mainHandler.post(() -> result.error(errorCode, errorMessage, errorDetails));
+        }
+    }
+
+    @Override
+    public void notImplemented() {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            result.notImplemented();
+        } else {
+            mainHandler.post(result::notImplemented);
+        }
+    }
+}
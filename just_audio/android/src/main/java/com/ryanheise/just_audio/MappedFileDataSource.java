@@ -0,0 +1,218 @@
+package com.ryanheise.just_audio;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.net.Uri;
+import androidx.media3.common.C;
+import androidx.media3.common.PlaybackException;
+import androidx.media3.datasource.BaseDataSource;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSourceException;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.TransferListener;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves local files and uncompressed assets from memory mapped buffers, as
+ * configured by the "androidMappedFiles" entry of an audioLoadConfiguration:
+ *
+ * - maxFileSize: the largest file to map in bytes (default 64MB)
+ *
+ * Reads copy straight from the page cache with no system call per read, and
+ * mappings are shared by all players in the process, so seeking within a
+ * file that is already mapped does not reopen it. Remote URIs, compressed
+ * assets and files that are too large to map are read by the fallback
+ * DataSource instead.
+ */
+public class MappedFileDataSource extends BaseDataSource {
+    private static final long DEFAULT_MAX_FILE_SIZE = 64L * 1024 * 1024;
+    private static final int MAX_MAPPINGS = 16;
+    private static final String ANDROID_ASSET_PREFIX = "/android_asset/";
+
+    // Mappings by path, validated against the file's length and
+    // modification time.
+    private static final Map<String, Mapping> mappings = Collections.synchronizedMap(AudioPlayer.<String, Mapping>newLruMap(MAX_MAPPINGS));
+
+    private static class Mapping {
+        final long length;
+        final long lastModified;
+        final MappedByteBuffer buffer;
+
+        Mapping(long length, long lastModified, MappedByteBuffer buffer) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.buffer = buffer;
+        }
+    }
+
+    public static class Factory implements DataSource.Factory {
+        private final Context context;
+        private final DataSource.Factory fallbackFactory;
+        private final long maxFileSize;
+
+        public Factory(Context context, DataSource.Factory fallbackFactory, Map<?, ?> options) {
+            this.context = context.getApplicationContext();
+            this.fallbackFactory = fallbackFactory;
+            Long maxFileSize = AudioPlayer.getLong(options.get("maxFileSize"));
+            this.maxFileSize = Math.min(Integer.MAX_VALUE, maxFileSize != null ? maxFileSize : DEFAULT_MAX_FILE_SIZE);
+        }
+
+        @Override
+        public DataSource createDataSource() {
+            return new MappedFileDataSource(context, fallbackFactory.createDataSource(), maxFileSize);
+        }
+    }
+
+    private final Context context;
+    private final DataSource fallback;
+    private final long maxFileSize;
+    private DataSource openedFallback;
+    private ByteBuffer buffer;
+    private Uri uri;
+    private long bytesRemaining;
+    private boolean opened;
+
+    public MappedFileDataSource(Context context, DataSource fallback, long maxFileSize) {
+        super(false);
+        this.context = context;
+        this.fallback = fallback;
+        this.maxFileSize = maxFileSize;
+    }
+
+    @Override
+    public void addTransferListener(TransferListener transferListener) {
+        super.addTransferListener(transferListener);
+        fallback.addTransferListener(transferListener);
+    }
+
+    @Override
+    public long open(DataSpec dataSpec) throws IOException {
+        MappedByteBuffer mapped = map(dataSpec.uri);
+        if (mapped == null) {
+            openedFallback = fallback;
+            return fallback.open(dataSpec);
+        }
+        uri = dataSpec.uri;
+        transferInitializing(dataSpec);
+        if (dataSpec.position > mapped.capacity()) {
+            // As thrown by FileDataSource, so that the player treats it the
+            // same way.
+            throw new DataSourceException(PlaybackException.ERROR_CODE_IO_READ_POSITION_OUT_OF_RANGE);
+        }
+        buffer = mapped.duplicate();
+        buffer.position((int)dataSpec.position);
+        bytesRemaining = dataSpec.length != C.LENGTH_UNSET
+            ? Math.min(dataSpec.length, buffer.remaining())
+            : buffer.remaining();
+        opened = true;
+        transferStarted(dataSpec);
+        return bytesRemaining;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) throws IOException {
+        if (openedFallback != null) return openedFallback.read(target, offset, length);
+        if (length == 0) return 0;
+        if (bytesRemaining == 0) return C.RESULT_END_OF_INPUT;
+        int read = (int)Math.min(length, bytesRemaining);
+        buffer.get(target, offset, read);
+        bytesRemaining -= read;
+        bytesTransferred(read);
+        return read;
+    }
+
+    @Override
+    public Uri getUri() {
+        return openedFallback != null ? openedFallback.getUri() : uri;
+    }
+
+    @Override
+    public Map<String, List<String>> getResponseHeaders() {
+        return openedFallback != null ? openedFallback.getResponseHeaders() : Collections.<String, List<String>>emptyMap();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (openedFallback != null) {
+            DataSource openedFallback = this.openedFallback;
+            this.openedFallback = null;
+            openedFallback.close();
+            return;
+        }
+        uri = null;
+        buffer = null;
+        if (opened) {
+            opened = false;
+            transferEnded();
+        }
+    }
+
+    // Returns the mapping of uri, or null if it is not a local file or
+    // asset that can be mapped.
+    private MappedByteBuffer map(Uri uri) throws IOException {
+        String scheme = uri.getScheme();
+        String path = uri.getPath();
+        if (path == null) return null;
+        if (scheme == null || "file".equals(scheme)) {
+            if (path.startsWith(ANDROID_ASSET_PREFIX)) {
+                return mapAsset(path.substring(ANDROID_ASSET_PREFIX.length()));
+            }
+            return mapFile(path);
+        } else if ("asset".equals(scheme)) {
+            return mapAsset(path.startsWith("/") ? path.substring(1) : path);
+        }
+        return null;
+    }
+
+    private MappedByteBuffer mapFile(String path) throws IOException {
+        File file = new File(path);
+        long length = file.length();
+        long lastModified = file.lastModified();
+        if (length == 0 || length > maxFileSize) return null;
+        Mapping mapping = mappings.get(path);
+        if (mapping != null && mapping.length == length && mapping.lastModified == lastModified) {
+            return mapping.buffer;
+        }
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            // The mapping stays valid after the file is closed.
+            MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+            mappings.put(path, new Mapping(length, lastModified, buffer));
+            return buffer;
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private MappedByteBuffer mapAsset(String path) throws IOException {
+        String key = ANDROID_ASSET_PREFIX + path;
+        Mapping mapping = mappings.get(key);
+        if (mapping != null) return mapping.buffer;
+        AssetFileDescriptor descriptor;
+        try {
+            descriptor = context.getAssets().openFd(path);
+        } catch (IOException e) {
+            // Compressed assets have no file descriptor to map.
+            return null;
+        }
+        try {
+            long length = descriptor.getLength();
+            if (length == AssetFileDescriptor.UNKNOWN_LENGTH || length == 0 || length > maxFileSize) return null;
+            FileInputStream inputStream = descriptor.createInputStream();
+            MappedByteBuffer buffer = inputStream.getChannel().map(FileChannel.MapMode.READ_ONLY, descriptor.getStartOffset(), length);
+            mappings.put(key, new Mapping(length, 0, buffer));
+            return buffer;
+        } finally {
+            descriptor.close();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.ryanheise.just_audio;
+
+import android.content.Context;
+import androidx.media3.database.StandaloneDatabaseProvider;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.TransferListener;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.LeastRecentlyUsedCacheEvictor;
+import androidx.media3.datasource.cache.SimpleCache;
+import io.flutter.Log;
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size-bounded LRU disk cache shared by all players in the process.
+ *
+ * ExoPlayer only allows a single SimpleCache per directory, so the cache is
+ * created once from the first player configuration that requests it and is
+ * then reused by every subsequent player.
+ */
+public class MediaCache {
+    static final String TAG = "MediaCache";
+    private static final long DEFAULT_MAX_CACHE_SIZE = 256L * 1024 * 1024;
+    private static final String DEFAULT_CACHE_DIRECTORY = "just_audio_cache";
+
+    private static MediaCache instance;
+
+    private final File directory;
+    private final SimpleCache cache;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong cachedBytesRead = new AtomicLong();
+    private final AtomicLong networkBytesRead = new AtomicLong();
+
+    private final CacheDataSource.EventListener cacheEventListener = new CacheDataSource.EventListener() {
+        @Override
+        public void onCachedBytesRead(long cacheSizeBytes, long cachedBytes) {
+            hitCount.incrementAndGet();
+            cachedBytesRead.addAndGet(cachedBytes);
+        }
+
+        @Override
+        public void onCacheIgnored(int reason) {
+        }
+    };
+
+    // Observes the upstream (network) side of the cache. Any transfer that
+    // reaches it is a cache miss.
+    private final TransferListener upstreamTransferListener = new TransferListener() {
+        @Override
+        public void onTransferInitializing(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+        }
+
+        @Override
+        public void onTransferStart(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+            if (isNetwork) missCount.incrementAndGet();
+        }
+
+        @Override
+        public void onBytesTransferred(DataSource source, DataSpec dataSpec, boolean isNetwork, int bytesTransferred) {
+            if (isNetwork) networkBytesRead.addAndGet(bytesTransferred);
+        }
+
+        @Override
+        public void onTransferEnd(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+        }
+    };
+
+    /**
+     * Returns the shared cache configured by the "androidCache" entry of an
+     * audioLoadConfiguration, or null if caching was not requested.
+     */
+    public static synchronized MediaCache fromConfiguration(Context context, Map<?, ?> cacheMap) {
+        if (cacheMap == null) return null;
+        Long maxCacheSize = AudioPlayer.getLong(cacheMap.get("maxCacheSize"));
+        String cacheDirectory = (String)cacheMap.get("cacheDirectory");
+        File directory = cacheDirectory != null
+            ? new File(cacheDirectory)
+            : new File(context.getCacheDir(), DEFAULT_CACHE_DIRECTORY);
+        if (instance == null) {
+            instance = new MediaCache(context, directory, maxCacheSize != null ? maxCacheSize : DEFAULT_MAX_CACHE_SIZE);
+        } else if (!instance.directory.equals(directory)) {
+            Log.w(TAG, "Cache already open at " + instance.directory + ", ignoring " + directory);
+        }
+        return instance;
+    }
+
+    /** Returns the shared cache if one has been created. */
+    public static synchronized MediaCache getInstance() {
+        return instance;
+    }
+
+    private MediaCache(Context context, File directory, long maxCacheSize) {
+        this.directory = directory;
+        cache = new SimpleCache(
+            directory,
+            new LeastRecentlyUsedCacheEvictor(maxCacheSize),
+            new StandaloneDatabaseProvider(context.getApplicationContext()));
+    }
+
+    public SimpleCache getCache() {
+        return cache;
+    }
+
+    /** Wraps upstreamFactory so that reads are served from disk when possible. */
+    public DataSource.Factory buildDataSourceFactory(DataSource.Factory upstreamFactory) {
+        return new CacheDataSource.Factory()
+            .setCache(cache)
+            .setUpstreamDataSourceFactory(upstreamFactory)
+            .setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR)
+            .setEventListener(cacheEventListener);
+    }
+
+    /** The listener that must be attached to upstream HTTP factories. */
+    public TransferListener getUpstreamTransferListener() {
+        return upstreamTransferListener;
+    }
+
+    public Map<String, Object> getStatistics() {
+        return AudioPlayer.mapOf(
+            "hitCount", hitCount.get(),
+            "missCount", missCount.get(),
+            "cachedBytesRead", cachedBytesRead.get(),
+            "networkBytesRead", networkBytesRead.get(),
+            "cacheSpace", cache.getCacheSpace(),
+            "cacheDirectory", directory.getAbsolutePath()
+        );
+    }
+}
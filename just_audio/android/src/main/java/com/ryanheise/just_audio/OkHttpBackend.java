@@ -0,0 +1,129 @@
+package com.ryanheise.just_audio;
+
+import android.os.Build;
+import androidx.media3.datasource.HttpDataSource;
+import androidx.media3.datasource.TransferListener;
+import androidx.media3.datasource.okhttp.OkHttpDataSource;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
+import okhttp3.Dns;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * The "okhttp" backend of HttpStack.
+ *
+ * media3-datasource-okhttp is a compileOnly dependency, since OkHttp needs
+ * API 21, so this class must only be loaded once isAvailable() has returned
+ * true. Clients are shared between all players with the same options, so
+ * they also share a connection pool.
+ */
+class OkHttpBackend {
+    private static final int MAX_CLIENTS = 8;
+    private static final Map<Object, OkHttpClient> clients = AudioPlayer.<Object, OkHttpClient>newLruMap(MAX_CLIENTS);
+    private static Boolean available;
+
+    private final OkHttpClient client;
+
+    /**
+     * Returns whether the app is running on API 21 or later and bundles
+     * media3-datasource-okhttp.
+     */
+    static synchronized boolean isAvailable() {
+        if (available == null) {
+            boolean found;
+            try {
+                Class.forName("androidx.media3.datasource.okhttp.OkHttpDataSource");
+                found = true;
+            } catch (ClassNotFoundException | LinkageError e) {
+                found = false;
+            }
+            available = found && Build.VERSION.SDK_INT >= 21;
+        }
+        return available;
+    }
+
+    OkHttpBackend(Map<?, ?> options) {
+        client = getClient(options);
+    }
+
+    HttpDataSource.Factory createFactory(String userAgent, TransferListener transferListener) {
+        return new OkHttpDataSource.Factory(client)
+            .setUserAgent(userAgent)
+            .setTransferListener(transferListener);
+    }
+
+    private static synchronized OkHttpClient getClient(Map<?, ?> options) {
+        Long connectTimeout = AudioPlayer.getLong(options.get("connectTimeout"));
+        Long readTimeout = AudioPlayer.getLong(options.get("readTimeout"));
+        Integer maxIdleConnections = (Integer)options.get("maxIdleConnections");
+        Long keepAliveDuration = AudioPlayer.getLong(options.get("keepAliveDuration"));
+        Boolean http2 = (Boolean)options.get("http2");
+        Long dnsCacheDuration = AudioPlayer.getLong(options.get("dnsCacheDuration"));
+        // Keyed by the decoded options rather than the raw map, so that
+        // unrelated entries and Integer/Long differences don't split clients.
+        Object key = Arrays.asList(connectTimeout, readTimeout, maxIdleConnections, keepAliveDuration, http2, dnsCacheDuration);
+        OkHttpClient client = clients.get(key);
+        if (client != null) return client;
+        OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        if (connectTimeout != null) builder.connectTimeout(connectTimeout, TimeUnit.MICROSECONDS);
+        if (readTimeout != null) builder.readTimeout(readTimeout, TimeUnit.MICROSECONDS);
+        if (maxIdleConnections != null || keepAliveDuration != null) {
+            builder.connectionPool(new ConnectionPool(
+                maxIdleConnections != null ? maxIdleConnections : 5,
+                keepAliveDuration != null ? keepAliveDuration : 5L * 60 * 1000 * 1000,
+                TimeUnit.MICROSECONDS));
+        }
+        if (http2 != null && !http2) {
+            builder.protocols(Collections.singletonList(Protocol.HTTP_1_1));
+        }
+        if (dnsCacheDuration != null && dnsCacheDuration > 0) {
+            builder.dns(new CachingDns(dnsCacheDuration / 1000));
+        }
+        client = builder.build();
+        clients.put(key, client);
+        return client;
+    }
+
+    // Caches successful lookups for a fixed duration on top of the system
+    // resolver.
+    private static class CachingDns implements Dns {
+        private final long ttlMs;
+        private final Map<String, CachedLookup> cache = new HashMap<>();
+
+        CachingDns(long ttlMs) {
+            this.ttlMs = ttlMs;
+        }
+
+        @Override
+        public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+            long now = System.currentTimeMillis();
+            synchronized (cache) {
+                CachedLookup cached = cache.get(hostname);
+                if (cached != null && now < cached.expiryTime) return cached.addresses;
+            }
+            List<InetAddress> addresses = Dns.SYSTEM.lookup(hostname);
+            synchronized (cache) {
+                cache.put(hostname, new CachedLookup(addresses, now + ttlMs));
+            }
+            return addresses;
+        }
+    }
+
+    private static class CachedLookup {
+        final List<InetAddress> addresses;
+        final long expiryTime;
+
+        CachedLookup(List<InetAddress> addresses, long expiryTime) {
+            this.addresses = addresses;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
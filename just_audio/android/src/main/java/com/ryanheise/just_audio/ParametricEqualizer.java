@@ -0,0 +1,198 @@
+package com.ryanheise.just_audio;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A parametric equalizer made of a cascade of biquad filters, configured as:
+ *
+ * - bands: a list of bands, each with:
+ *   - type: "peaking" (default), "lowShelf", "highShelf", "lowPass" or "highPass"
+ *   - frequency: the center or corner frequency in hertz
+ *   - gain: the gain in decibels (ignored by the pass filters)
+ *   - q: the quality factor (default 0.707)
+ *
+ * Coefficients follow the Audio EQ Cookbook and are recomputed on the
+ * playback thread only when the bands or the sample rate change.
+ */
+public class ParametricEqualizer extends SoftwareAudioEffect {
+    private static final double DEFAULT_Q = 0.7071;
+
+    private static class Band {
+        final String type;
+        final double frequency;
+        final double gain;
+        final double q;
+
+        Band(String type, double frequency, double gain, double q) {
+            this.type = type;
+            this.frequency = frequency;
+            this.gain = gain;
+            this.q = q;
+        }
+    }
+
+    private volatile Band[] pendingBands = new Band[0];
+    private Band[] bands;
+    private int sampleRate;
+    private int channelCount;
+    // Normalized coefficients b0, b1, b2, a1, a2 for each band.
+    private float[] coefficients = new float[0];
+    // Transposed direct form II state z1, z2 for each band and channel.
+    private float[] state = new float[0];
+
+    @Override
+    public void setParameters(Map<?, ?> parameters) {
+        if (parameters == null || parameters.get("bands") == null) return;
+        List<?> rawBands = (List<?>)parameters.get("bands");
+        Band[] newBands = new Band[rawBands.size()];
+        for (int i = 0; i < newBands.length; i++) {
+            Map<?, ?> rawBand = (Map<?, ?>)rawBands.get(i);
+            String type = rawBand.get("type") != null ? (String)rawBand.get("type") : "peaking";
+            switch (type) {
+            case "peaking": case "lowShelf": case "highShelf": case "lowPass": case "highPass":
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown equalizer band type: " + type);
+            }
+            Double frequency = getDouble(rawBand, "frequency");
+            if (frequency == null || frequency <= 0) {
+                throw new IllegalArgumentException("Equalizer band frequency must be positive");
+            }
+            Double gain = getDouble(rawBand, "gain");
+            Double q = getDouble(rawBand, "q");
+            newBands[i] = new Band(
+                type,
+                frequency,
+                gain != null ? gain : 0.0,
+                q != null && q > 0 ? q : DEFAULT_Q);
+        }
+        pendingBands = newBands;
+    }
+
+    @Override
+    public void configure(int sampleRate, int channelCount) {
+        this.sampleRate = sampleRate;
+        this.channelCount = channelCount;
+        bands = null;
+    }
+
+    @Override
+    public void process(float[] samples, int frameCount) {
+        Band[] latestBands = pendingBands;
+        if (latestBands != bands) {
+            updateCoefficients(latestBands);
+        }
+        int sampleCount = frameCount * channelCount;
+        for (int band = 0; band < bands.length; band++) {
+            int c = 5 * band;
+            float b0 = coefficients[c];
+            float b1 = coefficients[c + 1];
+            float b2 = coefficients[c + 2];
+            float a1 = coefficients[c + 3];
+            float a2 = coefficients[c + 4];
+            for (int channel = 0; channel < channelCount; channel++) {
+                int s = 2 * (band * channelCount + channel);
+                float z1 = state[s];
+                float z2 = state[s + 1];
+                for (int i = channel; i < sampleCount; i += channelCount) {
+                    float x = samples[i];
+                    float y = b0 * x + z1;
+                    z1 = b1 * x - a1 * y + z2;
+                    z2 = b2 * x - a2 * y;
+                    samples[i] = y;
+                }
+                state[s] = z1;
+                state[s + 1] = z2;
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < state.length; i++) {
+            state[i] = 0;
+        }
+    }
+
+    @Override
+    public SoftwareAudioEffect copy() {
+        ParametricEqualizer copy = new ParametricEqualizer();
+        // Bands are immutable, so they can be shared.
+        copy.pendingBands = pendingBands;
+        copy.setEnabled(isEnabled());
+        return copy;
+    }
+
+    private void updateCoefficients(Band[] newBands) {
+        if (newBands.length != (bands != null ? bands.length : -1) || state.length != 2 * newBands.length * channelCount) {
+            coefficients = new float[5 * newBands.length];
+            state = new float[2 * newBands.length * channelCount];
+        }
+        bands = newBands;
+        for (int band = 0; band < bands.length; band++) {
+            computeCoefficients(bands[band], coefficients, 5 * band);
+        }
+    }
+
+    private void computeCoefficients(Band band, float[] out, int offset) {
+        // Keep the frequency safely below Nyquist.
+        double frequency = Math.min(band.frequency, 0.49 * sampleRate);
+        double w0 = 2 * Math.PI * frequency / sampleRate;
+        double cos = Math.cos(w0);
+        double alpha = Math.sin(w0) / (2 * band.q);
+        double a = Math.pow(10.0, band.gain / 40.0);
+        double b0, b1, b2, a0, a1, a2;
+        switch (band.type) {
+        case "lowShelf": {
+            double sqrtA2Alpha = 2 * Math.sqrt(a) * alpha;
+            b0 = a * ((a + 1) - (a - 1) * cos + sqrtA2Alpha);
+            b1 = 2 * a * ((a - 1) - (a + 1) * cos);
+            b2 = a * ((a + 1) - (a - 1) * cos - sqrtA2Alpha);
+            a0 = (a + 1) + (a - 1) * cos + sqrtA2Alpha;
+            a1 = -2 * ((a - 1) + (a + 1) * cos);
+            a2 = (a + 1) + (a - 1) * cos - sqrtA2Alpha;
+            break;
+        }
+        case "highShelf": {
+            double sqrtA2Alpha = 2 * Math.sqrt(a) * alpha;
+            b0 = a * ((a + 1) + (a - 1) * cos + sqrtA2Alpha);
+            b1 = -2 * a * ((a - 1) + (a + 1) * cos);
+            b2 = a * ((a + 1) + (a - 1) * cos - sqrtA2Alpha);
+            a0 = (a + 1) - (a - 1) * cos + sqrtA2Alpha;
+            a1 = 2 * ((a - 1) - (a + 1) * cos);
+            a2 = (a + 1) - (a - 1) * cos - sqrtA2Alpha;
+            break;
+        }
+        case "lowPass":
+            b0 = (1 - cos) / 2;
+            b1 = 1 - cos;
+            b2 = (1 - cos) / 2;
+            a0 = 1 + alpha;
+            a1 = -2 * cos;
+            a2 = 1 - alpha;
+            break;
+        case "highPass":
+            b0 = (1 + cos) / 2;
+            b1 = -(1 + cos);
+            b2 = (1 + cos) / 2;
+            a0 = 1 + alpha;
+            a1 = -2 * cos;
+            a2 = 1 - alpha;
+            break;
+        default:
+            b0 = 1 + alpha * a;
+            b1 = -2 * cos;
+            b2 = 1 - alpha * a;
+            a0 = 1 + alpha / a;
+            a1 = -2 * cos;
+            a2 = 1 - alpha / a;
+            break;
+        }
+        out[offset] = (float)(b0 / a0);
+        out[offset + 1] = (float)(b1 / a0);
+        out[offset + 2] = (float)(b2 / a0);
+        out[offset + 3] = (float)(a1 / a0);
+        out[offset + 4] = (float)(a2 / a0);
+    }
+}
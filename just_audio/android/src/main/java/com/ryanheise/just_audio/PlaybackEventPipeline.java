@@ -0,0 +1,134 @@
+package com.ryanheise.just_audio;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rate limits and optionally delta encodes playback events before they are
+ * sent over the event channel.
+ *
+ * Rate limiting is off unless a maxEventRate is given. When it is on, events
+ * that change the processing state, index, duration, error or audio session
+ * are always sent straight away. Other events (position, buffer and icy
+ * metadata updates) are coalesced so that at most maxEventRate are sent per
+ * second, with the latest one winning.
+ */
+public class PlaybackEventPipeline {
+    private static final String[] URGENT_KEYS = {
+        "processingState", "currentIndex", "duration", "errorCode", "errorMessage", "androidAudioSessionId"
+    };
+
+    private final BetterEventChannel eventChannel;
+    private final Handler handler;
+    private final long minIntervalMs;
+    private final boolean deltaEncoding;
+    private Map<String, Object> lastSentEvent;
+    private Map<String, Object> deferredEvent;
+    private long lastSendTime;
+    private final Runnable sendDeferredEvent = new Runnable() {
+        @Override
+        public void run() {
+            if (deferredEvent != null) {
+                Map<String, Object> event = deferredEvent;
+                deferredEvent = null;
+                transmit(event, SystemClock.uptimeMillis());
+            }
+        }
+    };
+
+    /**
+     * Creates a pipeline configured by the optional
+     * "androidPlaybackEventPipeline" entry of an audioLoadConfiguration.
+     */
+    public PlaybackEventPipeline(BetterEventChannel eventChannel, Handler handler, Map<?, ?> options) {
+        this.eventChannel = eventChannel;
+        this.handler = handler;
+        double maxEventRate = 0.0;
+        boolean deltaEncoding = false;
+        if (options != null) {
+            if (options.get("maxEventRate") != null) {
+                maxEventRate = ((Number)options.get("maxEventRate")).doubleValue();
+            }
+            if (options.get("deltaEncoding") != null) {
+                deltaEncoding = (Boolean)options.get("deltaEncoding");
+            }
+        }
+        this.minIntervalMs = maxEventRate > 0 ? (long)(1000.0 / maxEventRate) : 0L;
+        this.deltaEncoding = deltaEncoding;
+        eventChannel.setOnListen(() -> {
+            if (Looper.myLooper() == handler.getLooper()) {
+                reset();
+            } else {
+                handler.post(this::reset);
+            }
+        });
+    }
+
+    /**
+     * Sends event. If immediate is false and event only differs from the last
+     * event in non-urgent fields, it may be deferred and replaced by a later
+     * event.
+     */
+    public void send(Map<String, Object> event, boolean immediate) {
+        long now = SystemClock.uptimeMillis();
+        if (immediate || now - lastSendTime >= minIntervalMs || isUrgent(event)) {
+            cancelDeferredEvent();
+            transmit(event, now);
+        } else {
+            if (deferredEvent == null) {
+                handler.postAtTime(sendDeferredEvent, lastSendTime + minIntervalMs);
+            }
+            deferredEvent = event;
+        }
+    }
+
+    /** Sends any deferred event now. */
+    public void flush() {
+        handler.removeCallbacks(sendDeferredEvent);
+        sendDeferredEvent.run();
+    }
+
+    /** Forces the next event to be sent in full. */
+    public void reset() {
+        lastSentEvent = null;
+    }
+
+    private void cancelDeferredEvent() {
+        if (deferredEvent != null) {
+            handler.removeCallbacks(sendDeferredEvent);
+            deferredEvent = null;
+        }
+    }
+
+    private boolean isUrgent(Map<String, Object> event) {
+        if (lastSentEvent == null) return true;
+        for (String key : URGENT_KEYS) {
+            if (!equal(lastSentEvent.get(key), event.get(key))) return true;
+        }
+        return false;
+    }
+
+    private void transmit(Map<String, Object> event, long now) {
+        Map<String, Object> payload = event;
+        if (deltaEncoding && lastSentEvent != null) {
+            payload = new HashMap<String, Object>();
+            for (Map.Entry<String, Object> entry : event.entrySet()) {
+                if (!equal(lastSentEvent.get(entry.getKey()), entry.getValue())) {
+                    payload.put(entry.getKey(), entry.getValue());
+                }
+            }
+            if (payload.isEmpty()) return;
+            payload.put("delta", true);
+        }
+        lastSentEvent = event;
+        lastSendTime = now;
+        eventChannel.success(payload);
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == b || (a != null && a.equals(b));
+    }
+}
@@ -0,0 +1,320 @@
+package com.ryanheise.just_audio;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import androidx.media3.common.C;
+import androidx.media3.common.Player;
+import androidx.media3.exoplayer.DecoderCounters;
+import androidx.media3.exoplayer.ExoPlayer;
+import androidx.media3.exoplayer.analytics.AnalyticsListener;
+import androidx.media3.exoplayer.source.LoadEventInfo;
+import androidx.media3.exoplayer.source.MediaLoadData;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collects playback performance metrics from ExoPlayer's analytics events
+ * and periodically reports them over a player's data event channel under
+ * the "androidMetrics" key, as configured by the "androidMetrics" entry of
+ * an audioLoadConfiguration:
+ *
+ * - interval: the reporting interval in microseconds (default 1 second)
+ *
+ * Reports are only sent while the player is playing, rebuffering or
+ * settling after a seek or transition, plus one report after any change
+ * while it is not, so a paused player is not woken up every interval.
+ * Counters are reset on each load. All durations are reported in
+ * microseconds.
+ */
+public class PlaybackMetrics implements AnalyticsListener {
+    private static final long DEFAULT_INTERVAL_MS = 1000;
+    private static final int MAX_TRACKED_SOURCES = 64;
+    // An automatic transition that is not followed by playout restarting
+    // within this window is counted as gapless.
+    private static final long TRANSITION_WINDOW_MS = 5000;
+
+    private final BetterEventChannel dataEventChannel;
+    private final Handler handler;
+    private final long intervalMs;
+    private ExoPlayer player;
+    private boolean changed;
+    private boolean reporterScheduled;
+
+    // Wall clock time at which both a load and a play had been requested.
+    private long firstAudioRequestTime = C.TIME_UNSET;
+    private boolean audioStarted;
+    private long timeToFirstAudioMs = C.TIME_UNSET;
+    private boolean playWhenReady;
+    private boolean seeking;
+    private long seekStartTime = C.TIME_UNSET;
+    private int seekCount;
+    private long lastSeekLatencyMs = C.TIME_UNSET;
+    private long totalSeekLatencyMs;
+    private long rebufferStartTime = C.TIME_UNSET;
+    private int rebufferCount;
+    private long rebufferDurationMs;
+    private int underrunCount;
+    private long bitrateEstimate = C.TIME_UNSET;
+    private long totalBytesLoaded;
+    private final Map<String, Long> bytesLoadedBySource = AudioPlayer.newLruMap(MAX_TRACKED_SOURCES);
+    private String decoderName;
+    private long decoderInitDurationMs = C.TIME_UNSET;
+    // Wall clock time of the last automatic transition still awaiting a
+    // gap measurement.
+    private long transitionTime = C.TIME_UNSET;
+    private int transitionCount;
+    private long lastTransitionGapMs = C.TIME_UNSET;
+    private long totalTransitionGapMs;
+    private Map<String, Long> loadPhases;
+    private boolean seeksAreTransitions;
+
+    private final Runnable reporter = new Runnable() {
+        @Override
+        public void run() {
+            reporterScheduled = false;
+            if (transitionTime != C.TIME_UNSET && System.currentTimeMillis() - transitionTime > TRANSITION_WINDOW_MS) {
+                recordTransitionGap(0);
+            }
+            if (changed || rebufferStartTime != C.TIME_UNSET) {
+                report();
+            }
+            if (player != null && (player.isPlaying() || rebufferStartTime != C.TIME_UNSET || seeking || transitionTime != C.TIME_UNSET)) {
+                scheduleReport();
+            }
+        }
+    };
+
+    public PlaybackMetrics(BetterEventChannel dataEventChannel, Handler handler, Map<?, ?> options) {
+        this.dataEventChannel = dataEventChannel;
+        this.handler = handler;
+        Long interval = AudioPlayer.getLong(options.get("interval"));
+        this.intervalMs = interval != null && interval >= 1000 ? interval / 1000 : DEFAULT_INTERVAL_MS;
+    }
+
+    /** Starts collecting metrics from player. */
+    public void attach(ExoPlayer player) {
+        this.player = player;
+        playWhenReady = player.getPlayWhenReady();
+        player.addAnalyticsListener(this);
+        scheduleReport();
+    }
+
+    /** Stops collecting metrics and sends a final report. */
+    public void detach() {
+        if (player == null) return;
+        handler.removeCallbacks(reporter);
+        reporterScheduled = false;
+        report();
+        player.removeAnalyticsListener(this);
+        player = null;
+    }
+
+    /** Resets all counters at the start of a new load. */
+    public void onLoad() {
+        firstAudioRequestTime = System.currentTimeMillis();
+        audioStarted = false;
+        timeToFirstAudioMs = C.TIME_UNSET;
+        seeking = false;
+        seekStartTime = C.TIME_UNSET;
+        seekCount = 0;
+        lastSeekLatencyMs = C.TIME_UNSET;
+        totalSeekLatencyMs = 0;
+        rebufferStartTime = C.TIME_UNSET;
+        rebufferCount = 0;
+        rebufferDurationMs = 0;
+        underrunCount = 0;
+        totalBytesLoaded = 0;
+        bytesLoadedBySource.clear();
+        decoderName = null;
+        decoderInitDurationMs = C.TIME_UNSET;
+        transitionTime = C.TIME_UNSET;
+        transitionCount = 0;
+        lastTransitionGapMs = C.TIME_UNSET;
+        totalTransitionGapMs = 0;
+        loadPhases = null;
+        markChanged();
+    }
+
+    /**
+     * Counts seeks made while set as automatic transitions, e.g. when the
+     * crossfader moves the player on to the next item.
+     */
+    public void setSeeksAreTransitions(boolean seeksAreTransitions) {
+        this.seeksAreTransitions = seeksAreTransitions;
+    }
+
+    /** Records the phase breakdown of the current load from a LoadTrace. */
+    public void onLoadTraced(Map<String, Long> loadPhases) {
+        this.loadPhases = loadPhases;
+        markChanged();
+    }
+
+    @Override
+    public void onPlayWhenReadyChanged(EventTime eventTime, boolean playWhenReady, int reason) {
+        this.playWhenReady = playWhenReady;
+        if (playWhenReady && !audioStarted) {
+            firstAudioRequestTime = Math.max(firstAudioRequestTime, System.currentTimeMillis());
+        }
+        if (!playWhenReady) {
+            endRebuffer(eventTime.realtimeMs);
+            // A pause is not a gap.
+            transitionTime = C.TIME_UNSET;
+        }
+    }
+
+    @Override
+    public void onIsPlayingChanged(EventTime eventTime, boolean isPlaying) {
+        if (isPlaying) scheduleReport();
+    }
+
+    @Override
+    public void onAudioPositionAdvancing(EventTime eventTime, long playoutStartSystemTimeMs) {
+        if (transitionTime != C.TIME_UNSET) {
+            // Playout restarted after the transition, e.g. because the audio
+            // track had to be recreated for a new format.
+            recordTransitionGap(Math.max(0, playoutStartSystemTimeMs - transitionTime));
+        }
+        if (audioStarted || firstAudioRequestTime == C.TIME_UNSET) return;
+        audioStarted = true;
+        timeToFirstAudioMs = Math.max(0, playoutStartSystemTimeMs - firstAudioRequestTime);
+        markChanged();
+    }
+
+    @Override
+    public void onPositionDiscontinuity(EventTime eventTime, Player.PositionInfo oldPosition, Player.PositionInfo newPosition, int reason) {
+        if (seeksAreTransitions && reason == Player.DISCONTINUITY_REASON_SEEK) {
+            reason = Player.DISCONTINUITY_REASON_AUTO_TRANSITION;
+        }
+        if (reason == Player.DISCONTINUITY_REASON_AUTO_TRANSITION) {
+            if (transitionTime != C.TIME_UNSET) recordTransitionGap(0);
+            transitionTime = System.currentTimeMillis();
+            scheduleReport();
+        } else if (reason == Player.DISCONTINUITY_REASON_SEEK) {
+            transitionTime = C.TIME_UNSET;
+            // Buffering caused by a seek is counted as seek latency rather
+            // than as a rebuffer.
+            endRebuffer(eventTime.realtimeMs);
+            seeking = true;
+            seekStartTime = eventTime.realtimeMs;
+            scheduleReport();
+        }
+    }
+
+    @Override
+    public void onPlaybackStateChanged(EventTime eventTime, int state) {
+        switch (state) {
+        case Player.STATE_BUFFERING:
+            if (audioStarted && playWhenReady && !seeking && rebufferStartTime == C.TIME_UNSET) {
+                rebufferStartTime = eventTime.realtimeMs;
+                rebufferCount++;
+                markChanged();
+            }
+            break;
+        case Player.STATE_READY:
+            endRebuffer(eventTime.realtimeMs);
+            if (seeking) {
+                seeking = false;
+                lastSeekLatencyMs = eventTime.realtimeMs - seekStartTime;
+                totalSeekLatencyMs += lastSeekLatencyMs;
+                seekCount++;
+                markChanged();
+            }
+            break;
+        default:
+            endRebuffer(eventTime.realtimeMs);
+            seeking = false;
+            break;
+        }
+    }
+
+    @Override
+    public void onAudioUnderrun(EventTime eventTime, int bufferSize, long bufferSizeMs, long elapsedSinceLastFeedMs) {
+        underrunCount++;
+        markChanged();
+    }
+
+    @Override
+    public void onBandwidthEstimate(EventTime eventTime, int totalLoadTimeMs, long totalBytesLoaded, long bitrateEstimate) {
+        this.bitrateEstimate = bitrateEstimate;
+        markChanged();
+    }
+
+    @Override
+    public void onLoadCompleted(EventTime eventTime, LoadEventInfo loadEventInfo, MediaLoadData mediaLoadData) {
+        String source = loadEventInfo.dataSpec.uri.toString();
+        Long bytes = bytesLoadedBySource.get(source);
+        bytesLoadedBySource.put(source, (bytes != null ? bytes : 0L) + loadEventInfo.bytesLoaded);
+        totalBytesLoaded += loadEventInfo.bytesLoaded;
+        markChanged();
+    }
+
+    @Override
+    public void onAudioDecoderInitialized(EventTime eventTime, String decoderName, long initializedTimestampMs, long initializationDurationMs) {
+        this.decoderName = decoderName;
+        this.decoderInitDurationMs = initializationDurationMs;
+        markChanged();
+    }
+
+    private void markChanged() {
+        changed = true;
+        scheduleReport();
+    }
+
+    private void scheduleReport() {
+        if (reporterScheduled || player == null) return;
+        reporterScheduled = true;
+        handler.postDelayed(reporter, intervalMs);
+    }
+
+    private void recordTransitionGap(long gapMs) {
+        transitionTime = C.TIME_UNSET;
+        transitionCount++;
+        lastTransitionGapMs = gapMs;
+        totalTransitionGapMs += gapMs;
+        markChanged();
+    }
+
+    private void endRebuffer(long now) {
+        if (rebufferStartTime == C.TIME_UNSET) return;
+        rebufferDurationMs += now - rebufferStartTime;
+        rebufferStartTime = C.TIME_UNSET;
+        markChanged();
+    }
+
+    private void report() {
+        changed = false;
+        long currentRebufferMs = rebufferStartTime != C.TIME_UNSET ? SystemClock.elapsedRealtime() - rebufferStartTime : 0;
+        Integer droppedBufferCount = null;
+        Integer skippedBufferCount = null;
+        DecoderCounters decoderCounters = player != null ? player.getAudioDecoderCounters() : null;
+        if (decoderCounters != null) {
+            decoderCounters.ensureUpdated();
+            droppedBufferCount = decoderCounters.droppedBufferCount;
+            skippedBufferCount = decoderCounters.skippedOutputBufferCount;
+        }
+        Map<String, Object> metrics = new HashMap<String, Object>();
+        metrics.put("timeToFirstAudio", toUs(timeToFirstAudioMs));
+        metrics.put("rebufferCount", rebufferCount);
+        metrics.put("rebufferDuration", 1000 * (rebufferDurationMs + currentRebufferMs));
+        metrics.put("underrunCount", underrunCount);
+        metrics.put("droppedBufferCount", droppedBufferCount);
+        metrics.put("skippedBufferCount", skippedBufferCount);
+        metrics.put("bitrateEstimate", bitrateEstimate != C.TIME_UNSET ? bitrateEstimate : null);
+        metrics.put("totalBytesLoaded", totalBytesLoaded);
+        metrics.put("bytesLoadedBySource", new HashMap<String, Long>(bytesLoadedBySource));
+        metrics.put("decoderName", decoderName);
+        metrics.put("decoderInitDuration", toUs(decoderInitDurationMs));
+        metrics.put("seekCount", seekCount);
+        metrics.put("lastSeekLatency", toUs(lastSeekLatencyMs));
+        metrics.put("meanSeekLatency", seekCount > 0 ? 1000 * totalSeekLatencyMs / seekCount : null);
+        metrics.put("transitionCount", transitionCount);
+        metrics.put("lastTransitionGap", toUs(lastTransitionGapMs));
+        metrics.put("meanTransitionGap", transitionCount > 0 ? 1000 * totalTransitionGapMs / transitionCount : null);
+        metrics.put("loadPhases", loadPhases);
+        dataEventChannel.success(AudioPlayer.mapOf("androidMetrics", metrics));
+    }
+
+    private static Long toUs(long ms) {
+        return ms != C.TIME_UNSET ? 1000 * ms : null;
+    }
+}
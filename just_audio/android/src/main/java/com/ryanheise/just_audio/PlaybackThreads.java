@@ -0,0 +1,60 @@
+package com.ryanheise.just_audio;
+
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+
+/**
+ * Supplies the loopers that players run ExoPlayer on when they opt out of
+ * the main looper.
+ *
+ * A "dedicated" player gets its own thread, while "shared" players all run on
+ * one reference counted thread.
+ */
+public class PlaybackThreads {
+    private static HandlerThread sharedThread;
+    private static int sharedCount;
+
+    /** Returns the looper for mode, or null to use the main looper. */
+    public static synchronized Looper acquire(String mode, String id) {
+        if (mode == null) return null;
+        switch (mode) {
+        case "main":
+            return null;
+        case "dedicated": {
+            HandlerThread thread = new HandlerThread("just_audio:" + id, Process.THREAD_PRIORITY_AUDIO);
+            thread.start();
+            return thread.getLooper();
+        }
+        case "shared":
+            if (sharedThread == null) {
+                sharedThread = new HandlerThread("just_audio:shared", Process.THREAD_PRIORITY_AUDIO);
+                sharedThread.start();
+            }
+            sharedCount++;
+            return sharedThread.getLooper();
+        default:
+            throw new IllegalArgumentException("Unknown playback thread mode: " + mode);
+        }
+    }
+
+    /**
+     * Releases a looper obtained from acquire. Messages already queued on it
+     * are still processed before the thread exits.
+     */
+    public static synchronized void release(Looper looper) {
+        if (sharedThread != null && looper == sharedThread.getLooper()) {
+            if (--sharedCount > 0) return;
+            sharedThread = null;
+        }
+        quitSafely(looper);
+    }
+
+    private static void quitSafely(Looper looper) {
+        if (android.os.Build.VERSION.SDK_INT >= 18) {
+            looper.quitSafely();
+        } else {
+            looper.quit();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.ryanheise.just_audio;
+
+import androidx.media3.common.AudioAttributes;
+import androidx.media3.common.PlaybackParameters;
+import androidx.media3.common.Player;
+import androidx.media3.exoplayer.ExoPlayer;
+import androidx.media3.exoplayer.SeekParameters;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A bounded pool of idle ExoPlayer instances that disposed players hand back
+ * for reuse by later players with an identical configuration.
+ *
+ * Only players running on the main looper are pooled, since a player on its
+ * own playback thread cannot outlive that thread.
+ */
+public class PlayerPool {
+    private static final int DEFAULT_MAX_SIZE = 4;
+    private static final PlayerPool instance = new PlayerPool();
+
+    private final Map<Object, ArrayDeque<Entry>> idlePlayers = new HashMap<>();
+    private int maxSize = DEFAULT_MAX_SIZE;
+    private int size;
+    private long hitCount;
+    private long missCount;
+
+    public static PlayerPool getInstance() {
+        return instance;
+    }
+
+    public synchronized void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        while (size > maxSize && evictOne()) {}
+    }
+
+    /** Returns an idle player for key, or null if one must be built. */
+    public synchronized Entry acquire(Object key) {
+        ArrayDeque<Entry> entries = idlePlayers.get(key);
+        if (entries == null || entries.isEmpty()) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        size--;
+        return entries.pollLast();
+    }
+
+    /**
+     * Resets entry's player and keeps it for reuse, or releases it if the
+     * pool is full. The caller must have removed its listeners.
+     */
+    public synchronized void recycle(Object key, Entry entry) {
+        if (maxSize <= 0) {
+            entry.player.release();
+            return;
+        }
+        ExoPlayer player = entry.player;
+        player.stop();
+        player.clearMediaItems();
+        player.setPlayWhenReady(false);
+        player.setVolume(1.0f);
+        player.setPlaybackParameters(PlaybackParameters.DEFAULT);
+        player.setSkipSilenceEnabled(false);
+        player.setRepeatMode(Player.REPEAT_MODE_OFF);
+        player.setShuffleModeEnabled(false);
+        player.setAudioAttributes(AudioAttributes.DEFAULT, false);
+        player.setSeekParameters(SeekParameters.DEFAULT);
+        if (size >= maxSize) evictOne();
+        ArrayDeque<Entry> entries = idlePlayers.get(key);
+        if (entries == null) {
+            entries = new ArrayDeque<>();
+            idlePlayers.put(key, entries);
+        }
+        entries.addLast(entry);
+        size++;
+    }
+
+    /** Releases every idle player. */
+    public synchronized void clear() {
+        for (ArrayDeque<Entry> entries : idlePlayers.values()) {
+            for (Entry entry : entries) {
+                entry.player.release();
+            }
+        }
+        idlePlayers.clear();
+        size = 0;
+    }
+
+    public synchronized Map<String, Object> getStatistics() {
+        long requests = hitCount + missCount;
+        return AudioPlayer.mapOf(
+            "size", size,
+            "maxSize", maxSize,
+            "hitCount", hitCount,
+            "missCount", missCount,
+            "hitRate", requests > 0 ? (double)hitCount / requests : 0.0
+        );
+    }
+
+    // Releases an idle player, oldest first within its configuration.
+    private boolean evictOne() {
+        for (Iterator<ArrayDeque<Entry>> it = idlePlayers.values().iterator(); it.hasNext();) {
+            ArrayDeque<Entry> entries = it.next();
+            Entry entry = entries.pollFirst();
+            if (entries.isEmpty()) it.remove();
+            if (entry != null) {
+                entry.player.release();
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static class Entry {
+        final ExoPlayer player;
+        final AudioPlayer.ObserverRenderer observerRenderer;
+        final SoftwareEffectsProcessor softwareEffectsProcessor;
+        final VisualizerTapProcessor visualizerTapProcessor;
+
+        public Entry(ExoPlayer player, AudioPlayer.ObserverRenderer observerRenderer, SoftwareEffectsProcessor softwareEffectsProcessor, VisualizerTapProcessor visualizerTapProcessor) {
+            this.player = player;
+            this.observerRenderer = observerRenderer;
+            this.softwareEffectsProcessor = softwareEffectsProcessor;
+            this.visualizerTapProcessor = visualizerTapProcessor;
+        }
+    }
+}
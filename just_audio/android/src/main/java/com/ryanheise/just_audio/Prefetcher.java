@@ -0,0 +1,109 @@
+package com.ryanheise.just_audio;
+
+import android.net.Uri;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.CacheWriter;
+import io.flutter.Log;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Downloads the head of upcoming playlist items into the shared MediaCache.
+ *
+ * All players share one small executor so that prefetching can never
+ * compete with the active player for more than a couple of connections.
+ * Once its queue is full, the oldest queued prefetch is cancelled to make
+ * room for the newest.
+ */
+public class Prefetcher {
+    static final String TAG = "Prefetcher";
+    private static final int MAX_THREADS = 2;
+    private static final int MAX_QUEUED = 16;
+
+    private static final ThreadPoolExecutor executor;
+
+    static {
+        executor = new ThreadPoolExecutor(
+            MAX_THREADS, MAX_THREADS, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(MAX_QUEUED),
+            new CancelOldestPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private final List<Task> tasks = new ArrayList<>();
+
+    /** Schedules the first maxBytes of uri to be written to the cache. */
+    public synchronized void prefetch(CacheDataSource.Factory factory, Uri uri, String cacheKey, long maxBytes) {
+        purgeCompleted();
+        DataSpec dataSpec = new DataSpec.Builder()
+            .setUri(uri)
+            .setKey(cacheKey)
+            .setLength(maxBytes)
+            .build();
+        Task task = new Task(new CacheWriter(factory.createDataSource(), dataSpec, null, null));
+        task.future = executor.submit(task);
+        tasks.add(task);
+    }
+
+    /** Cancels all scheduled and in-flight prefetches. */
+    public synchronized void cancelAll() {
+        for (Task task : tasks) {
+            task.cancel();
+        }
+        tasks.clear();
+    }
+
+    private void purgeCompleted() {
+        for (Iterator<Task> it = tasks.iterator(); it.hasNext();) {
+            Future<?> future = it.next().future;
+            if (future != null && future.isDone()) it.remove();
+        }
+    }
+
+    // Like DiscardOldestPolicy, but cancels the discarded task so that it
+    // counts as done rather than staying pending forever.
+    private static class CancelOldestPolicy extends ThreadPoolExecutor.DiscardOldestPolicy {
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
+            if (e.isShutdown()) return;
+            Runnable oldest = e.getQueue().poll();
+            if (oldest instanceof Future) {
+                ((Future<?>)oldest).cancel(false);
+            }
+            e.execute(r);
+        }
+    }
+
+    private static class Task implements Runnable {
+        private final CacheWriter cacheWriter;
+        Future<?> future;
+
+        Task(CacheWriter cacheWriter) {
+            this.cacheWriter = cacheWriter;
+        }
+
+        @Override
+        public void run() {
+            try {
+                cacheWriter.cache();
+            } catch (InterruptedIOException e) {
+                // Cancelled
+            } catch (IOException e) {
+                Log.w(TAG, "Prefetch failed: " + e.getMessage());
+            }
+        }
+
+        void cancel() {
+            cacheWriter.cancel();
+            if (future != null) future.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.ryanheise.just_audio;
+
+import androidx.media3.common.C;
+import androidx.media3.extractor.ChunkIndex;
+import androidx.media3.extractor.MpegAudioUtil;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * A table of (time, byte position) pairs at MP3 frame boundaries, built by
+ * scanning every frame header of a file once.
+ */
+public class SeekIndex {
+    private static final int MAGIC = 0x4A415349;
+    private static final int VERSION = 1;
+
+    final String key;
+    final String etag;
+    final long durationUs;
+    private final long[] timesUs;
+    private final long[] positions;
+
+    SeekIndex(String key, String etag, long durationUs, long[] timesUs, long[] positions) {
+        this.key = key;
+        this.etag = etag;
+        this.durationUs = durationUs;
+        this.timesUs = timesUs;
+        this.positions = positions;
+    }
+
+    /** Returns the time of the frame starting at position, or C.TIME_UNSET. */
+    public long getTimeUs(long position) {
+        int i = Arrays.binarySearch(positions, position);
+        return i >= 0 ? timesUs[i] : C.TIME_UNSET;
+    }
+
+    /** Returns a seek map over this index that ends at dataEndPosition. */
+    public ChunkIndex toSeekMap(long dataEndPosition) {
+        int count = timesUs.length;
+        int[] sizes = new int[count];
+        long[] durationsUs = new long[count];
+        for (int i = 0; i < count; i++) {
+            long nextPosition = i + 1 < count ? positions[i + 1] : dataEndPosition;
+            long nextTimeUs = i + 1 < count ? timesUs[i + 1] : durationUs;
+            sizes[i] = (int)(nextPosition - positions[i]);
+            durationsUs[i] = nextTimeUs - timesUs[i];
+        }
+        return new ChunkIndex(sizes, positions, durationsUs, timesUs);
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(key);
+        out.writeUTF(etag != null ? etag : "");
+        out.writeLong(durationUs);
+        out.writeInt(timesUs.length);
+        for (int i = 0; i < timesUs.length; i++) {
+            out.writeLong(timesUs[i]);
+            out.writeLong(positions[i]);
+        }
+    }
+
+    /** Reads an index written by writeTo, or returns null if it is not valid. */
+    static SeekIndex readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+        String key = in.readUTF();
+        String etag = in.readUTF();
+        long durationUs = in.readLong();
+        int count = in.readInt();
+        if (count <= 0) return null;
+        long[] timesUs = new long[count];
+        long[] positions = new long[count];
+        for (int i = 0; i < count; i++) {
+            timesUs[i] = in.readLong();
+            positions[i] = in.readLong();
+        }
+        return new SeekIndex(key, etag.isEmpty() ? null : etag, durationUs, timesUs, positions);
+    }
+
+    /**
+     * Scans the MP3 stream in, recording a seek point roughly every
+     * intervalUs. Returns null if no audio frames were found.
+     */
+    static SeekIndex build(String key, String etag, InputStream in, long intervalUs) throws IOException {
+        MpegAudioUtil.Header mpegHeader = new MpegAudioUtil.Header();
+        LongArray timesUs = new LongArray();
+        LongArray positions = new LongArray();
+        long position = skipId3(in);
+        int header;
+        try {
+            header = readInt(in);
+        } catch (EOFException e) {
+            return null;
+        }
+        boolean firstFrame = true;
+        double timeUs = 0;
+        long nextIndexTimeUs = 0;
+        while (true) {
+            int frameSize = MpegAudioUtil.getFrameSize(header);
+            if (frameSize == C.LENGTH_UNSET) {
+                // Resynchronize one byte at a time.
+                int b = in.read();
+                if (b < 0) break;
+                header = (header << 8) | b;
+                position++;
+                continue;
+            }
+            mpegHeader.setForHeaderData(header);
+            boolean isAudio = true;
+            try {
+                if (firstFrame) {
+                    // Like Mp3Extractor, treat a leading Xing/Info/VBRI frame
+                    // as metadata rather than audio.
+                    byte[] body = new byte[frameSize - 4];
+                    readFully(in, body);
+                    isAudio = !hasVbrTag(body);
+                    firstFrame = false;
+                } else {
+                    skipFully(in, frameSize - 4);
+                }
+            } catch (EOFException e) {
+                break;
+            }
+            if (isAudio) {
+                if ((long)timeUs >= nextIndexTimeUs) {
+                    timesUs.add((long)timeUs);
+                    positions.add(position);
+                    nextIndexTimeUs += intervalUs;
+                }
+                timeUs += mpegHeader.samplesPerFrame * 1000000.0 / mpegHeader.sampleRate;
+            }
+            position += frameSize;
+            try {
+                header = readInt(in);
+            } catch (EOFException e) {
+                break;
+            }
+        }
+        if (timesUs.size == 0) return null;
+        return new SeekIndex(key, etag, (long)timeUs, timesUs.toArray(), positions.toArray());
+    }
+
+    // Skips an ID3v2 tag at the start of the stream, returning the number of
+    // bytes consumed.
+    private static long skipId3(InputStream in) throws IOException {
+        in.mark(10);
+        byte[] id3Header = new byte[10];
+        try {
+            readFully(in, id3Header);
+        } catch (EOFException e) {
+            in.reset();
+            return 0;
+        }
+        if (id3Header[0] != 'I' || id3Header[1] != 'D' || id3Header[2] != '3') {
+            in.reset();
+            return 0;
+        }
+        int size = ((id3Header[6] & 0x7F) << 21) | ((id3Header[7] & 0x7F) << 14)
+            | ((id3Header[8] & 0x7F) << 7) | (id3Header[9] & 0x7F);
+        if ((id3Header[5] & 0x10) != 0) size += 10; // Footer
+        skipFully(in, size);
+        return 10 + size;
+    }
+
+    private static boolean hasVbrTag(byte[] body) {
+        for (int i = 0; i + 4 <= Math.min(body.length, 64); i++) {
+            if ((body[i] == 'X' && body[i + 1] == 'i' && body[i + 2] == 'n' && body[i + 3] == 'g')
+                    || (body[i] == 'I' && body[i + 1] == 'n' && body[i + 2] == 'f' && body[i + 3] == 'o')
+                    || (body[i] == 'V' && body[i + 1] == 'B' && body[i + 2] == 'R' && body[i + 3] == 'I')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int readInt(InputStream in) throws IOException {
+        byte[] b = new byte[4];
+        readFully(in, b);
+        return ((b[0] & 0xFF) << 24) | ((b[1] & 0xFF) << 16) | ((b[2] & 0xFF) << 8) | (b[3] & 0xFF);
+    }
+
+    private static void readFully(InputStream in, byte[] buffer) throws IOException {
+        int offset = 0;
+        while (offset < buffer.length) {
+            int n = in.read(buffer, offset, buffer.length - offset);
+            if (n < 0) throw new EOFException();
+            offset += n;
+        }
+    }
+
+    private static void skipFully(InputStream in, long count) throws IOException {
+        while (count > 0) {
+            long n = in.skip(count);
+            if (n <= 0) {
+                if (in.read() < 0) throw new EOFException();
+                n = 1;
+            }
+            count -= n;
+        }
+    }
+
+    private static class LongArray {
+        long[] values = new long[256];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.ryanheise.just_audio;
+
+import android.net.Uri;
+import androidx.media3.common.C;
+import androidx.media3.common.DataReader;
+import androidx.media3.common.Format;
+import androidx.media3.common.util.ParsableByteArray;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.extractor.ConstantBitrateSeekMap;
+import androidx.media3.extractor.Extractor;
+import androidx.media3.extractor.ExtractorInput;
+import androidx.media3.extractor.ExtractorOutput;
+import androidx.media3.extractor.ExtractorsFactory;
+import androidx.media3.extractor.PositionHolder;
+import androidx.media3.extractor.SeekMap;
+import androidx.media3.extractor.TrackOutput;
+import androidx.media3.extractor.mp3.Mp3Extractor;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wraps the MP3 extractors created by another factory so that they seek
+ * using a persisted SeekIndex when one exists, and schedules one to be built
+ * when it doesn't and the file has no accurate seek map of its own, i.e.
+ * Mp3Extractor found no Xing, VBRI or MLLT table and fell back to
+ * constant bitrate seeking or none at all. Indices are keyed by the
+ * source's custom cache key if it has one, so that URIs carrying expiring
+ * tokens still share an index.
+ */
+public class SeekIndexExtractorsFactory implements ExtractorsFactory {
+    private final ExtractorsFactory delegate;
+    private final SeekIndexStore store;
+    private final DataSource.Factory dataSourceFactory;
+    private final String cacheKey;
+    private final long intervalUs;
+
+    public SeekIndexExtractorsFactory(ExtractorsFactory delegate, SeekIndexStore store, DataSource.Factory dataSourceFactory, String cacheKey, long intervalUs) {
+        this.delegate = delegate;
+        this.store = store;
+        this.dataSourceFactory = dataSourceFactory;
+        this.cacheKey = cacheKey;
+        this.intervalUs = intervalUs;
+    }
+
+    @Override
+    public Extractor[] createExtractors() {
+        return delegate.createExtractors();
+    }
+
+    @Override
+    public Extractor[] createExtractors(Uri uri, Map<String, List<String>> responseHeaders) {
+        Extractor[] extractors = delegate.createExtractors(uri, responseHeaders);
+        String etag = SeekIndexStore.getHeader(responseHeaders, "ETag");
+        for (int i = 0; i < extractors.length; i++) {
+            if (extractors[i] instanceof Mp3Extractor) {
+                extractors[i] = new SeekIndexMp3Extractor(extractors[i], uri, etag);
+            }
+        }
+        return extractors;
+    }
+
+    // Substitutes the seek map of an Mp3Extractor with a SeekIndex. Since
+    // Mp3Extractor still derives sample timestamps from its own (possibly
+    // inaccurate) seeker after a seek, the first sample after each seek is
+    // realigned to the indexed time of the seek position.
+    private class SeekIndexMp3Extractor implements Extractor {
+        private final Extractor mp3Extractor;
+        private final Uri uri;
+        private final String etag;
+        private SeekIndex seekIndex;
+        private boolean seekIndexResolved;
+        private String key;
+        private long dataEndPosition = C.LENGTH_UNSET;
+        private long seekPositionTimeUs = C.TIME_UNSET;
+        private boolean awaitingFirstSample;
+        private long timeOffsetUs;
+
+        SeekIndexMp3Extractor(Extractor mp3Extractor, Uri uri, String etag) {
+            this.mp3Extractor = mp3Extractor;
+            this.uri = uri;
+            this.etag = etag;
+        }
+
+        @Override
+        public boolean sniff(ExtractorInput input) throws IOException {
+            return mp3Extractor.sniff(input);
+        }
+
+        @Override
+        public void init(final ExtractorOutput output) {
+            mp3Extractor.init(new ExtractorOutput() {
+                @Override
+                public TrackOutput track(int id, int type) {
+                    return new OffsetTrackOutput(output.track(id, type));
+                }
+
+                @Override
+                public void endTracks() {
+                    output.endTracks();
+                }
+
+                @Override
+                public void seekMap(SeekMap seekMap) {
+                    if (seekIndex != null) {
+                        output.seekMap(seekIndex.toSeekMap(dataEndPosition));
+                        return;
+                    }
+                    if (key != null && (!seekMap.isSeekable() || seekMap instanceof ConstantBitrateSeekMap)) {
+                        store.scheduleBuild(dataSourceFactory, uri, cacheKey, key, intervalUs);
+                    }
+                    output.seekMap(seekMap);
+                }
+            });
+        }
+
+        @Override
+        public int read(ExtractorInput input, PositionHolder seekPosition) throws IOException {
+            if (!seekIndexResolved) {
+                seekIndexResolved = true;
+                dataEndPosition = input.getLength();
+                if (dataEndPosition != C.LENGTH_UNSET) {
+                    key = SeekIndexStore.keyOf(uri, cacheKey, dataEndPosition);
+                    seekIndex = store.get(key, etag);
+                }
+            }
+            return mp3Extractor.read(input, seekPosition);
+        }
+
+        @Override
+        public void seek(long position, long timeUs) {
+            mp3Extractor.seek(position, timeUs);
+            if (seekIndex != null) {
+                seekPositionTimeUs = seekIndex.getTimeUs(position);
+                awaitingFirstSample = true;
+                timeOffsetUs = 0;
+            }
+        }
+
+        @Override
+        public void release() {
+            mp3Extractor.release();
+        }
+
+        private class OffsetTrackOutput implements TrackOutput {
+            private final TrackOutput trackOutput;
+
+            OffsetTrackOutput(TrackOutput trackOutput) {
+                this.trackOutput = trackOutput;
+            }
+
+            @Override
+            public void format(Format format) {
+                trackOutput.format(format);
+            }
+
+            @Override
+            public int sampleData(DataReader input, int length, boolean allowEndOfInput, int sampleDataPart) throws IOException {
+                return trackOutput.sampleData(input, length, allowEndOfInput, sampleDataPart);
+            }
+
+            @Override
+            public void sampleData(ParsableByteArray data, int length, int sampleDataPart) {
+                trackOutput.sampleData(data, length, sampleDataPart);
+            }
+
+            @Override
+            public void sampleMetadata(long timeUs, int flags, int size, int offset, CryptoData cryptoData) {
+                if (awaitingFirstSample) {
+                    awaitingFirstSample = false;
+                    timeOffsetUs = seekPositionTimeUs != C.TIME_UNSET ? seekPositionTimeUs - timeUs : 0;
+                }
+                trackOutput.sampleMetadata(timeUs + timeOffsetUs, flags, size, offset, cryptoData);
+            }
+        }
+    }
+}
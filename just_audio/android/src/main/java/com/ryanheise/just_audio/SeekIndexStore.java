@@ -0,0 +1,229 @@
+package com.ryanheise.just_audio;
+
+import android.content.Context;
+import android.net.Uri;
+import androidx.media3.common.C;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSourceUtil;
+import androidx.media3.datasource.DataSpec;
+import io.flutter.Log;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists MP3 seek indices on disk, keyed by custom cache key (or URI) and
+ * content length, and builds missing ones in the background.
+ *
+ * A build is deferred by BUILD_DELAY_MS and reads at most
+ * MAX_BUILD_READ_RATE bytes per second, so that it does not compete with
+ * the player for bandwidth while it is buffering the same file.
+ *
+ * An index also records the ETag it was built from, if any, and is
+ * discarded if the server later reports a different one.
+ */
+public class SeekIndexStore {
+    static final String TAG = "SeekIndexStore";
+    private static final String DIRECTORY = "just_audio_seek_index";
+    private static final int MAX_FILES = 256;
+    private static final int MAX_IN_MEMORY = 16;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long BUILD_DELAY_MS = 10000;
+    private static final long MAX_BUILD_READ_RATE = 1024 * 1024;
+
+    private static SeekIndexStore instance;
+
+    private final File directory;
+    private final Map<String, SeekIndex> memoryCache = AudioPlayer.newLruMap(MAX_IN_MEMORY);
+    private final Set<String> building = new HashSet<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "just_audio seek index");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    public static synchronized SeekIndexStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new SeekIndexStore(new File(context.getCacheDir(), DIRECTORY));
+        }
+        return instance;
+    }
+
+    private SeekIndexStore(File directory) {
+        this.directory = directory;
+    }
+
+    static String keyOf(Uri uri, String cacheKey, long length) {
+        return (cacheKey != null ? cacheKey : uri.toString()) + "#" + length;
+    }
+
+    /**
+     * Returns the index for key, or null if there is none or it was built
+     * from a different ETag. Only the in-memory cache is accessed under the
+     * lock, so that a slow disk read doesn't hold up other loads.
+     */
+    public SeekIndex get(String key, String etag) {
+        SeekIndex index;
+        synchronized (this) {
+            index = memoryCache.get(key);
+        }
+        if (index == null) {
+            index = readFromDisk(key);
+            if (index == null) return null;
+            synchronized (this) {
+                memoryCache.put(key, index);
+            }
+        }
+        if (etag != null && index.etag != null && !etag.equals(index.etag)) {
+            synchronized (this) {
+                memoryCache.remove(key);
+            }
+            fileOf(key).delete();
+            return null;
+        }
+        return index;
+    }
+
+    /**
+     * Builds the index for uri in the background unless already underway or
+     * already built.
+     */
+    public void scheduleBuild(final DataSource.Factory dataSourceFactory, final Uri uri, final String cacheKey, final String key, final long intervalUs) {
+        synchronized (this) {
+            if (!building.add(key)) return;
+        }
+        executor.schedule(() -> {
+            try {
+                // Another player may have built it in the meantime.
+                if (get(key, null) != null) return;
+                SeekIndex index = build(dataSourceFactory, uri, cacheKey, key, intervalUs);
+                if (index != null) put(index);
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to build seek index for " + uri + ": " + e.getMessage());
+            } finally {
+                synchronized (SeekIndexStore.this) {
+                    building.remove(key);
+                }
+            }
+        }, BUILD_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private static SeekIndex build(DataSource.Factory dataSourceFactory, Uri uri, String cacheKey, String key, long intervalUs) throws IOException {
+        final DataSource dataSource = dataSourceFactory.createDataSource();
+        try {
+            long length = dataSource.open(new DataSpec.Builder().setUri(uri).setKey(cacheKey).build());
+            // The file changed since it was queued.
+            if (!key.equals(keyOf(uri, cacheKey, length))) return null;
+            String etag = getHeader(dataSource.getResponseHeaders(), "ETag");
+            final long startTimeMs = System.currentTimeMillis();
+            InputStream in = new BufferedInputStream(new InputStream() {
+                private long bytesRead;
+
+                @Override
+                public int read() throws IOException {
+                    byte[] b = new byte[1];
+                    return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    throttle();
+                    int n = dataSource.read(buffer, offset, length);
+                    if (n == C.RESULT_END_OF_INPUT) return -1;
+                    bytesRead += n;
+                    return n;
+                }
+
+                // Sleeps until reading bytesRead is within MAX_BUILD_READ_RATE.
+                private void throttle() throws IOException {
+                    long delayMs = bytesRead * 1000 / MAX_BUILD_READ_RATE - (System.currentTimeMillis() - startTimeMs);
+                    if (delayMs <= 0) return;
+                    try {
+                        Thread.sleep(delayMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
+            }, BUFFER_SIZE);
+            return SeekIndex.build(key, etag, in, intervalUs);
+        } finally {
+            DataSourceUtil.closeQuietly(dataSource);
+        }
+    }
+
+    // Only called from the executor's single thread, so writes and trims of
+    // the directory never overlap.
+    private void put(SeekIndex index) {
+        synchronized (this) {
+            memoryCache.put(index.key, index);
+        }
+        directory.mkdirs();
+        File file = fileOf(index.key);
+        File tempFile = new File(directory, file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            index.writeTo(out);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write seek index: " + e.getMessage());
+            tempFile.delete();
+            return;
+        }
+        tempFile.renameTo(file);
+        trim();
+    }
+
+    private SeekIndex readFromDisk(String key) {
+        File file = fileOf(key);
+        if (!file.exists()) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            SeekIndex index = SeekIndex.readFrom(in);
+            // Guards against hash collisions.
+            if (index != null && index.key.equals(key)) {
+                file.setLastModified(System.currentTimeMillis());
+                return index;
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read seek index: " + e.getMessage());
+        }
+        return null;
+    }
+
+    // Deletes the least recently used files beyond MAX_FILES.
+    private void trim() {
+        File[] files = directory.listFiles();
+        if (files == null || files.length <= MAX_FILES) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i < files.length - MAX_FILES; i++) {
+            files[i].delete();
+        }
+    }
+
+    private File fileOf(String key) {
+        return new File(directory, Integer.toHexString(key.hashCode()) + ".idx");
+    }
+
+    static String getHeader(Map<String, List<String>> headers, String name) {
+        if (headers == null) return null;
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey()) && entry.getValue() != null && !entry.getValue().isEmpty()) {
+                return entry.getValue().get(0);
+            }
+        }
+        return null;
+    }
+}
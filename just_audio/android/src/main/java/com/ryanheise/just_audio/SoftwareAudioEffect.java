@@ -0,0 +1,83 @@
+package com.ryanheise.just_audio;
+
+import java.util.Map;
+
+/**
+ * An audio effect implemented in software and applied to PCM by a
+ * SoftwareEffectsProcessor, so that it behaves the same on every device
+ * rather than depending on the framework's AudioEffect implementations.
+ *
+ * Parameters may be changed from any thread. Implementations only publish
+ * them there and pick them up on the playback thread at the start of the
+ * next buffer, so process() never blocks or allocates.
+ */
+public abstract class SoftwareAudioEffect {
+    private volatile boolean enabled;
+
+    /**
+     * Creates the software effect described by an entry of the
+     * androidAudioEffects list, or returns null if the entry describes a
+     * framework effect.
+     */
+    public static SoftwareAudioEffect decode(Map<?, ?> json) {
+        SoftwareAudioEffect effect;
+        switch ((String)json.get("type")) {
+        case "AndroidGain":
+            effect = new GainEffect();
+            break;
+        case "AndroidParametricEqualizer":
+            effect = new ParametricEqualizer();
+            break;
+        case "AndroidCompressor":
+            effect = new DynamicsCompressor(false);
+            break;
+        case "AndroidLimiter":
+            effect = new DynamicsCompressor(true);
+            break;
+        default:
+            return null;
+        }
+        effect.setParameters((Map<?, ?>)json.get("parameters"));
+        effect.setEnabled(Boolean.TRUE.equals(json.get("enabled")));
+        return effect;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /** Updates this effect's parameters. Absent parameters keep their value. */
+    public abstract void setParameters(Map<?, ?> parameters);
+
+    /** Prepares for a new input format. Called on the playback thread. */
+    public abstract void configure(int sampleRate, int channelCount);
+
+    /**
+     * Processes frameCount frames of interleaved samples in place. Called
+     * on the playback thread.
+     */
+    public abstract void process(float[] samples, int frameCount);
+
+    /** Clears any internal state, e.g. after a seek. */
+    public abstract void reset();
+
+    /**
+     * Returns a new effect with this effect's current parameters and enabled
+     * state but its own internal state, for a second player to process
+     * concurrently on its own playback thread.
+     */
+    public abstract SoftwareAudioEffect copy();
+
+    static float dbToLinear(double db) {
+        return (float)Math.pow(10.0, db / 20.0);
+    }
+
+    static Double getDouble(Map<?, ?> map, String key) {
+        Object value = map != null ? map.get(key) : null;
+        return value != null ? ((Number)value).doubleValue() : null;
+    }
+}
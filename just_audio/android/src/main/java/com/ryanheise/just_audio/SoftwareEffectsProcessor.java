@@ -0,0 +1,114 @@
+package com.ryanheise.just_audio;
+
+import androidx.media3.common.C;
+import androidx.media3.common.audio.AudioProcessor;
+import androidx.media3.common.audio.BaseAudioProcessor;
+import java.nio.ByteBuffer;
+
+/**
+ * Runs a chain of SoftwareAudioEffects over 16-bit or float PCM.
+ *
+ * Samples are converted once into a reusable float array, processed by each
+ * enabled effect in turn, and written into the processor's reusable output
+ * buffer, so nothing is allocated per buffer once the first few buffers
+ * have sized the scratch space.
+ */
+public class SoftwareEffectsProcessor extends BaseAudioProcessor {
+    private volatile SoftwareAudioEffect[] effects;
+    private SoftwareAudioEffect[] configuredEffects;
+    private float[] samples = new float[0];
+
+    public SoftwareEffectsProcessor(SoftwareAudioEffect[] effects) {
+        this.effects = effects;
+    }
+
+    /**
+     * Replaces the effect chain, e.g. when a pooled player is handed to a
+     * new owner. The new effects are configured before the next buffer.
+     */
+    public void setEffects(SoftwareAudioEffect[] effects) {
+        this.effects = effects;
+    }
+
+    @Override
+    protected AudioFormat onConfigure(AudioFormat inputAudioFormat) throws UnhandledAudioFormatException {
+        if (inputAudioFormat.encoding != C.ENCODING_PCM_16BIT && inputAudioFormat.encoding != C.ENCODING_PCM_FLOAT) {
+            throw new UnhandledAudioFormatException(inputAudioFormat);
+        }
+        return inputAudioFormat;
+    }
+
+    @Override
+    public void queueInput(ByteBuffer inputBuffer) {
+        int position = inputBuffer.position();
+        int limit = inputBuffer.limit();
+        int size = limit - position;
+        if (size == 0) return;
+        SoftwareAudioEffect[] chain = effects;
+        if (chain != configuredEffects) {
+            configureEffects(chain);
+        }
+        boolean pcmFloat = inputAudioFormat.encoding == C.ENCODING_PCM_FLOAT;
+        int sampleCount = size / (pcmFloat ? 4 : 2);
+        int frameCount = sampleCount / inputAudioFormat.channelCount;
+        ByteBuffer buffer = replaceOutputBuffer(size);
+        boolean anyEnabled = false;
+        for (SoftwareAudioEffect effect : chain) {
+            anyEnabled |= effect.isEnabled();
+        }
+        if (!anyEnabled) {
+            buffer.put(inputBuffer);
+            buffer.flip();
+            return;
+        }
+        if (samples.length < sampleCount) {
+            samples = new float[sampleCount];
+        }
+        if (pcmFloat) {
+            for (int i = 0; i < sampleCount; i++) {
+                samples[i] = inputBuffer.getFloat(position + 4 * i);
+            }
+        } else {
+            for (int i = 0; i < sampleCount; i++) {
+                samples[i] = inputBuffer.getShort(position + 2 * i) * (1.0f / 32768);
+            }
+        }
+        for (SoftwareAudioEffect effect : chain) {
+            if (effect.isEnabled()) {
+                effect.process(samples, frameCount);
+            }
+        }
+        if (pcmFloat) {
+            for (int i = 0; i < sampleCount; i++) {
+                buffer.putFloat(samples[i]);
+            }
+        } else {
+            for (int i = 0; i < sampleCount; i++) {
+                float sample = samples[i] * 32768;
+                buffer.putShort((short)Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample)));
+            }
+        }
+        inputBuffer.position(limit);
+        buffer.flip();
+    }
+
+    @Override
+    protected void onFlush() {
+        configureEffects(effects);
+    }
+
+    @Override
+    protected void onReset() {
+        configuredEffects = null;
+        samples = new float[0];
+    }
+
+    private void configureEffects(SoftwareAudioEffect[] chain) {
+        configuredEffects = chain;
+        if (inputAudioFormat == AudioProcessor.AudioFormat.NOT_SET) return;
+        for (SoftwareAudioEffect effect : chain) {
+            effect.configure(inputAudioFormat.sampleRate, inputAudioFormat.channelCount);
+            effect.reset();
+        }
+    }
+}
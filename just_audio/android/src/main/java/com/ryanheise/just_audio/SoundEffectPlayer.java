@@ -0,0 +1,480 @@
+package com.ryanheise.just_audio;
+
+import android.content.Context;
+import android.media.AudioManager;
+import android.media.MediaMetadataRetriever;
+import android.media.SoundPool;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import io.flutter.Log;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
+import io.flutter.plugin.common.MethodChannel.Result;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A low latency player for short local clips, backed by SoundPool.
+ *
+ * Clips are decoded into memory once on load, so triggering one does not go
+ * through ExoPlayer's prepare pipeline. It speaks the same method channel
+ * protocol as AudioPlayer where that makes sense: "load" accepts a playlist
+ * of file sources, "play"/"pause"/"seek" control a voice for the current
+ * index, advancing through the playlist as each clip completes, and the
+ * androidSoundPool* methods trigger and control additional overlapping
+ * voices.
+ */
+public class SoundEffectPlayer implements MethodCallHandler {
+    static final String TAG = "SoundEffectPlayer";
+    private static final int DEFAULT_MAX_STREAMS = 8;
+
+    private final MethodChannel methodChannel;
+    private final BetterEventChannel eventChannel;
+    private final BetterEventChannel dataEventChannel;
+    // Reads clip durations off the main thread. Shared by all sound effect
+    // players.
+    private static final ExecutorService DURATION_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "just_audio durations");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final SoundPool soundPool;
+
+    private final List<Integer> soundIds = new ArrayList<>();
+    private final List<Long> durations = new ArrayList<>();
+    private int pendingLoadCount;
+    private boolean durationsPending;
+    private int loadGeneration;
+    private AudioPlayer.ProcessingState processingState = AudioPlayer.ProcessingState.idle;
+    private Result prepareResult;
+    private Result playResult;
+    private int currentIndex;
+    private boolean playing;
+    private int streamId;
+    private float volume = 1.0f;
+    private float speed = 1.0f;
+    private int loopMode;
+    private long position;
+    private long updateTime;
+    private long startRealtime;
+    private final Runnable completion = this::complete;
+
+    @SuppressWarnings("deprecation")
+    public SoundEffectPlayer(
+        final Context applicationContext,
+        final BinaryMessenger messenger,
+        final String id,
+        Map<?, ?> soundPoolOptions
+    ) {
+        int maxStreams = DEFAULT_MAX_STREAMS;
+        if (soundPoolOptions.get("maxStreams") != null) {
+            maxStreams = (Integer)soundPoolOptions.get("maxStreams");
+        }
+        if (Build.VERSION.SDK_INT >= 21) {
+            soundPool = new SoundPool.Builder()
+                .setMaxStreams(maxStreams)
+                .setAudioAttributes(new android.media.AudioAttributes.Builder()
+                    .setUsage(android.media.AudioAttributes.USAGE_GAME)
+                    .setContentType(android.media.AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                    .build())
+                .build();
+        } else {
+            soundPool = new SoundPool(maxStreams, AudioManager.STREAM_MUSIC, 0);
+        }
+        soundPool.setOnLoadCompleteListener(this::onLoadComplete);
+        methodChannel = new MethodChannel(messenger, "com.ryanheise.just_audio.methods." + id);
+        methodChannel.setMethodCallHandler(this);
+        eventChannel = new BetterEventChannel(messenger, "com.ryanheise.just_audio.events." + id);
+        dataEventChannel = new BetterEventChannel(messenger, "com.ryanheise.just_audio.data." + id);
+    }
+
+    @Override
+    public void onMethodCall(final MethodCall call, final Result result) {
+        try {
+            switch (call.method) {
+            case "load":
+                Map<?, ?> audioSourceMap = call.argument("audioSource");
+                Integer initialIndex = call.argument("initialIndex");
+                load(audioSourceMap.get("children"), initialIndex != null ? initialIndex : 0, result);
+                break;
+            case "play":
+                play(result);
+                break;
+            case "pause":
+                pause();
+                result.success(new HashMap<String, Object>());
+                break;
+            case "seek":
+                Long position = AudioPlayer.getLong(call.argument("position"));
+                Integer index = call.argument("index");
+                seek(position, index != null ? index : currentIndex);
+                result.success(new HashMap<String, Object>());
+                break;
+            case "setVolume":
+                volume = (float) ((double) ((Double) call.argument("volume")));
+                if (streamId != 0) soundPool.setVolume(streamId, volume, volume);
+                result.success(new HashMap<String, Object>());
+                break;
+            case "setSpeed":
+                setSpeed((float) ((double) ((Double) call.argument("speed"))));
+                result.success(new HashMap<String, Object>());
+                break;
+            case "setLoopMode":
+                loopMode = (Integer) call.argument("loopMode");
+                if (streamId != 0) soundPool.setLoop(streamId, loopMode == 1 ? -1 : 0);
+                result.success(new HashMap<String, Object>());
+                break;
+            case "setPitch":
+            case "setSkipSilence":
+            case "setShuffleMode":
+            case "setShuffleOrder":
+            case "setAndroidAudioAttributes":
+            case "setAutomaticallyWaitsToMinimizeStalling":
+            case "setCanUseNetworkResourcesForLiveStreamingWhilePaused":
+            case "setPreferredPeakBitRate":
+                // Not applicable to sound effects.
+                result.success(new HashMap<String, Object>());
+                break;
+            case "androidSoundPoolPlay": {
+                Integer voiceIndex = call.argument("index");
+                Double voiceVolume = call.argument("volume");
+                Double voiceRate = call.argument("rate");
+                int voiceId = playVoice(
+                    voiceIndex != null ? voiceIndex : currentIndex,
+                    voiceVolume != null ? (float) (double) voiceVolume : volume,
+                    voiceRate != null ? (float) (double) voiceRate : speed,
+                    0);
+                result.success(AudioPlayer.mapOf("voiceId", voiceId));
+                break;
+            }
+            case "androidSoundPoolStop":
+                soundPool.stop((Integer) call.argument("voiceId"));
+                result.success(new HashMap<String, Object>());
+                break;
+            case "androidSoundPoolSetVolume": {
+                float voiceVolume = (float) ((double) ((Double) call.argument("volume")));
+                soundPool.setVolume((Integer) call.argument("voiceId"), voiceVolume, voiceVolume);
+                result.success(new HashMap<String, Object>());
+                break;
+            }
+            default:
+                result.notImplemented();
+                break;
+            }
+        } catch (IllegalStateException e) {
+            e.printStackTrace();
+            result.error("Illegal state: " + e.getMessage(), e.toString(), null);
+        } catch (Exception e) {
+            e.printStackTrace();
+            result.error("Error: " + e, e.toString(), null);
+        }
+    }
+
+    private void load(Object json, int initialIndex, Result result) {
+        if (prepareResult != null) {
+            prepareResult.error(String.valueOf(AudioPlayer.ERROR_ABORT), "Connection aborted", null);
+            prepareResult = null;
+        }
+        // Validate every source before the current clips are unloaded.
+        final List<String> paths = new ArrayList<>();
+        for (Object child : (List<?>)json) {
+            paths.add(localPath((Map<?, ?>)child));
+        }
+        stopCurrentVoice();
+        unloadAll();
+        final int generation = ++loadGeneration;
+        for (String path : paths) {
+            int soundId = soundPool.load(path, 1);
+            if (soundId == 0) {
+                unloadAll();
+                processingState = AudioPlayer.ProcessingState.idle;
+                broadcastPlaybackEvent();
+                throw new IllegalArgumentException("Failed to load sound " + path);
+            }
+            soundIds.add(soundId);
+        }
+        currentIndex = initialIndex;
+        position = 0;
+        pendingLoadCount = soundIds.size();
+        durationsPending = true;
+        prepareResult = result;
+        processingState = AudioPlayer.ProcessingState.loading;
+        broadcastPlaybackEvent();
+        DURATION_EXECUTOR.execute(() -> {
+            final List<Long> loadedDurations = new ArrayList<>();
+            for (String path : paths) {
+                loadedDurations.add(readDuration(path));
+            }
+            handler.post(() -> {
+                // Ignore durations from a previous load.
+                if (generation != loadGeneration) return;
+                durations.addAll(loadedDurations);
+                durationsPending = false;
+                if (pendingLoadCount == 0) completeLoad();
+            });
+        });
+    }
+
+    private void onLoadComplete(SoundPool soundPool, int sampleId, int status) {
+        // Ignore samples from a previous load.
+        if (prepareResult == null || !soundIds.contains(sampleId)) return;
+        if (status != 0) {
+            // Roll back the samples that did load.
+            loadGeneration++;
+            unloadAll();
+            sendError(status, "Failed to load sound " + sampleId);
+            return;
+        }
+        if (--pendingLoadCount == 0 && !durationsPending) completeLoad();
+    }
+
+    private void completeLoad() {
+        processingState = AudioPlayer.ProcessingState.ready;
+        broadcastPlaybackEvent();
+        prepareResult.success(AudioPlayer.mapOf("duration", getDurationUs()));
+        prepareResult = null;
+        if (playing) startCurrentVoice();
+    }
+
+    private String localPath(Map<?, ?> source) {
+        if (!"progressive".equals(source.get("type"))) {
+            throw new IllegalArgumentException("Sound effect players only support file sources: " + source.get("type"));
+        }
+        Uri uri = Uri.parse((String)source.get("uri"));
+        if (!"file".equals(uri.getScheme())) {
+            throw new IllegalArgumentException("Sound effect players only support file sources: " + uri);
+        }
+        return uri.getPath();
+    }
+
+    private static long readDuration(String path) {
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            retriever.setDataSource(path);
+            String duration = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
+            return duration != null ? Long.parseLong(duration) : 0L;
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Could not read duration of " + path);
+            return 0L;
+        } finally {
+            try {
+                retriever.release();
+            } catch (Exception e) {
+                // Ignore
+            }
+        }
+    }
+
+    private void play(Result result) {
+        if (playing) {
+            result.success(new HashMap<String, Object>());
+            return;
+        }
+        if (playResult != null) {
+            playResult.success(new HashMap<String, Object>());
+        }
+        playResult = result;
+        playing = true;
+        if (processingState == AudioPlayer.ProcessingState.completed) {
+            position = 0;
+            processingState = AudioPlayer.ProcessingState.ready;
+        }
+        if (processingState == AudioPlayer.ProcessingState.ready) {
+            if (streamId != 0) {
+                soundPool.resume(streamId);
+                startRealtime = SystemClock.elapsedRealtime();
+                scheduleCompletion();
+            } else {
+                startCurrentVoice();
+            }
+        }
+        broadcastPlaybackEvent();
+    }
+
+    private void pause() {
+        if (!playing) return;
+        playing = false;
+        handler.removeCallbacks(completion);
+        if (streamId != 0) {
+            position = getCurrentPosition();
+            soundPool.pause(streamId);
+        }
+        broadcastPlaybackEvent();
+        if (playResult != null) {
+            playResult.success(new HashMap<String, Object>());
+            playResult = null;
+        }
+    }
+
+    // SoundPool cannot seek within a clip, so a seek can only restart the clip
+    // at the given index.
+    private void seek(Long position, int index) {
+        if (position != null && position != 0) {
+            throw new IllegalArgumentException("Sound effect players can only seek to the start of a clip");
+        }
+        stopCurrentVoice();
+        currentIndex = index;
+        position = 0;
+        if (processingState == AudioPlayer.ProcessingState.completed) {
+            processingState = AudioPlayer.ProcessingState.ready;
+        }
+        if (playing && processingState == AudioPlayer.ProcessingState.ready) {
+            startCurrentVoice();
+        }
+        broadcastPlaybackEvent();
+    }
+
+    private void setSpeed(float speed) {
+        if (playing) position = getCurrentPosition();
+        startRealtime = SystemClock.elapsedRealtime();
+        // SoundPool supports rates between 0.5 and 2.0.
+        this.speed = Math.max(0.5f, Math.min(2.0f, speed));
+        if (streamId != 0) {
+            soundPool.setRate(streamId, this.speed);
+            if (playing) scheduleCompletion();
+        }
+        broadcastPlaybackEvent();
+    }
+
+    private int playVoice(int index, float volume, float rate, int loop) {
+        if (index < 0 || index >= soundIds.size()) {
+            throw new IllegalStateException("No sound loaded at index " + index);
+        }
+        return soundPool.play(soundIds.get(index), volume, volume, 1, loop, Math.max(0.5f, Math.min(2.0f, rate)));
+    }
+
+    private void startCurrentVoice() {
+        streamId = playVoice(currentIndex, volume, speed, loopMode == 1 ? -1 : 0);
+        position = 0;
+        startRealtime = SystemClock.elapsedRealtime();
+        scheduleCompletion();
+    }
+
+    private void stopCurrentVoice() {
+        handler.removeCallbacks(completion);
+        if (streamId != 0) {
+            soundPool.stop(streamId);
+            streamId = 0;
+        }
+    }
+
+    // SoundPool does not report when a voice ends, so completion is derived
+    // from the clip duration.
+    private void scheduleCompletion() {
+        handler.removeCallbacks(completion);
+        if (loopMode == 1) return;
+        long remaining = getDurationMs() - position;
+        handler.postDelayed(completion, Math.max(0L, (long)(remaining / speed)));
+    }
+
+    // Advances to the next clip like a playlist would, wrapping around in
+    // loop all mode.
+    private void complete() {
+        streamId = 0;
+        int nextIndex = currentIndex + 1;
+        if (nextIndex >= soundIds.size() && loopMode == 2) {
+            nextIndex = 0;
+        }
+        if (nextIndex < soundIds.size()) {
+            currentIndex = nextIndex;
+            startCurrentVoice();
+            broadcastPlaybackEvent();
+            return;
+        }
+        position = getDurationMs();
+        processingState = AudioPlayer.ProcessingState.completed;
+        broadcastPlaybackEvent();
+        if (playResult != null) {
+            playResult.success(new HashMap<String, Object>());
+            playResult = null;
+        }
+    }
+
+    private long getCurrentPosition() {
+        if (!playing || streamId == 0) return position;
+        long elapsed = (long)((SystemClock.elapsedRealtime() - startRealtime) * speed);
+        return Math.min(position + elapsed, getDurationMs());
+    }
+
+    private long getDurationMs() {
+        return currentIndex < durations.size() ? durations.get(currentIndex) : 0L;
+    }
+
+    private Long getDurationUs() {
+        long duration = getDurationMs();
+        return duration > 0 ? 1000 * duration : null;
+    }
+
+    private void broadcastPlaybackEvent() {
+        long currentPosition = getCurrentPosition();
+        if (playing && streamId != 0) {
+            // Rebase the position so that it can be extrapolated from updateTime.
+            position = currentPosition;
+            startRealtime = SystemClock.elapsedRealtime();
+        }
+        updateTime = System.currentTimeMillis();
+        final Map<String, Object> event = new HashMap<String, Object>();
+        event.put("processingState", processingState.ordinal());
+        event.put("updatePosition", 1000 * currentPosition);
+        event.put("updateTime", updateTime);
+        event.put("bufferedPosition", 1000 * Math.max(currentPosition, getDurationMs()));
+        event.put("icyMetadata", new HashMap<String, Object>());
+        event.put("duration", processingState == AudioPlayer.ProcessingState.idle
+            || processingState == AudioPlayer.ProcessingState.loading ? null : getDurationUs());
+        event.put("currentIndex", currentIndex);
+        event.put("androidAudioSessionId", null);
+        event.put("errorCode", null);
+        event.put("errorMessage", null);
+        eventChannel.success(event);
+    }
+
+    private void sendError(int errorCode, String errorMessage) {
+        eventChannel.error(String.valueOf(errorCode), errorMessage, null);
+        processingState = AudioPlayer.ProcessingState.idle;
+        broadcastPlaybackEvent();
+        if (prepareResult != null) {
+            prepareResult.error(String.valueOf(errorCode), errorMessage, null);
+            prepareResult = null;
+        }
+    }
+
+    private void unloadAll() {
+        for (int soundId : soundIds) {
+            soundPool.unload(soundId);
+        }
+        soundIds.clear();
+        durations.clear();
+    }
+
+    public void dispose() {
+        if (prepareResult != null) {
+            prepareResult.error(String.valueOf(AudioPlayer.ERROR_ABORT), "Connection aborted", null);
+            prepareResult = null;
+        }
+        if (playResult != null) {
+            playResult.success(new HashMap<String, Object>());
+            playResult = null;
+        }
+        stopCurrentVoice();
+        loadGeneration++;
+        soundPool.release();
+        soundIds.clear();
+        durations.clear();
+        playing = false;
+        processingState = AudioPlayer.ProcessingState.idle;
+        broadcastPlaybackEvent();
+        eventChannel.endOfStream();
+        dataEventChannel.endOfStream();
+    }
+}
@@ -0,0 +1,227 @@
+package com.ryanheise.just_audio;
+
+import android.net.Uri;
+import androidx.media3.common.C;
+import androidx.media3.datasource.BaseDataSource;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+
+/**
+ * Reads a "stream" audio source by pulling byte ranges from its Dart
+ * StreamAudioSource over the player's method channel, replacing the
+ * localhost HTTP proxy that would otherwise sit in between.
+ *
+ * Chunks are requested one at a time ahead of the reader until
+ * READ_AHEAD_BYTES are buffered, so the Dart stream is only consumed as
+ * fast as the player needs it.
+ */
+public class StreamDataSource extends BaseDataSource {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int READ_AHEAD_BYTES = 512 * 1024;
+
+    public static class Factory implements DataSource.Factory {
+        private final StreamSourceBridge bridge;
+        private final String sourceId;
+
+        public Factory(StreamSourceBridge bridge, String sourceId) {
+            this.bridge = bridge;
+            this.sourceId = sourceId;
+        }
+
+        @Override
+        public DataSource createDataSource() {
+            return new StreamDataSource(bridge, sourceId);
+        }
+    }
+
+    private final StreamSourceBridge bridge;
+    private final String sourceId;
+    private Uri uri;
+    private volatile Object handle;
+    private boolean opened;
+    private long bytesRemaining;
+
+    // The following are guarded by chunks.
+    private final ArrayDeque<byte[]> chunks = new ArrayDeque<>();
+    private int chunkOffset;
+    private int bufferedBytes;
+    private boolean requesting;
+    private boolean ended;
+    private boolean closed;
+    private IOException error;
+
+    public StreamDataSource(StreamSourceBridge bridge, String sourceId) {
+        super(false);
+        this.bridge = bridge;
+        this.sourceId = sourceId;
+    }
+
+    @Override
+    public long open(DataSpec dataSpec) throws IOException {
+        uri = dataSpec.uri;
+        transferInitializing(dataSpec);
+        Long end = dataSpec.length != C.LENGTH_UNSET ? dataSpec.position + dataSpec.length : null;
+        Map<?, ?> response = (Map<?, ?>)bridge.invokeAndWait("streamOpen", AudioPlayer.mapOf(
+            "sourceId", sourceId,
+            "start", dataSpec.position,
+            "end", end));
+        handle = response.get("handle");
+        synchronized (chunks) {
+            chunks.clear();
+            chunkOffset = 0;
+            bufferedBytes = 0;
+            requesting = false;
+            closed = false;
+            ended = false;
+            error = null;
+        }
+        // A source that ignores range requests responds from the start.
+        Long offset = AudioPlayer.getLong(response.get("offset"));
+        long skip = dataSpec.position - (offset != null ? offset : 0);
+        if (skip < 0) {
+            throw new IOException("Stream source responded from " + offset + " when asked for " + dataSpec.position);
+        }
+        Long contentLength = AudioPlayer.getLong(response.get("contentLength"));
+        opened = true;
+        requestMore();
+        skipBytes(skip);
+        if (dataSpec.length != C.LENGTH_UNSET) {
+            bytesRemaining = dataSpec.length;
+        } else if (contentLength != null) {
+            bytesRemaining = contentLength - skip;
+        } else {
+            bytesRemaining = C.LENGTH_UNSET;
+        }
+        transferStarted(dataSpec);
+        return bytesRemaining;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+        if (bytesRemaining == 0) return C.RESULT_END_OF_INPUT;
+        if (bytesRemaining != C.LENGTH_UNSET) {
+            length = (int)Math.min(length, bytesRemaining);
+        }
+        int read = take(buffer, offset, length);
+        if (read == C.RESULT_END_OF_INPUT) {
+            if (bytesRemaining != C.LENGTH_UNSET) {
+                throw new IOException("Stream source ended " + bytesRemaining + " bytes early");
+            }
+            return C.RESULT_END_OF_INPUT;
+        }
+        if (bytesRemaining != C.LENGTH_UNSET) {
+            bytesRemaining -= read;
+        }
+        bytesTransferred(read);
+        return read;
+    }
+
+    @Override
+    public Uri getUri() {
+        return uri;
+    }
+
+    @Override
+    public void close() {
+        uri = null;
+        if (handle != null) {
+            synchronized (chunks) {
+                closed = true;
+                chunks.clear();
+                bufferedBytes = 0;
+                chunks.notifyAll();
+            }
+            bridge.invoke("streamClose", AudioPlayer.mapOf("handle", handle), null);
+            handle = null;
+        }
+        if (opened) {
+            opened = false;
+            transferEnded();
+        }
+    }
+
+    // Copies up to length buffered bytes into buffer, waiting for the next
+    // chunk if none are buffered.
+    private int take(byte[] buffer, int offset, int length) throws IOException {
+        int read;
+        synchronized (chunks) {
+            long deadline = System.currentTimeMillis() + StreamSourceBridge.TIMEOUT_MS;
+            while (chunks.isEmpty() && !ended && error == null) {
+                long timeout = deadline - System.currentTimeMillis();
+                if (timeout <= 0) throw new IOException("Timed out waiting for stream source " + sourceId);
+                try {
+                    chunks.wait(timeout);
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+            if (chunks.isEmpty()) {
+                if (error != null) throw error;
+                return C.RESULT_END_OF_INPUT;
+            }
+            byte[] chunk = chunks.peekFirst();
+            read = Math.min(length, chunk.length - chunkOffset);
+            System.arraycopy(chunk, chunkOffset, buffer, offset, read);
+            chunkOffset += read;
+            bufferedBytes -= read;
+            if (chunkOffset == chunk.length) {
+                chunks.pollFirst();
+                chunkOffset = 0;
+            }
+        }
+        requestMore();
+        return read;
+    }
+
+    private void skipBytes(long count) throws IOException {
+        byte[] scratch = new byte[(int)Math.min(count, CHUNK_SIZE)];
+        while (count > 0) {
+            int read = take(scratch, 0, (int)Math.min(count, scratch.length));
+            if (read == C.RESULT_END_OF_INPUT) throw new IOException("Stream source ended while skipping");
+            count -= read;
+        }
+    }
+
+    private void requestMore() {
+        final Object requestHandle = handle;
+        synchronized (chunks) {
+            if (requesting || ended || closed || error != null || bufferedBytes >= READ_AHEAD_BYTES) return;
+            requesting = true;
+        }
+        bridge.invoke("streamRead", AudioPlayer.mapOf("handle", requestHandle, "length", CHUNK_SIZE), new StreamSourceBridge.Callback() {
+            @Override
+            public void onSuccess(Object result) {
+                synchronized (chunks) {
+                    // Ignore responses for a previous opening.
+                    if (!requestHandle.equals(handle)) return;
+                    requesting = false;
+                    if (closed) return;
+                    byte[] chunk = (byte[])result;
+                    if (chunk == null) {
+                        ended = true;
+                    } else if (chunk.length > 0) {
+                        chunks.addLast(chunk);
+                        bufferedBytes += chunk.length;
+                    }
+                    chunks.notifyAll();
+                }
+                requestMore();
+            }
+
+            @Override
+            public void onError(IOException e) {
+                synchronized (chunks) {
+                    if (!requestHandle.equals(handle)) return;
+                    requesting = false;
+                    error = e;
+                    chunks.notifyAll();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package com.ryanheise.just_audio;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.google.common.util.concurrent.SettableFuture;
+import io.flutter.plugin.common.MethodChannel;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Calls the Dart side of a player's method channel to read the bytes of
+ * "stream" audio sources. Calls may be made from any thread and are
+ * marshalled onto the main thread, as the channel requires.
+ */
+public class StreamSourceBridge {
+    static final long TIMEOUT_MS = 30000;
+
+    public interface Callback {
+        void onSuccess(Object result);
+        void onError(IOException error);
+    }
+
+    private final MethodChannel methodChannel;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public StreamSourceBridge(MethodChannel methodChannel) {
+        this.methodChannel = methodChannel;
+    }
+
+    /** Invokes method without waiting, passing the outcome to callback if non-null. */
+    public void invoke(final String method, final Map<String, Object> arguments, final Callback callback) {
+        mainHandler.post(() -> methodChannel.invokeMethod(method, arguments, new MethodChannel.Result() {
+            @Override
+            public void success(Object result) {
+                if (callback != null) callback.onSuccess(result);
+            }
+
+            @Override
+            public void error(String errorCode, String errorMessage, Object errorDetails) {
+                if (callback != null) callback.onError(new IOException(method + " failed: " + errorCode + " " + errorMessage));
+            }
+
+            @Override
+            public void notImplemented() {
+                if (callback != null) callback.onError(new IOException(method + " is not implemented"));
+            }
+        }));
+    }
+
+    /** Invokes method and waits up to TIMEOUT_MS for its result. */
+    public Object invokeAndWait(String method, Map<String, Object> arguments) throws IOException {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            throw new IllegalStateException(method + " would deadlock on the main thread");
+        }
+        final SettableFuture<Object> future = SettableFuture.create();
+        invoke(method, arguments, new Callback() {
+            @Override
+            public void onSuccess(Object result) {
+                future.set(result);
+            }
+
+            @Override
+            public void onError(IOException error) {
+                future.setException(error);
+            }
+        });
+        try {
+            return future.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            throw new InterruptedIOException(method + " was interrupted");
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new IOException(method + " timed out");
+        } catch (ExecutionException e) {
+            throw (IOException)e.getCause();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.ryanheise.just_audio;
+
+import androidx.media3.common.C;
+import androidx.media3.common.audio.BaseAudioProcessor;
+import java.nio.ByteBuffer;
+
+/**
+ * Passes audio through unchanged while capturing a mono downmix of the
+ * latest samples into a ring buffer for an AudioVisualizer to read.
+ *
+ * Capturing is a few arithmetic operations per frame into a preallocated
+ * array, so it never blocks the playback thread on the visualizer.
+ * Captured audio leads the actual output by the audio sink's buffer.
+ */
+public class VisualizerTapProcessor extends BaseAudioProcessor {
+    private static final int MIN_RING_SIZE = 16384;
+
+    private volatile float[] ring;
+    private volatile long framesWritten;
+    private volatile int sampleRate;
+
+    /**
+     * Starts capturing enough history for windows of windowSize samples, or
+     * stops capturing if windowSize is 0.
+     */
+    public void setCapturing(int windowSize) {
+        if (windowSize <= 0) {
+            ring = null;
+            return;
+        }
+        int size = Integer.highestOneBit(Math.max(MIN_RING_SIZE, 4 * windowSize) - 1) << 1;
+        ring = new float[size];
+        framesWritten = 0;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Copies the latest out.length captured samples into out and returns the
+     * total number captured so far, or 0 if not capturing.
+     */
+    public long read(float[] out) {
+        float[] ring = this.ring;
+        if (ring == null) return 0;
+        long end = framesWritten;
+        int mask = ring.length - 1;
+        for (int i = 0; i < out.length; i++) {
+            long index = end - out.length + i;
+            out[i] = index >= 0 ? ring[(int)(index & mask)] : 0;
+        }
+        return end;
+    }
+
+    @Override
+    protected AudioFormat onConfigure(AudioFormat inputAudioFormat) throws UnhandledAudioFormatException {
+        if (inputAudioFormat.encoding != C.ENCODING_PCM_16BIT && inputAudioFormat.encoding != C.ENCODING_PCM_FLOAT) {
+            throw new UnhandledAudioFormatException(inputAudioFormat);
+        }
+        return inputAudioFormat;
+    }
+
+    @Override
+    public void queueInput(ByteBuffer inputBuffer) {
+        int position = inputBuffer.position();
+        int size = inputBuffer.remaining();
+        if (size == 0) return;
+        float[] ring = this.ring;
+        if (ring != null) {
+            capture(ring, inputBuffer, position, size);
+        }
+        ByteBuffer buffer = replaceOutputBuffer(size);
+        buffer.put(inputBuffer);
+        buffer.flip();
+    }
+
+    @Override
+    protected void onFlush() {
+        sampleRate = inputAudioFormat.sampleRate;
+    }
+
+    private void capture(float[] ring, ByteBuffer inputBuffer, int position, int size) {
+        boolean pcmFloat = inputAudioFormat.encoding == C.ENCODING_PCM_FLOAT;
+        int channelCount = inputAudioFormat.channelCount;
+        int frameCount = size / inputAudioFormat.bytesPerFrame;
+        int mask = ring.length - 1;
+        float scale = (pcmFloat ? 1.0f : 1.0f / 32768) / channelCount;
+        long written = framesWritten;
+        int offset = position;
+        for (int frame = 0; frame < frameCount; frame++) {
+            float sum = 0;
+            for (int channel = 0; channel < channelCount; channel++) {
+                if (pcmFloat) {
+                    sum += inputBuffer.getFloat(offset);
+                    offset += 4;
+                } else {
+                    sum += inputBuffer.getShort(offset);
+                    offset += 2;
+                }
+            }
+            ring[(int)(written++ & mask)] = sum * scale;
+        }
+        framesWritten = written;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ryanheise.just_audio;
+
+import static org.mockito.Mockito.mock;
+
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel.Result;
+import java.util.ArrayList;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Measures how long a load blocks the main thread when audio sources are
+ * decoded on it, and when androidAsyncLoad decodes them on the decode
+ * executor. Every run loads sources with new ids so that none are found
+ * already decoded.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class AsyncDecodeBenchmark {
+    private static final int[] PLAYLIST_SIZES = { 1000, 5000 };
+    private static final int PARALLELISM = 4;
+
+    private final Result result = mock(Result.class);
+    private int generation;
+
+    @Test
+    public void mainThreadBlockingPerLoad() throws Exception {
+        AudioPlayer syncPlayer = player(null);
+        AudioPlayer asyncPlayer = player(AudioPlayer.mapOf("androidAsyncLoad", AudioPlayer.mapOf("parallelism", PARALLELISM)));
+        for (int size : PLAYLIST_SIZES) {
+            // Until the load call returns.
+            Benchmarks.measure("sync load call of " + size, 1, () -> loadArguments(syncPlayer, size), arguments -> load(syncPlayer, arguments));
+            Benchmarks.measure("async load call of " + size, 1, () -> loadArguments(asyncPlayer, size), arguments -> load(asyncPlayer, arguments));
+            // Including the work left on the main looper, such as replaying
+            // the load once decoded.
+            Benchmarks.measureThreadCpu("sync load of " + size, 1, () -> loadArguments(syncPlayer, size), arguments -> loadAndWait(syncPlayer, arguments));
+            Benchmarks.measureThreadCpu("async load of " + size, 1, () -> loadArguments(asyncPlayer, size), arguments -> loadAndWait(asyncPlayer, arguments));
+        }
+        syncPlayer.dispose();
+        asyncPlayer.dispose();
+    }
+
+    private static AudioPlayer player(Map<?, ?> audioLoadConfiguration) {
+        return new AudioPlayer(RuntimeEnvironment.getApplication(), mock(BinaryMessenger.class), "benchmark",
+                audioLoadConfiguration, new ArrayList<Object>(), false, true);
+    }
+
+    // Waits for the previous load to finish decoding, so that the next one
+    // isn't deferred behind it.
+    private Map<String, Object> loadArguments(AudioPlayer player, int size) throws InterruptedException {
+        await(player);
+        return Benchmarks.loadArguments(Benchmarks.progressiveSources("g" + generation++ + "-", size), 0);
+    }
+
+    private void load(AudioPlayer player, Map<String, Object> arguments) {
+        player.onMethodCall(new MethodCall("load", arguments), result);
+    }
+
+    private void loadAndWait(AudioPlayer player, Map<String, Object> arguments) throws InterruptedException {
+        load(player, arguments);
+        await(player);
+    }
+
+    // Calls made during an async decode are deferred until the load has been
+    // replayed, so the result of a following call marks its end.
+    private static void await(AudioPlayer player) throws InterruptedException {
+        Benchmarks.CountingResult volumeResult = new Benchmarks.CountingResult();
+        player.onMethodCall(new MethodCall("setVolume", AudioPlayer.mapOf("volume", 1.0)), volumeResult);
+        volumeResult.await(1);
+    }
+}
@@ -0,0 +1,77 @@
+package com.ryanheise.just_audio;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import android.net.Uri;
+import io.flutter.plugin.common.BinaryMessenger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class AudioPlayerFactoriesTest {
+    private static final Uri URI = Uri.parse("https://example.com/a.mp3");
+
+    private AudioPlayer player;
+
+    @Before
+    public void setUp() {
+        player = new AudioPlayer(RuntimeEnvironment.getApplication(), mock(BinaryMessenger.class), "id", null, new ArrayList<Object>(), false, true);
+    }
+
+    @Test
+    public void sharesDataSourceFactoriesBetweenEqualHeaders() {
+        assertSame(player.buildDataSourceFactory(headers("a"), URI), player.buildDataSourceFactory(headers("a"), URI));
+        assertSame(player.buildDataSourceFactory(null, URI), player.buildDataSourceFactory(null, Uri.parse("https://example.com/b.mp3")));
+        assertNotSame(player.buildDataSourceFactory(headers("a"), URI), player.buildDataSourceFactory(headers("b"), URI));
+    }
+
+    @Test
+    public void sharesExtractorsFactoriesBetweenEqualOptions() {
+        assertSame(player.buildExtractorsFactory(extractorOptions(0)), player.buildExtractorsFactory(extractorOptions(0)));
+        assertSame(player.buildExtractorsFactory(null), player.buildExtractorsFactory(null));
+        assertNotSame(player.buildExtractorsFactory(extractorOptions(0)), player.buildExtractorsFactory(extractorOptions(1)));
+    }
+
+    @Test
+    public void sharesMediaSourceFactoriesBetweenEqualTypesHeadersAndOptions() {
+        assertSame(
+            player.getMediaSourceFactory("progressive", headers("a"), URI, extractorOptions(0), "a"),
+            player.getMediaSourceFactory("progressive", headers("a"), URI, extractorOptions(0), "b"));
+        assertNotSame(
+            player.getMediaSourceFactory("progressive", headers("a"), URI, null, null),
+            player.getMediaSourceFactory("hls", headers("a"), URI, null, null));
+        assertNotSame(
+            player.getMediaSourceFactory("progressive", headers("a"), URI, null, null),
+            player.getMediaSourceFactory("progressive", headers("b"), URI, null, null));
+        assertNotSame(
+            player.getMediaSourceFactory("progressive", null, URI, extractorOptions(0), null),
+            player.getMediaSourceFactory("progressive", null, URI, extractorOptions(1), null));
+    }
+
+    // Each call builds a new map so that only equality, not identity, can
+    // make the factories match.
+    private static Map<String, Object> headers(String token) {
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("Authorization", "Bearer " + token);
+        return headers;
+    }
+
+    private static Map<String, Object> extractorOptions(int mp3Flags) {
+        Map<String, Object> androidExtractorOptions = new HashMap<>();
+        androidExtractorOptions.put("constantBitrateSeekingEnabled", true);
+        androidExtractorOptions.put("constantBitrateSeekingAlwaysEnabled", false);
+        androidExtractorOptions.put("mp3Flags", mp3Flags);
+        androidExtractorOptions.put("container", null);
+        Map<String, Object> options = new HashMap<>();
+        options.put("androidExtractorOptions", androidExtractorOptions);
+        return options;
+    }
+}
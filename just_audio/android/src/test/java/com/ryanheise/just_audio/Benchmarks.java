@@ -0,0 +1,182 @@
+package com.ryanheise.just_audio;
+
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import io.flutter.plugin.common.MethodChannel.Result;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * A minimal harness for the *Benchmark classes, which are excluded from the
+ * unit tests unless gradle is given -PjustAudioBenchmarks. Each measurement
+ * is warmed up and then repeated, and the mean and best times per operation
+ * are printed.
+ */
+final class Benchmarks {
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 20;
+    private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    interface Body {
+        void run() throws Exception;
+    }
+
+    interface Setup<T> {
+        T create() throws Exception;
+    }
+
+    interface Operation<T> {
+        void run(T state) throws Exception;
+    }
+
+    private Benchmarks() {
+    }
+
+    /** Returns the mean wall time of body in nanoseconds per operation. */
+    static double measure(String name, long operations, Body body) throws Exception {
+        return measure(name, operations, () -> null, state -> body.run(), System::nanoTime);
+    }
+
+    /**
+     * Like measure, but creates the state of each run with setup, which is
+     * not timed.
+     */
+    static <T> double measure(String name, long operations, Setup<T> setup, Operation<T> operation) throws Exception {
+        return measure(name, operations, setup, operation, System::nanoTime);
+    }
+
+    /**
+     * Returns the mean CPU time that body spends on the calling thread in
+     * nanoseconds per operation. Time spent blocked, or on other threads,
+     * is not counted.
+     */
+    static double measureThreadCpu(String name, long operations, Body body) throws Exception {
+        return measureThreadCpu(name, operations, () -> null, state -> body.run());
+    }
+
+    /**
+     * Like measureThreadCpu, but creates the state of each run with setup,
+     * which is not timed.
+     */
+    static <T> double measureThreadCpu(String name, long operations, Setup<T> setup, Operation<T> operation) throws Exception {
+        return measure(name + " (thread CPU)", operations, setup, operation, threadMXBean::getCurrentThreadCpuTime);
+    }
+
+    private static <T> double measure(String name, long operations, Setup<T> setup, Operation<T> operation, LongSupplier clock) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.run(setup.create());
+        }
+        long total = 0;
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ITERATIONS; i++) {
+            T state = setup.create();
+            long start = clock.getAsLong();
+            operation.run(state);
+            long elapsed = clock.getAsLong() - start;
+            total += elapsed;
+            best = Math.min(best, elapsed);
+        }
+        double mean = (double)total / ITERATIONS / operations;
+        System.out.println(String.format(Locale.ROOT, "%s: %s/op mean, %s/op best",
+                name, format(mean), format((double)best / operations)));
+        return mean;
+    }
+
+    private static String format(double ns) {
+        if (ns >= 1e6) return String.format(Locale.ROOT, "%.2fms", ns / 1e6);
+        if (ns >= 1e3) return String.format(Locale.ROOT, "%.2fus", ns / 1e3);
+        return String.format(Locale.ROOT, "%.1fns", ns);
+    }
+
+    /** Returns the arguments of a load method call for a playlist. */
+    static Map<String, Object> loadArguments(List<Object> children, Integer initialIndex) {
+        List<Integer> shuffleOrder = new ArrayList<>();
+        for (int i = 0; i < children.size(); i++) {
+            shuffleOrder.add(i);
+        }
+        Map<String, Object> audioSource = new HashMap<>();
+        audioSource.put("type", "concatenating");
+        audioSource.put("id", "root");
+        audioSource.put("children", children);
+        audioSource.put("useLazyPreparation", true);
+        audioSource.put("shuffleOrder", shuffleOrder);
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("audioSource", audioSource);
+        arguments.put("initialPosition", null);
+        arguments.put("initialIndex", initialIndex);
+        return arguments;
+    }
+
+    /** Returns count progressive sources with distinct ids and uris. */
+    static List<Object> progressiveSources(String prefix, int count) {
+        List<Object> children = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> child = new HashMap<>();
+            child.put("type", "progressive");
+            child.put("id", prefix + i);
+            child.put("uri", "https://example.com/" + prefix + i + ".mp3");
+            child.put("headers", null);
+            child.put("options", null);
+            children.add(child);
+        }
+        return children;
+    }
+
+    /** Returns count silence sources with distinct ids. */
+    static List<Object> silenceSources(String prefix, int count, long durationUs) {
+        List<Object> children = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> child = new HashMap<>();
+            child.put("type", "silence");
+            child.put("id", prefix + i);
+            child.put("duration", durationUs);
+            children.add(child);
+        }
+        return children;
+    }
+
+    /** A Result that counts how many times it has been completed. */
+    static class CountingResult implements Result {
+        private static final long TIMEOUT_MS = 10000;
+
+        final AtomicInteger count = new AtomicInteger();
+
+        /**
+         * Runs the main looper until the result has been completed count
+         * times. Results from other threads are delivered through the main
+         * looper, and waiting for them blocks without using the main thread.
+         */
+        void await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+            while (this.count.get() < count) {
+                shadowOf(Looper.getMainLooper()).idle();
+                assertTrue("Timed out waiting for results", System.currentTimeMillis() < deadline);
+                Thread.sleep(1);
+            }
+        }
+
+        @Override
+        public void success(Object value) {
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void error(String errorCode, String errorMessage, Object errorDetails) {
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void notImplemented() {
+            count.incrementAndGet();
+        }
+    }
+}
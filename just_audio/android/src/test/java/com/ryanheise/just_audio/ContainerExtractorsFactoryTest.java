@@ -0,0 +1,105 @@
+package com.ryanheise.just_audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import android.net.Uri;
+import androidx.media3.extractor.DefaultExtractorsFactory;
+import androidx.media3.extractor.Extractor;
+import androidx.media3.extractor.ExtractorsFactory;
+import androidx.media3.extractor.flac.FlacExtractor;
+import androidx.media3.extractor.mp3.Mp3Extractor;
+import androidx.media3.extractor.mp4.Mp4Extractor;
+import androidx.media3.extractor.ogg.OggExtractor;
+import androidx.media3.extractor.ts.AdtsExtractor;
+import androidx.media3.extractor.wav.WavExtractor;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class ContainerExtractorsFactoryTest {
+    private static final Uri UNKNOWN_URI = Uri.parse("https://example.com/stream");
+    private final ExtractorsFactory sniffingFactory = new DefaultExtractorsFactory();
+
+    @Test
+    public void declaredContainerUsesOnlyItsExtractor() {
+        assertOnly(Mp3Extractor.class, factory("mp3").createExtractors(UNKNOWN_URI, headers("audio/ogg")));
+        assertOnly(Mp4Extractor.class, factory("m4a").createExtractors());
+        assertOnly(OggExtractor.class, factory("ogg").createExtractors());
+        assertOnly(FlacExtractor.class, factory("flac").createExtractors());
+        assertOnly(WavExtractor.class, factory("wav").createExtractors());
+        assertOnly(AdtsExtractor.class, factory("adts").createExtractors());
+    }
+
+    @Test
+    public void rejectsUnknownContainers() {
+        assertThrows(IllegalArgumentException.class, () -> factory("mkv"));
+    }
+
+    @Test
+    public void autoInfersTheContainerFromTheContentType() {
+        assertInferred(Mp3Extractor.class, factory("auto").createExtractors(UNKNOWN_URI, headers("audio/mpeg")));
+        assertInferred(Mp4Extractor.class, factory("auto").createExtractors(UNKNOWN_URI, headers("audio/x-m4a")));
+        assertInferred(OggExtractor.class, factory("auto").createExtractors(UNKNOWN_URI, headers("audio/opus")));
+        assertInferred(FlacExtractor.class, factory("auto").createExtractors(UNKNOWN_URI, headers("audio/flac")));
+        assertInferred(WavExtractor.class, factory("auto").createExtractors(UNKNOWN_URI, headers("audio/wave")));
+        assertInferred(AdtsExtractor.class, factory("auto").createExtractors(UNKNOWN_URI, headers("audio/aacp")));
+    }
+
+    @Test
+    public void autoIgnoresContentTypeParametersAndCase() {
+        Map<String, List<String>> headers = Collections.singletonMap("content-type", Collections.singletonList(" Audio/MPEG; charset=binary"));
+        assertInferred(Mp3Extractor.class, factory("auto").createExtractors(UNKNOWN_URI, headers));
+    }
+
+    @Test
+    public void autoInfersTheContainerFromTheExtension() {
+        assertInferred(Mp3Extractor.class, factory("auto").createExtractors(Uri.parse("https://example.com/a.MP3"), headers(null)));
+        assertInferred(Mp4Extractor.class, factory("auto").createExtractors(Uri.parse("https://example.com/a.m4b?x=1"), headers(null)));
+        assertInferred(OggExtractor.class, factory("auto").createExtractors(Uri.parse("file:///a.opus"), headers(null)));
+        assertInferred(FlacExtractor.class, factory("auto").createExtractors(Uri.parse("https://example.com/stream#.flac"), headers(null)));
+    }
+
+    @Test
+    public void autoPrefersTheContentTypeToTheExtension() {
+        assertInferred(OggExtractor.class, factory("auto").createExtractors(Uri.parse("https://example.com/a.mp3"), headers("application/ogg")));
+    }
+
+    @Test
+    public void autoFallsBackToTheExtensionForUnknownContentTypes() {
+        assertInferred(WavExtractor.class, factory("auto").createExtractors(Uri.parse("https://example.com/a.wav"), headers("application/octet-stream")));
+    }
+
+    @Test
+    public void autoSniffsWhenNothingIsRecognised() {
+        Extractor[] extractors = factory("auto").createExtractors(UNKNOWN_URI, headers("application/octet-stream"));
+        assertEquals(sniffingFactory.createExtractors(UNKNOWN_URI, headers(null)).length, extractors.length);
+        assertEquals(sniffingFactory.createExtractors().length, factory("auto").createExtractors().length);
+    }
+
+    private ContainerExtractorsFactory factory(String container) {
+        return new ContainerExtractorsFactory(container, sniffingFactory, false, false, 0);
+    }
+
+    private static Map<String, List<String>> headers(String contentType) {
+        if (contentType == null) return Collections.emptyMap();
+        return Collections.singletonMap("Content-Type", Collections.singletonList(contentType));
+    }
+
+    private static void assertOnly(Class<? extends Extractor> type, Extractor[] extractors) {
+        assertEquals(1, extractors.length);
+        assertTrue(type.isInstance(extractors[0]));
+    }
+
+    // The inferred extractor comes first, followed by every extractor for
+    // sniffing in case the source is mislabelled.
+    private void assertInferred(Class<? extends Extractor> type, Extractor[] extractors) {
+        assertTrue(type.isInstance(extractors[0]));
+        assertEquals(sniffingFactory.createExtractors().length + 1, extractors.length);
+    }
+}
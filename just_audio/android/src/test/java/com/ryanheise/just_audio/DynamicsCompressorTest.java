@@ -0,0 +1,137 @@
+package com.ryanheise.just_audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class DynamicsCompressorTest {
+    private static final int SAMPLE_RATE = 48000;
+
+    @Test
+    public void leavesLevelsBelowTheThresholdUnchanged() {
+        DynamicsCompressor compressor = compressor(-20, 4, 0, 0);
+        assertEquals(-30.0, outputDb(compressor, -30), 0.01);
+    }
+
+    @Test
+    public void reducesLevelsAboveTheThresholdByTheRatio() {
+        DynamicsCompressor compressor = compressor(-20, 4, 0, 0);
+        // 12dB over the threshold comes out 3dB over.
+        assertEquals(-17.0, outputDb(compressor, -8), 0.01);
+        assertEquals(-15.0, outputDb(compressor, 0), 0.01);
+    }
+
+    @Test
+    public void hardKneeHandlesLevelsJustAboveTheThreshold() {
+        DynamicsCompressor compressor = compressor(-20, 4, 0, 0);
+        compressor.configure(SAMPLE_RATE, 1);
+        // Rounding can put this level below the threshold in decibels.
+        float[] samples = { Math.nextUp(dbToLinear(-20)) };
+        compressor.process(samples, 1);
+        assertEquals(-20.0, linearToDb(samples[0]), 0.001);
+    }
+
+    @Test
+    public void softKneeInterpolatesAcrossTheKnee() {
+        DynamicsCompressor compressor = compressor(-20, 4, 10, 0);
+        // Below the knee.
+        assertEquals(-26.0, outputDb(compressor, -26), 0.01);
+        // At the threshold, halfway through the knee: 0.75 * 5^2 / 20.
+        assertEquals(-20.9375, outputDb(compressor, -20), 0.01);
+        // Above the knee the curve joins the hard knee curve.
+        assertEquals(-17.5, outputDb(compressor, -10), 0.01);
+    }
+
+    @Test
+    public void appliesMakeupGainAfterCompression() {
+        DynamicsCompressor compressor = compressor(-20, 4, 0, 6);
+        assertEquals(-24.0, outputDb(compressor, -30), 0.01);
+        assertEquals(-11.0, outputDb(compressor, -8), 0.01);
+    }
+
+    @Test
+    public void limiterHoldsLevelsAtTheThreshold() {
+        DynamicsCompressor limiter = new DynamicsCompressor(true);
+        limiter.setParameters(parameters(-1.0, null, null, null));
+        assertEquals(-1.0, outputDb(limiter, 0), 0.01);
+        assertEquals(-1.0, outputDb(limiter, -0.5), 0.01);
+        assertEquals(-3.0, outputDb(limiter, -3), 0.01);
+    }
+
+    @Test
+    public void linksChannelsToTheLouderOne() {
+        DynamicsCompressor compressor = compressor(-20, 4, 0, 0);
+        compressor.configure(SAMPLE_RATE, 2);
+        float[] samples = { dbToLinear(-8), dbToLinear(-30) };
+        compressor.process(samples, 1);
+        assertEquals(-17.0, linearToDb(samples[0]), 0.01);
+        assertEquals(-39.0, linearToDb(samples[1]), 0.01);
+    }
+
+    @Test
+    public void attackSmoothsTheGainReduction() {
+        Map<String, Object> parameters = parameters(-20.0, 4.0, 0.0, 0.0);
+        parameters.put("attack", 10000.0);
+        DynamicsCompressor compressor = new DynamicsCompressor(false);
+        compressor.setParameters(parameters);
+        compressor.configure(SAMPLE_RATE, 1);
+        float[] samples = new float[SAMPLE_RATE];
+        Arrays.fill(samples, dbToLinear(-8));
+        compressor.process(samples, samples.length);
+        // The first sample has barely moved the envelope, but the gain has
+        // settled well within a second.
+        assertEquals(-8.0, linearToDb(samples[0]), 0.01);
+        assertEquals(-17.0, linearToDb(samples[samples.length - 1]), 0.01);
+    }
+
+    @Test
+    public void rejectsRatiosBelowOne() {
+        DynamicsCompressor compressor = new DynamicsCompressor(false);
+        assertThrows(IllegalArgumentException.class, () -> compressor.setParameters(parameters(null, 0.5, null, null)));
+    }
+
+    @Test
+    public void copyHasTheSameCurve() {
+        SoftwareAudioEffect copy = compressor(-20, 4, 0, 0).copy();
+        assertEquals(-17.0, outputDb(copy, -8), 0.01);
+    }
+
+    // Returns a compressor that follows peaks instantly, so that its static
+    // gain curve can be read off a single sample.
+    private static DynamicsCompressor compressor(double threshold, double ratio, double knee, double makeupGain) {
+        DynamicsCompressor compressor = new DynamicsCompressor(false);
+        compressor.setParameters(parameters(threshold, ratio, knee, makeupGain));
+        return compressor;
+    }
+
+    private static Map<String, Object> parameters(Double threshold, Double ratio, Double knee, Double makeupGain) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("threshold", threshold);
+        parameters.put("ratio", ratio);
+        parameters.put("knee", knee);
+        parameters.put("makeupGain", makeupGain);
+        parameters.put("attack", 0.0);
+        parameters.put("release", 0.0);
+        return parameters;
+    }
+
+    private static double outputDb(SoftwareAudioEffect effect, double inputDb) {
+        effect.configure(SAMPLE_RATE, 1);
+        effect.reset();
+        float[] samples = { dbToLinear(inputDb) };
+        effect.process(samples, 1);
+        return linearToDb(samples[0]);
+    }
+
+    private static float dbToLinear(double db) {
+        return (float)Math.pow(10.0, db / 20.0);
+    }
+
+    private static double linearToDb(float linear) {
+        return 20 * Math.log10(linear);
+    }
+}
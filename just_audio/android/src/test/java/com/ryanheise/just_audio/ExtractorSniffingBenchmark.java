@@ -0,0 +1,163 @@
+package com.ryanheise.just_audio;
+
+import android.net.Uri;
+import androidx.media3.common.C;
+import androidx.media3.common.DataReader;
+import androidx.media3.extractor.DefaultExtractorsFactory;
+import androidx.media3.extractor.DummyExtractorOutput;
+import androidx.media3.extractor.ExtractorsFactory;
+import androidx.media3.exoplayer.source.BundledExtractorsAdapter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Compares the time and bytes read to pick an extractor for each container
+ * by sniffing, as a DefaultExtractorsFactory does for a URI without an
+ * extension, with declaring the container to a ContainerExtractorsFactory.
+ * The streams are synthesized with just enough structure to be recognised.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ExtractorSniffingBenchmark {
+    private static final Uri URI = Uri.parse("https://example.com/stream");
+    private static final int OPERATIONS = 1000;
+
+    @Test
+    public void sniffingCostPerFormat() throws Exception {
+        ExtractorsFactory sniffingFactory = new DefaultExtractorsFactory();
+        for (Map.Entry<String, byte[]> entry : streams().entrySet()) {
+            String container = entry.getKey();
+            byte[] stream = entry.getValue();
+            ExtractorsFactory declaredFactory = new ContainerExtractorsFactory(container, sniffingFactory, false, false, 0);
+            Benchmarks.measure(container + " sniffed", OPERATIONS, () -> select(sniffingFactory, stream));
+            Benchmarks.measure(container + " declared", OPERATIONS, () -> select(declaredFactory, stream));
+            System.out.println(container + " bytes read: " + select(sniffingFactory, stream) + " sniffed, " + select(declaredFactory, stream) + " declared");
+        }
+    }
+
+    // Picks an extractor for stream as a progressive media period does,
+    // OPERATIONS times, and returns the bytes read the last time.
+    private static long select(ExtractorsFactory extractorsFactory, byte[] stream) throws IOException {
+        long bytesRead = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            CountingDataReader dataReader = new CountingDataReader(stream);
+            BundledExtractorsAdapter adapter = new BundledExtractorsAdapter(extractorsFactory);
+            adapter.init(dataReader, URI, Collections.emptyMap(), 0, stream.length, new DummyExtractorOutput());
+            adapter.release();
+            bytesRead = dataReader.position;
+        }
+        return bytesRead;
+    }
+
+    private static Map<String, byte[]> streams() {
+        Map<String, byte[]> streams = new LinkedHashMap<>();
+        streams.put("mp3", mp3());
+        streams.put("m4a", m4a());
+        streams.put("ogg", ogg());
+        streams.put("flac", flac());
+        streams.put("wav", wav());
+        streams.put("adts", adts());
+        return streams;
+    }
+
+    // MPEG-1 layer III frames at 128kbps and 44.1kHz.
+    private static byte[] mp3() {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (int i = 0; i < 20; i++) {
+            byte[] frame = new byte[417];
+            frame[0] = (byte)0xFF;
+            frame[1] = (byte)0xFB;
+            frame[2] = (byte)0x90;
+            frame[3] = (byte)0x64;
+            stream.write(frame, 0, frame.length);
+        }
+        return stream.toByteArray();
+    }
+
+    // An unfragmented file with an M4A ftyp.
+    private static byte[] m4a() {
+        ByteBuffer buffer = ByteBuffer.allocate(24 + 8 + 1024);
+        buffer.putInt(24).put(ascii("ftyp")).put(ascii("M4A ")).putInt(0).put(ascii("M4A ")).put(ascii("isom"));
+        buffer.putInt(8).put(ascii("moov"));
+        buffer.putInt(1024).put(ascii("mdat"));
+        return buffer.array();
+    }
+
+    // A beginning of stream page carrying an Opus identification header.
+    private static byte[] ogg() {
+        ByteBuffer buffer = ByteBuffer.allocate(28 + 19 + 1024).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(ascii("OggS")).put((byte)0).put((byte)0x02).putLong(0).putInt(1).putInt(0).putInt(0);
+        buffer.put((byte)1).put((byte)19);
+        buffer.put(ascii("OpusHead")).put((byte)1).put((byte)2).putShort((short)312).putInt(48000).putShort((short)0).put((byte)0);
+        return buffer.array();
+    }
+
+    // The stream marker and a STREAMINFO block for 16-bit stereo at 44.1kHz.
+    private static byte[] flac() {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 34 + 1024);
+        buffer.put(ascii("fLaC")).put((byte)0x80).put((byte)0).put((byte)0).put((byte)34);
+        buffer.putShort((short)4096).putShort((short)4096);
+        buffer.put(new byte[6]);
+        buffer.putLong((44100L << 44) | (1L << 41) | (15L << 36));
+        buffer.put(new byte[16]);
+        return buffer.array();
+    }
+
+    // 16-bit stereo PCM at 44.1kHz.
+    private static byte[] wav() {
+        int dataSize = 4096;
+        ByteBuffer buffer = ByteBuffer.allocate(44 + dataSize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(ascii("RIFF")).putInt(36 + dataSize).put(ascii("WAVE"));
+        buffer.put(ascii("fmt ")).putInt(16).putShort((short)1).putShort((short)2).putInt(44100).putInt(44100 * 4).putShort((short)4).putShort((short)16);
+        buffer.put(ascii("data")).putInt(dataSize);
+        return buffer.array();
+    }
+
+    // AAC LC frames at 44.1kHz in stereo.
+    private static byte[] adts() {
+        int frameLength = 200;
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (int i = 0; i < 20; i++) {
+            byte[] frame = new byte[frameLength];
+            frame[0] = (byte)0xFF;
+            frame[1] = (byte)0xF1;
+            frame[2] = (byte)0x50;
+            frame[3] = (byte)(0x80 | (frameLength >> 11));
+            frame[4] = (byte)(frameLength >> 3);
+            frame[5] = (byte)(((frameLength & 0x7) << 5) | 0x1F);
+            frame[6] = (byte)0xFC;
+            stream.write(frame, 0, frame.length);
+        }
+        return stream.toByteArray();
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static class CountingDataReader implements DataReader {
+        private final byte[] data;
+        int position;
+
+        CountingDataReader(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position == data.length) return C.RESULT_END_OF_INPUT;
+            int count = Math.min(length, data.length - position);
+            System.arraycopy(data, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+    }
+}
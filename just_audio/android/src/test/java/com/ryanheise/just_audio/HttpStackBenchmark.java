@@ -0,0 +1,91 @@
+package com.ryanheise.just_audio;
+
+import static org.junit.Assert.assertEquals;
+
+import android.net.Uri;
+import androidx.media3.common.C;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.HttpDataSource;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Compares the latency of fetching HLS-sized segments from a local server
+ * through each HttpStack backend, and counts the connections each opens.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class HttpStackBenchmark {
+    private static final int SEGMENT_SIZE = 64 * 1024;
+    private static final int SEGMENT_COUNT = 50;
+
+    private final byte[] segment = new byte[SEGMENT_SIZE];
+    private final Set<Integer> clientPorts = Collections.synchronizedSet(new HashSet<Integer>());
+    private HttpServer server;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            exchange.getResponseHeaders().set("Content-Type", "video/mp2t");
+            exchange.sendResponseHeaders(200, segment.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(segment);
+            }
+        });
+        executor = Executors.newFixedThreadPool(4);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void segmentFetchLatency() throws Exception {
+        for (String backend : new String[] { "default", "okhttp" }) {
+            HttpDataSource.Factory factory = new HttpStack(AudioPlayer.mapOf("backend", backend)).createFactory("just_audio", null, null);
+            clientPorts.clear();
+            Benchmarks.measure(backend + " segment fetch", SEGMENT_COUNT, () -> {
+                for (int i = 0; i < SEGMENT_COUNT; i++) {
+                    assertEquals(SEGMENT_SIZE, fetch(factory, i));
+                }
+            });
+            System.out.println(backend + " connections: " + clientPorts.size());
+        }
+    }
+
+    private long fetch(HttpDataSource.Factory factory, int index) throws IOException {
+        Uri uri = Uri.parse("http://127.0.0.1:" + server.getAddress().getPort() + "/segment" + index + ".ts");
+        HttpDataSource dataSource = factory.createDataSource();
+        try {
+            dataSource.open(new DataSpec(uri));
+            byte[] buffer = new byte[16 * 1024];
+            long total = 0;
+            int read;
+            while ((read = dataSource.read(buffer, 0, buffer.length)) != C.RESULT_END_OF_INPUT) {
+                total += read;
+            }
+            return total;
+        } finally {
+            dataSource.close();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.ryanheise.just_audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import androidx.media3.common.Metadata;
+import androidx.media3.extractor.metadata.id3.InternalFrame;
+import androidx.media3.extractor.metadata.id3.TextInformationFrame;
+import androidx.media3.extractor.metadata.vorbis.VorbisComment;
+import java.util.Collections;
+import org.junit.Test;
+
+public class LoudnessTagsTest {
+    @Test
+    public void readsReplayGainFromId3Frames() {
+        LoudnessTags tags = LoudnessTags.fromMetadata(new Metadata(
+            txxx("REPLAYGAIN_TRACK_GAIN", "-6.48 dB"),
+            txxx("REPLAYGAIN_TRACK_PEAK", "0.988553")), false);
+        assertEquals(-11.52, tags.loudness, 1e-9);
+        assertEquals(0.988553, tags.peak, 1e-9);
+    }
+
+    @Test
+    public void readsReplayGainFromITunesAtoms() {
+        LoudnessTags tags = LoudnessTags.fromMetadata(new Metadata(
+            new InternalFrame("com.apple.iTunes", "replaygain_track_gain", "+1.50 dB")), false);
+        assertEquals(-19.5, tags.loudness, 1e-9);
+        assertNull(tags.peak);
+    }
+
+    @Test
+    public void readsReplayGainFromVorbisComments() {
+        LoudnessTags tags = LoudnessTags.fromMetadata(new Metadata(
+            new VorbisComment("ReplayGain_Track_Gain", "-3.00 dB")), false);
+        assertEquals(-15.0, tags.loudness, 1e-9);
+    }
+
+    @Test
+    public void prefersAlbumGainWhenAsked() {
+        Metadata metadata = new Metadata(
+            txxx("REPLAYGAIN_TRACK_GAIN", "-6.00 dB"),
+            txxx("REPLAYGAIN_TRACK_PEAK", "0.9"),
+            txxx("REPLAYGAIN_ALBUM_GAIN", "-4.00 dB"),
+            txxx("REPLAYGAIN_ALBUM_PEAK", "0.95"));
+        LoudnessTags track = LoudnessTags.fromMetadata(metadata, false);
+        assertEquals(-12.0, track.loudness, 1e-9);
+        assertEquals(0.9, track.peak, 1e-9);
+        LoudnessTags album = LoudnessTags.fromMetadata(metadata, true);
+        assertEquals(-14.0, album.loudness, 1e-9);
+        assertEquals(0.95, album.peak, 1e-9);
+    }
+
+    @Test
+    public void fallsBackToTrackGainWithoutAlbumGain() {
+        LoudnessTags tags = LoudnessTags.fromMetadata(new Metadata(
+            txxx("REPLAYGAIN_TRACK_GAIN", "-6.00 dB")), true);
+        assertEquals(-12.0, tags.loudness, 1e-9);
+    }
+
+    @Test
+    public void readsR128GainsAsQ78FixedPoint() {
+        LoudnessTags tags = LoudnessTags.fromMetadata(new Metadata(
+            new VorbisComment("R128_TRACK_GAIN", "-512"),
+            new VorbisComment("R128_ALBUM_GAIN", "384")), false);
+        // -512 / 256 = -2dB relative to -23 LUFS.
+        assertEquals(-21.0, tags.loudness, 1e-9);
+        assertNull(tags.peak);
+        // 384 / 256 = 1.5dB relative to -23 LUFS.
+        assertEquals(-24.5, LoudnessTags.fromMetadata(new Metadata(
+            new VorbisComment("R128_TRACK_GAIN", "-512"),
+            new VorbisComment("R128_ALBUM_GAIN", "384")), true).loudness, 1e-9);
+    }
+
+    @Test
+    public void prefersReplayGainToR128() {
+        LoudnessTags tags = LoudnessTags.fromMetadata(new Metadata(
+            new VorbisComment("R128_TRACK_GAIN", "-512"),
+            new VorbisComment("REPLAYGAIN_TRACK_GAIN", "-6.00 dB")), false);
+        assertEquals(-12.0, tags.loudness, 1e-9);
+    }
+
+    @Test
+    public void ignoresMalformedAndUnrelatedTags() {
+        assertNull(LoudnessTags.fromMetadata(new Metadata(
+            txxx("REPLAYGAIN_TRACK_GAIN", "loud"),
+            new VorbisComment("R128_TRACK_GAIN", "-2.0"),
+            txxx("ARTIST", "Someone")), false));
+        assertNull(LoudnessTags.fromMetadata(new Metadata(), false));
+    }
+
+    private static TextInformationFrame txxx(String description, String value) {
+        return new TextInformationFrame("TXXX", description, Collections.singletonList(value));
+    }
+}
@@ -0,0 +1,107 @@
+package com.ryanheise.just_audio;
+
+import android.net.Uri;
+import androidx.media3.common.C;
+import androidx.media3.datasource.ByteArrayDataSource;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.FileDataSource;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Compares the read throughput of MappedFileDataSource with FileDataSource,
+ * the path local files take otherwise, reading a whole file sequentially and
+ * reading short ranges at random positions as scrubbing does.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MappedFileDataSourceBenchmark {
+    private static final int FILE_SIZE = 16 * 1024 * 1024;
+    private static final int SEQUENTIAL_READ_SIZE = 16 * 1024;
+    private static final int RANDOM_READ_SIZE = 4 * 1024;
+    private static final int RANDOM_READS = 500;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final byte[] buffer = new byte[SEQUENTIAL_READ_SIZE];
+    private Uri uri;
+
+    @Before
+    public void setUp() throws IOException {
+        byte[] data = new byte[FILE_SIZE];
+        new Random(0).nextBytes(data);
+        File file = temporaryFolder.newFile("audio.bin");
+        try (FileOutputStream outputStream = new FileOutputStream(file)) {
+            outputStream.write(data);
+        }
+        uri = Uri.fromFile(file);
+    }
+
+    @Test
+    public void sequentialReadThroughput() throws Exception {
+        report("file sequential", SEQUENTIAL_READ_SIZE, Benchmarks.measure("file sequential read", FILE_SIZE / SEQUENTIAL_READ_SIZE,
+                () -> readSequentially(new FileDataSource())));
+        MappedFileDataSource mapped = mappedDataSource();
+        report("mapped sequential", SEQUENTIAL_READ_SIZE, Benchmarks.measure("mapped sequential read", FILE_SIZE / SEQUENTIAL_READ_SIZE,
+                () -> readSequentially(mapped)));
+    }
+
+    @Test
+    public void randomReadThroughput() throws Exception {
+        report("file random", RANDOM_READ_SIZE, Benchmarks.measure("file random read", RANDOM_READS,
+                () -> readRandomly(new FileDataSource())));
+        MappedFileDataSource mapped = mappedDataSource();
+        report("mapped random", RANDOM_READ_SIZE, Benchmarks.measure("mapped random read", RANDOM_READS,
+                () -> readRandomly(mapped)));
+    }
+
+    // The fallback is never used since the file is under the size limit.
+    private static MappedFileDataSource mappedDataSource() {
+        return new MappedFileDataSource(RuntimeEnvironment.getApplication(), new ByteArrayDataSource(new byte[1]), FILE_SIZE);
+    }
+
+    private void readSequentially(DataSource dataSource) throws IOException {
+        dataSource.open(new DataSpec(uri));
+        try {
+            while (dataSource.read(buffer, 0, SEQUENTIAL_READ_SIZE) != C.RESULT_END_OF_INPUT) {
+                // Only the reads are measured.
+            }
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    // Every run reads the same positions.
+    private void readRandomly(DataSource dataSource) throws IOException {
+        Random random = new Random(0);
+        for (int i = 0; i < RANDOM_READS; i++) {
+            long position = random.nextInt(FILE_SIZE - RANDOM_READ_SIZE);
+            dataSource.open(new DataSpec.Builder().setUri(uri).setPosition(position).setLength(RANDOM_READ_SIZE).build());
+            try {
+                int remaining = RANDOM_READ_SIZE;
+                while (remaining > 0) {
+                    int read = dataSource.read(buffer, 0, remaining);
+                    if (read == C.RESULT_END_OF_INPUT) break;
+                    remaining -= read;
+                }
+            } finally {
+                dataSource.close();
+            }
+        }
+    }
+
+    private static void report(String name, int readSize, double nsPerRead) {
+        System.out.println(String.format(Locale.ROOT, "%s: %.0f MB/s", name, readSize / nsPerRead * 1e9 / (1024 * 1024)));
+    }
+}
@@ -0,0 +1,132 @@
+package com.ryanheise.just_audio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import android.net.Uri;
+import androidx.media3.common.C;
+import androidx.media3.common.PlaybackException;
+import androidx.media3.datasource.ByteArrayDataSource;
+import androidx.media3.datasource.DataSourceException;
+import androidx.media3.datasource.DataSpec;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class MappedFileDataSourceTest {
+    private static final byte[] FALLBACK_DATA = { 9, 8, 7 };
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private byte[] data;
+    private Uri uri;
+
+    @Before
+    public void setUp() throws IOException {
+        data = new byte[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte)i;
+        }
+        File file = temporaryFolder.newFile("audio.bin");
+        try (FileOutputStream outputStream = new FileOutputStream(file)) {
+            outputStream.write(data);
+        }
+        uri = Uri.fromFile(file);
+    }
+
+    @Test
+    public void readsTheWholeFile() throws IOException {
+        MappedFileDataSource dataSource = dataSource(1024);
+        assertEquals(100, dataSource.open(dataSpec(0, C.LENGTH_UNSET)));
+        assertArrayEquals(data, readToEnd(dataSource));
+        dataSource.close();
+    }
+
+    @Test
+    public void readsARangeOfTheFile() throws IOException {
+        MappedFileDataSource dataSource = dataSource(1024);
+        assertEquals(20, dataSource.open(dataSpec(40, 20)));
+        assertArrayEquals(Arrays.copyOfRange(data, 40, 60), readToEnd(dataSource));
+        dataSource.close();
+    }
+
+    @Test
+    public void clampsALengthBeyondTheEndOfTheFile() throws IOException {
+        MappedFileDataSource dataSource = dataSource(1024);
+        assertEquals(10, dataSource.open(dataSpec(90, 50)));
+        assertArrayEquals(Arrays.copyOfRange(data, 90, 100), readToEnd(dataSource));
+        dataSource.close();
+    }
+
+    @Test
+    public void opensAtTheEndOfTheFile() throws IOException {
+        MappedFileDataSource dataSource = dataSource(1024);
+        assertEquals(0, dataSource.open(dataSpec(100, C.LENGTH_UNSET)));
+        assertEquals(C.RESULT_END_OF_INPUT, dataSource.read(new byte[10], 0, 10));
+        dataSource.close();
+    }
+
+    @Test
+    public void rejectsAPositionBeyondTheEndOfTheFile() {
+        MappedFileDataSource dataSource = dataSource(1024);
+        DataSourceException exception = assertThrows(DataSourceException.class, () -> dataSource.open(dataSpec(101, C.LENGTH_UNSET)));
+        assertEquals(PlaybackException.ERROR_CODE_IO_READ_POSITION_OUT_OF_RANGE, exception.reason);
+    }
+
+    @Test
+    public void reopensAtADifferentPosition() throws IOException {
+        MappedFileDataSource dataSource = dataSource(1024);
+        dataSource.open(dataSpec(0, 10));
+        dataSource.close();
+        assertEquals(30, dataSource.open(dataSpec(70, C.LENGTH_UNSET)));
+        assertArrayEquals(Arrays.copyOfRange(data, 70, 100), readToEnd(dataSource));
+        dataSource.close();
+    }
+
+    @Test
+    public void readsFilesOverTheSizeLimitFromTheFallback() throws IOException {
+        MappedFileDataSource dataSource = dataSource(50);
+        assertEquals(FALLBACK_DATA.length, dataSource.open(dataSpec(0, C.LENGTH_UNSET)));
+        assertArrayEquals(FALLBACK_DATA, readToEnd(dataSource));
+        dataSource.close();
+    }
+
+    @Test
+    public void readsRemoteUrisFromTheFallback() throws IOException {
+        MappedFileDataSource dataSource = dataSource(1024);
+        dataSource.open(new DataSpec(Uri.parse("https://example.com/audio.mp3")));
+        assertArrayEquals(FALLBACK_DATA, readToEnd(dataSource));
+        dataSource.close();
+    }
+
+    private static MappedFileDataSource dataSource(long maxFileSize) {
+        return new MappedFileDataSource(RuntimeEnvironment.getApplication(), new ByteArrayDataSource(FALLBACK_DATA), maxFileSize);
+    }
+
+    private DataSpec dataSpec(long position, long length) {
+        return new DataSpec.Builder().setUri(uri).setPosition(position).setLength(length).build();
+    }
+
+    // Reads in small chunks so that reads straddle the requested range.
+    private static byte[] readToEnd(MappedFileDataSource dataSource) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[7];
+        int read;
+        while ((read = dataSource.read(buffer, 0, buffer.length)) != C.RESULT_END_OF_INPUT) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+}
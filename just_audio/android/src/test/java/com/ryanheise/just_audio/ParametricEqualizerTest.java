@@ -0,0 +1,144 @@
+package com.ryanheise.just_audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class ParametricEqualizerTest {
+    private static final int SAMPLE_RATE = 48000;
+
+    @Test
+    public void passesThroughWithoutBands() {
+        ParametricEqualizer equalizer = equalizer();
+        float[] samples = sine(1000, 0.5, 1);
+        float[] expected = samples.clone();
+        process(equalizer, samples, 1);
+        for (int i = 0; i < samples.length; i++) {
+            assertEquals(expected[i], samples[i], 0.0f);
+        }
+    }
+
+    @Test
+    public void peakingBandAppliesItsGainAtItsFrequency() {
+        ParametricEqualizer equalizer = equalizer(band("peaking", 1000, 6.0, 1.0));
+        assertEquals(6.0, gainDb(equalizer, 1000), 0.05);
+        // Far from the band the response is flat.
+        assertEquals(0.0, gainDb(equalizer, 50), 0.1);
+    }
+
+    @Test
+    public void shelvesApplyTheirGainBeyondTheirCornerFrequency() {
+        assertEquals(-6.0, gainDb(equalizer(band("lowShelf", 1000, -6.0, null)), 50), 0.1);
+        assertEquals(0.0, gainDb(equalizer(band("lowShelf", 1000, -6.0, null)), 15000), 0.1);
+        assertEquals(4.0, gainDb(equalizer(band("highShelf", 1000, 4.0, null)), 15000), 0.1);
+        assertEquals(0.0, gainDb(equalizer(band("highShelf", 1000, 4.0, null)), 50), 0.1);
+    }
+
+    @Test
+    public void passFiltersAreThreeDecibelsDownAtTheirCornerFrequency() {
+        assertEquals(-3.0, gainDb(equalizer(band("lowPass", 2000, null, null)), 2000), 0.05);
+        assertEquals(0.0, gainDb(equalizer(band("lowPass", 2000, null, null)), 50), 0.05);
+        assertEquals(-3.0, gainDb(equalizer(band("highPass", 200, null, null)), 200), 0.05);
+        assertEquals(0.0, gainDb(equalizer(band("highPass", 200, null, null)), 10000), 0.05);
+    }
+
+    @Test
+    public void bandsCascade() {
+        ParametricEqualizer equalizer = equalizer(band("peaking", 1000, 6.0, 1.0), band("peaking", 1000, -2.0, 1.0));
+        assertEquals(4.0, gainDb(equalizer, 1000), 0.05);
+    }
+
+    @Test
+    public void filtersEachChannelIndependently() {
+        ParametricEqualizer equalizer = equalizer(band("lowPass", 1000, null, null));
+        equalizer.configure(SAMPLE_RATE, 2);
+        float[] low = sine(50, 0.5, 1);
+        float[] high = sine(15000, 0.5, 1);
+        float[] samples = new float[2 * low.length];
+        for (int i = 0; i < low.length; i++) {
+            samples[2 * i] = low[i];
+            samples[2 * i + 1] = high[i];
+        }
+        equalizer.process(samples, low.length);
+        assertEquals(0.0, levelDb(samples, 0, 2), 0.1);
+        assertTrue(levelDb(samples, 1, 2) < -30.0);
+    }
+
+    @Test
+    public void rejectsUnknownBandTypes() {
+        assertThrows(IllegalArgumentException.class, () -> equalizer(band("notch", 1000, null, null)));
+    }
+
+    @Test
+    public void rejectsNonPositiveFrequencies() {
+        assertThrows(IllegalArgumentException.class, () -> equalizer(band("peaking", 0, 3.0, null)));
+    }
+
+    @Test
+    public void copyHasTheSameResponse() {
+        ParametricEqualizer equalizer = equalizer(band("peaking", 1000, 6.0, 1.0));
+        equalizer.setEnabled(true);
+        SoftwareAudioEffect copy = equalizer.copy();
+        assertTrue(copy.isEnabled());
+        assertEquals(6.0, gainDb(copy, 1000), 0.05);
+    }
+
+    private static ParametricEqualizer equalizer(Map<?, ?>... bands) {
+        List<Object> rawBands = new ArrayList<>();
+        for (Map<?, ?> band : bands) {
+            rawBands.add(band);
+        }
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("bands", rawBands);
+        ParametricEqualizer equalizer = new ParametricEqualizer();
+        equalizer.setParameters(parameters);
+        return equalizer;
+    }
+
+    private static Map<?, ?> band(String type, double frequency, Double gain, Double q) {
+        Map<String, Object> band = new HashMap<>();
+        band.put("type", type);
+        band.put("frequency", frequency);
+        band.put("gain", gain);
+        band.put("q", q);
+        return band;
+    }
+
+    // Returns the steady state gain of effect for a sine wave at frequency.
+    private static double gainDb(SoftwareAudioEffect effect, double frequency) {
+        float[] samples = sine(frequency, 0.5, 1);
+        process(effect, samples, 1);
+        return levelDb(samples, 0, 1);
+    }
+
+    private static void process(SoftwareAudioEffect effect, float[] samples, int channelCount) {
+        effect.configure(SAMPLE_RATE, channelCount);
+        effect.process(samples, samples.length / channelCount);
+    }
+
+    private static float[] sine(double frequency, double amplitude, double seconds) {
+        float[] samples = new float[(int)(seconds * SAMPLE_RATE)];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (float)(amplitude * Math.sin(2 * Math.PI * frequency * i / SAMPLE_RATE));
+        }
+        return samples;
+    }
+
+    // Returns the RMS level of the last half of one channel relative to that
+    // of the input, once any transient has died away.
+    private static double levelDb(float[] samples, int channel, int channelCount) {
+        double sum = 0;
+        int count = 0;
+        for (int i = samples.length / 2 + channel; i < samples.length; i += channelCount) {
+            sum += samples[i] * samples[i];
+            count++;
+        }
+        return 10 * Math.log10(sum / count / (0.5 * 0.5 / 2));
+    }
+}
@@ -0,0 +1,136 @@
+package com.ryanheise.just_audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Handler;
+import android.os.Looper;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class PlaybackEventPipelineTest {
+    private BetterEventChannel eventChannel;
+    private Handler handler;
+
+    @Before
+    public void setUp() {
+        eventChannel = mock(BetterEventChannel.class);
+        handler = new Handler(Looper.getMainLooper());
+    }
+
+    @Test
+    public void sendsEveryEventWithoutRateLimit() {
+        PlaybackEventPipeline pipeline = new PlaybackEventPipeline(eventChannel, handler, null);
+        pipeline.send(event(2, 0), false);
+        pipeline.send(event(2, 10), false);
+        pipeline.send(event(2, 20), false);
+        List<Object> sent = sent(3);
+        assertEquals(event(2, 20), sent.get(2));
+    }
+
+    @Test
+    public void coalescesNonUrgentEventsWithLatestWinning() {
+        PlaybackEventPipeline pipeline = new PlaybackEventPipeline(eventChannel, handler, options(10.0, false));
+        pipeline.send(event(2, 0), false);
+        pipeline.send(event(2, 10), false);
+        pipeline.send(event(2, 20), false);
+        sent(1);
+        idleFor(100);
+        List<Object> sent = sent(2);
+        assertEquals(event(2, 20), sent.get(1));
+    }
+
+    @Test
+    public void sendsUrgentEventsImmediatelyAndDropsDeferredOnes() {
+        PlaybackEventPipeline pipeline = new PlaybackEventPipeline(eventChannel, handler, options(10.0, false));
+        pipeline.send(event(2, 0), false);
+        pipeline.send(event(2, 10), false);
+        pipeline.send(event(3, 20), false);
+        sent(2);
+        idleFor(100);
+        List<Object> sent = sent(2);
+        assertEquals(event(3, 20), sent.get(1));
+    }
+
+    @Test
+    public void sendsImmediateEventsWithinTheInterval() {
+        PlaybackEventPipeline pipeline = new PlaybackEventPipeline(eventChannel, handler, options(10.0, false));
+        pipeline.send(event(2, 0), false);
+        pipeline.send(event(2, 10), true);
+        sent(2);
+    }
+
+    @Test
+    public void flushSendsTheDeferredEvent() {
+        PlaybackEventPipeline pipeline = new PlaybackEventPipeline(eventChannel, handler, options(10.0, false));
+        pipeline.send(event(2, 0), false);
+        pipeline.send(event(2, 10), false);
+        pipeline.flush();
+        List<Object> sent = sent(2);
+        assertEquals(event(2, 10), sent.get(1));
+        idleFor(100);
+        sent(2);
+    }
+
+    @Test
+    public void deltaEncodesChangedFieldsOnly() {
+        PlaybackEventPipeline pipeline = new PlaybackEventPipeline(eventChannel, handler, options(null, true));
+        pipeline.send(event(2, 0), false);
+        pipeline.send(event(2, 10), false);
+        // An unchanged event has no delta to send.
+        pipeline.send(event(2, 10), false);
+        List<Object> sent = sent(2);
+        assertEquals(event(2, 0), sent.get(0));
+        Map<String, Object> delta = new HashMap<>();
+        delta.put("updatePosition", 10L);
+        delta.put("delta", true);
+        assertEquals(delta, sent.get(1));
+    }
+
+    @Test
+    public void resetSendsTheNextEventInFull() {
+        PlaybackEventPipeline pipeline = new PlaybackEventPipeline(eventChannel, handler, options(null, true));
+        pipeline.send(event(2, 0), false);
+        pipeline.reset();
+        pipeline.send(event(2, 10), false);
+        List<Object> sent = sent(2);
+        assertEquals(event(2, 10), sent.get(1));
+    }
+
+    private static Map<String, Object> event(int processingState, long updatePosition) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("processingState", processingState);
+        event.put("updatePosition", updatePosition);
+        event.put("currentIndex", 0);
+        return event;
+    }
+
+    private static Map<String, Object> options(Double maxEventRate, boolean deltaEncoding) {
+        Map<String, Object> options = new HashMap<>();
+        options.put("maxEventRate", maxEventRate);
+        options.put("deltaEncoding", deltaEncoding);
+        return options;
+    }
+
+    private static void idleFor(long ms) {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(ms));
+    }
+
+    // Verifies that exactly count events have been sent and returns them.
+    private List<Object> sent(int count) {
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(eventChannel, times(count)).success(captor.capture());
+        return captor.getAllValues();
+    }
+}
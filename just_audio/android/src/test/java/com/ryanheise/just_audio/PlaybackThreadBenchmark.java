@@ -0,0 +1,47 @@
+package com.ryanheise.just_audio;
+
+import static org.mockito.Mockito.mock;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.MethodCall;
+import java.util.ArrayList;
+import java.util.Locale;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Compares the main thread time that a player costs with ExoPlayer on the
+ * main looper and on a dedicated playback thread. The test thread is the
+ * main thread, so only the work left on it is counted.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class PlaybackThreadBenchmark {
+    private static final int PLAYLIST_SIZE = 100;
+    private static final int CONTROL_CALLS = 200;
+
+    @Test
+    public void mainThreadTimePerSession() throws Exception {
+        double main = Benchmarks.measureThreadCpu("main looper session", 1, () -> session("main"));
+        double dedicated = Benchmarks.measureThreadCpu("dedicated thread session", 1, () -> session("dedicated"));
+        System.out.println(String.format(Locale.ROOT, "main thread time saved: %.0f%%", 100 * (1 - dedicated / main)));
+    }
+
+    // Loads a playlist, makes a burst of control calls as a UI would while
+    // dragging a volume slider, waits for every result and disposes.
+    private static void session(String mode) throws Exception {
+        AudioPlayer player = new AudioPlayer(RuntimeEnvironment.getApplication(), mock(BinaryMessenger.class), "benchmark",
+                AudioPlayer.mapOf("androidPlaybackThread", mode), new ArrayList<Object>(), false, true);
+        Benchmarks.CountingResult results = new Benchmarks.CountingResult();
+        player.onMethodCall(new MethodCall("load", Benchmarks.loadArguments(Benchmarks.silenceSources("s", PLAYLIST_SIZE, 10000000L), 0)), new Benchmarks.CountingResult());
+        for (int i = 0; i < CONTROL_CALLS; i++) {
+            player.onMethodCall(new MethodCall("setVolume", AudioPlayer.mapOf("volume", (double)i / CONTROL_CALLS)), results);
+        }
+        results.await(CONTROL_CALLS);
+        player.dispose();
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+}
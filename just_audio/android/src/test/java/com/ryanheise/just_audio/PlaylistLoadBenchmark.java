@@ -0,0 +1,60 @@
+package com.ryanheise.just_audio;
+
+import static org.mockito.Mockito.mock;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel.Result;
+import java.util.ArrayList;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Measures how long a load blocks the player thread as the playlist grows,
+ * with and without androidIncrementalLoad. Every run loads sources with new
+ * ids so that none are found already decoded.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class PlaylistLoadBenchmark {
+    private static final int[] PLAYLIST_SIZES = { 100, 1000, 10000 };
+    private static final int WINDOW_SIZE = 50;
+
+    private final Result result = mock(Result.class);
+    private int generation;
+
+    @Test
+    public void loadTimeVersusPlaylistSize() throws Exception {
+        AudioPlayer fullPlayer = player(null);
+        AudioPlayer incrementalPlayer = player(AudioPlayer.mapOf("androidIncrementalLoad", AudioPlayer.mapOf("windowSize", WINDOW_SIZE)));
+        for (int size : PLAYLIST_SIZES) {
+            Benchmarks.measure("full load of " + size, 1, () -> loadArguments(size), arguments -> load(fullPlayer, arguments));
+            Benchmarks.measure("incremental load of " + size, 1, () -> loadArguments(size), arguments -> load(incrementalPlayer, arguments));
+            // The remaining batches are appended from the main looper.
+            Benchmarks.measure("incremental load of " + size + " until complete", 1, () -> loadArguments(size), arguments -> {
+                load(incrementalPlayer, arguments);
+                shadowOf(Looper.getMainLooper()).idle();
+            });
+        }
+        fullPlayer.dispose();
+        incrementalPlayer.dispose();
+    }
+
+    private static AudioPlayer player(Map<?, ?> audioLoadConfiguration) {
+        return new AudioPlayer(RuntimeEnvironment.getApplication(), mock(BinaryMessenger.class), "benchmark",
+                audioLoadConfiguration, new ArrayList<Object>(), false, true);
+    }
+
+    private Map<String, Object> loadArguments(int size) {
+        return Benchmarks.loadArguments(Benchmarks.progressiveSources("g" + generation++ + "-", size), size / 2);
+    }
+
+    // On the main looper the load is handled before onMethodCall returns.
+    private void load(AudioPlayer player, Map<String, Object> arguments) {
+        player.onMethodCall(new MethodCall("load", arguments), result);
+    }
+}
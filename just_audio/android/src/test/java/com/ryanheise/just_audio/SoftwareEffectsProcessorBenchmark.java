@@ -0,0 +1,98 @@
+package com.ryanheise.just_audio;
+
+import static org.junit.Assert.assertTrue;
+
+import androidx.media3.common.C;
+import androidx.media3.common.audio.AudioProcessor.AudioFormat;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Measures the cost per buffer of a SoftwareEffectsProcessor running an
+ * equalizer, compressor, limiter and gain, and checks that processing
+ * allocates nothing once warmed up.
+ */
+public class SoftwareEffectsProcessorBenchmark {
+    private static final int SAMPLE_RATE = 48000;
+    private static final int CHANNEL_COUNT = 2;
+    private static final int FRAMES_PER_BUFFER = 1024;
+    private static final int BUFFERS_PER_RUN = 1000;
+
+    @Test
+    public void costPerBuffer() throws Exception {
+        for (int encoding : new int[] { C.ENCODING_PCM_16BIT, C.ENCODING_PCM_FLOAT }) {
+            String name = encoding == C.ENCODING_PCM_FLOAT ? "float" : "16-bit";
+            SoftwareEffectsProcessor processor = processor(encoding, effects());
+            ByteBuffer input = input(encoding);
+            Benchmarks.measure(name + " full chain", BUFFERS_PER_RUN, () -> run(processor, input));
+            SoftwareEffectsProcessor bypass = processor(encoding, new SoftwareAudioEffect[0]);
+            Benchmarks.measure(name + " empty chain", BUFFERS_PER_RUN, () -> run(bypass, input));
+        }
+    }
+
+    @Test
+    public void allocatesNothingPerBuffer() throws Exception {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        SoftwareEffectsProcessor processor = processor(C.ENCODING_PCM_FLOAT, effects());
+        ByteBuffer input = input(C.ENCODING_PCM_FLOAT);
+        run(processor, input);
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        run(processor, input);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+        System.out.println("allocated per buffer: " + (double)allocated / BUFFERS_PER_RUN + " bytes");
+        assertTrue(allocated < BUFFERS_PER_RUN);
+    }
+
+    private static SoftwareEffectsProcessor processor(int encoding, SoftwareAudioEffect[] effects) throws Exception {
+        SoftwareEffectsProcessor processor = new SoftwareEffectsProcessor(effects);
+        processor.configure(new AudioFormat(SAMPLE_RATE, CHANNEL_COUNT, encoding));
+        processor.flush();
+        return processor;
+    }
+
+    private static SoftwareAudioEffect[] effects() {
+        SoftwareAudioEffect[] effects = {
+            SoftwareAudioEffect.decode(effect("AndroidParametricEqualizer", AudioPlayer.mapOf("bands", Arrays.asList(
+                AudioPlayer.mapOf("type", "lowShelf", "frequency", 100.0, "gain", 3.0),
+                AudioPlayer.mapOf("type", "peaking", "frequency", 1000.0, "gain", -2.0, "q", 1.0),
+                AudioPlayer.mapOf("type", "highShelf", "frequency", 8000.0, "gain", 2.0))))),
+            SoftwareAudioEffect.decode(effect("AndroidCompressor", AudioPlayer.mapOf("threshold", -20.0, "ratio", 4.0))),
+            SoftwareAudioEffect.decode(effect("AndroidLimiter", AudioPlayer.mapOf("threshold", -1.0))),
+            SoftwareAudioEffect.decode(effect("AndroidGain", AudioPlayer.mapOf("gain", -3.0))),
+        };
+        return effects;
+    }
+
+    private static Map<String, Object> effect(String type, Map<String, Object> parameters) {
+        return AudioPlayer.mapOf("type", type, "enabled", true, "parameters", parameters);
+    }
+
+    // Returns a direct buffer of a sine wave, as the audio sink provides.
+    private static ByteBuffer input(int encoding) {
+        int sampleCount = FRAMES_PER_BUFFER * CHANNEL_COUNT;
+        ByteBuffer input = ByteBuffer.allocateDirect(sampleCount * (encoding == C.ENCODING_PCM_FLOAT ? 4 : 2)).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < sampleCount; i++) {
+            float sample = (float)(0.5 * Math.sin(2 * Math.PI * 440 * (i / CHANNEL_COUNT) / SAMPLE_RATE));
+            if (encoding == C.ENCODING_PCM_FLOAT) {
+                input.putFloat(sample);
+            } else {
+                input.putShort((short)(sample * 32767));
+            }
+        }
+        input.flip();
+        return input;
+    }
+
+    private static void run(SoftwareEffectsProcessor processor, ByteBuffer input) {
+        for (int i = 0; i < BUFFERS_PER_RUN; i++) {
+            input.rewind();
+            processor.queueInput(input);
+            processor.getOutput();
+        }
+    }
+}
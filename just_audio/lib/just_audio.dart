@@ -113,6 +113,7 @@ class AudioPlayer {
 
   String? _id;
   final _proxy = _ProxyHttpServer();
+  late final _streamAudioSourceReader = _StreamAudioSourceReader(this);
   // ignore: deprecated_member_use_from_same_package
   final ConcatenatingAudioSource _playlist;
   final Map<String, AudioSource> _audioSources = {};
@@ -138,6 +139,10 @@ class AudioPlayer {
   final _icyMetadataSubject = BehaviorSubject<IcyMetadata?>.seeded(null);
   final _androidAudioSessionIdSubject = BehaviorSubject<int?>.seeded(null);
   final _errorSubject = PublishSubject<PlayerException>();
+  final _androidMetricsSubject =
+      BehaviorSubject<AndroidPlaybackMetrics?>.seeded(null);
+  final _androidVisualizerSubject = PublishSubject<AndroidVisualizerCapture>();
+  Map<String, Duration>? _androidLoadPhases;
 
   // independent streams
   final _playingSubject = BehaviorSubject.seeded(false);
@@ -631,6 +636,26 @@ class AudioPlayer {
   /// A stream of errors broadcast by the player.
   Stream<PlayerException> get errorStream => _errorSubject.stream;
 
+  /// (Android) The latest playback performance metrics, or `null` if
+  /// [AudioLoadConfiguration.androidMetrics] is not enabled or no report has
+  /// been received yet.
+  AndroidPlaybackMetrics? get androidMetrics => _androidMetricsSubject.nvalue;
+
+  /// (Android) The time from the last completed load request to each of its
+  /// phases, or `null` if [AudioLoadConfiguration.androidLoadTrace] is not
+  /// enabled. See [AndroidLoadTrace] for the phases.
+  Map<String, Duration>? get androidLoadPhases => _androidLoadPhases;
+
+  /// (Android) A stream of playback performance metrics, enabled via
+  /// [AudioLoadConfiguration.androidMetrics].
+  Stream<AndroidPlaybackMetrics?> get androidMetricsStream =>
+      _androidMetricsSubject.stream;
+
+  /// (Android) A stream of waveform and spectrum captures, enabled via
+  /// [AudioLoadConfiguration.androidVisualizer].
+  Stream<AndroidVisualizerCapture> get androidVisualizerStream =>
+      _androidVisualizerSubject.stream;
+
   /// A stream broadcasting every position discontinuity.
   Stream<PositionDiscontinuity> get positionDiscontinuityStream =>
       _positionDiscontinuitySubject.stream;
@@ -1007,7 +1032,10 @@ class AudioPlayer {
             initialPosition: initialSeekValues?.position,
             initialIndex: initialSeekValues?.index,
           ))
-          .then((response) => response.duration);
+          .then((response) {
+        _androidLoadPhases = response.loadPhases;
+        return response.duration;
+      });
       final duration = await _loadFuture;
       checkInterruption();
       if (platform != _platformValue) {
@@ -1297,12 +1325,18 @@ class AudioPlayer {
   /// within [sequence].
   ///
   /// A `null` [position] seeks to the head of a live stream.
-  Future<void> seek(final Duration? position, {int? index}) async {
-    if (_disposed) return;
+  ///
+  /// On Android, [androidSeekParameters] overrides
+  /// [AudioLoadConfiguration.androidSeekParameters] for this seek. Returns the
+  /// time the seek took to complete where the platform measures it (currently
+  /// Android only), or `null` otherwise.
+  Future<Duration?> seek(final Duration? position,
+      {int? index, AndroidSeekParameters? androidSeekParameters}) async {
+    if (_disposed) return null;
     _pluginLoadRequest?.resetInitialSeekValues();
     switch (processingState) {
       case ProcessingState.loading:
-        return;
+        return null;
       default:
         try {
           _seeking = true;
@@ -1317,11 +1351,14 @@ class AudioPlayer {
               PositionDiscontinuityReason.seek,
               prevPlaybackEvent,
               playbackEvent));
-          await (await _platform)
-              .seek(SeekRequest(position: position, index: index));
+          final response = await (await _platform).seek(SeekRequest(
+              position: position,
+              index: index,
+              androidSeekParameters: androidSeekParameters?._toMessage()));
           if (playing && !_active) {
             _setPlatformActive(true)?.catchError((dynamic e) async => null);
           }
+          return response.seekLatency;
         } finally {
           _seeking = false;
         }
@@ -1329,17 +1366,79 @@ class AudioPlayer {
   }
 
   /// Seeks to the next item, or does nothing if there is no next item.
-  Future<void> seekToNext() async {
+  /// Returns the same as [seek].
+  Future<Duration?> seekToNext(
+      {AndroidSeekParameters? androidSeekParameters}) async {
     if (hasNext) {
-      await seek(Duration.zero, index: nextIndex);
+      return await seek(Duration.zero,
+          index: nextIndex, androidSeekParameters: androidSeekParameters);
     }
+    return null;
   }
 
   /// Seeks to the previous item, or does nothing if there is no previous item.
-  Future<void> seekToPrevious() async {
+  /// Returns the same as [seek].
+  Future<Duration?> seekToPrevious(
+      {AndroidSeekParameters? androidSeekParameters}) async {
     if (hasPrevious) {
-      await seek(Duration.zero, index: previousIndex);
+      return await seek(Duration.zero,
+          index: previousIndex, androidSeekParameters: androidSeekParameters);
     }
+    return null;
+  }
+
+  /// (Android) Schedules the head of each of the next [count] items, in
+  /// playback order, to be written to the disk cache enabled via
+  /// [AudioLoadConfiguration.androidCache], and returns the sources that were
+  /// scheduled. Only progressive sources can be prefetched.
+  ///
+  /// The head is the first [duration] of each item, converted to bytes at the
+  /// bitrate of the current item (or 320kbps if that is unknown), and at most
+  /// [maxBytes]. If neither is given, the first 512KB are prefetched.
+  Future<List<IndexedAudioSource>> prefetch(
+      {int count = 1, int? maxBytes, Duration? duration}) async {
+    if (_disposed) return [];
+    final response = await (await _platform).prefetch(PrefetchRequest(
+        count: count, maxBytes: maxBytes, duration: duration));
+    return response.ids
+        .map((id) => _audioSources[id])
+        .whereType<IndexedAudioSource>()
+        .toList();
+  }
+
+  /// (Android) Plays an additional voice of the clip at [index] (defaulting to
+  /// the current index) over any voices already playing, and returns its
+  /// voice id. [volume] and [rate] default to those of this player, and [rate]
+  /// is clamped between 0.5 and 2.0. Requires
+  /// [AudioLoadConfiguration.androidSoundPool].
+  Future<int> androidSoundPoolPlay(
+      {int? index, double? volume, double? rate}) async {
+    if (_disposed) return 0;
+    final response = await (await _platform).androidSoundPoolPlay(
+        AndroidSoundPoolPlayRequest(index: index, volume: volume, rate: rate));
+    return response.voiceId;
+  }
+
+  /// (Android) Stops a voice started by [androidSoundPoolPlay].
+  Future<void> androidSoundPoolStop(int voiceId) async {
+    if (_disposed) return;
+    await (await _platform)
+        .androidSoundPoolStop(AndroidSoundPoolStopRequest(voiceId: voiceId));
+  }
+
+  /// (Android) Sets the volume of a voice started by [androidSoundPoolPlay].
+  Future<void> androidSoundPoolSetVolume(int voiceId, double volume) async {
+    if (_disposed) return;
+    await (await _platform).androidSoundPoolSetVolume(
+        AndroidSoundPoolSetVolumeRequest(voiceId: voiceId, volume: volume));
+  }
+
+  /// (Android) Gets the number of media sources this player holds, including
+  /// those kept by [AudioLoadConfiguration.androidMediaSourceCache].
+  Future<AndroidMediaSourceCacheSize> androidMediaSourceCacheSize() async {
+    return AndroidMediaSourceCacheSize._(await (await _platform)
+        .androidMediaSourceCacheGetSize(
+            AndroidMediaSourceCacheGetSizeRequest()));
   }
 
   /// Sets the Android audio attributes for this player. Has no effect on other
@@ -1443,6 +1542,8 @@ class AudioPlayer {
       await _icyMetadataSubject.close();
       await _androidAudioSessionIdSubject.close();
       await _errorSubject.close();
+      await _androidMetricsSubject.close();
+      await _androidVisualizerSubject.close();
       await _playerStateSubject.close();
       await _skipSilenceEnabledSubject.close();
       await _positionDiscontinuitySubject.close();
@@ -1539,6 +1640,14 @@ class AudioPlayer {
               shuffleModeEnabled:
                   message.shuffleMode != ShuffleModeMessage.none));
         }
+        if (message.androidMetrics != null) {
+          _androidMetricsSubject
+              .add(AndroidPlaybackMetrics._(message.androidMetrics!));
+        }
+        if (message.androidVisualizer != null) {
+          _androidVisualizerSubject
+              .add(AndroidVisualizerCapture._(message.androidVisualizer!));
+        }
       }, onDone: () {
         _playerDataSubscription = null;
       });
@@ -1650,6 +1759,9 @@ class AudioPlayer {
               ));
 
         _platformValue = platform;
+        if (active && !_disposed) {
+          platform.setStreamAudioSourceReader(_streamAudioSourceReader);
+        }
         return platform;
       });
       if (checkInterruption() || _disposed) return inactiveResult(platform);
@@ -1761,6 +1873,8 @@ class AudioPlayer {
 
   /// Disposes of the given platform.
   Future<void> _disposePlatform(AudioPlayerPlatform platform) async {
+    platform.setStreamAudioSourceReader(null);
+    await _streamAudioSourceReader.closeAll();
     if (platform is _IdleAudioPlayer) {
       await platform.dispose(DisposeRequest());
     } else {
@@ -1786,6 +1900,45 @@ class AudioPlayer {
     }
   }
 
+  /// (Android) Gets the statistics of the disk cache enabled via
+  /// [AudioLoadConfiguration.androidCache].
+  static Future<AndroidCacheStatistics> androidCacheStatistics() async {
+    return AndroidCacheStatistics._(await _pluginPlatform
+        .androidCacheGetStatistics(AndroidCacheGetStatisticsRequest()));
+  }
+
+  /// (Android) Gets the statistics of the pool of idle players enabled via
+  /// [AudioLoadConfiguration.androidPlayerPool].
+  static Future<AndroidPlayerPoolStatistics>
+      androidPlayerPoolStatistics() async {
+    return AndroidPlayerPoolStatistics._(
+        await _pluginPlatform.androidPlayerPoolGetStatistics(
+            AndroidPlayerPoolGetStatisticsRequest()));
+  }
+
+  /// (Android) Sets the maximum number of idle players kept by the pool
+  /// enabled via [AudioLoadConfiguration.androidPlayerPool]. The pool is shared
+  /// by all players, so this is set once for the whole app rather than per
+  /// player. Defaults to 4.
+  static Future<void> androidSetPlayerPoolMaxSize(int maxSize) async {
+    await _pluginPlatform.androidPlayerPoolSetMaxSize(
+        AndroidPlayerPoolSetMaxSizeRequest(maxSize: maxSize));
+  }
+
+  /// (Android) Gets the statistics of the in-memory clip cache enabled via
+  /// [AudioLoadConfiguration.androidClipCache].
+  static Future<AndroidClipCacheStatistics> androidClipCacheStatistics() async {
+    return AndroidClipCacheStatistics._(await _pluginPlatform
+        .androidClipCacheGetStatistics(AndroidClipCacheGetStatisticsRequest()));
+  }
+
+  /// (Android) Evicts every clip from the in-memory clip cache enabled via
+  /// [AudioLoadConfiguration.androidClipCache].
+  static Future<void> androidClipCacheClear() async {
+    await _pluginPlatform
+        .androidClipCacheClear(AndroidClipCacheClearRequest());
+  }
+
   Exception _convertException(PlatformException e) {
     const kUnknownErrorCode = 9999999;
     const kInterruptedErrorCode = 10000000;
@@ -2204,10 +2357,100 @@ class AudioLoadConfiguration {
   /// Speed control for live streams on Android.
   final AndroidLivePlaybackSpeedControl? androidLivePlaybackSpeedControl;
 
+  /// A disk cache for remote sources on Android.
+  final AndroidCache? androidCache;
+
+  /// How playback events are sent from the platform on Android.
+  final AndroidPlaybackEventPipeline? androidPlaybackEventPipeline;
+
+  /// How buffered position updates are reported on Android.
+  final AndroidBufferWatcher? androidBufferWatcher;
+
+  /// The thread that runs the player on Android.
+  final AndroidPlaybackThread? androidPlaybackThread;
+
+  /// Reuse of disposed players on Android.
+  final AndroidPlayerPool? androidPlayerPool;
+
+  /// Low latency playback of short local clips on Android.
+  final AndroidSoundPool? androidSoundPool;
+
+  /// Incremental loading of long playlists on Android.
+  final AndroidIncrementalLoad? androidIncrementalLoad;
+
+  /// Reuse of removed playlist items on Android.
+  final AndroidMediaSourceCache? androidMediaSourceCache;
+
+  /// The HTTP stack used for remote sources on Android.
+  final AndroidHttp? androidHttp;
+
+  /// Playback performance metrics on Android, reported via
+  /// [AudioPlayer.androidMetricsStream].
+  final AndroidMetrics? androidMetrics;
+
+  /// The default trade-off between seek accuracy and speed on Android.
+  final AndroidSeekParameters? androidSeekParameters;
+
+  /// (Android) Persistent seek indices for MP3 sources without an accurate
+  /// seek table.
+  final AndroidSeekIndex? androidSeekIndex;
+
+  /// (Android) Whether to decode audio sources off the player thread when
+  /// loading.
+  final AndroidAsyncLoad? androidAsyncLoad;
+
+  /// (Android) Preparation for transitions between playlist items.
+  final AndroidPreload? androidPreload;
+
+  /// (Android) Crossfading between playlist items.
+  final AndroidCrossfade? androidCrossfade;
+
+  /// (Android) Normalization of each track to a target loudness.
+  final AndroidLoudnessNormalization? androidLoudnessNormalization;
+
+  /// (Android) Waveform and spectrum capture, reported via
+  /// [AudioPlayer.androidVisualizerStream].
+  final AndroidVisualizer? androidVisualizer;
+
+  /// (Android) Memory mapping of local files and uncompressed assets.
+  final AndroidMappedFiles? androidMappedFiles;
+
+  /// (Android) An in-memory cache of small encoded clips.
+  final AndroidClipCache? androidClipCache;
+
+  /// (Android) Timestamps the phases of each load, reported via
+  /// [AudioPlayer.androidLoadPhases].
+  final AndroidLoadTrace? androidLoadTrace;
+
+  /// Reading of [StreamAudioSource]s directly on Android instead of through
+  /// the localhost proxy.
+  final AndroidDirectStreams? androidDirectStreams;
+
   const AudioLoadConfiguration({
     this.darwinLoadControl,
     this.androidLoadControl,
     this.androidLivePlaybackSpeedControl,
+    this.androidCache,
+    this.androidPlaybackEventPipeline,
+    this.androidBufferWatcher,
+    this.androidPlaybackThread,
+    this.androidPlayerPool,
+    this.androidSoundPool,
+    this.androidIncrementalLoad,
+    this.androidMediaSourceCache,
+    this.androidHttp,
+    this.androidMetrics,
+    this.androidSeekParameters,
+    this.androidSeekIndex,
+    this.androidAsyncLoad,
+    this.androidPreload,
+    this.androidCrossfade,
+    this.androidLoudnessNormalization,
+    this.androidVisualizer,
+    this.androidMappedFiles,
+    this.androidClipCache,
+    this.androidLoadTrace,
+    this.androidDirectStreams,
   });
 
   AudioLoadConfigurationMessage _toMessage() => AudioLoadConfigurationMessage(
@@ -2215,6 +2458,30 @@ class AudioLoadConfiguration {
         androidLoadControl: androidLoadControl?._toMessage(),
         androidLivePlaybackSpeedControl:
             androidLivePlaybackSpeedControl?._toMessage(),
+        androidCache: androidCache?._toMessage(),
+        androidPlaybackEventPipeline:
+            androidPlaybackEventPipeline?._toMessage(),
+        androidBufferWatcher: androidBufferWatcher?._toMessage(),
+        androidPlaybackThread: androidPlaybackThread != null
+            ? AndroidPlaybackThreadMessage.values[androidPlaybackThread!.index]
+            : null,
+        androidPlayerPool: androidPlayerPool?._toMessage(),
+        androidSoundPool: androidSoundPool?._toMessage(),
+        androidIncrementalLoad: androidIncrementalLoad?._toMessage(),
+        androidMediaSourceCache: androidMediaSourceCache?._toMessage(),
+        androidHttp: androidHttp?._toMessage(),
+        androidMetrics: androidMetrics?._toMessage(),
+        androidSeekParameters: androidSeekParameters?._toMessage(),
+        androidSeekIndex: androidSeekIndex?._toMessage(),
+        androidAsyncLoad: androidAsyncLoad?._toMessage(),
+        androidPreload: androidPreload?._toMessage(),
+        androidCrossfade: androidCrossfade?._toMessage(),
+        androidLoudnessNormalization:
+            androidLoudnessNormalization?._toMessage(),
+        androidVisualizer: androidVisualizer?._toMessage(),
+        androidMappedFiles: androidMappedFiles?._toMessage(),
+        androidClipCache: androidClipCache?._toMessage(),
+        androidLoadTrace: androidLoadTrace?._toMessage(),
       );
 }
 
@@ -2360,6 +2627,702 @@ class AndroidLivePlaybackSpeedControl {
       );
 }
 
+/// A size-bounded disk cache for remote sources on Android, shared by all
+/// players. Only the first configuration to open a directory takes effect.
+class AndroidCache {
+  /// (Android) The maximum size of the cache in bytes.
+  final int maxCacheSize;
+
+  /// (Android) The directory of the cache. Defaults to a directory within the
+  /// app's cache directory.
+  final String? cacheDirectory;
+
+  const AndroidCache({
+    this.maxCacheSize = 256 * 1024 * 1024,
+    this.cacheDirectory,
+  });
+
+  AndroidCacheMessage _toMessage() => AndroidCacheMessage(
+        maxCacheSize: maxCacheSize,
+        cacheDirectory: cacheDirectory,
+      );
+}
+
+/// Statistics of the shared [AndroidCache].
+class AndroidCacheStatistics {
+  /// The number of reads served from the cache.
+  final int hitCount;
+
+  /// The number of reads that went to the network.
+  final int missCount;
+
+  /// The number of bytes read from the cache.
+  final int cachedBytesRead;
+
+  /// The number of bytes read from the network.
+  final int networkBytesRead;
+
+  /// The number of bytes currently stored in the cache.
+  final int cacheSpace;
+
+  /// The directory of the cache, or `null` if no cache has been created.
+  final String? cacheDirectory;
+
+  AndroidCacheStatistics._(AndroidCacheGetStatisticsResponse response)
+      : hitCount = response.hitCount,
+        missCount = response.missCount,
+        cachedBytesRead = response.cachedBytesRead,
+        networkBytesRead = response.networkBytesRead,
+        cacheSpace = response.cacheSpace,
+        cacheDirectory = response.cacheDirectory;
+}
+
+/// How playback events are sent from the platform on Android.
+class AndroidPlaybackEventPipeline {
+  /// (Android) If specified, position, buffer and icy metadata updates are
+  /// coalesced so that at most this many are sent per second. Changes to the
+  /// processing state, index, duration or error are always sent straight
+  /// away.
+  final double? maxEventRate;
+
+  /// (Android) Whether to send only the fields that changed since the last
+  /// event.
+  final bool deltaEncoding;
+
+  const AndroidPlaybackEventPipeline({
+    this.maxEventRate,
+    this.deltaEncoding = false,
+  });
+
+  AndroidPlaybackEventPipelineMessage _toMessage() =>
+      AndroidPlaybackEventPipelineMessage(
+        maxEventRate: maxEventRate,
+        deltaEncoding: deltaEncoding,
+      );
+}
+
+/// How buffered position updates are reported on Android.
+class AndroidBufferWatcher {
+  /// (Android) The minimum change in the buffered position to report while
+  /// loading. Changes are always reported once loading stops.
+  final Duration granularity;
+
+  /// (Android) How often to poll the buffered position while loading, between
+  /// load events.
+  final Duration fallbackInterval;
+
+  const AndroidBufferWatcher({
+    this.granularity = Duration.zero,
+    this.fallbackInterval = const Duration(milliseconds: 500),
+  });
+
+  AndroidBufferWatcherMessage _toMessage() => AndroidBufferWatcherMessage(
+        granularity: granularity,
+        fallbackInterval: fallbackInterval,
+      );
+}
+
+/// The thread an Android player runs on.
+enum AndroidPlaybackThread {
+  /// The main thread.
+  main,
+
+  /// A thread of its own.
+  dedicated,
+
+  /// A thread shared by all players that request it.
+  shared,
+}
+
+/// A pool of idle players on Android that disposed players are handed back to
+/// for reuse by later players with an identical configuration. Players that
+/// run on their own [AndroidPlaybackThread] are not pooled. The size of the
+/// pool is shared by all players and is set with
+/// [AudioPlayer.androidSetPlayerPoolMaxSize].
+class AndroidPlayerPool {
+  const AndroidPlayerPool();
+
+  AndroidPlayerPoolMessage _toMessage() => const AndroidPlayerPoolMessage();
+}
+
+/// Statistics of the shared [AndroidPlayerPool].
+class AndroidPlayerPoolStatistics {
+  /// The number of idle players in the pool.
+  final int size;
+
+  /// The maximum number of idle players the pool keeps.
+  final int maxSize;
+
+  /// The number of players that were reused from the pool.
+  final int hitCount;
+
+  /// The number of players that had to be built.
+  final int missCount;
+
+  /// The fraction of players that were reused from the pool.
+  final double hitRate;
+
+  AndroidPlayerPoolStatistics._(AndroidPlayerPoolGetStatisticsResponse response)
+      : size = response.size,
+        maxSize = response.maxSize,
+        hitCount = response.hitCount,
+        missCount = response.missCount,
+        hitRate = response.hitRate;
+}
+
+/// Plays short local clips with low latency on Android by decoding them into
+/// memory with SoundPool instead of streaming them through ExoPlayer. Only
+/// file sources are supported, and a seek can only restart the clip at the
+/// given index, so seeking to a non-zero position fails. Use
+/// [AudioPlayer.androidSoundPoolPlay] to trigger overlapping voices.
+class AndroidSoundPool {
+  /// (Android) The maximum number of voices that can play at once.
+  final int maxStreams;
+
+  const AndroidSoundPool({this.maxStreams = 8});
+
+  AndroidSoundPoolMessage _toMessage() =>
+      AndroidSoundPoolMessage(maxStreams: maxStreams);
+}
+
+/// Loads long playlists incrementally on Android. Only a window of items
+/// around the initial index is given to the player before the load completes,
+/// and the remaining items are added in batches afterwards.
+class AndroidIncrementalLoad {
+  /// (Android) The number of items around the initial index to load first.
+  /// Playlists no longer than this are loaded in one go.
+  final int windowSize;
+
+  /// (Android) The number of remaining items to add per step.
+  final int batchSize;
+
+  const AndroidIncrementalLoad({
+    this.windowSize = 50,
+    this.batchSize = 200,
+  });
+
+  AndroidIncrementalLoadMessage _toMessage() => AndroidIncrementalLoadMessage(
+        windowSize: windowSize,
+        batchSize: batchSize,
+      );
+}
+
+/// Keeps the media sources of items removed from the playlist on Android so
+/// that they can be reused without being rebuilt if the same [AudioSource] is
+/// added back. Players without this configuration keep up to 32.
+class AndroidMediaSourceCache {
+  /// (Android) The maximum number of detached media sources to keep. The
+  /// least recently detached are released first.
+  final int maxDetachedSize;
+
+  const AndroidMediaSourceCache({this.maxDetachedSize = 32});
+
+  AndroidMediaSourceCacheMessage _toMessage() =>
+      AndroidMediaSourceCacheMessage(maxDetachedSize: maxDetachedSize);
+}
+
+/// The size of a player's [AndroidMediaSourceCache].
+class AndroidMediaSourceCacheSize {
+  /// The number of media sources the player holds.
+  final int size;
+
+  /// The number of those media sources that are detached from the playlist.
+  final int detachedSize;
+
+  AndroidMediaSourceCacheSize._(AndroidMediaSourceCacheGetSizeResponse response)
+      : size = response.size,
+        detachedSize = response.detachedSize;
+}
+
+/// The HTTP stacks available on Android.
+enum AndroidHttpBackend {
+  /// The platform's HttpURLConnection.
+  platform,
+
+  /// OkHttp. The app must add a dependency on
+  /// `androidx.media3:media3-datasource-okhttp` to its Android build, and
+  /// the platform backend is used instead below API 21 or if the dependency
+  /// is missing.
+  okhttp,
+}
+
+/// The HTTP stack used for remote sources on Android.
+class AndroidHttp {
+  /// (Android) The HTTP stack to use.
+  final AndroidHttpBackend backend;
+
+  /// (Android) The connect timeout.
+  final Duration? connectTimeout;
+
+  /// (Android) The read timeout.
+  final Duration? readTimeout;
+
+  /// (Android) The maximum number of idle connections to keep in the pool.
+  /// OkHttp only.
+  final int? maxIdleConnections;
+
+  /// (Android) How long to keep idle connections in the pool. OkHttp only.
+  final Duration? keepAliveDuration;
+
+  /// (Android) Whether to allow HTTP/2. OkHttp only.
+  final bool http2;
+
+  /// (Android) How long to cache DNS lookups for, or `null` to use the
+  /// system resolver's caching. OkHttp only.
+  final Duration? dnsCacheDuration;
+
+  const AndroidHttp({
+    this.backend = AndroidHttpBackend.platform,
+    this.connectTimeout,
+    this.readTimeout,
+    this.maxIdleConnections,
+    this.keepAliveDuration,
+    this.http2 = true,
+    this.dnsCacheDuration,
+  });
+
+  AndroidHttpMessage _toMessage() => AndroidHttpMessage(
+        backend: backend == AndroidHttpBackend.okhttp ? 'okhttp' : 'default',
+        connectTimeout: connectTimeout,
+        readTimeout: readTimeout,
+        maxIdleConnections: maxIdleConnections,
+        keepAliveDuration: keepAliveDuration,
+        http2: http2,
+        dnsCacheDuration: dnsCacheDuration,
+      );
+}
+
+/// Collects playback performance metrics on Android and reports them via
+/// [AudioPlayer.androidMetricsStream]. Reports are sent at most once per
+/// [interval], and only while something has changed, so a paused player is
+/// not woken up.
+class AndroidMetrics {
+  /// (Android) The reporting interval.
+  final Duration interval;
+
+  const AndroidMetrics({this.interval = const Duration(seconds: 1)});
+
+  AndroidMetricsMessage _toMessage() =>
+      AndroidMetricsMessage(interval: interval);
+}
+
+/// Playback performance metrics of an Android player since its last load,
+/// enabled via [AudioLoadConfiguration.androidMetrics].
+class AndroidPlaybackMetrics {
+  /// The time from both a load and a play having been requested to the first
+  /// audio being played out, or `null` if no audio has been played yet.
+  final Duration? timeToFirstAudio;
+
+  /// The number of times playback stalled waiting for data.
+  final int rebufferCount;
+
+  /// The total time spent stalled, including any stall in progress.
+  final Duration rebufferDuration;
+
+  /// The number of audio track underruns.
+  final int underrunCount;
+
+  /// The number of decoder output buffers dropped.
+  final int? droppedBufferCount;
+
+  /// The number of decoder output buffers skipped.
+  final int? skippedBufferCount;
+
+  /// The estimated network bitrate in bits per second.
+  final int? bitrateEstimate;
+
+  /// The total number of bytes loaded.
+  final int totalBytesLoaded;
+
+  /// The number of bytes loaded for each recently loaded URI.
+  final Map<String, int> bytesLoadedBySource;
+
+  /// The name of the audio decoder in use.
+  final String? decoderName;
+
+  /// How long the audio decoder took to initialise.
+  final Duration? decoderInitDuration;
+
+  /// The number of seeks that have completed.
+  final int seekCount;
+
+  /// How long the last seek took to complete.
+  final Duration? lastSeekLatency;
+
+  /// How long seeks have taken to complete on average.
+  final Duration? meanSeekLatency;
+
+  /// The number of automatic transitions between items.
+  final int transitionCount;
+
+  /// The playout gap at the last automatic transition.
+  final Duration? lastTransitionGap;
+
+  /// The mean playout gap at automatic transitions.
+  final Duration? meanTransitionGap;
+
+  /// The time from the last load request to each of its phases, if
+  /// [AudioLoadConfiguration.androidLoadTrace] is enabled.
+  final Map<String, Duration>? loadPhases;
+
+  AndroidPlaybackMetrics._(AndroidMetricsDataMessage message)
+      : timeToFirstAudio = message.timeToFirstAudio,
+        rebufferCount = message.rebufferCount,
+        rebufferDuration = message.rebufferDuration,
+        underrunCount = message.underrunCount,
+        droppedBufferCount = message.droppedBufferCount,
+        skippedBufferCount = message.skippedBufferCount,
+        bitrateEstimate = message.bitrateEstimate,
+        totalBytesLoaded = message.totalBytesLoaded,
+        bytesLoadedBySource = message.bytesLoadedBySource,
+        decoderName = message.decoderName,
+        decoderInitDuration = message.decoderInitDuration,
+        seekCount = message.seekCount,
+        lastSeekLatency = message.lastSeekLatency,
+        meanSeekLatency = message.meanSeekLatency,
+        transitionCount = message.transitionCount,
+        lastTransitionGap = message.lastTransitionGap,
+        meanTransitionGap = message.meanTransitionGap,
+        loadPhases = message.loadPhases;
+}
+
+/// The seek modes supported on Android.
+enum AndroidSeekMode {
+  /// Seek to exactly the requested position.
+  exact,
+
+  /// Seek to whichever sync point is closest to the requested position.
+  closestSync,
+
+  /// Seek to the sync point at or before the requested position.
+  previousSync,
+
+  /// Seek to the sync point at or after the requested position.
+  nextSync,
+
+  /// Seek to any sync point within the given tolerances of the requested
+  /// position, or to exactly the requested position if there is none.
+  tolerance,
+}
+
+/// How a seek on Android may snap to a nearby sync point in exchange for
+/// being faster. Snapping avoids decoding from the previous sync point, which
+/// mostly helps with compressed formats that have sparse sync points.
+class AndroidSeekParameters {
+  static const exact = AndroidSeekParameters(mode: AndroidSeekMode.exact);
+  static const closestSync =
+      AndroidSeekParameters(mode: AndroidSeekMode.closestSync);
+  static const previousSync =
+      AndroidSeekParameters(mode: AndroidSeekMode.previousSync);
+  static const nextSync = AndroidSeekParameters(mode: AndroidSeekMode.nextSync);
+
+  /// (Android) The seek mode.
+  final AndroidSeekMode mode;
+
+  /// (Android) For [AndroidSeekMode.tolerance], how far before the requested
+  /// position the seek may land.
+  final Duration? toleranceBefore;
+
+  /// (Android) For [AndroidSeekMode.tolerance], how far after the requested
+  /// position the seek may land.
+  final Duration? toleranceAfter;
+
+  const AndroidSeekParameters({
+    required this.mode,
+    this.toleranceBefore,
+    this.toleranceAfter,
+  });
+
+  AndroidSeekParametersMessage _toMessage() => AndroidSeekParametersMessage(
+        mode: AndroidSeekModeMessage.values[mode.index],
+        toleranceBefore: toleranceBefore,
+        toleranceAfter: toleranceAfter,
+      );
+}
+
+/// Persistent seek indices on Android that let MP3 sources without an
+/// accurate seek table (e.g. VBR files without a TOC) seek precisely. An
+/// index is built in the background the first time a source is played, and
+/// is keyed by the source's cache key if it has one, or its URI otherwise.
+class AndroidSeekIndex {
+  /// (Android) The spacing of the index points.
+  final Duration interval;
+
+  const AndroidSeekIndex({this.interval = const Duration(seconds: 1)});
+
+  AndroidSeekIndexMessage _toMessage() =>
+      AndroidSeekIndexMessage(interval: interval);
+}
+
+/// Decoding of audio sources off the player thread on Android. The top-level
+/// children of a load (or the initial window of an incremental load) are
+/// split into chunks that are decoded in parallel, so that large playlists
+/// don't hold up other method calls on the player. Method calls that arrive
+/// during decoding run in order once the load completes.
+class AndroidAsyncLoad {
+  /// (Android) The number of chunks to decode audio sources in.
+  final int parallelism;
+
+  const AndroidAsyncLoad({this.parallelism = 2});
+
+  AndroidAsyncLoadMessage _toMessage() =>
+      AndroidAsyncLoadMessage(parallelism: parallelism);
+}
+
+/// Preparation for transitions between playlist items on Android, to
+/// shorten the gap between them.
+class AndroidPreload {
+  /// (Android) How long before the end of the current item to start loading
+  /// the next one. The player keeps at least this much audio buffered, so
+  /// that it is already preparing and buffering the next item by then. With
+  /// [AudioLoadConfiguration.androidCache], the head of the next item is also
+  /// prefetched into the cache.
+  final Duration lookahead;
+
+  /// (Android) The sample rate to resample all audio to, if any. This lets
+  /// items with different sample rates play back to back without the audio
+  /// output being recreated between them, which is the main cause of audible
+  /// gaps.
+  final int? outputSampleRate;
+
+  const AndroidPreload({
+    this.lookahead = const Duration(seconds: 10),
+    this.outputSampleRate,
+  });
+
+  AndroidPreloadMessage _toMessage() => AndroidPreloadMessage(
+        lookahead: lookahead,
+        outputSampleRate: outputSampleRate,
+      );
+}
+
+/// The shape of a crossfade.
+enum AndroidCrossfadeCurve {
+  /// The volumes are ramped linearly, which dips in the middle.
+  linear,
+
+  /// The volumes follow a quarter sine, which keeps the combined power
+  /// roughly constant.
+  equalPower,
+}
+
+/// Crossfading between playlist items on Android. The next item starts
+/// [duration] before the end of the current one and the two are mixed while
+/// their volumes are ramped. Crossfades are skipped when looping a single
+/// item, and are completed immediately on pause or seek.
+class AndroidCrossfade {
+  /// (Android) The length of the overlap between items.
+  final Duration duration;
+
+  /// (Android) The fade curve.
+  final AndroidCrossfadeCurve curve;
+
+  const AndroidCrossfade({
+    this.duration = const Duration(seconds: 3),
+    this.curve = AndroidCrossfadeCurve.equalPower,
+  });
+
+  AndroidCrossfadeMessage _toMessage() => AndroidCrossfadeMessage(
+        duration: duration,
+        curve: curve.name,
+      );
+}
+
+/// Normalization of each track to a target loudness on Android. The loudness
+/// of a track comes from its ReplayGain or R128 tags if it has any, or
+/// otherwise from a previous measurement. Untagged tracks play at unity gain
+/// until they have been measured. The gain is applied in software ahead of
+/// any other software audio effects.
+class AndroidLoudnessNormalization {
+  /// (Android) The target loudness in LUFS.
+  final double targetLoudness;
+
+  /// (Android) Whether to prefer album gain over track gain.
+  final bool album;
+
+  /// (Android) Whether to measure untagged tracks in the background.
+  final bool analyze;
+
+  /// (Android) The largest gain to apply in decibels.
+  final double maxGain;
+
+  /// (Android) Whether to reduce the gain so that the tagged peak does not
+  /// clip.
+  final bool preventClipping;
+
+  const AndroidLoudnessNormalization({
+    this.targetLoudness = -18.0,
+    this.album = false,
+    this.analyze = true,
+    this.maxGain = 12.0,
+    this.preventClipping = true,
+  });
+
+  AndroidLoudnessNormalizationMessage _toMessage() =>
+      AndroidLoudnessNormalizationMessage(
+        targetLoudness: targetLoudness,
+        album: album,
+        analyze: analyze,
+        maxGain: maxGain,
+        preventClipping: preventClipping,
+      );
+}
+
+/// Waveform and spectrum capture on Android, reported via
+/// [AudioPlayer.androidVisualizerStream]. Audio is captured after all
+/// software audio effects, and nothing is sent while no new audio has been
+/// played.
+class AndroidVisualizer {
+  /// (Android) Captures per second, at most 60.
+  final int captureRate;
+
+  /// (Android) The window size in samples, which must be a power of 2.
+  final int fftSize;
+
+  /// (Android) The number of logarithmically spaced spectrum bands.
+  final int bandCount;
+
+  /// (Android) Whether to send the waveform.
+  final bool waveform;
+
+  /// (Android) Whether to send the spectrum.
+  final bool spectrum;
+
+  const AndroidVisualizer({
+    this.captureRate = 30,
+    this.fftSize = 1024,
+    this.bandCount = 32,
+    this.waveform = true,
+    this.spectrum = true,
+  });
+
+  AndroidVisualizerMessage _toMessage() => AndroidVisualizerMessage(
+        captureRate: captureRate,
+        fftSize: fftSize,
+        bandCount: bandCount,
+        waveform: waveform,
+        spectrum: spectrum,
+      );
+}
+
+/// A capture of waveform and spectrum data from an Android player, enabled
+/// via [AudioLoadConfiguration.androidVisualizer].
+class AndroidVisualizerCapture {
+  /// The sample rate of the captured audio.
+  final int sampleRate;
+
+  /// The latest [AndroidVisualizer.fftSize] mono samples in the range
+  /// [-1, 1], or `null` if [AndroidVisualizer.waveform] is disabled.
+  final Float32List? waveform;
+
+  /// The peak level of each band in dBFS from low to high frequencies, or
+  /// `null` if [AndroidVisualizer.spectrum] is disabled.
+  final Float32List? spectrum;
+
+  AndroidVisualizerCapture._(AndroidVisualizerDataMessage message)
+      : sampleRate = message.sampleRate,
+        waveform = message.waveform,
+        spectrum = message.spectrum;
+}
+
+/// Memory mapping of local files and uncompressed assets on Android. Reads
+/// are served from the page cache with no system call per read, and a
+/// mapping is shared by all players, so seeking within a mapped file does
+/// not reopen it. Remote sources, compressed assets and larger files are
+/// read as usual.
+class AndroidMappedFiles {
+  /// (Android) The largest file to map in bytes.
+  final int maxFileSize;
+
+  const AndroidMappedFiles({this.maxFileSize = 64 * 1024 * 1024});
+
+  AndroidMappedFilesMessage _toMessage() =>
+      AndroidMappedFilesMessage(maxFileSize: maxFileSize);
+}
+
+/// An in-memory LRU cache of small encoded clips on Android, shared by all
+/// players. A clip is cached once it has been read in full, after which it
+/// is replayed from memory without touching the network or disk. This suits
+/// short sounds that are played repeatedly.
+class AndroidClipCache {
+  /// (Android) The total size of cached clips in bytes, shared by all
+  /// players.
+  final int maxSize;
+
+  /// (Android) The largest clip to cache in bytes.
+  final int maxClipSize;
+
+  const AndroidClipCache({
+    this.maxSize = 16 * 1024 * 1024,
+    this.maxClipSize = 1024 * 1024,
+  });
+
+  AndroidClipCacheMessage _toMessage() => AndroidClipCacheMessage(
+        maxSize: maxSize,
+        maxClipSize: maxClipSize,
+      );
+}
+
+/// Statistics of the shared [AndroidClipCache].
+class AndroidClipCacheStatistics {
+  /// The number of cached clips.
+  final int clipCount;
+
+  /// The total size of the cached clips in bytes.
+  final int residentBytes;
+
+  /// The total size the cache may hold in bytes.
+  final int maxSize;
+
+  /// The number of reads served from memory.
+  final int hitCount;
+
+  /// The number of reads that went to the upstream source.
+  final int missCount;
+
+  /// The fraction of reads served from memory.
+  final double hitRate;
+
+  AndroidClipCacheStatistics._(AndroidClipCacheGetStatisticsResponse response)
+      : clipCount = response.clipCount,
+        residentBytes = response.residentBytes,
+        maxSize = response.maxSize,
+        hitCount = response.hitCount,
+        missCount = response.missCount,
+        hitRate = response.hitRate;
+}
+
+/// Timestamps the phases of each load on Android. The breakdown of the last
+/// completed load is available via [AudioPlayer.androidLoadPhases], and is
+/// included in [AndroidPlaybackMetrics.loadPhases] if
+/// [AudioLoadConfiguration.androidMetrics] is also enabled. Each phase is
+/// timed from the load starting on the player thread. The phases are:
+///
+/// * decoded: the audio sources have been decoded
+/// * mediaSourcesSet: the player has been given the media sources
+/// * firstLoadStarted: the first network or disk load has started
+/// * firstLoadCompleted: the first load has completed
+/// * ready: the player has become ready
+class AndroidLoadTrace {
+  /// (Android) Whether to also emit system trace sections so that loads show
+  /// up in Perfetto and systrace. This requires API 29.
+  final bool systemTrace;
+
+  const AndroidLoadTrace({this.systemTrace = false});
+
+  AndroidLoadTraceMessage _toMessage() =>
+      AndroidLoadTraceMessage(systemTrace: systemTrace);
+}
+
+/// Reads the bytes of each [StreamAudioSource] on Android by pulling them in
+/// chunks over the player's method channel, instead of serving them through
+/// the localhost HTTP proxy. This skips the socket and HTTP parsing, but
+/// copies every chunk across the channel. Without this, stream sources go
+/// through the proxy as on other platforms.
+class AndroidDirectStreams {
+  const AndroidDirectStreams();
+}
+
 class ProgressiveAudioSourceOptions {
   final AndroidExtractorOptions? androidExtractorOptions;
   final DarwinAssetOptions? darwinAssetOptions;
@@ -2394,10 +3357,16 @@ class AndroidExtractorOptions {
   final bool constantBitrateSeekingAlwaysEnabled;
   final int mp3Flags;
 
+  /// The container format of the source. By default every extractor sniffs
+  /// the source in turn. Declaring the container skips sniffing, but a source
+  /// in any other format will fail to load.
+  final AndroidExtractorContainer container;
+
   const AndroidExtractorOptions({
     this.constantBitrateSeekingEnabled = true,
     this.constantBitrateSeekingAlwaysEnabled = false,
     this.mp3Flags = 0,
+    this.container = AndroidExtractorContainer.sniff,
   });
 
   AndroidExtractorOptionsMessage _toMessage() => AndroidExtractorOptionsMessage(
@@ -2405,9 +3374,38 @@ class AndroidExtractorOptions {
         constantBitrateSeekingAlwaysEnabled:
             constantBitrateSeekingAlwaysEnabled,
         mp3Flags: mp3Flags,
+        container: AndroidExtractorContainerMessage.values[container.index],
       );
 }
 
+/// How the container format of a progressive source is determined on Android.
+enum AndroidExtractorContainer {
+  /// Try every extractor in turn.
+  sniff,
+
+  /// Infer the container from the Content-Type response header or the URI's
+  /// extension, and sniff if neither is recognised.
+  auto,
+
+  /// MPEG audio.
+  mp3,
+
+  /// MP4 audio.
+  m4a,
+
+  /// Ogg, including Vorbis and Opus.
+  ogg,
+
+  /// Native FLAC.
+  flac,
+
+  /// WAVE.
+  wav,
+
+  /// Raw AAC in ADTS frames.
+  adts,
+}
+
 /// A local proxy HTTP server for making remote GET requests with headers.
 class _ProxyHttpServer {
   late HttpServer _server;
@@ -3108,6 +4106,42 @@ class ConcatenatingAudioSource extends AudioSource {
     });
   }
 
+  /// Applies [ops] in order, sending them to the platform as a single update
+  /// so that the player only rebuilds its timeline once. All of the ops are
+  /// checked against the length of [children] before any is applied, and a
+  /// [RangeError] is thrown if any of them is out of range.
+  Future<void> applyOps(List<ConcatenatingOp> ops) {
+    return _lock.synchronized(() async {
+      var length = children.length;
+      for (var op in ops) {
+        length = op._validate(length);
+      }
+      final shuffleOrders = <List<int>>[];
+      for (var op in ops) {
+        op._apply(children, _shuffleOrder);
+        shuffleOrders.add(List.of(_shuffleOrder.indices));
+      }
+      final player = _player;
+      if (player != null) {
+        final inserted = ops.expand((op) => op._children).toList();
+        for (var child in inserted) {
+          child._onAttach(player);
+        }
+        await player._broadcastSequence();
+        if (player._active) {
+          for (var child in inserted) {
+            await child._onLoad();
+          }
+        }
+        await (await player._platform).concatenatingApplyOps(
+            ConcatenatingApplyOpsRequest(ops: [
+          for (var i = 0; i < ops.length; i++)
+            ops[i]._toMessage(_id, shuffleOrders[i]),
+        ]));
+      }
+    });
+  }
+
   /// Initialise without communicating with platform.
   Future<void> _init(List<AudioSource> children, ShuffleOrder shuffleOrder) {
     return _lock.synchronized(() async {
@@ -3163,6 +4197,94 @@ class ConcatenatingAudioSource extends AudioSource {
       shuffleOrder: _shuffleOrder.indices);
 }
 
+enum _ConcatenatingOpType { insertAll, removeRange, move }
+
+/// An edit of a [ConcatenatingAudioSource] to be applied together with others
+/// by [ConcatenatingAudioSource.applyOps].
+class ConcatenatingOp {
+  final _ConcatenatingOpType _type;
+  final int _index;
+  final int _end;
+  final List<AudioSource> _children;
+
+  /// Inserts [children] at [index].
+  ConcatenatingOp.insertAll(int index, List<AudioSource> children)
+      : _type = _ConcatenatingOpType.insertAll,
+        _index = index,
+        _end = index,
+        _children = children;
+
+  /// Removes the children from index [start] inclusive to [end] exclusive.
+  ConcatenatingOp.removeRange(int start, int end)
+      : _type = _ConcatenatingOpType.removeRange,
+        _index = start,
+        _end = end,
+        _children = const [];
+
+  /// Moves the child at [currentIndex] to [newIndex].
+  ConcatenatingOp.move(int currentIndex, int newIndex)
+      : _type = _ConcatenatingOpType.move,
+        _index = currentIndex,
+        _end = newIndex,
+        _children = const [];
+
+  /// Checks this op against a list of [length] children and returns the
+  /// length after it is applied.
+  int _validate(int length) {
+    if (_type == _ConcatenatingOpType.insertAll) {
+      RangeError.checkValueInInterval(_index, 0, length, 'index');
+      return length + _children.length;
+    } else if (_type == _ConcatenatingOpType.removeRange) {
+      RangeError.checkValidRange(_index, _end, length);
+      return length - (_end - _index);
+    } else {
+      RangeError.checkValidIndex(_index, null, 'currentIndex', length);
+      RangeError.checkValidIndex(_end, null, 'newIndex', length);
+      return length;
+    }
+  }
+
+  void _apply(List<AudioSource> children, ShuffleOrder shuffleOrder) {
+    switch (_type) {
+      case _ConcatenatingOpType.insertAll:
+        children.insertAll(_index, _children);
+        shuffleOrder.insert(_index, _children.length);
+        break;
+      case _ConcatenatingOpType.removeRange:
+        children.removeRange(_index, _end);
+        shuffleOrder.removeRange(_index, _end);
+        break;
+      case _ConcatenatingOpType.move:
+        children.insert(_end, children.removeAt(_index));
+        shuffleOrder.removeRange(_index, _index + 1);
+        shuffleOrder.insert(_end, 1);
+        break;
+    }
+  }
+
+  ConcatenatingOpMessage _toMessage(String id, List<int> shuffleOrder) {
+    if (_type == _ConcatenatingOpType.insertAll) {
+      return ConcatenatingOpMessage.insertAll(ConcatenatingInsertAllRequest(
+          id: id,
+          index: _index,
+          children: _children.map((child) => child._toMessage()).toList(),
+          shuffleOrder: shuffleOrder));
+    } else if (_type == _ConcatenatingOpType.removeRange) {
+      return ConcatenatingOpMessage.removeRange(ConcatenatingRemoveRangeRequest(
+          id: id,
+          startIndex: _index,
+          endIndex: _end,
+          shuffleOrder: shuffleOrder));
+    } else {
+      return ConcatenatingOpMessage.move(ConcatenatingMoveRequest(
+          id: id,
+          currentIndex: _index,
+          newIndex: _end,
+          shuffleOrder: shuffleOrder));
+    }
+  }
+}
+
 /// An [AudioSource] that clips the audio of a [UriAudioSource] between a
 /// certain start and end time.
 class ClippingAudioSource extends IndexedAudioSource {
@@ -3252,10 +4374,18 @@ abstract class StreamAudioSource extends IndexedAudioSource {
   Uri? _uri;
   StreamAudioSource({dynamic tag}) : super(tag: tag);
 
+  /// Whether the platform pulls the bytes through the player's
+  /// [_StreamAudioSourceReader] instead of the proxy.
+  bool get _readsDirectly =>
+      (_isAndroid() || _isUnitTest()) &&
+      _player?._audioLoadConfiguration?.androidDirectStreams != null;
+
   @override
   Future<void> _onLoad() async {
     await super._onLoad();
-    if (kIsWeb) {
+    if (_readsDirectly) {
+      // Nothing to set up until the platform opens the source.
+    } else if (kIsWeb) {
       final response = await request();
       _uri ??= _encodeDataUrl(await base64.encoder.bind(response.stream).join(),
           response.contentType);
@@ -3273,8 +4403,10 @@ abstract class StreamAudioSource extends IndexedAudioSource {
   Future<StreamAudioResponse> request([int? start, int? end]);
 
   @override
-  AudioSourceMessage _toMessage() => ProgressiveAudioSourceMessage(
-      id: _id, uri: _uri.toString(), headers: null, tag: tag);
+  AudioSourceMessage _toMessage() => _readsDirectly
+      ? StreamAudioSourceMessage(id: _id, tag: tag)
+      : ProgressiveAudioSourceMessage(
+          id: _id, uri: _uri.toString(), headers: null, tag: tag);
 }
 
 /// The response for a [StreamAudioSource]. This API is experimental.
@@ -3691,6 +4823,123 @@ class _StreamingByteRangeRequest {
   }
 }
 
+/// Serves the bytes of a player's [StreamAudioSource]s to the platform, which
+/// pulls them in chunks. Each source's stream is paused once enough bytes are
+/// buffered to answer the next two reads, and resumed as soon as less than
+/// one read's worth remains, so it is consumed about as fast as the platform
+/// reads without the platform waiting on it between reads.
+class _StreamAudioSourceReader implements StreamAudioSourceReader {
+  final AudioPlayer _player;
+  final _sessions = <int, _StreamAudioSourceSession>{};
+  int _nextHandle = 0;
+
+  _StreamAudioSourceReader(this._player);
+
+  @override
+  Future<StreamAudioSourceOpenResponse> open(
+      String sourceId, int start, int? end) async {
+    final source = _player._audioSources[sourceId];
+    if (source is! StreamAudioSource) {
+      throw ArgumentError('No stream audio source with ID $sourceId');
+    }
+    final response = await source.request(start, end);
+    final handle = _nextHandle++;
+    _sessions[handle] = _StreamAudioSourceSession(response.stream);
+    return StreamAudioSourceOpenResponse(
+      handle: handle,
+      offset: response.rangeRequestsSupported ? response.offset ?? start : 0,
+      contentLength: response.contentLength,
+    );
+  }
+
+  @override
+  Future<Uint8List?> read(int handle, int length) {
+    final session = _sessions[handle];
+    if (session == null) throw StateError('Stream $handle is not open');
+    return session.read(length);
+  }
+
+  @override
+  Future<void> close(int handle) async {
+    await _sessions.remove(handle)?.close();
+  }
+
+  Future<void> closeAll() async {
+    final sessions = _sessions.values.toList();
+    _sessions.clear();
+    for (var session in sessions) {
+      await session.close();
+    }
+  }
+}
+
+/// An open [StreamAudioResponse] stream being read by the platform.
+class _StreamAudioSourceSession {
+  late final StreamSubscription<List<int>> _subscription;
+  final _chunks = <List<int>>[];
+  int _buffered = 0;
+  int _wanted = 0;
+  bool _done = false;
+  Object? _error;
+  Completer<void>? _available;
+
+  _StreamAudioSourceSession(Stream<List<int>> stream) {
+    _subscription = stream.listen((chunk) {
+      _chunks.add(chunk);
+      _buffered += chunk.length;
+      if (_buffered >= 2 * _wanted && !_subscription.isPaused) {
+        _subscription.pause();
+      }
+      _notify();
+    }, onError: (Object e, StackTrace st) {
+      _error = e;
+      _notify();
+    }, onDone: () {
+      _done = true;
+      _notify();
+    });
+    _subscription.pause();
+  }
+
+  Future<Uint8List?> read(int length) async {
+    _wanted = length;
+    while (_buffered == 0 && !_done && _error == null) {
+      _available = Completer<void>();
+      if (_subscription.isPaused) _subscription.resume();
+      await _available!.future;
+    }
+    if (_buffered == 0) {
+      if (_error != null) throw _error!;
+      return null;
+    }
+    final bytes = BytesBuilder(copy: false);
+    while (_chunks.isNotEmpty && bytes.length < length) {
+      final chunk = _chunks.removeAt(0);
+      final take = min(chunk.length, length - bytes.length);
+      bytes.add(take == chunk.length ? chunk : chunk.sublist(0, take));
+      if (take < chunk.length) _chunks.insert(0, chunk.sublist(take));
+    }
+    _buffered -= bytes.length;
+    // Refill below the low-water mark while the platform consumes this read.
+    if (_buffered < length && !_done && _subscription.isPaused) {
+      _subscription.resume();
+    }
+    return bytes.takeBytes();
+  }
+
+  Future<void> close() async {
+    _done = true;
+    _notify();
+    await _subscription.cancel();
+  }
+
+  void _notify() {
+    final available = _available;
+    _available = null;
+    if (available != null && !available.isCompleted) available.complete();
+  }
+}
+
 /// The type of functions that can handle HTTP requests sent to the proxy.
 typedef _ProxyHandler = void Function(
     _ProxyHttpServer server, HttpRequest request);
@@ -4207,6 +5456,13 @@ class _IdleAudioPlayer extends AudioPlayerPlatform {
     return AndroidEqualizerBandSetGainResponse();
   }
 
+  @override
+  Future<AndroidAudioEffectSetParametersResponse>
+      androidAudioEffectSetParameters(
+          AndroidAudioEffectSetParametersRequest request) async {
+    return AndroidAudioEffectSetParametersResponse();
+  }
+
   @override
   Future<AndroidEqualizerGetParametersResponse> androidEqualizerGetParameters(
       AndroidEqualizerGetParametersRequest request) async {
@@ -4224,6 +5480,50 @@ class _IdleAudioPlayer extends AudioPlayerPlatform {
       SetAllowsExternalPlaybackRequest request) async {
     return SetAllowsExternalPlaybackResponse();
   }
+
+  @override
+  Future<PrefetchResponse> prefetch(PrefetchRequest request) async {
+    return PrefetchResponse();
+  }
+
+  @override
+  Future<AndroidSoundPoolPlayResponse> androidSoundPoolPlay(
+      AndroidSoundPoolPlayRequest request) async {
+    return AndroidSoundPoolPlayResponse(voiceId: 0);
+  }
+
+  @override
+  Future<AndroidSoundPoolStopResponse> androidSoundPoolStop(
+      AndroidSoundPoolStopRequest request) async {
+    return AndroidSoundPoolStopResponse();
+  }
+
+  @override
+  Future<AndroidSoundPoolSetVolumeResponse> androidSoundPoolSetVolume(
+      AndroidSoundPoolSetVolumeRequest request) async {
+    return AndroidSoundPoolSetVolumeResponse();
+  }
+
+  @override
+  Future<ConcatenatingApplyOpsResponse> concatenatingApplyOps(
+      ConcatenatingApplyOpsRequest request) async {
+    for (final op in request.ops) {
+      if (op.insertAll != null) {
+        await concatenatingInsertAll(op.insertAll!);
+      } else if (op.removeRange != null) {
+        await concatenatingRemoveRange(op.removeRange!);
+      } else if (op.move != null) {
+        await concatenatingMove(op.move!);
+      }
+    }
+    return ConcatenatingApplyOpsResponse();
+  }
+
+  @override
+  Future<AndroidMediaSourceCacheGetSizeResponse> androidMediaSourceCacheGetSize(
+      AndroidMediaSourceCacheGetSizeRequest request) async {
+    return AndroidMediaSourceCacheGetSizeResponse();
+  }
 }
 
 /// Encapsulates the arguments passed to the current invocation of
@@ -4502,6 +5802,220 @@ class AndroidEqualizer extends AudioEffect with AndroidAudioEffect {
       );
 }
 
+/// A software [AudioEffect] on Android that applies a fixed gain. Unlike
+/// [AndroidLoudnessEnhancer] it behaves the same on every device, and may
+/// also attenuate. Gain changes are ramped to avoid clicks.
+class AndroidGain extends AudioEffect with AndroidAudioEffect {
+  final BehaviorSubject<double> _gainSubject;
+
+  AndroidGain({double gain = 0.0})
+      : _gainSubject = BehaviorSubject.seeded(gain);
+
+  @override
+  String get _type => 'AndroidGain';
+
+  /// The gain in decibels.
+  double get gain => _gainSubject.nvalue!;
+
+  /// A stream of the current gain in decibels.
+  Stream<double> get gainStream => _gainSubject.stream;
+
+  /// Sets the gain to a value in decibels.
+  Future<void> setGain(double gain) async {
+    _gainSubject.add(gain);
+    if (_active) {
+      await (await _player!._platform).androidAudioEffectSetParameters(
+          AndroidAudioEffectSetParametersRequest(
+              type: _type, parameters: _toMessage().parametersToMap()));
+    }
+  }
+
+  @override
+  AndroidGainMessage _toMessage() => AndroidGainMessage(
+        enabled: enabled,
+        gain: gain,
+      );
+}
+
+/// The filter type of an [AndroidParametricEqualizerBand].
+enum AndroidParametricEqualizerBandType {
+  /// Boosts or cuts around the frequency.
+  peaking,
+
+  /// Boosts or cuts below the frequency.
+  lowShelf,
+
+  /// Boosts or cuts above the frequency.
+  highShelf,
+
+  /// Removes frequencies above the frequency. The gain is ignored.
+  lowPass,
+
+  /// Removes frequencies below the frequency. The gain is ignored.
+  highPass,
+}
+
+/// A band of an [AndroidParametricEqualizer].
+class AndroidParametricEqualizerBand {
+  /// The filter type.
+  final AndroidParametricEqualizerBandType type;
+
+  /// The center or corner frequency in hertz.
+  final double frequency;
+
+  /// The gain in decibels.
+  final double gain;
+
+  /// The quality factor, where higher values give a narrower band.
+  final double q;
+
+  const AndroidParametricEqualizerBand({
+    this.type = AndroidParametricEqualizerBandType.peaking,
+    required this.frequency,
+    this.gain = 0.0,
+    this.q = 0.7071,
+  });
+
+  AndroidParametricEqualizerBandMessage _toMessage() =>
+      AndroidParametricEqualizerBandMessage(
+        type: AndroidParametricEqualizerBandTypeMessage.values[type.index],
+        frequency: frequency,
+        gain: gain,
+        q: q,
+      );
+}
+
+/// A software [AudioEffect] on Android that applies a chain of biquad
+/// filters. Unlike [AndroidEqualizer], the bands are chosen by the app
+/// rather than fixed by the device.
+class AndroidParametricEqualizer extends AudioEffect with AndroidAudioEffect {
+  final BehaviorSubject<List<AndroidParametricEqualizerBand>> _bandsSubject;
+
+  AndroidParametricEqualizer(
+      {List<AndroidParametricEqualizerBand> bands = const []})
+      : _bandsSubject = BehaviorSubject.seeded(List.unmodifiable(bands));
+
+  @override
+  String get _type => 'AndroidParametricEqualizer';
+
+  /// The bands, applied in order.
+  List<AndroidParametricEqualizerBand> get bands => _bandsSubject.nvalue!;
+
+  /// A stream of the current bands.
+  Stream<List<AndroidParametricEqualizerBand>> get bandsStream =>
+      _bandsSubject.stream;
+
+  /// Replaces the bands.
+  Future<void> setBands(List<AndroidParametricEqualizerBand> bands) async {
+    _bandsSubject.add(List.unmodifiable(bands));
+    if (_active) {
+      await (await _player!._platform).androidAudioEffectSetParameters(
+          AndroidAudioEffectSetParametersRequest(
+              type: _type, parameters: _toMessage().parametersToMap()));
+    }
+  }
+
+  @override
+  AndroidParametricEqualizerMessage _toMessage() =>
+      AndroidParametricEqualizerMessage(
+        enabled: enabled,
+        bands: bands.map((band) => band._toMessage()).toList(),
+      );
+}
+
+/// The parameters of an [AndroidCompressor].
+class AndroidCompressorParameters {
+  /// The level in dBFS above which gain is reduced.
+  final double threshold;
+
+  /// The compression ratio. Ignored by a limiter.
+  final double ratio;
+
+  /// The width of the soft knee in decibels.
+  final double knee;
+
+  /// How quickly gain reduction is applied.
+  final Duration attack;
+
+  /// How quickly gain reduction is released.
+  final Duration release;
+
+  /// The gain applied after compression in decibels.
+  final double makeupGain;
+
+  const AndroidCompressorParameters({
+    this.threshold = -18.0,
+    this.ratio = 4.0,
+    this.knee = 0.0,
+    this.attack = const Duration(milliseconds: 10),
+    this.release = const Duration(milliseconds: 100),
+    this.makeupGain = 0.0,
+  });
+
+  /// Parameters suited to a limiter.
+  const AndroidCompressorParameters.limiter({
+    this.threshold = -1.0,
+    this.knee = 0.0,
+    this.attack = const Duration(milliseconds: 1),
+    this.release = const Duration(milliseconds: 50),
+    this.makeupGain = 0.0,
+  }) : ratio = 4.0;
+}
+
+/// A software [AudioEffect] on Android that compresses the dynamic range, or
+/// with [AndroidCompressor.limiter], limits peaks to the threshold. A
+/// limiter has no lookahead, so transients shorter than the attack time can
+/// still overshoot.
+class AndroidCompressor extends AudioEffect with AndroidAudioEffect {
+  /// Whether this is a limiter.
+  final bool limiter;
+  final BehaviorSubject<AndroidCompressorParameters> _parametersSubject;
+
+  AndroidCompressor(
+      {AndroidCompressorParameters parameters =
+          const AndroidCompressorParameters()})
+      : limiter = false,
+        _parametersSubject = BehaviorSubject.seeded(parameters);
+
+  AndroidCompressor.limiter(
+      {AndroidCompressorParameters parameters =
+          const AndroidCompressorParameters.limiter()})
+      : limiter = true,
+        _parametersSubject = BehaviorSubject.seeded(parameters);
+
+  @override
+  String get _type => limiter ? 'AndroidLimiter' : 'AndroidCompressor';
+
+  /// The current parameters.
+  AndroidCompressorParameters get parameters => _parametersSubject.nvalue!;
+
+  /// A stream of the current parameters.
+  Stream<AndroidCompressorParameters> get parametersStream =>
+      _parametersSubject.stream;
+
+  /// Replaces the parameters.
+  Future<void> setParameters(AndroidCompressorParameters parameters) async {
+    _parametersSubject.add(parameters);
+    if (_active) {
+      await (await _player!._platform).androidAudioEffectSetParameters(
+          AndroidAudioEffectSetParametersRequest(
+              type: _type, parameters: _toMessage().parametersToMap()));
+    }
+  }
+
+  @override
+  AndroidCompressorMessage _toMessage() => AndroidCompressorMessage(
+        enabled: enabled,
+        limiter: limiter,
+        threshold: parameters.threshold,
+        ratio: parameters.ratio,
+        knee: parameters.knee,
+        attack: parameters.attack,
+        release: parameters.release,
+        makeupGain: parameters.makeupGain,
+      );
+}
+
 bool _isAndroid() => !kIsWeb && Platform.isAndroid;
 bool _isDarwin() => !kIsWeb && (Platform.isIOS || Platform.isMacOS);
 bool _isUnitTest() => !kIsWeb && Platform.environment['FLUTTER_TEST'] == 'true';
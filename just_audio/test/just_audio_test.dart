@@ -4,6 +4,7 @@ import 'dart:async';
 import 'dart:convert';
 import 'dart:io';
 import 'dart:math';
+import 'dart:typed_data';
 
 import 'package:audio_session/audio_session.dart';
 import 'package:flutter/services.dart';
@@ -509,6 +510,9 @@ void runTests() {
     final player = AudioPlayer();
     // This simulates an actual URL
     await player.setAudioSource(TestStreamAudioSource(tag: 'stream-test'));
+    // Without androidDirectStreams the source goes through the proxy.
+    expect(mock.mostRecentPlayer!._audioSource,
+        isA<ProgressiveAudioSourceMessage>());
     // Obtain the proxy URL that the platform side should use to load the data.
     final proxyUri = Uri.parse(player.icyMetadata!.info!.url!);
     // Simulate the platform side requesting the data.
@@ -555,6 +559,40 @@ void runTests() {
     await player.dispose();
   });
 
+  test('stream-source-direct', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: const AudioLoadConfiguration(
+        androidDirectStreams: AndroidDirectStreams(),
+      ),
+    );
+    await player.setAudioSource(TestStreamAudioSource(tag: 'stream-test'));
+    final platform = mock.mostRecentPlayer!;
+    final message = platform._audioSource;
+    expect(message, isA<StreamAudioSourceMessage>());
+    // Simulate the platform side pulling the data through the reader.
+    final reader = platform.streamAudioSourceReader!;
+    Future<void> testRead(int start, int? end) async {
+      final opened = await reader.open(message!.id, start, end);
+      expect(opened.offset, equals(start));
+      expect(opened.contentLength, (end ?? byteRangeData.length) - start);
+      final responseData = <int>[];
+      List<int>? chunk;
+      while ((chunk = await reader.read(opened.handle, 7)) != null) {
+        expect(chunk!.length, lessThanOrEqualTo(7));
+        responseData.addAll(chunk);
+      }
+      expect(responseData,
+          equals(byteRangeData.sublist(start, end ?? byteRangeData.length)));
+      await reader.close(opened.handle);
+    }
+
+    await testRead(0, null);
+    await testRead(20, null);
+    await testRead(20, 60);
+    await player.dispose();
+    expect(platform.streamAudioSourceReader, isNull);
+  });
+
   test('sequence', () async {
     final source1 = ConcatenatingAudioSource(children: [
       LoopingAudioSource(
@@ -1609,6 +1647,32 @@ void runTests() {
       darwinLoadControl: DarwinLoadControl(),
       androidLoadControl: AndroidLoadControl(),
       androidLivePlaybackSpeedControl: AndroidLivePlaybackSpeedControl(),
+      androidPlaybackEventPipeline: AndroidPlaybackEventPipeline(
+        maxEventRate: 10.0,
+        deltaEncoding: true,
+      ),
+      androidBufferWatcher: AndroidBufferWatcher(
+        granularity: Duration(milliseconds: 500),
+        fallbackInterval: Duration(seconds: 2),
+      ),
+      androidSeekIndex: AndroidSeekIndex(interval: Duration(seconds: 2)),
+      androidAsyncLoad: AndroidAsyncLoad(parallelism: 3),
+      androidPreload: AndroidPreload(
+        lookahead: Duration(seconds: 5),
+        outputSampleRate: 48000,
+      ),
+      androidCrossfade: AndroidCrossfade(
+        duration: Duration(seconds: 2),
+        curve: AndroidCrossfadeCurve.linear,
+      ),
+      androidLoudnessNormalization: AndroidLoudnessNormalization(
+        targetLoudness: -16.0,
+        album: true,
+        analyze: false,
+        maxGain: 9.0,
+        preventClipping: false,
+      ),
+      androidMappedFiles: AndroidMappedFiles(maxFileSize: 1 << 20),
     );
     final player = AudioPlayer(
       audioLoadConfiguration: audioLoadConfiguration,
@@ -1620,6 +1684,31 @@ void runTests() {
             ?.automaticallyWaitsToMinimizeStalling,
         equals(audioLoadConfiguration
             .darwinLoadControl?.automaticallyWaitsToMinimizeStalling));
+    final configuration = platformPlayer.audioLoadConfiguration!;
+    expect(configuration.androidPlaybackEventPipeline?.maxEventRate,
+        equals(10.0));
+    expect(configuration.androidPlaybackEventPipeline?.deltaEncoding,
+        equals(true));
+    expect(configuration.androidBufferWatcher?.granularity,
+        equals(const Duration(milliseconds: 500)));
+    expect(configuration.androidBufferWatcher?.fallbackInterval,
+        equals(const Duration(seconds: 2)));
+    expect(configuration.androidSeekIndex?.interval,
+        equals(const Duration(seconds: 2)));
+    expect(configuration.androidAsyncLoad?.parallelism, equals(3));
+    expect(configuration.androidPreload?.lookahead,
+        equals(const Duration(seconds: 5)));
+    expect(configuration.androidPreload?.outputSampleRate, equals(48000));
+    expect(configuration.androidCrossfade?.duration,
+        equals(const Duration(seconds: 2)));
+    expect(configuration.androidCrossfade?.curve, equals('linear'));
+    final normalization = configuration.androidLoudnessNormalization!;
+    expect(normalization.targetLoudness, equals(-16.0));
+    expect(normalization.album, equals(true));
+    expect(normalization.analyze, equals(false));
+    expect(normalization.maxGain, equals(9.0));
+    expect(normalization.preventClipping, equals(false));
+    expect(configuration.androidMappedFiles?.maxFileSize, equals(1 << 20));
     // TODO: check other fields.
     await player.dispose();
   });
@@ -1716,6 +1805,498 @@ void runTests() {
     expect(player.shuffleModeEnabled, equals(true));
     await player.dispose();
   });
+
+  test('androidCache', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: const AudioLoadConfiguration(
+        androidCache: AndroidCache(maxCacheSize: 1024, cacheDirectory: '/c'),
+      ),
+    );
+    await player.setUrl('https://foo.foo/foo.mp3');
+    final cache = mock.mostRecentPlayer!.audioLoadConfiguration!.androidCache!;
+    expect(cache.maxCacheSize, equals(1024));
+    expect(cache.cacheDirectory, equals('/c'));
+    mock.cacheStatistics = AndroidCacheGetStatisticsResponse(
+      hitCount: 3,
+      missCount: 1,
+      cachedBytesRead: 300,
+      networkBytesRead: 100,
+      cacheSpace: 400,
+      cacheDirectory: '/c',
+    );
+    final statistics = await AudioPlayer.androidCacheStatistics();
+    expect(statistics.hitCount, equals(3));
+    expect(statistics.missCount, equals(1));
+    expect(statistics.cachedBytesRead, equals(300));
+    expect(statistics.networkBytesRead, equals(100));
+    expect(statistics.cacheSpace, equals(400));
+    expect(statistics.cacheDirectory, equals('/c'));
+    await player.dispose();
+
+    final uncachedPlayer = AudioPlayer();
+    await uncachedPlayer.setUrl('https://foo.foo/foo.mp3');
+    expect(mock.mostRecentPlayer!.audioLoadConfiguration?.androidCache,
+        isNull);
+    await uncachedPlayer.dispose();
+  });
+
+  test('androidPlaybackThread', () async {
+    for (final thread in AndroidPlaybackThread.values) {
+      final player = AudioPlayer(
+        audioLoadConfiguration:
+            AudioLoadConfiguration(androidPlaybackThread: thread),
+      );
+      await player.setUrl('https://foo.foo/foo.mp3');
+      expect(
+          mock.mostRecentPlayer!.audioLoadConfiguration!.androidPlaybackThread
+              ?.name,
+          equals(thread.name));
+      await player.dispose();
+    }
+  });
+
+  test('androidPlayerPool', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: const AudioLoadConfiguration(
+        androidPlayerPool: AndroidPlayerPool(),
+      ),
+    );
+    await player.setUrl('https://foo.foo/foo.mp3');
+    expect(mock.mostRecentPlayer!.audioLoadConfiguration!.androidPlayerPool,
+        isNotNull);
+    await player.dispose();
+    await AudioPlayer.androidSetPlayerPoolMaxSize(2);
+    expect(mock.playerPoolSetMaxSizeRequest!.maxSize, equals(2));
+    mock.playerPoolStatistics = AndroidPlayerPoolGetStatisticsResponse(
+      size: 1,
+      maxSize: 2,
+      hitCount: 3,
+      missCount: 1,
+      hitRate: 0.75,
+    );
+    final statistics = await AudioPlayer.androidPlayerPoolStatistics();
+    expect(statistics.size, equals(1));
+    expect(statistics.maxSize, equals(2));
+    expect(statistics.hitCount, equals(3));
+    expect(statistics.missCount, equals(1));
+    expect(statistics.hitRate, equals(0.75));
+  });
+
+  test('androidSoundPool', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: const AudioLoadConfiguration(
+        androidSoundPool: AndroidSoundPool(maxStreams: 4),
+      ),
+    );
+    await player.setUrl('https://foo.foo/foo.mp3');
+    final platform = mock.mostRecentPlayer!;
+    expect(platform.audioLoadConfiguration!.androidSoundPool!.maxStreams,
+        equals(4));
+    final voiceId = await player.androidSoundPoolPlay(index: 0, rate: 2.0);
+    expect(voiceId, equals(7));
+    expect(platform.soundPoolPlayRequest!.index, equals(0));
+    expect(platform.soundPoolPlayRequest!.volume, isNull);
+    expect(platform.soundPoolPlayRequest!.rate, equals(2.0));
+    await player.androidSoundPoolSetVolume(voiceId, 0.5);
+    expect(platform.soundPoolSetVolumeRequest!.voiceId, equals(7));
+    expect(platform.soundPoolSetVolumeRequest!.volume, equals(0.5));
+    await player.androidSoundPoolStop(voiceId);
+    expect(platform.soundPoolStopRequest!.voiceId, equals(7));
+    await player.dispose();
+    expect(await player.androidSoundPoolPlay(), equals(0));
+  });
+
+  test('concatenating ops', () async {
+    AudioSource source(int i) =>
+        AudioSource.uri(Uri.parse('https://foo.foo/$i.mp3'));
+    final playlist = ConcatenatingAudioSource(children: [
+      for (var i = 0; i < 3; i++) source(i),
+    ]);
+    final player = AudioPlayer(
+      audioLoadConfiguration: const AudioLoadConfiguration(
+        androidIncrementalLoad:
+            AndroidIncrementalLoad(windowSize: 5, batchSize: 50),
+      ),
+    );
+    await player.setAudioSource(playlist);
+    final platform = mock.mostRecentPlayer!;
+    final incrementalLoad =
+        platform.audioLoadConfiguration!.androidIncrementalLoad!;
+    expect(incrementalLoad.windowSize, equals(5));
+    expect(incrementalLoad.batchSize, equals(50));
+    final children = List.of(playlist.children);
+    final inserted = source(3);
+    await playlist.applyOps([
+      ConcatenatingOp.removeRange(0, 1),
+      ConcatenatingOp.move(0, 1),
+      ConcatenatingOp.insertAll(2, [inserted]),
+    ]);
+    expect(playlist.children, equals([children[2], children[1], inserted]));
+    expect(player.sequence, equals(playlist.children));
+    final ops = platform.applyOpsRequests.single.ops;
+    expect(ops.length, equals(3));
+    expect(ops[0].removeRange!.startIndex, equals(0));
+    expect(ops[0].removeRange!.endIndex, equals(1));
+    expect(ops[0].removeRange!.shuffleOrder.length, equals(2));
+    expect(ops[1].move!.currentIndex, equals(0));
+    expect(ops[1].move!.newIndex, equals(1));
+    expect(ops[2].insertAll!.index, equals(2));
+    expect((ops[2].insertAll!.children.single as UriAudioSourceMessage).uri,
+        equals('https://foo.foo/3.mp3'));
+    expect(ops[2].insertAll!.shuffleOrder.length, equals(3));
+
+    // No op is applied if any is out of range.
+    await expectLater(
+        playlist.applyOps([
+          ConcatenatingOp.insertAll(0, [source(4)]),
+          ConcatenatingOp.removeRange(0, 5),
+        ]),
+        throwsRangeError);
+    expect(playlist.children, equals([children[2], children[1], inserted]));
+    expect(platform.applyOpsRequests.length, equals(1));
+    await player.dispose();
+  });
+
+  test('androidMediaSourceCache', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: const AudioLoadConfiguration(
+        androidMediaSourceCache: AndroidMediaSourceCache(maxDetachedSize: 4),
+      ),
+    );
+    await player.setUrl('https://foo.foo/foo.mp3');
+    final platform = mock.mostRecentPlayer!;
+    expect(
+        platform.audioLoadConfiguration!.androidMediaSourceCache!
+            .maxDetachedSize,
+        equals(4));
+    platform.mediaSourceCacheSize =
+        AndroidMediaSourceCacheGetSizeResponse(size: 10, detachedSize: 2);
+    final size = await player.androidMediaSourceCacheSize();
+    expect(size.size, equals(10));
+    expect(size.detachedSize, equals(2));
+    await player.dispose();
+  });
+
+  test('androidHttp', () async {
+    Future<AndroidHttpMessage> load(AndroidHttp androidHttp) async {
+      final player = AudioPlayer(
+        audioLoadConfiguration:
+            AudioLoadConfiguration(androidHttp: androidHttp),
+      );
+      await player.setUrl('https://foo.foo/foo.mp3');
+      await player.dispose();
+      return mock.mostRecentPlayer!.audioLoadConfiguration!.androidHttp!;
+    }
+
+    final platformHttp = await load(const AndroidHttp());
+    expect(platformHttp.backend, equals('default'));
+    expect(platformHttp.http2, equals(true));
+    expect(platformHttp.connectTimeout, isNull);
+    final okHttp = await load(const AndroidHttp(
+      backend: AndroidHttpBackend.okhttp,
+      connectTimeout: Duration(seconds: 5),
+      readTimeout: Duration(seconds: 10),
+      maxIdleConnections: 4,
+      keepAliveDuration: Duration(minutes: 1),
+      http2: false,
+      dnsCacheDuration: Duration(seconds: 30),
+    ));
+    expect(okHttp.backend, equals('okhttp'));
+    expect(okHttp.connectTimeout, equals(const Duration(seconds: 5)));
+    expect(okHttp.readTimeout, equals(const Duration(seconds: 10)));
+    expect(okHttp.maxIdleConnections, equals(4));
+    expect(okHttp.keepAliveDuration, equals(const Duration(minutes: 1)));
+    expect(okHttp.http2, equals(false));
+    expect(okHttp.dnsCacheDuration, equals(const Duration(seconds: 30)));
+  });
+
+  test('androidMetrics', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: const AudioLoadConfiguration(
+        androidMetrics: AndroidMetrics(interval: Duration(milliseconds: 500)),
+      ),
+    );
+    await player.setUrl('https://foo.foo/foo.mp3');
+    final platform = mock.mostRecentPlayer!;
+    expect(platform.audioLoadConfiguration!.androidMetrics!.interval,
+        equals(const Duration(milliseconds: 500)));
+    expect(player.androidMetrics, isNull);
+    platform._broadcastDataMessage(PlayerDataMessage(
+      androidMetrics: AndroidMetricsDataMessage(
+        timeToFirstAudio: const Duration(milliseconds: 250),
+        rebufferCount: 2,
+        rebufferDuration: const Duration(milliseconds: 1500),
+        bitrateEstimate: 128000,
+        totalBytesLoaded: 4096,
+        bytesLoadedBySource: const {'https://foo.foo/foo.mp3': 4096},
+        decoderName: 'c2.android.mp3.decoder',
+        seekCount: 1,
+        lastSeekLatency: const Duration(milliseconds: 30),
+      ),
+    ));
+    final metrics = await player.androidMetricsStream.firstWhere(
+        (metrics) => metrics != null);
+    expect(metrics!.timeToFirstAudio,
+        equals(const Duration(milliseconds: 250)));
+    expect(metrics.rebufferCount, equals(2));
+    expect(metrics.rebufferDuration,
+        equals(const Duration(milliseconds: 1500)));
+    expect(metrics.underrunCount, equals(0));
+    expect(metrics.droppedBufferCount, isNull);
+    expect(metrics.bitrateEstimate, equals(128000));
+    expect(metrics.totalBytesLoaded, equals(4096));
+    expect(metrics.bytesLoadedBySource,
+        equals({'https://foo.foo/foo.mp3': 4096}));
+    expect(metrics.decoderName, equals('c2.android.mp3.decoder'));
+    expect(metrics.seekCount, equals(1));
+    expect(metrics.lastSeekLatency, equals(const Duration(milliseconds: 30)));
+
+    // A data message without a report keeps the last one.
+    platform._broadcastDataMessage(PlayerDataMessage(volume: 0.5));
+    await Future<void>.delayed(Duration.zero);
+    expect(player.volume, equals(0.5));
+    expect(player.androidMetrics, same(metrics));
+    await player.dispose();
+  });
+
+  test('androidSeekParameters', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: const AudioLoadConfiguration(
+        androidSeekParameters: AndroidSeekParameters.closestSync,
+      ),
+    );
+    await player.setAudioSources([
+      AudioSource.uri(Uri.parse('https://foo.foo/0.mp3')),
+      AudioSource.uri(Uri.parse('https://foo.foo/1.mp3')),
+    ]);
+    final platform = mock.mostRecentPlayer!;
+    final defaultParameters =
+        platform.audioLoadConfiguration!.androidSeekParameters!;
+    expect(defaultParameters.mode, equals(AndroidSeekModeMessage.closestSync));
+    expect(defaultParameters.toleranceBefore, isNull);
+
+    platform.seekLatency = const Duration(milliseconds: 5);
+    final latency = await player.seek(const Duration(seconds: 1),
+        androidSeekParameters: const AndroidSeekParameters(
+          mode: AndroidSeekMode.tolerance,
+          toleranceBefore: Duration(milliseconds: 100),
+          toleranceAfter: Duration(milliseconds: 200),
+        ));
+    expect(latency, equals(const Duration(milliseconds: 5)));
+    final parameters = platform.seekRequest!.androidSeekParameters!;
+    expect(parameters.mode, equals(AndroidSeekModeMessage.tolerance));
+    expect(parameters.toleranceBefore,
+        equals(const Duration(milliseconds: 100)));
+    expect(parameters.toleranceAfter,
+        equals(const Duration(milliseconds: 200)));
+
+    // Without parameters the seek falls back to the configured ones.
+    platform.seekLatency = null;
+    expect(await player.seek(Duration.zero), isNull);
+    expect(platform.seekRequest!.androidSeekParameters, isNull);
+
+    await player.seekToNext(
+        androidSeekParameters: AndroidSeekParameters.previousSync);
+    expect(platform.seekRequest!.index, equals(1));
+    expect(platform.seekRequest!.androidSeekParameters!.mode,
+        equals(AndroidSeekModeMessage.previousSync));
+    await player.dispose();
+  });
+
+  test('software effects', () async {
+    final equalizer = AndroidParametricEqualizer(bands: const [
+      AndroidParametricEqualizerBand(
+        type: AndroidParametricEqualizerBandType.lowShelf,
+        frequency: 100.0,
+        gain: 3.0,
+      ),
+    ]);
+    final compressor = AndroidCompressor();
+    final limiter = AndroidCompressor.limiter();
+    final gain = AndroidGain(gain: -3.0);
+    final player = AudioPlayer(
+      audioPipeline: AudioPipeline(
+          androidAudioEffects: [equalizer, compressor, limiter, gain]),
+    );
+    await player.setUrl('https://foo.foo/foo.mp3');
+    final platform = mock.mostRecentPlayer!;
+    final effects = platform.androidAudioEffects;
+    expect(
+        effects.map((effect) => effect.toMap()['type']),
+        equals([
+          'AndroidParametricEqualizer',
+          'AndroidCompressor',
+          'AndroidLimiter',
+          'AndroidGain',
+        ]));
+    final band = (effects[0] as AndroidParametricEqualizerMessage).bands.single;
+    expect(band.type,
+        equals(AndroidParametricEqualizerBandTypeMessage.lowShelf));
+    expect(band.frequency, equals(100.0));
+    expect(band.gain, equals(3.0));
+    expect(band.q, equals(0.7071));
+    expect((effects[1] as AndroidCompressorMessage).ratio, equals(4.0));
+    expect((effects[2] as AndroidCompressorMessage).threshold, equals(-1.0));
+    expect((effects[3] as AndroidGainMessage).gain, equals(-3.0));
+
+    await gain.setGain(6.0);
+    expect(gain.gain, equals(6.0));
+    var request = platform.audioEffectSetParametersRequest!;
+    expect(request.type, equals('AndroidGain'));
+    expect(request.parameters, equals({'gain': 6.0}));
+    await limiter.setParameters(
+        const AndroidCompressorParameters.limiter(threshold: -2.0));
+    request = platform.audioEffectSetParametersRequest!;
+    expect(request.type, equals('AndroidLimiter'));
+    expect(request.parameters['threshold'], equals(-2.0));
+    expect(request.parameters['attack'], equals(1000));
+    await player.dispose();
+  });
+
+  test('androidVisualizer', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: const AudioLoadConfiguration(
+        androidVisualizer: AndroidVisualizer(
+          captureRate: 20,
+          fftSize: 512,
+          bandCount: 16,
+          waveform: false,
+        ),
+      ),
+    );
+    await player.setUrl('https://foo.foo/foo.mp3');
+    final platform = mock.mostRecentPlayer!;
+    final visualizer = platform.audioLoadConfiguration!.androidVisualizer!;
+    expect(visualizer.captureRate, equals(20));
+    expect(visualizer.fftSize, equals(512));
+    expect(visualizer.bandCount, equals(16));
+    expect(visualizer.waveform, equals(false));
+    expect(visualizer.spectrum, equals(true));
+    final spectrum = Float32List.fromList([-20.0, -30.0]);
+    final capture = player.androidVisualizerStream.first;
+    platform._broadcastDataMessage(PlayerDataMessage(
+      androidVisualizer: AndroidVisualizerDataMessage(
+        sampleRate: 44100,
+        spectrum: spectrum,
+      ),
+    ));
+    expect((await capture).sampleRate, equals(44100));
+    expect((await capture).waveform, isNull);
+    expect((await capture).spectrum, equals(spectrum));
+    await player.dispose();
+  });
+
+  test('androidClipCache', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: const AudioLoadConfiguration(
+        androidClipCache: AndroidClipCache(maxSize: 1 << 22, maxClipSize: 1024),
+      ),
+    );
+    await player.setUrl('https://foo.foo/foo.mp3');
+    final clipCache =
+        mock.mostRecentPlayer!.audioLoadConfiguration!.androidClipCache!;
+    expect(clipCache.maxSize, equals(1 << 22));
+    expect(clipCache.maxClipSize, equals(1024));
+    await player.dispose();
+    mock.clipCacheStatistics = AndroidClipCacheGetStatisticsResponse(
+      clipCount: 2,
+      residentBytes: 2048,
+      maxSize: 4096,
+      hitCount: 1,
+      missCount: 3,
+      hitRate: 0.25,
+    );
+    final statistics = await AudioPlayer.androidClipCacheStatistics();
+    expect(statistics.clipCount, equals(2));
+    expect(statistics.residentBytes, equals(2048));
+    expect(statistics.maxSize, equals(4096));
+    expect(statistics.hitCount, equals(1));
+    expect(statistics.missCount, equals(3));
+    expect(statistics.hitRate, equals(0.25));
+    final clearCount = mock.clipCacheClearCount;
+    await AudioPlayer.androidClipCacheClear();
+    expect(mock.clipCacheClearCount, equals(clearCount + 1));
+  });
+
+  test('androidLoadTrace', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: const AudioLoadConfiguration(
+        androidLoadTrace: AndroidLoadTrace(systemTrace: true),
+      ),
+    );
+    expect(player.androidLoadPhases, isNull);
+    await player.setUrl('https://foo.foo/foo.mp3');
+    final platform = mock.mostRecentPlayer!;
+    expect(platform.audioLoadConfiguration!.androidLoadTrace!.systemTrace,
+        equals(true));
+    expect(player.androidLoadPhases, equals(loadPhases));
+    platform._broadcastDataMessage(PlayerDataMessage(
+      androidMetrics: AndroidMetricsDataMessage(
+        loadPhases: const {'mediaSourcesSet': Duration(milliseconds: 2)},
+      ),
+    ));
+    final metrics = await player.androidMetricsStream.firstWhere(
+        (metrics) => metrics != null);
+    expect(metrics!.loadPhases,
+        equals({'mediaSourcesSet': const Duration(milliseconds: 2)}));
+    await player.dispose();
+
+    final untracedPlayer = AudioPlayer();
+    await untracedPlayer.setUrl('https://foo.foo/foo.mp3');
+    expect(untracedPlayer.androidLoadPhases, isNull);
+    await untracedPlayer.dispose();
+  });
+
+  test('androidExtractorOptions', () async {
+    final player = AudioPlayer();
+    for (final container in AndroidExtractorContainer.values) {
+      await player.setAudioSource(ProgressiveAudioSource(
+        Uri.parse('https://foo.foo/foo'),
+        options: ProgressiveAudioSourceOptions(
+          androidExtractorOptions: AndroidExtractorOptions(
+            mp3Flags: AndroidExtractorOptions.flagMp3EnableIndexSeeking,
+            container: container,
+          ),
+        ),
+      ));
+      final message =
+          mock.mostRecentPlayer!._audioSource as ProgressiveAudioSourceMessage;
+      final options = message.options!.androidExtractorOptions!;
+      expect(options.mp3Flags,
+          equals(AndroidExtractorOptions.flagMp3EnableIndexSeeking));
+      expect(options.container.name, equals(container.name));
+      // The platform sniffs unless a container is declared.
+      expect(options.toMap()['container'],
+          container == AndroidExtractorContainer.sniff
+              ? isNull
+              : equals(container.name));
+    }
+    await player.dispose();
+  });
+
+  test('prefetch', () async {
+    final player = AudioPlayer();
+    await player.setAudioSources([
+      for (var i = 0; i < 4; i++)
+        AudioSource.uri(Uri.parse('https://foo.foo/$i.mp3')),
+    ]);
+    final platform = mock.mostRecentPlayer!;
+    final sources = await player.prefetch(
+        count: 2, duration: const Duration(seconds: 10));
+    expect(sources, equals(player.sequence.sublist(1, 3)));
+    expect(platform.prefetchRequest!.count, equals(2));
+    expect(platform.prefetchRequest!.maxBytes, isNull);
+    expect(platform.prefetchRequest!.duration,
+        equals(const Duration(seconds: 10)));
+    expect(await player.prefetch(maxBytes: 4096),
+        equals([player.sequence[1]]));
+    expect(platform.prefetchRequest!.count, equals(1));
+    expect(platform.prefetchRequest!.maxBytes, equals(4096));
+    await player.seek(Duration.zero, index: 3);
+    expect(await player.prefetch(), isEmpty);
+    await player.dispose();
+    expect(await player.prefetch(), isEmpty);
+  });
 }
 
 class MockJustAudio extends Mock
@@ -1723,6 +2304,11 @@ class MockJustAudio extends Mock
     implements JustAudioPlatform {
   MockAudioPlayer? mostRecentPlayer;
   final _players = <String, MockAudioPlayer>{};
+  var cacheStatistics = AndroidCacheGetStatisticsResponse();
+  var playerPoolStatistics = AndroidPlayerPoolGetStatisticsResponse();
+  AndroidPlayerPoolSetMaxSizeRequest? playerPoolSetMaxSizeRequest;
+  var clipCacheStatistics = AndroidClipCacheGetStatisticsResponse();
+  var clipCacheClearCount = 0;
 
   @override
   Future<AudioPlayerPlatform> init(InitRequest request) async {
@@ -1754,10 +2340,47 @@ class MockJustAudio extends Mock
     _players.clear();
     return DisposeAllPlayersResponse();
   }
+
+  @override
+  Future<AndroidCacheGetStatisticsResponse> androidCacheGetStatistics(
+      AndroidCacheGetStatisticsRequest request) async {
+    return cacheStatistics;
+  }
+
+  @override
+  Future<AndroidPlayerPoolGetStatisticsResponse> androidPlayerPoolGetStatistics(
+      AndroidPlayerPoolGetStatisticsRequest request) async {
+    return playerPoolStatistics;
+  }
+
+  @override
+  Future<AndroidPlayerPoolSetMaxSizeResponse> androidPlayerPoolSetMaxSize(
+      AndroidPlayerPoolSetMaxSizeRequest request) async {
+    playerPoolSetMaxSizeRequest = request;
+    return AndroidPlayerPoolSetMaxSizeResponse();
+  }
+
+  @override
+  Future<AndroidClipCacheGetStatisticsResponse> androidClipCacheGetStatistics(
+      AndroidClipCacheGetStatisticsRequest request) async {
+    return clipCacheStatistics;
+  }
+
+  @override
+  Future<AndroidClipCacheClearResponse> androidClipCacheClear(
+      AndroidClipCacheClearRequest request) async {
+    clipCacheClearCount++;
+    return AndroidClipCacheClearResponse();
+  }
 }
 
 const audioSourceDuration = Duration(seconds: 30);
 
+const loadPhases = {
+  'decoded': Duration(milliseconds: 1),
+  'ready': Duration(milliseconds: 50),
+};
+
 final icyMetadata = IcyMetadata(
   headers: IcyHeaders(
     url: 'url',
@@ -1792,6 +2415,8 @@ class MockAudioPlayer extends AudioPlayerPlatform {
   final eventController = StreamController<PlaybackEventMessage>();
   final dataMessageController = StreamController<PlayerDataMessage>();
   final AudioLoadConfigurationMessage? audioLoadConfiguration;
+  final List<AudioEffectMessage> androidAudioEffects;
+  ConcatenatingAudioSourceMessage? _playlist;
   AudioSourceMessage? _audioSource;
   ProcessingStateMessage _processingState = ProcessingStateMessage.idle;
   Duration _updatePosition = Duration.zero;
@@ -1809,10 +2434,27 @@ class MockAudioPlayer extends AudioPlayerPlatform {
   String? _errorMessage;
   Completer<void>? _loadBlock;
 
+  StreamAudioSourceReader? streamAudioSourceReader;
+  PrefetchRequest? prefetchRequest;
+  SeekRequest? seekRequest;
+  Duration? seekLatency;
+  AndroidAudioEffectSetParametersRequest? audioEffectSetParametersRequest;
+  AndroidSoundPoolPlayRequest? soundPoolPlayRequest;
+  AndroidSoundPoolStopRequest? soundPoolStopRequest;
+  AndroidSoundPoolSetVolumeRequest? soundPoolSetVolumeRequest;
+  final applyOpsRequests = <ConcatenatingApplyOpsRequest>[];
+  var mediaSourceCacheSize = AndroidMediaSourceCacheGetSizeResponse();
+
   MockAudioPlayer(InitRequest request)
       : audioLoadConfiguration = request.audioLoadConfiguration,
+        androidAudioEffects = request.androidAudioEffects,
         super(request.id);
 
+  @override
+  void setStreamAudioSourceReader(StreamAudioSourceReader? reader) {
+    streamAudioSourceReader = reader;
+  }
+
   @override
   Stream<PlayerDataMessage> get playerDataMessageStream =>
       dataMessageController.stream;
@@ -1883,6 +2525,7 @@ class MockAudioPlayer extends AudioPlayerPlatform {
       // of the first item in the sequence.
       _duration = audioSourceDuration;
     }
+    _playlist = playlist;
     _audioSource = audioSource;
     _index = request.initialIndex ?? 0;
     // Simulate loading time.
@@ -1897,7 +2540,9 @@ class MockAudioPlayer extends AudioPlayerPlatform {
       _startTimer();
     }
     _loadRequest = null;
-    return LoadResponse(duration: _duration);
+    final traced = audioLoadConfiguration?.androidLoadTrace != null;
+    return LoadResponse(
+        duration: _duration, loadPhases: traced ? loadPhases : null);
   }
 
   @override
@@ -1936,10 +2581,42 @@ class MockAudioPlayer extends AudioPlayerPlatform {
 
   @override
   Future<SeekResponse> seek(SeekRequest request) async {
+    seekRequest = request;
     _setPosition(request.position ?? Duration.zero);
     _index = request.index ?? 0;
     _broadcastPlaybackEvent();
-    return SeekResponse();
+    return SeekResponse(seekLatency: seekLatency);
+  }
+
+  @override
+  Future<PrefetchResponse> prefetch(PrefetchRequest request) async {
+    prefetchRequest = request;
+    final children = _playlist!.children;
+    final start = min(_index! + 1, children.length);
+    final end = min(start + request.count, children.length);
+    return PrefetchResponse(
+        ids: [for (var child in children.sublist(start, end)) child.id]);
+  }
+
+  @override
+  Future<AndroidSoundPoolPlayResponse> androidSoundPoolPlay(
+      AndroidSoundPoolPlayRequest request) async {
+    soundPoolPlayRequest = request;
+    return AndroidSoundPoolPlayResponse(voiceId: 7);
+  }
+
+  @override
+  Future<AndroidSoundPoolStopResponse> androidSoundPoolStop(
+      AndroidSoundPoolStopRequest request) async {
+    soundPoolStopRequest = request;
+    return AndroidSoundPoolStopResponse();
+  }
+
+  @override
+  Future<AndroidSoundPoolSetVolumeResponse> androidSoundPoolSetVolume(
+      AndroidSoundPoolSetVolumeRequest request) async {
+    soundPoolSetVolumeRequest = request;
+    return AndroidSoundPoolSetVolumeResponse();
   }
 
   Future<void> _autoAdvance() async {
@@ -2036,6 +2713,19 @@ class MockAudioPlayer extends AudioPlayerPlatform {
     return ConcatenatingRemoveRangeResponse();
   }
 
+  @override
+  Future<ConcatenatingApplyOpsResponse> concatenatingApplyOps(
+      ConcatenatingApplyOpsRequest request) async {
+    applyOpsRequests.add(request);
+    return ConcatenatingApplyOpsResponse();
+  }
+
+  @override
+  Future<AndroidMediaSourceCacheGetSizeResponse> androidMediaSourceCacheGetSize(
+      AndroidMediaSourceCacheGetSizeRequest request) async {
+    return mediaSourceCacheSize;
+  }
+
   void _broadcastPlaybackEvent() {
     String? url;
     if (_audioSource is UriAudioSourceMessage) {
@@ -2145,6 +2835,14 @@ class MockAudioPlayer extends AudioPlayerPlatform {
       AndroidEqualizerBandSetGainRequest request) async {
     return AndroidEqualizerBandSetGainResponse();
   }
+
+  @override
+  Future<AndroidAudioEffectSetParametersResponse>
+      androidAudioEffectSetParameters(
+          AndroidAudioEffectSetParametersRequest request) async {
+    audioEffectSetParametersRequest = request;
+    return AndroidAudioEffectSetParametersResponse();
+  }
 }
 
 class MockLoadRequest {
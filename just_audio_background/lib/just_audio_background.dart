@@ -158,6 +158,31 @@ class _JustAudioBackgroundPlugin extends JustAudioPlatform {
     await player?.release();
     return DisposeAllPlayersResponse();
   }
+
+  @override
+  Future<AndroidCacheGetStatisticsResponse> androidCacheGetStatistics(
+          AndroidCacheGetStatisticsRequest request) =>
+      _platform.androidCacheGetStatistics(request);
+
+  @override
+  Future<AndroidPlayerPoolGetStatisticsResponse> androidPlayerPoolGetStatistics(
+          AndroidPlayerPoolGetStatisticsRequest request) =>
+      _platform.androidPlayerPoolGetStatistics(request);
+
+  @override
+  Future<AndroidPlayerPoolSetMaxSizeResponse> androidPlayerPoolSetMaxSize(
+          AndroidPlayerPoolSetMaxSizeRequest request) =>
+      _platform.androidPlayerPoolSetMaxSize(request);
+
+  @override
+  Future<AndroidClipCacheGetStatisticsResponse> androidClipCacheGetStatistics(
+          AndroidClipCacheGetStatisticsRequest request) =>
+      _platform.androidClipCacheGetStatistics(request);
+
+  @override
+  Future<AndroidClipCacheClearResponse> androidClipCacheClear(
+          AndroidClipCacheClearRequest request) =>
+      _platform.androidClipCacheClear(request);
 }
 
 final _PlayerAudioHandler _playerAudioHandler = _PlayerAudioHandler();
@@ -183,6 +208,9 @@ class _JustAudioPlayer extends AudioPlayerPlatform {
         .listen((playing) {
       playerDataController.add(PlayerDataMessage(playing: playing));
     });
+    _audioHandler.customEvent
+        .whereType<PlayerDataMessage>()
+        .listen(playerDataController.add);
   }
 
   PlaybackState get playbackState => _audioHandler.playbackState.nvalue!;
@@ -319,6 +347,16 @@ class _JustAudioPlayer extends AudioPlayerPlatform {
           _playerAudioHandler
               .customAndroidLoudnessEnhancerSetTargetGain(request);
 
+  @override
+  Future<AndroidAudioEffectSetParametersResponse>
+      androidAudioEffectSetParameters(
+              AndroidAudioEffectSetParametersRequest request) =>
+          _playerAudioHandler.customAndroidAudioEffectSetParameters(request);
+
+  @override
+  void setStreamAudioSourceReader(StreamAudioSourceReader? reader) =>
+      _playerAudioHandler.customSetStreamAudioSourceReader(reader);
+
   @override
   Future<AudioEffectSetEnabledResponse> audioEffectSetEnabled(
           AudioEffectSetEnabledRequest request) =>
@@ -342,6 +380,35 @@ class _JustAudioPlayer extends AudioPlayerPlatform {
   Future<SetPreferredPeakBitRateResponse> setPreferredPeakBitRate(
           SetPreferredPeakBitRateRequest request) =>
       _playerAudioHandler.customSetPreferredPeakBitRate(request);
+
+  @override
+  Future<PrefetchResponse> prefetch(PrefetchRequest request) =>
+      _playerAudioHandler.customPrefetch(request);
+
+  @override
+  Future<AndroidSoundPoolPlayResponse> androidSoundPoolPlay(
+          AndroidSoundPoolPlayRequest request) =>
+      _playerAudioHandler.customAndroidSoundPoolPlay(request);
+
+  @override
+  Future<AndroidSoundPoolStopResponse> androidSoundPoolStop(
+          AndroidSoundPoolStopRequest request) =>
+      _playerAudioHandler.customAndroidSoundPoolStop(request);
+
+  @override
+  Future<AndroidSoundPoolSetVolumeResponse> androidSoundPoolSetVolume(
+          AndroidSoundPoolSetVolumeRequest request) =>
+      _playerAudioHandler.customAndroidSoundPoolSetVolume(request);
+
+  @override
+  Future<ConcatenatingApplyOpsResponse> concatenatingApplyOps(
+          ConcatenatingApplyOpsRequest request) =>
+      _playerAudioHandler.customConcatenatingApplyOps(request);
+
+  @override
+  Future<AndroidMediaSourceCacheGetSizeResponse> androidMediaSourceCacheGetSize(
+          AndroidMediaSourceCacheGetSizeRequest request) =>
+      _playerAudioHandler.customAndroidMediaSourceCacheGetSize(request);
 }
 
 class _PlayerAudioHandler extends BaseAudioHandler
@@ -378,11 +445,25 @@ class _PlayerAudioHandler extends BaseAudioHandler
 
   List<MediaItem> get currentQueue => queue.value;
   StreamSubscription<TrackInfo>? _trackInfoSubscription;
+  StreamSubscription<PlayerDataMessage>? _playerDataSubscription;
+  StreamAudioSourceReader? _streamAudioSourceReader;
 
   Future<void> _initPlayer(InitRequest initRequest) =>
       _lock.synchronized(() async {
         final player = await _platform.init(initRequest);
         _playerCompleter.complete(player);
+        player.setStreamAudioSourceReader(_streamAudioSourceReader);
+        // Other state is driven by the audio handler, but Android metrics and
+        // visualizer data are passed straight through.
+        _playerDataSubscription = player.playerDataMessageStream
+            .where((message) =>
+                message.androidMetrics != null ||
+                message.androidVisualizer != null)
+            .map((message) => PlayerDataMessage(
+                  androidMetrics: message.androidMetrics,
+                  androidVisualizer: message.androidVisualizer,
+                ))
+            .listen(customEvent.add);
         final playbackEventMessageStream = player.playbackEventMessageStream;
         _trackInfoSubscription = playbackEventMessageStream
             .map((event) {
@@ -427,6 +508,11 @@ class _PlayerAudioHandler extends BaseAudioHandler
       _trackInfoSubscription = null;
       await trackInfoSubscription.cancel();
     }
+    final playerDataSubscription = _playerDataSubscription;
+    if (playerDataSubscription != null) {
+      _playerDataSubscription = null;
+      await playerDataSubscription.cancel();
+    }
   }
 
   @override
@@ -449,7 +535,10 @@ class _PlayerAudioHandler extends BaseAudioHandler
       initialPosition: request.initialPosition,
       initialIndex: request.initialIndex,
     ));
-    return LoadResponse(duration: response.duration);
+    return LoadResponse(
+      duration: response.duration,
+      loadPhases: response.loadPhases,
+    );
   }
 
   Future<SetVolumeResponse> customSetVolume(SetVolumeRequest request) async =>
@@ -549,6 +638,18 @@ class _PlayerAudioHandler extends BaseAudioHandler
               AndroidLoudnessEnhancerSetTargetGainRequest request) async =>
           await (await _player).androidLoudnessEnhancerSetTargetGain(request);
 
+  Future<AndroidAudioEffectSetParametersResponse>
+      customAndroidAudioEffectSetParameters(
+              AndroidAudioEffectSetParametersRequest request) async =>
+          await (await _player).androidAudioEffectSetParameters(request);
+
+  /// Passes the reader through to the platform player, now if it has been
+  /// created or otherwise once it is.
+  void customSetStreamAudioSourceReader(StreamAudioSourceReader? reader) {
+    _streamAudioSourceReader = reader;
+    _playerCompleter.value?.setStreamAudioSourceReader(reader);
+  }
+
   Future<AudioEffectSetEnabledResponse> customAudioEffectSetEnabled(
           AudioEffectSetEnabledRequest request) async =>
       await (await _player).audioEffectSetEnabled(request);
@@ -568,6 +669,56 @@ class _PlayerAudioHandler extends BaseAudioHandler
           SetPreferredPeakBitRateRequest request) async =>
       await (await _player).setPreferredPeakBitRate(request);
 
+  Future<PrefetchResponse> customPrefetch(PrefetchRequest request) async =>
+      await (await _player).prefetch(request);
+
+  Future<AndroidSoundPoolPlayResponse> customAndroidSoundPoolPlay(
+          AndroidSoundPoolPlayRequest request) async =>
+      await (await _player).androidSoundPoolPlay(request);
+
+  Future<AndroidSoundPoolStopResponse> customAndroidSoundPoolStop(
+          AndroidSoundPoolStopRequest request) async =>
+      await (await _player).androidSoundPoolStop(request);
+
+  Future<AndroidSoundPoolSetVolumeResponse> customAndroidSoundPoolSetVolume(
+          AndroidSoundPoolSetVolumeRequest request) async =>
+      await (await _player).androidSoundPoolSetVolume(request);
+
+  Future<ConcatenatingApplyOpsResponse> customConcatenatingApplyOps(
+      ConcatenatingApplyOpsRequest request) async {
+    for (final op in request.ops) {
+      final insertAll = op.insertAll;
+      final removeRange = op.removeRange;
+      final move = op.move;
+      if (insertAll != null) {
+        final cat = _source!.findCat(insertAll.id)!;
+        cat.children.insertAll(insertAll.index, insertAll.children);
+        cat.shuffleOrder
+            .replaceRange(0, cat.shuffleOrder.length, insertAll.shuffleOrder);
+      } else if (removeRange != null) {
+        final cat = _source!.findCat(removeRange.id)!;
+        cat.children.removeRange(removeRange.startIndex, removeRange.endIndex);
+        cat.shuffleOrder
+            .replaceRange(0, cat.shuffleOrder.length, removeRange.shuffleOrder);
+      } else if (move != null) {
+        final cat = _source!.findCat(move.id)!;
+        cat.children
+            .insert(move.newIndex, cat.children.removeAt(move.currentIndex));
+        cat.shuffleOrder
+            .replaceRange(0, cat.shuffleOrder.length, move.shuffleOrder);
+      }
+    }
+    _updateShuffleIndices();
+    _broadcastStateIfActive();
+    _updateQueue();
+    return await (await _player).concatenatingApplyOps(request);
+  }
+
+  Future<AndroidMediaSourceCacheGetSizeResponse>
+      customAndroidMediaSourceCacheGetSize(
+              AndroidMediaSourceCacheGetSizeRequest request) async =>
+          await (await _player).androidMediaSourceCacheGetSize(request);
+
   void _updateQueue() {
     assert(sequence.every((source) => source.tag is MediaItem),
         'Error : When using just_audio_background, you should always set a MediaItem tag on every AudioSource. See AudioSource.uri documentation for more information.');
@@ -716,6 +867,8 @@ class _PlayerAudioHandler extends BaseAudioHandler
         );
         _broadcastState();
         _playerCompleter = _ValueCompleter<AudioPlayerPlatform>();
+        _streamAudioSourceReader = null;
+        player.setStreamAudioSourceReader(null);
         await _platform.disposePlayer(DisposePlayerRequest(id: player.id));
       });
 
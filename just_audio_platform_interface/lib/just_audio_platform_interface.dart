@@ -1,4 +1,5 @@
 import 'dart:async';
+import 'dart:typed_data';
 
 import 'package:plugin_platform_interface/plugin_platform_interface.dart';
 
@@ -50,6 +51,44 @@ abstract class JustAudioPlatform extends PlatformInterface {
       DisposeAllPlayersRequest request) {
     throw UnimplementedError('disposeAllPlayers() has not been implemented.');
   }
+
+  /// Gets the statistics of the disk cache shared by all Android players.
+  Future<AndroidCacheGetStatisticsResponse> androidCacheGetStatistics(
+      AndroidCacheGetStatisticsRequest request) {
+    throw UnimplementedError(
+        'androidCacheGetStatistics() has not been implemented.');
+  }
+
+  /// Gets the statistics of the pool of idle Android players.
+  Future<AndroidPlayerPoolGetStatisticsResponse> androidPlayerPoolGetStatistics(
+      AndroidPlayerPoolGetStatisticsRequest request) {
+    throw UnimplementedError(
+        'androidPlayerPoolGetStatistics() has not been implemented.');
+  }
+
+  /// Sets the maximum number of idle Android players the pool shared by all
+  /// players keeps.
+  Future<AndroidPlayerPoolSetMaxSizeResponse> androidPlayerPoolSetMaxSize(
+      AndroidPlayerPoolSetMaxSizeRequest request) {
+    throw UnimplementedError(
+        'androidPlayerPoolSetMaxSize() has not been implemented.');
+  }
+
+  /// Gets the statistics of the in-memory clip cache shared by all Android
+  /// players.
+  Future<AndroidClipCacheGetStatisticsResponse> androidClipCacheGetStatistics(
+      AndroidClipCacheGetStatisticsRequest request) {
+    throw UnimplementedError(
+        'androidClipCacheGetStatistics() has not been implemented.');
+  }
+
+  /// Evicts every clip from the in-memory clip cache shared by all Android
+  /// players.
+  Future<AndroidClipCacheClearResponse> androidClipCacheClear(
+      AndroidClipCacheClearRequest request) {
+    throw UnimplementedError(
+        'androidClipCacheClear() has not been implemented.');
+  }
 }
 
 /// A nested platform interface for communicating with a particular player
@@ -231,6 +270,59 @@ abstract class AudioPlayerPlatform {
         "androidEqualizerBandSetGain() has not been implemented.");
   }
 
+  /// Updates the parameters of an Android software audio effect.
+  Future<AndroidAudioEffectSetParametersResponse>
+      androidAudioEffectSetParameters(
+          AndroidAudioEffectSetParametersRequest request) {
+    throw UnimplementedError(
+        "androidAudioEffectSetParameters() has not been implemented.");
+  }
+
+  /// Schedules the heads of upcoming items to be written to the disk cache.
+  Future<PrefetchResponse> prefetch(PrefetchRequest request) {
+    throw UnimplementedError("prefetch() has not been implemented.");
+  }
+
+  /// Plays an additional voice of a clip loaded into an Android SoundPool.
+  Future<AndroidSoundPoolPlayResponse> androidSoundPoolPlay(
+      AndroidSoundPoolPlayRequest request) {
+    throw UnimplementedError(
+        "androidSoundPoolPlay() has not been implemented.");
+  }
+
+  /// Stops a voice started by [androidSoundPoolPlay].
+  Future<AndroidSoundPoolStopResponse> androidSoundPoolStop(
+      AndroidSoundPoolStopRequest request) {
+    throw UnimplementedError(
+        "androidSoundPoolStop() has not been implemented.");
+  }
+
+  /// Sets the volume of a voice started by [androidSoundPoolPlay].
+  Future<AndroidSoundPoolSetVolumeResponse> androidSoundPoolSetVolume(
+      AndroidSoundPoolSetVolumeRequest request) {
+    throw UnimplementedError(
+        "androidSoundPoolSetVolume() has not been implemented.");
+  }
+
+  /// Applies a batch of edits to concatenating audio sources as one update.
+  Future<ConcatenatingApplyOpsResponse> concatenatingApplyOps(
+      ConcatenatingApplyOpsRequest request) {
+    throw UnimplementedError(
+        "concatenatingApplyOps() has not been implemented.");
+  }
+
+  /// Gets the number of media sources held by an Android player.
+  Future<AndroidMediaSourceCacheGetSizeResponse> androidMediaSourceCacheGetSize(
+      AndroidMediaSourceCacheGetSizeRequest request) {
+    throw UnimplementedError(
+        "androidMediaSourceCacheGetSize() has not been implemented.");
+  }
+
+  /// Sets the reader through which the platform pulls the bytes of
+  /// [StreamAudioSourceMessage]s, or clears it if [reader] is `null`.
+  /// Platforms that don't support stream sources ignore this.
+  void setStreamAudioSourceReader(StreamAudioSourceReader? reader) {}
+
   /// Sets the 'crossOrigin' attribute on the web audio element.
   Future<SetWebCrossOriginResponse> setWebCrossOrigin(
       SetWebCrossOriginRequest request) {
@@ -255,6 +347,14 @@ class PlayerDataMessage {
   final double? pitch;
   final LoopModeMessage? loopMode;
   final ShuffleModeMessage? shuffleMode;
+
+  /// Periodic playback performance metrics, if enabled via the
+  /// "androidMetrics" load configuration on Android.
+  final AndroidMetricsDataMessage? androidMetrics;
+
+  /// Visualizer data, if enabled via the "androidVisualizer" load
+  /// configuration on Android.
+  final AndroidVisualizerDataMessage? androidVisualizer;
   // TODO: Eventually move other state here?
   // bufferedPosition, androidAudioSessionId, icyMetadata
 
@@ -265,6 +365,8 @@ class PlayerDataMessage {
     this.pitch,
     this.loopMode,
     this.shuffleMode,
+    this.androidMetrics,
+    this.androidVisualizer,
   });
 
   static PlayerDataMessage fromMap(Map<dynamic, dynamic> map) =>
@@ -279,6 +381,113 @@ class PlayerDataMessage {
         shuffleMode: map['shuffleMode'] != null
             ? ShuffleModeMessage.values[map['shuffleMode'] as int]
             : null,
+        androidMetrics: map['androidMetrics'] != null
+            ? AndroidMetricsDataMessage.fromMap(
+                map['androidMetrics'] as Map<dynamic, dynamic>)
+            : null,
+        androidVisualizer: map['androidVisualizer'] != null
+            ? AndroidVisualizerDataMessage.fromMap(
+                map['androidVisualizer'] as Map<dynamic, dynamic>)
+            : null,
+      );
+}
+
+/// Playback performance metrics communicated from the Android platform
+/// implementation.
+class AndroidMetricsDataMessage {
+  final Duration? timeToFirstAudio;
+  final int rebufferCount;
+  final Duration rebufferDuration;
+  final int underrunCount;
+  final int? droppedBufferCount;
+  final int? skippedBufferCount;
+  final int? bitrateEstimate;
+  final int totalBytesLoaded;
+  final Map<String, int> bytesLoadedBySource;
+  final String? decoderName;
+  final Duration? decoderInitDuration;
+  final int seekCount;
+  final Duration? lastSeekLatency;
+  final Duration? meanSeekLatency;
+  final int transitionCount;
+  final Duration? lastTransitionGap;
+  final Duration? meanTransitionGap;
+  final Map<String, Duration>? loadPhases;
+
+  AndroidMetricsDataMessage({
+    this.timeToFirstAudio,
+    this.rebufferCount = 0,
+    this.rebufferDuration = Duration.zero,
+    this.underrunCount = 0,
+    this.droppedBufferCount,
+    this.skippedBufferCount,
+    this.bitrateEstimate,
+    this.totalBytesLoaded = 0,
+    this.bytesLoadedBySource = const {},
+    this.decoderName,
+    this.decoderInitDuration,
+    this.seekCount = 0,
+    this.lastSeekLatency,
+    this.meanSeekLatency,
+    this.transitionCount = 0,
+    this.lastTransitionGap,
+    this.meanTransitionGap,
+    this.loadPhases,
+  });
+
+  static Duration? _duration(dynamic us) =>
+      us != null ? Duration(microseconds: us as int) : null;
+
+  static AndroidMetricsDataMessage fromMap(Map<dynamic, dynamic> map) =>
+      AndroidMetricsDataMessage(
+        timeToFirstAudio: _duration(map['timeToFirstAudio']),
+        rebufferCount: map['rebufferCount'] as int? ?? 0,
+        rebufferDuration: _duration(map['rebufferDuration']) ?? Duration.zero,
+        underrunCount: map['underrunCount'] as int? ?? 0,
+        droppedBufferCount: map['droppedBufferCount'] as int?,
+        skippedBufferCount: map['skippedBufferCount'] as int?,
+        bitrateEstimate: map['bitrateEstimate'] as int?,
+        totalBytesLoaded: map['totalBytesLoaded'] as int? ?? 0,
+        bytesLoadedBySource:
+            (map['bytesLoadedBySource'] as Map<dynamic, dynamic>?)
+                    ?.cast<String, int>() ??
+                const {},
+        decoderName: map['decoderName'] as String?,
+        decoderInitDuration: _duration(map['decoderInitDuration']),
+        seekCount: map['seekCount'] as int? ?? 0,
+        lastSeekLatency: _duration(map['lastSeekLatency']),
+        meanSeekLatency: _duration(map['meanSeekLatency']),
+        transitionCount: map['transitionCount'] as int? ?? 0,
+        lastTransitionGap: _duration(map['lastTransitionGap']),
+        meanTransitionGap: _duration(map['meanTransitionGap']),
+        loadPhases: (map['loadPhases'] as Map<dynamic, dynamic>?)?.map(
+            (dynamic phase, dynamic time) => MapEntry(
+                phase as String, Duration(microseconds: time as int))),
+      );
+}
+
+/// A capture of waveform and spectrum data communicated from the Android
+/// platform implementation.
+class AndroidVisualizerDataMessage {
+  final int sampleRate;
+
+  /// The latest mono samples in the range [-1, 1].
+  final Float32List? waveform;
+
+  /// The peak level of each band in dBFS, from low to high frequencies.
+  final Float32List? spectrum;
+
+  AndroidVisualizerDataMessage({
+    required this.sampleRate,
+    this.waveform,
+    this.spectrum,
+  });
+
+  static AndroidVisualizerDataMessage fromMap(Map<dynamic, dynamic> map) =>
+      AndroidVisualizerDataMessage(
+        sampleRate: map['sampleRate'] as int,
+        waveform: map['waveform'] as Float32List?,
+        spectrum: map['spectrum'] as Float32List?,
       );
 }
 
@@ -473,6 +682,146 @@ class DisposeAllPlayersResponse {
       DisposeAllPlayersResponse();
 }
 
+/// Information communicated to the platform implementation when getting the
+/// statistics of the Android disk cache.
+class AndroidCacheGetStatisticsRequest {
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{};
+}
+
+/// Information returned by the platform implementation after getting the
+/// statistics of the Android disk cache.
+class AndroidCacheGetStatisticsResponse {
+  final int hitCount;
+  final int missCount;
+  final int cachedBytesRead;
+  final int networkBytesRead;
+  final int cacheSpace;
+  final String? cacheDirectory;
+
+  AndroidCacheGetStatisticsResponse({
+    this.hitCount = 0,
+    this.missCount = 0,
+    this.cachedBytesRead = 0,
+    this.networkBytesRead = 0,
+    this.cacheSpace = 0,
+    this.cacheDirectory,
+  });
+
+  static AndroidCacheGetStatisticsResponse fromMap(Map<dynamic, dynamic> map) =>
+      AndroidCacheGetStatisticsResponse(
+        hitCount: map['hitCount'] as int? ?? 0,
+        missCount: map['missCount'] as int? ?? 0,
+        cachedBytesRead: map['cachedBytesRead'] as int? ?? 0,
+        networkBytesRead: map['networkBytesRead'] as int? ?? 0,
+        cacheSpace: map['cacheSpace'] as int? ?? 0,
+        cacheDirectory: map['cacheDirectory'] as String?,
+      );
+}
+
+/// Information communicated to the platform implementation when getting the
+/// statistics of the pool of idle Android players.
+class AndroidPlayerPoolGetStatisticsRequest {
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{};
+}
+
+/// Information returned by the platform implementation after getting the
+/// statistics of the pool of idle Android players.
+class AndroidPlayerPoolGetStatisticsResponse {
+  final int size;
+  final int maxSize;
+  final int hitCount;
+  final int missCount;
+  final double hitRate;
+
+  AndroidPlayerPoolGetStatisticsResponse({
+    this.size = 0,
+    this.maxSize = 0,
+    this.hitCount = 0,
+    this.missCount = 0,
+    this.hitRate = 0.0,
+  });
+
+  static AndroidPlayerPoolGetStatisticsResponse fromMap(
+          Map<dynamic, dynamic> map) =>
+      AndroidPlayerPoolGetStatisticsResponse(
+        size: map['size'] as int? ?? 0,
+        maxSize: map['maxSize'] as int? ?? 0,
+        hitCount: map['hitCount'] as int? ?? 0,
+        missCount: map['missCount'] as int? ?? 0,
+        hitRate: (map['hitRate'] as num?)?.toDouble() ?? 0.0,
+      );
+}
+
+/// Information communicated to the platform implementation when setting the
+/// maximum size of the pool of idle Android players.
+class AndroidPlayerPoolSetMaxSizeRequest {
+  final int maxSize;
+
+  AndroidPlayerPoolSetMaxSizeRequest({required this.maxSize});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'maxSize': maxSize,
+      };
+}
+
+/// Information returned by the platform implementation after setting the
+/// maximum size of the pool of idle Android players.
+class AndroidPlayerPoolSetMaxSizeResponse {
+  static AndroidPlayerPoolSetMaxSizeResponse fromMap(
+          Map<dynamic, dynamic> map) =>
+      AndroidPlayerPoolSetMaxSizeResponse();
+}
+
+/// Information communicated to the platform implementation when getting the
+/// statistics of the Android clip cache.
+class AndroidClipCacheGetStatisticsRequest {
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{};
+}
+
+/// Information returned by the platform implementation after getting the
+/// statistics of the Android clip cache.
+class AndroidClipCacheGetStatisticsResponse {
+  final int clipCount;
+  final int residentBytes;
+  final int maxSize;
+  final int hitCount;
+  final int missCount;
+  final double hitRate;
+
+  AndroidClipCacheGetStatisticsResponse({
+    this.clipCount = 0,
+    this.residentBytes = 0,
+    this.maxSize = 0,
+    this.hitCount = 0,
+    this.missCount = 0,
+    this.hitRate = 0.0,
+  });
+
+  static AndroidClipCacheGetStatisticsResponse fromMap(
+          Map<dynamic, dynamic> map) =>
+      AndroidClipCacheGetStatisticsResponse(
+        clipCount: map['clipCount'] as int? ?? 0,
+        residentBytes: map['residentBytes'] as int? ?? 0,
+        maxSize: map['maxSize'] as int? ?? 0,
+        hitCount: map['hitCount'] as int? ?? 0,
+        missCount: map['missCount'] as int? ?? 0,
+        hitRate: (map['hitRate'] as num?)?.toDouble() ?? 0.0,
+      );
+}
+
+/// Information communicated to the platform implementation when clearing the
+/// Android clip cache.
+class AndroidClipCacheClearRequest {
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{};
+}
+
+/// Information returned by the platform implementation after clearing the
+/// Android clip cache.
+class AndroidClipCacheClearResponse {
+  static AndroidClipCacheClearResponse fromMap(Map<dynamic, dynamic> map) =>
+      AndroidClipCacheClearResponse();
+}
+
 /// Information communicated to the platform implementation when loading an
 /// audio source.
 class LoadRequest {
@@ -498,12 +847,20 @@ class LoadRequest {
 class LoadResponse {
   final Duration? duration;
 
-  LoadResponse({required this.duration});
+  /// The time from the load request to each phase of the load, if enabled via
+  /// the "androidLoadTrace" load configuration on Android.
+  final Map<String, Duration>? loadPhases;
+
+  LoadResponse({required this.duration, this.loadPhases});
 
   static LoadResponse fromMap(Map<dynamic, dynamic> map) => LoadResponse(
-      duration: map['duration'] == null || map['duration'] as int < 0
-          ? null
-          : Duration(microseconds: map['duration'] as int));
+        duration: map['duration'] == null || map['duration'] as int < 0
+            ? null
+            : Duration(microseconds: map['duration'] as int),
+        loadPhases: (map['loadPhases'] as Map<dynamic, dynamic>?)?.map(
+            (dynamic phase, dynamic time) => MapEntry(
+                phase as String, Duration(microseconds: time as int))),
+      );
 }
 
 /// Information communicated to the platform implementation when playing an
@@ -752,19 +1109,65 @@ class SetAllowsExternalPlaybackResponse {
 class SeekRequest {
   final Duration? position;
   final int? index;
+  final AndroidSeekParametersMessage? androidSeekParameters;
 
-  SeekRequest({this.position, this.index});
+  SeekRequest({this.position, this.index, this.androidSeekParameters});
 
   Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
         'position': position?.inMicroseconds,
         'index': index,
+        'androidSeekParameters': androidSeekParameters?.toMap(),
       };
 }
 
 /// Information returned by the platform implementation after seeking to a
 /// position and index.
 class SeekResponse {
-  static SeekResponse fromMap(Map<dynamic, dynamic> map) => SeekResponse();
+  /// The time taken for the seek to complete, if measured by the platform.
+  final Duration? seekLatency;
+
+  SeekResponse({this.seekLatency});
+
+  static SeekResponse fromMap(Map<dynamic, dynamic> map) => SeekResponse(
+        seekLatency: map['seekLatency'] != null
+            ? Duration(microseconds: map['seekLatency'] as int)
+            : null,
+      );
+}
+
+/// How a seek on Android may snap to a nearby sync point in exchange for a
+/// faster seek.
+class AndroidSeekParametersMessage {
+  final AndroidSeekModeMessage mode;
+
+  /// For [AndroidSeekModeMessage.tolerance], how far before the requested
+  /// position the seek may land.
+  final Duration? toleranceBefore;
+
+  /// For [AndroidSeekModeMessage.tolerance], how far after the requested
+  /// position the seek may land.
+  final Duration? toleranceAfter;
+
+  AndroidSeekParametersMessage({
+    required this.mode,
+    this.toleranceBefore,
+    this.toleranceAfter,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'mode': mode.index,
+        'toleranceBefore': toleranceBefore?.inMicroseconds,
+        'toleranceAfter': toleranceAfter?.inMicroseconds,
+      };
+}
+
+/// The seek modes supported on Android.
+enum AndroidSeekModeMessage {
+  exact,
+  closestSync,
+  previousSync,
+  nextSync,
+  tolerance,
 }
 
 /// Information communicated to the platform implementation when setting the
@@ -895,17 +1298,117 @@ class ConcatenatingMoveResponse {
       ConcatenatingMoveResponse();
 }
 
+/// One edit within a [ConcatenatingApplyOpsRequest]. Exactly one of
+/// [insertAll], [removeRange] and [move] is set.
+class ConcatenatingOpMessage {
+  final ConcatenatingInsertAllRequest? insertAll;
+  final ConcatenatingRemoveRangeRequest? removeRange;
+  final ConcatenatingMoveRequest? move;
+
+  ConcatenatingOpMessage.insertAll(ConcatenatingInsertAllRequest this.insertAll)
+      : removeRange = null,
+        move = null;
+
+  ConcatenatingOpMessage.removeRange(
+      ConcatenatingRemoveRangeRequest this.removeRange)
+      : insertAll = null,
+        move = null;
+
+  ConcatenatingOpMessage.move(ConcatenatingMoveRequest this.move)
+      : insertAll = null,
+        removeRange = null;
+
+  Map<dynamic, dynamic> toMap() {
+    if (insertAll != null) {
+      return <dynamic, dynamic>{
+        'method': 'concatenatingInsertAll',
+        ...insertAll!.toMap(),
+      };
+    } else if (removeRange != null) {
+      return <dynamic, dynamic>{
+        'method': 'concatenatingRemoveRange',
+        ...removeRange!.toMap(),
+      };
+    } else {
+      return <dynamic, dynamic>{
+        'method': 'concatenatingMove',
+        ...move!.toMap(),
+      };
+    }
+  }
+}
+
+/// Information communicated to the platform implementation when applying a
+/// batch of edits to concatenating audio sources. The edits are applied in
+/// order, and none are applied if any of them is invalid.
+class ConcatenatingApplyOpsRequest {
+  final List<ConcatenatingOpMessage> ops;
+
+  ConcatenatingApplyOpsRequest({required this.ops});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'ops': ops.map((op) => op.toMap()).toList(),
+      };
+}
+
+/// Information returned by the platform implementation after applying a batch
+/// of edits to concatenating audio sources.
+class ConcatenatingApplyOpsResponse {
+  static ConcatenatingApplyOpsResponse fromMap(Map<dynamic, dynamic> map) =>
+      ConcatenatingApplyOpsResponse();
+}
+
 /// Information communicated to the platform implementation when setting the
 /// audio load configuration options.
 class AudioLoadConfigurationMessage {
   final DarwinLoadControlMessage? darwinLoadControl;
   final AndroidLoadControlMessage? androidLoadControl;
   final AndroidLivePlaybackSpeedControlMessage? androidLivePlaybackSpeedControl;
+  final AndroidCacheMessage? androidCache;
+  final AndroidPlaybackEventPipelineMessage? androidPlaybackEventPipeline;
+  final AndroidBufferWatcherMessage? androidBufferWatcher;
+  final AndroidPlaybackThreadMessage? androidPlaybackThread;
+  final AndroidPlayerPoolMessage? androidPlayerPool;
+  final AndroidSoundPoolMessage? androidSoundPool;
+  final AndroidIncrementalLoadMessage? androidIncrementalLoad;
+  final AndroidMediaSourceCacheMessage? androidMediaSourceCache;
+  final AndroidHttpMessage? androidHttp;
+  final AndroidMetricsMessage? androidMetrics;
+  final AndroidSeekParametersMessage? androidSeekParameters;
+  final AndroidSeekIndexMessage? androidSeekIndex;
+  final AndroidAsyncLoadMessage? androidAsyncLoad;
+  final AndroidPreloadMessage? androidPreload;
+  final AndroidCrossfadeMessage? androidCrossfade;
+  final AndroidLoudnessNormalizationMessage? androidLoudnessNormalization;
+  final AndroidVisualizerMessage? androidVisualizer;
+  final AndroidMappedFilesMessage? androidMappedFiles;
+  final AndroidClipCacheMessage? androidClipCache;
+  final AndroidLoadTraceMessage? androidLoadTrace;
 
   const AudioLoadConfigurationMessage({
     required this.darwinLoadControl,
     required this.androidLoadControl,
     required this.androidLivePlaybackSpeedControl,
+    this.androidCache,
+    this.androidPlaybackEventPipeline,
+    this.androidBufferWatcher,
+    this.androidPlaybackThread,
+    this.androidPlayerPool,
+    this.androidSoundPool,
+    this.androidIncrementalLoad,
+    this.androidMediaSourceCache,
+    this.androidHttp,
+    this.androidMetrics,
+    this.androidSeekParameters,
+    this.androidSeekIndex,
+    this.androidAsyncLoad,
+    this.androidPreload,
+    this.androidCrossfade,
+    this.androidLoudnessNormalization,
+    this.androidVisualizer,
+    this.androidMappedFiles,
+    this.androidClipCache,
+    this.androidLoadTrace,
   });
 
   Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
@@ -913,6 +1416,26 @@ class AudioLoadConfigurationMessage {
         'androidLoadControl': androidLoadControl?.toMap(),
         'androidLivePlaybackSpeedControl':
             androidLivePlaybackSpeedControl?.toMap(),
+        'androidCache': androidCache?.toMap(),
+        'androidPlaybackEventPipeline': androidPlaybackEventPipeline?.toMap(),
+        'androidBufferWatcher': androidBufferWatcher?.toMap(),
+        'androidPlaybackThread': androidPlaybackThread?.name,
+        'androidPlayerPool': androidPlayerPool?.toMap(),
+        'androidSoundPool': androidSoundPool?.toMap(),
+        'androidIncrementalLoad': androidIncrementalLoad?.toMap(),
+        'androidMediaSourceCache': androidMediaSourceCache?.toMap(),
+        'androidHttp': androidHttp?.toMap(),
+        'androidMetrics': androidMetrics?.toMap(),
+        'androidSeekParameters': androidSeekParameters?.toMap(),
+        'androidSeekIndex': androidSeekIndex?.toMap(),
+        'androidAsyncLoad': androidAsyncLoad?.toMap(),
+        'androidPreload': androidPreload?.toMap(),
+        'androidCrossfade': androidCrossfade?.toMap(),
+        'androidLoudnessNormalization': androidLoudnessNormalization?.toMap(),
+        'androidVisualizer': androidVisualizer?.toMap(),
+        'androidMappedFiles': androidMappedFiles?.toMap(),
+        'androidClipCache': androidClipCache?.toMap(),
+        'androidLoadTrace': androidLoadTrace?.toMap(),
       };
 }
 
@@ -1055,6 +1578,317 @@ class AndroidLivePlaybackSpeedControlMessage {
       };
 }
 
+class AndroidCacheMessage {
+  /// (Android) The maximum size of the cache in bytes.
+  final int? maxCacheSize;
+
+  /// (Android) The directory of the cache.
+  final String? cacheDirectory;
+
+  const AndroidCacheMessage({this.maxCacheSize, this.cacheDirectory});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'maxCacheSize': maxCacheSize,
+        'cacheDirectory': cacheDirectory,
+      };
+}
+
+class AndroidPlaybackEventPipelineMessage {
+  /// (Android) The maximum number of non-urgent playback events to send per
+  /// second, or `null` to send every event.
+  final double? maxEventRate;
+
+  /// (Android) Whether to send only the fields that changed since the last
+  /// event.
+  final bool deltaEncoding;
+
+  const AndroidPlaybackEventPipelineMessage({
+    this.maxEventRate,
+    this.deltaEncoding = false,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'maxEventRate': maxEventRate,
+        'deltaEncoding': deltaEncoding,
+      };
+}
+
+class AndroidBufferWatcherMessage {
+  /// (Android) The minimum change in the buffered position to report while
+  /// loading.
+  final Duration granularity;
+
+  /// (Android) How often to poll the buffered position while loading, between
+  /// load events.
+  final Duration fallbackInterval;
+
+  const AndroidBufferWatcherMessage({
+    required this.granularity,
+    required this.fallbackInterval,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'granularity': granularity.inMicroseconds,
+        'fallbackInterval': fallbackInterval.inMicroseconds,
+      };
+}
+
+/// The threads an Android player can run on.
+enum AndroidPlaybackThreadMessage { main, dedicated, shared }
+
+class AndroidPlayerPoolMessage {
+  const AndroidPlayerPoolMessage();
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{};
+}
+
+class AndroidSoundPoolMessage {
+  /// (Android) The maximum number of voices that can play at once.
+  final int maxStreams;
+
+  const AndroidSoundPoolMessage({required this.maxStreams});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'maxStreams': maxStreams,
+      };
+}
+
+class AndroidIncrementalLoadMessage {
+  /// (Android) The number of items around the initial index to load first.
+  final int windowSize;
+
+  /// (Android) The number of remaining items to add per step.
+  final int batchSize;
+
+  const AndroidIncrementalLoadMessage({
+    required this.windowSize,
+    required this.batchSize,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'windowSize': windowSize,
+        'batchSize': batchSize,
+      };
+}
+
+class AndroidMediaSourceCacheMessage {
+  /// (Android) The maximum number of detached media sources to keep.
+  final int maxDetachedSize;
+
+  const AndroidMediaSourceCacheMessage({required this.maxDetachedSize});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'maxDetachedSize': maxDetachedSize,
+      };
+}
+
+class AndroidHttpMessage {
+  /// (Android) The HTTP backend, either "default" or "okhttp".
+  final String backend;
+  final Duration? connectTimeout;
+  final Duration? readTimeout;
+  final int? maxIdleConnections;
+  final Duration? keepAliveDuration;
+  final bool http2;
+  final Duration? dnsCacheDuration;
+
+  const AndroidHttpMessage({
+    required this.backend,
+    this.connectTimeout,
+    this.readTimeout,
+    this.maxIdleConnections,
+    this.keepAliveDuration,
+    this.http2 = true,
+    this.dnsCacheDuration,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'backend': backend,
+        'connectTimeout': connectTimeout?.inMicroseconds,
+        'readTimeout': readTimeout?.inMicroseconds,
+        'maxIdleConnections': maxIdleConnections,
+        'keepAliveDuration': keepAliveDuration?.inMicroseconds,
+        'http2': http2,
+        'dnsCacheDuration': dnsCacheDuration?.inMicroseconds,
+      };
+}
+
+class AndroidMetricsMessage {
+  /// (Android) The reporting interval.
+  final Duration interval;
+
+  const AndroidMetricsMessage({required this.interval});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'interval': interval.inMicroseconds,
+      };
+}
+
+class AndroidSeekIndexMessage {
+  /// (Android) The spacing of the index points.
+  final Duration interval;
+
+  const AndroidSeekIndexMessage({required this.interval});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'interval': interval.inMicroseconds,
+      };
+}
+
+class AndroidAsyncLoadMessage {
+  /// (Android) The number of chunks to decode audio sources in.
+  final int parallelism;
+
+  const AndroidAsyncLoadMessage({required this.parallelism});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'parallelism': parallelism,
+      };
+}
+
+class AndroidPreloadMessage {
+  /// (Android) How long before the end of the current item to prefetch the
+  /// next one.
+  final Duration lookahead;
+
+  /// (Android) The sample rate to resample all audio to, if any.
+  final int? outputSampleRate;
+
+  const AndroidPreloadMessage({
+    required this.lookahead,
+    this.outputSampleRate,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'lookahead': lookahead.inMicroseconds,
+        'outputSampleRate': outputSampleRate,
+      };
+}
+
+class AndroidCrossfadeMessage {
+  /// (Android) The length of the overlap between items.
+  final Duration duration;
+
+  /// (Android) The fade curve, either "linear" or "equalPower".
+  final String curve;
+
+  const AndroidCrossfadeMessage({
+    required this.duration,
+    required this.curve,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'duration': duration.inMicroseconds,
+        'curve': curve,
+      };
+}
+
+class AndroidLoudnessNormalizationMessage {
+  /// (Android) The target loudness in LUFS.
+  final double targetLoudness;
+
+  /// (Android) Whether to prefer album gain over track gain.
+  final bool album;
+
+  /// (Android) Whether to measure untagged tracks in the background.
+  final bool analyze;
+
+  /// (Android) The largest gain to apply in decibels.
+  final double maxGain;
+
+  /// (Android) Whether to limit the gain by the tagged peak.
+  final bool preventClipping;
+
+  const AndroidLoudnessNormalizationMessage({
+    required this.targetLoudness,
+    required this.album,
+    required this.analyze,
+    required this.maxGain,
+    required this.preventClipping,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'targetLoudness': targetLoudness,
+        'album': album,
+        'analyze': analyze,
+        'maxGain': maxGain,
+        'preventClipping': preventClipping,
+      };
+}
+
+class AndroidVisualizerMessage {
+  /// (Android) Captures per second.
+  final int captureRate;
+
+  /// (Android) The window size in samples, a power of 2.
+  final int fftSize;
+
+  /// (Android) The number of logarithmically spaced spectrum bands.
+  final int bandCount;
+
+  /// (Android) Whether to send the waveform.
+  final bool waveform;
+
+  /// (Android) Whether to send the spectrum.
+  final bool spectrum;
+
+  const AndroidVisualizerMessage({
+    required this.captureRate,
+    required this.fftSize,
+    required this.bandCount,
+    required this.waveform,
+    required this.spectrum,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'captureRate': captureRate,
+        'fftSize': fftSize,
+        'bandCount': bandCount,
+        'waveform': waveform,
+        'spectrum': spectrum,
+      };
+}
+
+class AndroidMappedFilesMessage {
+  /// (Android) The largest file to map in bytes.
+  final int maxFileSize;
+
+  const AndroidMappedFilesMessage({required this.maxFileSize});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'maxFileSize': maxFileSize,
+      };
+}
+
+class AndroidClipCacheMessage {
+  /// (Android) The total size of cached clips in bytes.
+  final int maxSize;
+
+  /// (Android) The largest clip to cache in bytes.
+  final int maxClipSize;
+
+  const AndroidClipCacheMessage({
+    required this.maxSize,
+    required this.maxClipSize,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'maxSize': maxSize,
+        'maxClipSize': maxClipSize,
+      };
+}
+
+class AndroidLoadTraceMessage {
+  /// (Android) Whether to also emit system trace sections.
+  final bool systemTrace;
+
+  const AndroidLoadTraceMessage({required this.systemTrace});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'systemTrace': systemTrace,
+      };
+}
+
 /// Progressive audio source options to be communicated with the platform
 /// implementation.
 class ProgressiveAudioSourceOptionsMessage {
@@ -1092,11 +1926,13 @@ class AndroidExtractorOptionsMessage {
   final bool constantBitrateSeekingEnabled;
   final bool constantBitrateSeekingAlwaysEnabled;
   final int mp3Flags;
+  final AndroidExtractorContainerMessage container;
 
   const AndroidExtractorOptionsMessage({
     required this.constantBitrateSeekingEnabled,
     required this.constantBitrateSeekingAlwaysEnabled,
     required this.mp3Flags,
+    this.container = AndroidExtractorContainerMessage.sniff,
   });
 
   Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
@@ -1104,9 +1940,24 @@ class AndroidExtractorOptionsMessage {
         'constantBitrateSeekingAlwaysEnabled':
             constantBitrateSeekingAlwaysEnabled,
         'mp3Flags': mp3Flags,
+        'container': container == AndroidExtractorContainerMessage.sniff
+            ? null
+            : container.name,
       };
 }
 
+/// How the container format of a progressive source is determined on Android.
+enum AndroidExtractorContainerMessage {
+  sniff,
+  auto,
+  mp3,
+  m4a,
+  ogg,
+  flac,
+  wav,
+  adts,
+}
+
 /// Information about an audio source to be communicated with the platform
 /// implementation.
 abstract class AudioSourceMessage {
@@ -1219,6 +2070,66 @@ class SilenceAudioSourceMessage extends IndexedAudioSourceMessage {
       };
 }
 
+/// Information about a stream audio source to be communicated with the
+/// platform implementation. The platform reads its bytes through the
+/// [StreamAudioSourceReader] set on the player.
+class StreamAudioSourceMessage extends IndexedAudioSourceMessage {
+  final ProgressiveAudioSourceOptionsMessage? options;
+
+  StreamAudioSourceMessage({
+    required super.id,
+    super.tag,
+    this.options,
+  });
+
+  @override
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'type': 'stream',
+        'id': id,
+        'options': options?.toMap(),
+      };
+}
+
+/// Serves the bytes of stream audio sources to the platform implementation.
+abstract class StreamAudioSourceReader {
+  /// Opens the source with ID [sourceId] from byte [start] inclusive to [end]
+  /// exclusive (or the end of the source if `null`).
+  Future<StreamAudioSourceOpenResponse> open(
+      String sourceId, int start, int? end);
+
+  /// Reads up to [length] bytes from an opened source, waiting until at least
+  /// one byte is available. Returns `null` at the end of the source.
+  Future<Uint8List?> read(int handle, int length);
+
+  /// Closes an opened source.
+  Future<void> close(int handle);
+}
+
+/// The result of opening a stream audio source.
+class StreamAudioSourceOpenResponse {
+  /// Identifies the opened source in subsequent reads.
+  final int handle;
+
+  /// The byte offset of the first byte that will be read, which may be 0 if
+  /// the source does not support range requests.
+  final int? offset;
+
+  /// The number of bytes that will be read, if known.
+  final int? contentLength;
+
+  StreamAudioSourceOpenResponse({
+    required this.handle,
+    required this.offset,
+    required this.contentLength,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'handle': handle,
+        'offset': offset,
+        'contentLength': contentLength,
+      };
+}
+
 /// Information about a concatenating audio source to be communicated with the
 /// platform implementation.
 class ConcatenatingAudioSourceMessage extends AudioSourceMessage {
@@ -1506,6 +2417,287 @@ class AndroidEqualizerMessage extends AudioEffectMessage {
       };
 }
 
+/// Information communicated to the platform implementation when updating the
+/// parameters of a software audio effect.
+class AndroidAudioEffectSetParametersRequest {
+  final String type;
+  final Map<dynamic, dynamic> parameters;
+
+  AndroidAudioEffectSetParametersRequest({
+    required this.type,
+    required this.parameters,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'type': type,
+        'parameters': parameters,
+      };
+}
+
+/// Information returned by the platform implementation after updating the
+/// parameters of a software audio effect.
+class AndroidAudioEffectSetParametersResponse {
+  static AndroidAudioEffectSetParametersResponse fromMap(
+          Map<dynamic, dynamic> map) =>
+      AndroidAudioEffectSetParametersResponse();
+}
+
+/// Information communicated to the platform implementation when prefetching
+/// upcoming items.
+class PrefetchRequest {
+  final int count;
+  final int? maxBytes;
+  final Duration? duration;
+
+  PrefetchRequest({this.count = 1, this.maxBytes, this.duration});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'count': count,
+        'maxBytes': maxBytes,
+        'duration': duration?.inMicroseconds,
+      };
+}
+
+/// Information returned by the platform implementation after prefetching
+/// upcoming items.
+class PrefetchResponse {
+  /// The ids of the audio sources that were scheduled.
+  final List<String> ids;
+
+  PrefetchResponse({this.ids = const []});
+
+  static PrefetchResponse fromMap(Map<dynamic, dynamic> map) =>
+      PrefetchResponse(
+        ids: (map['ids'] as List<dynamic>?)?.cast<String>() ?? const [],
+      );
+}
+
+/// Information communicated to the platform implementation when playing an
+/// additional voice of a SoundPool clip.
+class AndroidSoundPoolPlayRequest {
+  final int? index;
+  final double? volume;
+  final double? rate;
+
+  AndroidSoundPoolPlayRequest({this.index, this.volume, this.rate});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'index': index,
+        'volume': volume,
+        'rate': rate,
+      };
+}
+
+/// Information returned by the platform implementation after playing an
+/// additional voice of a SoundPool clip.
+class AndroidSoundPoolPlayResponse {
+  /// The id of the voice, or 0 if it could not be started.
+  final int voiceId;
+
+  AndroidSoundPoolPlayResponse({required this.voiceId});
+
+  static AndroidSoundPoolPlayResponse fromMap(Map<dynamic, dynamic> map) =>
+      AndroidSoundPoolPlayResponse(voiceId: map['voiceId'] as int);
+}
+
+/// Information communicated to the platform implementation when stopping a
+/// SoundPool voice.
+class AndroidSoundPoolStopRequest {
+  final int voiceId;
+
+  AndroidSoundPoolStopRequest({required this.voiceId});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'voiceId': voiceId,
+      };
+}
+
+/// Information returned by the platform implementation after stopping a
+/// SoundPool voice.
+class AndroidSoundPoolStopResponse {
+  static AndroidSoundPoolStopResponse fromMap(Map<dynamic, dynamic> map) =>
+      AndroidSoundPoolStopResponse();
+}
+
+/// Information communicated to the platform implementation when setting the
+/// volume of a SoundPool voice.
+class AndroidSoundPoolSetVolumeRequest {
+  final int voiceId;
+  final double volume;
+
+  AndroidSoundPoolSetVolumeRequest({
+    required this.voiceId,
+    required this.volume,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'voiceId': voiceId,
+        'volume': volume,
+      };
+}
+
+/// Information returned by the platform implementation after setting the
+/// volume of a SoundPool voice.
+class AndroidSoundPoolSetVolumeResponse {
+  static AndroidSoundPoolSetVolumeResponse fromMap(
+          Map<dynamic, dynamic> map) =>
+      AndroidSoundPoolSetVolumeResponse();
+}
+
+/// Information communicated to the platform implementation when getting the
+/// number of media sources held by an Android player.
+class AndroidMediaSourceCacheGetSizeRequest {
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{};
+}
+
+/// Information returned by the platform implementation after getting the
+/// number of media sources held by an Android player.
+class AndroidMediaSourceCacheGetSizeResponse {
+  final int size;
+  final int detachedSize;
+
+  AndroidMediaSourceCacheGetSizeResponse({
+    this.size = 0,
+    this.detachedSize = 0,
+  });
+
+  static AndroidMediaSourceCacheGetSizeResponse fromMap(
+          Map<dynamic, dynamic> map) =>
+      AndroidMediaSourceCacheGetSizeResponse(
+        size: map['size'] as int? ?? 0,
+        detachedSize: map['detachedSize'] as int? ?? 0,
+      );
+}
+
+/// Information about a software gain stage to be communicated with the
+/// platform implementation.
+class AndroidGainMessage extends AudioEffectMessage {
+  /// The gain in decibels.
+  final double gain;
+
+  AndroidGainMessage({
+    required super.enabled,
+    required this.gain,
+  });
+
+  @override
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'type': 'AndroidGain',
+        'enabled': enabled,
+        'parameters': parametersToMap(),
+      };
+
+  Map<dynamic, dynamic> parametersToMap() => <dynamic, dynamic>{
+        'gain': gain,
+      };
+}
+
+/// The filter type of a parametric equalizer band.
+enum AndroidParametricEqualizerBandTypeMessage {
+  peaking,
+  lowShelf,
+  highShelf,
+  lowPass,
+  highPass,
+}
+
+/// Information about a parametric equalizer band to be communicated with the
+/// platform implementation.
+class AndroidParametricEqualizerBandMessage {
+  final AndroidParametricEqualizerBandTypeMessage type;
+
+  /// The center or corner frequency in hertz.
+  final double frequency;
+
+  /// The gain in decibels.
+  final double gain;
+
+  /// The quality factor.
+  final double q;
+
+  AndroidParametricEqualizerBandMessage({
+    required this.type,
+    required this.frequency,
+    required this.gain,
+    required this.q,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'type': type.name,
+        'frequency': frequency,
+        'gain': gain,
+        'q': q,
+      };
+}
+
+/// Information about a software parametric equalizer to be communicated with
+/// the platform implementation.
+class AndroidParametricEqualizerMessage extends AudioEffectMessage {
+  final List<AndroidParametricEqualizerBandMessage> bands;
+
+  AndroidParametricEqualizerMessage({
+    required super.enabled,
+    required this.bands,
+  });
+
+  @override
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'type': 'AndroidParametricEqualizer',
+        'enabled': enabled,
+        'parameters': parametersToMap(),
+      };
+
+  Map<dynamic, dynamic> parametersToMap() => <dynamic, dynamic>{
+        'bands': bands.map((band) => band.toMap()).toList(),
+      };
+}
+
+/// Information about a software compressor or limiter to be communicated with
+/// the platform implementation.
+class AndroidCompressorMessage extends AudioEffectMessage {
+  /// Whether to limit rather than compress, ignoring [ratio].
+  final bool limiter;
+
+  /// The threshold in dBFS.
+  final double threshold;
+  final double ratio;
+
+  /// The width of the soft knee in decibels.
+  final double knee;
+  final Duration attack;
+  final Duration release;
+
+  /// The gain applied after compression in decibels.
+  final double makeupGain;
+
+  AndroidCompressorMessage({
+    required super.enabled,
+    required this.limiter,
+    required this.threshold,
+    required this.ratio,
+    required this.knee,
+    required this.attack,
+    required this.release,
+    required this.makeupGain,
+  });
+
+  @override
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'type': limiter ? 'AndroidLimiter' : 'AndroidCompressor',
+        'enabled': enabled,
+        'parameters': parametersToMap(),
+      };
+
+  Map<dynamic, dynamic> parametersToMap() => <dynamic, dynamic>{
+        'threshold': threshold,
+        'ratio': ratio,
+        'knee': knee,
+        'attack': attack.inMicroseconds,
+        'release': release.inMicroseconds,
+        'makeupGain': makeupGain,
+      };
+}
+
 class SetWebCrossOriginRequest {
   final WebCrossOriginMessage? crossOrigin;
 
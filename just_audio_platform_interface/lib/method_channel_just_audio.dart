@@ -29,6 +29,46 @@ class MethodChannelJustAudio extends JustAudioPlatform {
         (await _mainChannel.invokeMethod<Map<dynamic, dynamic>>(
             'disposeAllPlayers', request.toMap()))!);
   }
+
+  @override
+  Future<AndroidCacheGetStatisticsResponse> androidCacheGetStatistics(
+      AndroidCacheGetStatisticsRequest request) async {
+    return AndroidCacheGetStatisticsResponse.fromMap(
+        (await _mainChannel.invokeMethod<Map<dynamic, dynamic>>(
+            'androidCacheGetStatistics', request.toMap()))!);
+  }
+
+  @override
+  Future<AndroidPlayerPoolGetStatisticsResponse> androidPlayerPoolGetStatistics(
+      AndroidPlayerPoolGetStatisticsRequest request) async {
+    return AndroidPlayerPoolGetStatisticsResponse.fromMap(
+        (await _mainChannel.invokeMethod<Map<dynamic, dynamic>>(
+            'androidPlayerPoolGetStatistics', request.toMap()))!);
+  }
+
+  @override
+  Future<AndroidPlayerPoolSetMaxSizeResponse> androidPlayerPoolSetMaxSize(
+      AndroidPlayerPoolSetMaxSizeRequest request) async {
+    return AndroidPlayerPoolSetMaxSizeResponse.fromMap(
+        (await _mainChannel.invokeMethod<Map<dynamic, dynamic>>(
+            'androidPlayerPoolSetMaxSize', request.toMap()))!);
+  }
+
+  @override
+  Future<AndroidClipCacheGetStatisticsResponse> androidClipCacheGetStatistics(
+      AndroidClipCacheGetStatisticsRequest request) async {
+    return AndroidClipCacheGetStatisticsResponse.fromMap(
+        (await _mainChannel.invokeMethod<Map<dynamic, dynamic>>(
+            'androidClipCacheGetStatistics', request.toMap()))!);
+  }
+
+  @override
+  Future<AndroidClipCacheClearResponse> androidClipCacheClear(
+      AndroidClipCacheClearRequest request) async {
+    return AndroidClipCacheClearResponse.fromMap(
+        (await _mainChannel.invokeMethod<Map<dynamic, dynamic>>(
+            'androidClipCacheClear', request.toMap()))!);
+  }
 }
 
 /// An implementation of [AudioPlayerPlatform] that uses method channels.
@@ -40,11 +80,46 @@ class MethodChannelAudioPlayer extends AudioPlayerPlatform {
         super(id);
 
   @override
-  Stream<PlaybackEventMessage> get playbackEventMessageStream =>
-      EventChannel('com.ryanheise.just_audio.events.$id')
-          .receiveBroadcastStream()
-          .cast<Map<dynamic, dynamic>>()
-          .map((map) => PlaybackEventMessage.fromMap(map));
+  void setStreamAudioSourceReader(StreamAudioSourceReader? reader) {
+    if (reader == null) {
+      _channel.setMethodCallHandler(null);
+      return;
+    }
+    _channel.setMethodCallHandler((call) async {
+      final args = call.arguments as Map<dynamic, dynamic>;
+      switch (call.method) {
+        case 'streamOpen':
+          return (await reader.open(args['sourceId'] as String,
+                  args['start'] as int, args['end'] as int?))
+              .toMap();
+        case 'streamRead':
+          return await reader.read(args['handle'] as int, args['length'] as int);
+        case 'streamClose':
+          await reader.close(args['handle'] as int);
+          return null;
+        default:
+          throw MissingPluginException();
+      }
+    });
+  }
+
+  @override
+  Stream<PlaybackEventMessage> get playbackEventMessageStream {
+    Map<dynamic, dynamic>? lastMap;
+    return EventChannel('com.ryanheise.just_audio.events.$id')
+        .receiveBroadcastStream()
+        .cast<Map<dynamic, dynamic>>()
+        // A delta event only carries the fields that changed since the last
+        // event, so it can't be decoded until a full event has arrived.
+        .where((map) => map['delta'] != true || lastMap != null)
+        .map((map) {
+      if (map['delta'] == true) {
+        map = <dynamic, dynamic>{...lastMap!, ...map};
+      }
+      lastMap = map;
+      return PlaybackEventMessage.fromMap(map);
+    });
+  }
 
   @override
   Stream<PlayerDataMessage> get playerDataMessageStream =>
@@ -231,4 +306,59 @@ class MethodChannelAudioPlayer extends AudioPlayerPlatform {
         (await _channel.invokeMethod<Map<dynamic, dynamic>>(
             'androidEqualizerBandSetGain', request.toMap()))!);
   }
+
+  @override
+  Future<AndroidAudioEffectSetParametersResponse>
+      androidAudioEffectSetParameters(
+          AndroidAudioEffectSetParametersRequest request) async {
+    return AndroidAudioEffectSetParametersResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'androidAudioEffectSetParameters', request.toMap()))!);
+  }
+
+  @override
+  Future<PrefetchResponse> prefetch(PrefetchRequest request) async {
+    return PrefetchResponse.fromMap((await _channel
+        .invokeMethod<Map<dynamic, dynamic>>('prefetch', request.toMap()))!);
+  }
+
+  @override
+  Future<AndroidSoundPoolPlayResponse> androidSoundPoolPlay(
+      AndroidSoundPoolPlayRequest request) async {
+    return AndroidSoundPoolPlayResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'androidSoundPoolPlay', request.toMap()))!);
+  }
+
+  @override
+  Future<AndroidSoundPoolStopResponse> androidSoundPoolStop(
+      AndroidSoundPoolStopRequest request) async {
+    return AndroidSoundPoolStopResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'androidSoundPoolStop', request.toMap()))!);
+  }
+
+  @override
+  Future<AndroidSoundPoolSetVolumeResponse> androidSoundPoolSetVolume(
+      AndroidSoundPoolSetVolumeRequest request) async {
+    return AndroidSoundPoolSetVolumeResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'androidSoundPoolSetVolume', request.toMap()))!);
+  }
+
+  @override
+  Future<ConcatenatingApplyOpsResponse> concatenatingApplyOps(
+      ConcatenatingApplyOpsRequest request) async {
+    return ConcatenatingApplyOpsResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'concatenatingApplyOps', request.toMap()))!);
+  }
+
+  @override
+  Future<AndroidMediaSourceCacheGetSizeResponse> androidMediaSourceCacheGetSize(
+      AndroidMediaSourceCacheGetSizeRequest request) async {
+    return AndroidMediaSourceCacheGetSizeResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'androidMediaSourceCacheGetSize', request.toMap()))!);
+  }
 }